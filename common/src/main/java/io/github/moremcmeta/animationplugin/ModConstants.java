@@ -17,13 +17,31 @@
 
 package io.github.moremcmeta.animationplugin;
 
+import com.mojang.logging.LogUtils;
+import io.github.moremcmeta.animationplugin.animate.AnimationComponent;
+import io.github.moremcmeta.animationplugin.animate.ComponentReuseCache;
+import io.github.moremcmeta.animationplugin.animate.QualityGovernor;
+import io.github.moremcmeta.animationplugin.animate.WorldTimeSource;
 import io.github.moremcmeta.animationplugin.metadata.AnimationComponentBuilder;
 import io.github.moremcmeta.animationplugin.metadata.AnimationMetadataAnalyzer;
+import io.github.moremcmeta.animationplugin.metadata.BuildSettings;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
+import io.github.moremcmeta.animationplugin.trace.RecordingComponentBuilder;
+import io.github.moremcmeta.animationplugin.trace.TickTraceWriter;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataAnalyzer;
 import io.github.moremcmeta.moremcmeta.api.client.texture.ComponentBuilder;
 import net.minecraft.client.Minecraft;
+import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * Constants for both Fabric and Forge implementations of the plugin.
@@ -32,8 +50,184 @@ import java.util.Optional;
 public final class ModConstants {
     public static final String MOD_ID = "moremcmeta_animation_plugin";
     public static final String SECTION_NAME = "animation";
-    public static final MetadataAnalyzer ANALYZER = new AnimationMetadataAnalyzer();
-    public static final ComponentBuilder COMPONENT_BUILDER = new AnimationComponentBuilder(
+    public static final String TRACE_FILE_PROPERTY = "moremcmeta.animationplugin.traceFile";
+    public static final String ASYNC_BUILD_PROPERTY = "moremcmeta.animationplugin.asyncComponentBuild";
+    public static final String TICK_BUDGET_PROPERTY = "moremcmeta.animationplugin.tickBudgetMicros";
+    public static final String SKIP_UNCHANGED_STEPS_PROPERTY = "moremcmeta.animationplugin.skipUnchangedSteps";
+    public static final String BLEND_TABLES_PROPERTY = "moremcmeta.animationplugin.blendTables";
+    public static final String PLAN_STRATEGIES_PROPERTY = "moremcmeta.animationplugin.planStrategies";
+    public static final String PRECOMPUTE_BUDGET_PROPERTY = "moremcmeta.animationplugin.precomputeBudgetBytes";
+    public static final String INTERLEAVE_FACTOR_PROPERTY = "moremcmeta.animationplugin.interleaveFactor";
+    public static final String INTERLEAVE_PATTERN_PROPERTY = "moremcmeta.animationplugin.interleavePattern";
+    public static final String INTERLEAVE_OVER_PIXELS_PROPERTY = "moremcmeta.animationplugin.interleaveOverPixels";
+    public static final String RESOLUTION_SCALE_PROPERTY = "moremcmeta.animationplugin.interpolationScale";
+    public static final String RESOLUTION_SCALE_WIDTH_PROPERTY =
+            "moremcmeta.animationplugin.interpolationScaleFromWidth";
+    public static final String SCHEDULE_COMPONENTS_PROPERTY = "moremcmeta.animationplugin.scheduleComponents";
+    public static final String COMPRESS_FRAMES_PROPERTY = "moremcmeta.animationplugin.compressFramesOverBytes";
+    public static final String STREAM_TEXTURES_PROPERTY = "moremcmeta.animationplugin.streamPartTextures";
+    public static final String MEMO_ENTRIES_PROPERTY = "moremcmeta.animationplugin.analysisMemoEntries";
+    public static final String READ_IN_PLACE_PROPERTY = "moremcmeta.animationplugin.readPartsInPlaceOverBytes";
+    public static final MemoryTracker MEMORY_TRACKER = new MemoryTracker();
+    private static final AnimationMetadataAnalyzer METADATA_ANALYZER = makeMetadataAnalyzer();
+    private static final ComponentReuseCache REUSE_CACHE = new ComponentReuseCache();
+    private static final AtomicBoolean BUILDING = new AtomicBoolean();
+    public static final MetadataAnalyzer ANALYZER = makeAnalyzer();
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final long DEFAULT_TICK_BUDGET_MICROS = 5000;
+    private static final int DEGRADE_AFTER_TICKS = 20;
+    private static final int RESTORE_AFTER_TICKS = 200;
+    public static final QualityGovernor QUALITY_GOVERNOR = makeQualityGovernor();
+    private static final Supplier<Optional<Long>> TIME_SOURCE = new WorldTimeSource(
             () -> Optional.ofNullable(Minecraft.getInstance().level)
     );
+    public static final ComponentBuilder COMPONENT_BUILDER = makeComponentBuilder();
+
+    static {
+        MEMORY_TRACKER.registerPeriodicEvent(REUSE_CACHE::retiredBytes);
+    }
+
+    /**
+     * Creates the metadata analyzer. Parts whose frames are larger than the size in the compress frames
+     * property are kept compressed, or parts larger than 64 MiB if the property is not set. PNG part
+     * textures are streamed into frames unless the stream textures property is false. Up to the number of
+     * analyses in the memo entries property are remembered, or 1024 if the property is not set. Part
+     * textures larger than the size in the read in place property, or 16 MiB if the property is not set,
+     * stay in native memory and are read there.
+     * @return the metadata analyzer for the plugin
+     */
+    private static AnimationMetadataAnalyzer makeMetadataAnalyzer() {
+        return new AnimationMetadataAnalyzer(
+                MEMORY_TRACKER,
+                Long.getLong(COMPRESS_FRAMES_PROPERTY, 64L * 1024 * 1024),
+                !"false".equalsIgnoreCase(System.getProperty(STREAM_TEXTURES_PROPERTY)),
+                Integer.getInteger(MEMO_ENTRIES_PROPERTY, 1024),
+                Long.getLong(READ_IN_PLACE_PROPERTY, 16L * 1024 * 1024)
+        );
+    }
+
+    /**
+     * Creates the analyzer that the core mod uses. The core mod analyzes a reload's metadata while
+     * preparing the reload and builds textures once it applies the reload, so the first analysis after
+     * textures were built starts a new reload for reused components.
+     * @return the analyzer for the plugin
+     */
+    private static MetadataAnalyzer makeAnalyzer() {
+        return (metadata, imageWidth, imageHeight) -> {
+            if (BUILDING.compareAndSet(true, false)) {
+                REUSE_CACHE.startReload();
+            }
+
+            return METADATA_ANALYZER.analyze(metadata, imageWidth, imageHeight);
+        };
+    }
+
+    /**
+     * Creates the component builder. The first texture built after metadata was analyzed ends the
+     * analyzer's reload. If the trace file property is set, the builder records every tick to that file so that the
+     * session can be replayed outside the game.
+     * @return the component builder for the plugin
+     */
+    private static ComponentBuilder makeComponentBuilder() {
+        AnimationComponentBuilder animationBuilder = new AnimationComponentBuilder(
+                TIME_SOURCE,
+                MEMORY_TRACKER,
+                REUSE_CACHE,
+                makeBuildExecutor(),
+                QUALITY_GOVERNOR,
+                makeBuildSettings()
+        );
+        ComponentBuilder builder = (metadata, baseFrames) -> {
+            if (BUILDING.compareAndSet(false, true)) {
+                METADATA_ANALYZER.endReload();
+            }
+
+            return animationBuilder.build(metadata, baseFrames);
+        };
+
+        String traceFile = System.getProperty(TRACE_FILE_PROPERTY);
+        if (traceFile == null || traceFile.isBlank()) {
+            return builder;
+        }
+
+        try {
+            TickTraceWriter writer = new TickTraceWriter(Files.newOutputStream(Path.of(traceFile)));
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "Animation Tick Trace Writer"));
+            LOGGER.info("Recording animation ticks to {}", traceFile);
+            return new RecordingComponentBuilder(builder, writer, TIME_SOURCE);
+        } catch (IOException | RuntimeException err) {
+            LOGGER.error("Unable to record animation ticks to {}", traceFile, err);
+            return builder;
+        }
+    }
+
+    /**
+     * Creates the governor that lowers the quality of animations when they take longer than the budget in
+     * the tick budget property to tick, or 5 ms if the property is not set. Quality is never lowered if
+     * the budget is zero or negative.
+     * @return the quality governor for the plugin
+     */
+    private static QualityGovernor makeQualityGovernor() {
+        long budgetMicros = Long.getLong(TICK_BUDGET_PROPERTY, DEFAULT_TICK_BUDGET_MICROS);
+        if (budgetMicros <= 0) {
+            LOGGER.info("Animation quality is never lowered because of {}", TICK_BUDGET_PROPERTY);
+            return QualityGovernor.unlimited();
+        }
+
+        return new QualityGovernor(
+                TimeUnit.MICROSECONDS.toNanos(budgetMicros),
+                DEGRADE_AFTER_TICKS,
+                RESTORE_AFTER_TICKS,
+                System::nanoTime
+        );
+    }
+
+    /**
+     * Creates the settings for building animation components from the build properties. Settings whose
+     * property is not set keep their defaults.
+     * @return the settings for building components
+     */
+    private static BuildSettings makeBuildSettings() {
+        BuildSettings.Builder settings = new BuildSettings.Builder()
+                .skipUnchangedSteps(Boolean.parseBoolean(System.getProperty(SKIP_UNCHANGED_STEPS_PROPERTY, "true")))
+                .useBlendTables(Boolean.parseBoolean(System.getProperty(BLEND_TABLES_PROPERTY, "false")))
+                .planStrategies(Boolean.parseBoolean(System.getProperty(PLAN_STRATEGIES_PROPERTY, "true")))
+                .precomputeBudget(Math.max(0, Long.getLong(PRECOMPUTE_BUDGET_PROPERTY, 256 * 1024)))
+                .scheduleComponents(Boolean.parseBoolean(System.getProperty(SCHEDULE_COMPONENTS_PROPERTY, "true")));
+
+        int interleaveFactor = Integer.getInteger(INTERLEAVE_FACTOR_PROPERTY, 1);
+        if (interleaveFactor > 1) {
+            AnimationComponent.Interleave pattern = "rows".equalsIgnoreCase(
+                    System.getProperty(INTERLEAVE_PATTERN_PROPERTY)
+            ) ? AnimationComponent.Interleave.ROWS : AnimationComponent.Interleave.CHECKERBOARD;
+            settings.interleave(pattern, interleaveFactor, Integer.getInteger(INTERLEAVE_OVER_PIXELS_PROPERTY,
+                    256 * 256));
+        }
+
+        int resolutionScale = Integer.getInteger(RESOLUTION_SCALE_PROPERTY, 1);
+        if (resolutionScale > 1) {
+            settings.resolutionScale(resolutionScale, Integer.getInteger(RESOLUTION_SCALE_WIDTH_PROPERTY, 256));
+        }
+
+        return settings.build();
+    }
+
+    /**
+     * Creates the executor that builds animation components. Components are built in the background unless
+     * the async build property is set to false.
+     * @return the executor for building components
+     */
+    private static Executor makeBuildExecutor() {
+        if (!Boolean.parseBoolean(System.getProperty(ASYNC_BUILD_PROPERTY, "true"))) {
+            LOGGER.info("Animation components are built on the client thread because of {}", ASYNC_BUILD_PROPERTY);
+            return Runnable::run;
+        }
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return Executors.newFixedThreadPool(threads, (runnable) -> {
+            Thread thread = new Thread(runnable, "MoreMcmeta Animation Component Builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
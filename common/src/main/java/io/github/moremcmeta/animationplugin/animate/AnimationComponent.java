@@ -20,6 +20,7 @@ package io.github.moremcmeta.animationplugin.animate;
 import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
 import io.github.moremcmeta.moremcmeta.api.math.Area;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.IntUnaryOperator;
@@ -28,29 +29,71 @@ import java.util.function.Supplier;
 import static java.util.Objects.requireNonNull;
 
 /**
- * Manages a single animation in a group of animations.
+ * Manages a single animation in a group of animations. The interpolate area is split into horizontal
+ * runs of pixels when the component is created, so that frames are read and interpolated a run at a
+ * time instead of a pixel at a time. A component is not safe to draw from several threads at once.
+ *
+ * A component may also skip ticks that would not visibly change the current frame. The steps of each
+ * transition between two frames are split into segments that all produce the same colors, and the
+ * frame is only written to when the animation enters a new segment.
+ *
+ * Each component runs with one {@link Strategy}, which decides whether it interpolates on every draw,
+ * reuses steps it has already interpolated, or writes only the pixels that differ from its last draw.
+ *
+ * A component may also be {@link Interleave interleaved}, which splits its area into several subsets and
+ * only updates one subset on each tick while a transition is being interpolated. Every pixel is updated
+ * whenever the animation moves to a new frame, so the frames themselves are never torn.
+ *
+ * High-resolution components may interpolate at a reduced resolution instead. Only the top-left pixel of
+ * each square block of pixels is interpolated, and its color is copied to the rest of the block. Steps
+ * that do not blend with the next frame, such as the first step of each frame, are always drawn at full
+ * resolution.
+ *
+ * A component's {@link Quality} can be lowered while it is running to make it cheaper to tick, by drawing
+ * fewer of the interpolated steps in each transition.
  * @author soir20
  */
 public final class AnimationComponent {
+    private static final int MAX_TRANSITION_VALUE = 1 << 21;
+
     private final AnimationState STATE;
+    private final int FRAMES;
     private final int TICKS_UNTIL_START;
+    private final IntUnaryOperator FRAME_TIME_CALCULATOR;
+    private final IntUnaryOperator FRAME_HOLD_CALCULATOR;
     private final IntUnaryOperator FRAME_INDEX_MAPPER;
-    private final Interpolator INTERPOLATOR;
-    private final Area INTERPOLATE_AREA;
     private final int SYNC_TICKS;
     private final Supplier<Optional<Long>> TIME_GETTER;
-    private final int X_IN_BASE;
-    private final int Y_IN_BASE;
+    private final PixelRuns RUNS;
+    private final boolean SKIP_UNCHANGED_STEPS;
+    private final ChangedSteps CHANGED_STEPS;
+    private final Strategy STRATEGY;
+    private final Interleaver INTERLEAVER;
+    private final Drawer DRAWER;
+    private final ComponentMemory MEMORY;
+    private int[] expectedFrames;
+    private CurrentFrameView lastTarget;
+    private long lastTransition;
+    private int lastSegment;
+    private boolean syncedOnLastTick;
+    private Quality quality;
 
     /**
-     * Updates the animation state on tick.
+     * Updates the animation state on tick. When skipping unchanged steps is enabled, the current frame
+     * is only written to if the new state looks different from the state last written to it.
      * @param currentFrame          current frame of the animated texture (to which all animations write)
      * @param predefinedFrames      predefined frames in the base texture
      * @param ticks                 number of ticks that have passed since the last time this method was called
+     * @return number of pixels written to the current frame
      */
-    public void onTick(CurrentFrameView currentFrame, List<Frame> predefinedFrames, int ticks) {
+    public int onTick(CurrentFrameView currentFrame, List<Frame> predefinedFrames, int ticks) {
+        if (STRATEGY == Strategy.NO_OP) {
+            return 0;
+        }
+
         Optional<Long> timeOptional = TIME_GETTER.get();
 
+        syncedOnLastTick = timeOptional.isPresent();
         if (timeOptional.isPresent()) {
             long currentTime = timeOptional.get();
             int ticksUntilTime = Math.floorMod(currentTime - STATE.ticks(), SYNC_TICKS) + TICKS_UNTIL_START;
@@ -60,18 +103,209 @@ public final class AnimationComponent {
             STATE.tick(ticks);
         }
 
+        expectFrames(predefinedFrames);
+
+        if (!SKIP_UNCHANGED_STEPS || RUNS.runs() == 0) {
+            return draw(currentFrame, predefinedFrames, true);
+        }
+
         int startIndex = FRAME_INDEX_MAPPER.applyAsInt(STATE.startIndex());
         int endIndex = FRAME_INDEX_MAPPER.applyAsInt(STATE.endIndex());
+        int steps = transitionSteps();
+        long transition = transitionKey(startIndex, endIndex, steps);
+        if (transition < 0) {
+            return draw(currentFrame, predefinedFrames, true);
+        }
 
-        currentFrame.generateWith(
-                (overwriteX, overwriteY, dependencyFunction) -> INTERPOLATOR.interpolate(
-                        STATE.frameMaxTime(),
-                        STATE.frameTicks(),
-                        predefinedFrames.get(startIndex).color(overwriteX - X_IN_BASE, overwriteY - Y_IN_BASE),
-                        predefinedFrames.get(endIndex).color(overwriteX - X_IN_BASE, overwriteY - Y_IN_BASE)
-                ),
-                INTERPOLATE_AREA
+        int[] changedSteps = CHANGED_STEPS.find(
+                transition,
+                steps,
+                predefinedFrames.get(startIndex),
+                predefinedFrames.get(endIndex)
         );
+
+        // Every step in a segment produces the same colors as the changed step that begins it
+        int segmentIndex = Arrays.binarySearch(changedSteps, transitionStep());
+        int segment = segmentIndex >= 0 ? changedSteps[segmentIndex] : segmentIndex == -1 ? 0
+                : changedSteps[-segmentIndex - 2];
+
+        // Subsets that were not updated since the last change still need to catch up
+        if (currentFrame == lastTarget && transition == lastTransition && segment == lastSegment
+                && INTERLEAVER.staleSubsets() == 0) {
+            return 0;
+        }
+
+        int pixelsWritten = draw(currentFrame, predefinedFrames, true);
+        lastTarget = currentFrame;
+        lastTransition = transition;
+        lastSegment = segment;
+
+        return pixelsWritten;
+    }
+
+    /**
+     * Prepares every transition of the animation's timeline before the component is first ticked, so that
+     * ticks do less work. Components that skip unchanged steps find the steps that change colors, and
+     * {@link Strategy#PRECOMPUTED} components interpolate every step. This may be called from any thread
+     * before the component is first ticked.
+     * @param predefinedFrames      predefined frames in the base texture
+     */
+    public void prepare(List<Frame> predefinedFrames) {
+        requireNonNull(predefinedFrames, "Predefined frames cannot be null");
+        if (RUNS.runs() == 0 || STRATEGY == Strategy.NO_OP) {
+            return;
+        }
+
+        // Transitions that would fail to draw are skipped here so that they fail on tick instead
+        for (int index = 0; index < FRAMES; index++) {
+            int frameTime = FRAME_TIME_CALCULATOR.applyAsInt(index);
+            int hold = FRAME_HOLD_CALCULATOR.applyAsInt(index);
+            int startIndex = FRAME_INDEX_MAPPER.applyAsInt(index);
+            int endIndex = FRAME_INDEX_MAPPER.applyAsInt((index + 1) % FRAMES);
+            long transition = transitionKey(startIndex, endIndex, frameTime - hold);
+            if (hold < 0 || hold >= frameTime || transition < 0 || startIndex >= predefinedFrames.size()
+                    || endIndex >= predefinedFrames.size()) {
+                continue;
+            }
+
+            Frame startFrame = predefinedFrames.get(startIndex);
+            Frame endFrame = predefinedFrames.get(endIndex);
+            if (SKIP_UNCHANGED_STEPS) {
+                CHANGED_STEPS.find(transition, frameTime - hold, startFrame, endFrame);
+            }
+
+            DRAWER.prepare(transition, frameTime - hold, startFrame, endFrame);
+        }
+
+        CHANGED_STEPS.releaseBuffers();
+    }
+
+    /**
+     * Writes the current animation state to the current frame without advancing the animation.
+     * @param currentFrame          current frame of the animated texture (to which all animations write)
+     * @param predefinedFrames      predefined frames in the base texture
+     * @return number of pixels written to the current frame
+     */
+    public int draw(CurrentFrameView currentFrame, List<Frame> predefinedFrames) {
+        return draw(currentFrame, predefinedFrames, false);
+    }
+
+    /**
+     * Gets the number of pixels this component writes to the current frame on every tick.
+     * @return number of pixels in this component's interpolate area
+     */
+    public int areaSize() {
+        return RUNS.areaSize();
+    }
+
+    /**
+     * Gets the number of ticks until this component may write different colors than it wrote on its last
+     * tick. The component does not need to be ticked before then, as long as nothing else writes to its
+     * pixels and the next tick is given all the ticks that passed. Components synced to the time of day
+     * assume that the time advances by one every tick, so they must also be ticked whenever
+     * {@link #outOfSync(int)} is true. Components that do not skip unchanged steps may change on any tick,
+     * as may interleaved components until every subset shows the latest step.
+     * @return ticks until the next change, which is at least one, or {@link Integer#MAX_VALUE} if the
+     *         component never changes
+     */
+    public int ticksUntilChange() {
+        if (RUNS.runs() == 0 || STRATEGY == Strategy.NO_OP) {
+            return Integer.MAX_VALUE;
+        }
+
+        if (!SKIP_UNCHANGED_STEPS || INTERLEAVER.staleSubsets() > 0) {
+            return 1;
+        }
+
+        int ticksUntilNextFrame = STATE.frameMaxTime() - STATE.frameTicks();
+        if (quality == Quality.STEPPED) {
+            return ticksUntilNextFrame;
+        }
+
+        int startIndex = FRAME_INDEX_MAPPER.applyAsInt(STATE.startIndex());
+        int endIndex = FRAME_INDEX_MAPPER.applyAsInt(STATE.endIndex());
+        long transition = transitionKey(startIndex, endIndex, transitionSteps());
+        int[] changedSteps = transition < 0 ? null : CHANGED_STEPS.get(transition);
+        if (changedSteps == null) {
+            return 1;
+        }
+
+        int nextIndex = Arrays.binarySearch(changedSteps, transitionStep() + 1);
+        if (nextIndex < 0) {
+            nextIndex = -nextIndex - 1;
+        }
+
+        if (nextIndex == changedSteps.length) {
+            return ticksUntilNextFrame;
+        }
+
+        // Steps begin after the frame's hold ends
+        int ticksUntilNextStep = changedSteps[nextIndex] + FRAME_HOLD_CALCULATOR.applyAsInt(STATE.startIndex())
+                - STATE.frameTicks();
+        return Math.max(1, Math.min(ticksUntilNextFrame, ticksUntilNextStep));
+    }
+
+    /**
+     * Checks whether this component is synced to the time of day.
+     * @return whether this component is synced
+     */
+    public boolean synced() {
+        return SYNC_TICKS > 0;
+    }
+
+    /**
+     * Checks whether the time of day has moved by a different number of ticks than have passed since
+     * this component's last tick, such as when the time is set or the level changes. A synced component
+     * that is out of sync may change before {@link #ticksUntilChange()} says it will.
+     * @param ticks     number of ticks that have passed since the last time this component was ticked
+     * @return whether this component is synced and out of sync with the time of day
+     */
+    public boolean outOfSync(int ticks) {
+        if (SYNC_TICKS <= 0) {
+            return false;
+        }
+
+        Optional<Long> timeOptional = TIME_GETTER.get();
+        if (timeOptional.isEmpty() || !syncedOnLastTick) {
+            return timeOptional.isPresent() != syncedOnLastTick;
+        }
+
+        int ticksUntilTime = Math.floorMod(timeOptional.get() - STATE.ticks(), SYNC_TICKS) + TICKS_UNTIL_START;
+        return ticksUntilTime != Math.floorMod(ticks, SYNC_TICKS);
+    }
+
+    /**
+     * Gets the number of bytes of heap memory held by this component's buffers and caches. The number
+     * may grow as the component draws.
+     * @return bytes held by this component
+     */
+    public long memoryBytes() {
+        return MEMORY.bytes();
+    }
+
+    /**
+     * Gets the strategy this component uses to draw.
+     * @return this component's strategy
+     */
+    public Strategy strategy() {
+        return STRATEGY;
+    }
+
+    /**
+     * Gets the quality this component currently draws at.
+     * @return this component's quality
+     */
+    public Quality quality() {
+        return quality;
+    }
+
+    /**
+     * Sets the quality this component draws at from its next tick onward. A component starts at
+     * {@link Quality#FULL} quality.
+     * @param quality       quality to draw at
+     */
+    public void quality(Quality quality) {
+        this.quality = requireNonNull(quality, "Quality cannot be null");
     }
 
     /**
@@ -80,30 +314,143 @@ public final class AnimationComponent {
      * @param frames                    number of predefined frames in the animation
      * @param ticksUntilStart           ticks between the first tick in the first frame and the start of the animation
      * @param frameTimeCalculator       calculates the duration of each frame in ticks
+     * @param frameHoldCalculator       calculates the ticks at the start of each frame before interpolation begins
      * @param frameIndexMapper          maps frame indices to the index of the corresponding predefined frame
      * @param interpolator              interpolates between colors
      * @param syncTicks                 number of ticks to sync to; e.g. 24000 to sync to a Minecraft day
      * @param timeGetter                retrieves the current time in the world, if any
      * @param xInBase                   x-coordinate of the top-left corner of this animation within the base texture
      * @param yInBase                   y-coordinate of the top-left corner of this animation within the base texture
+     * @param skipUnchangedSteps        whether to skip writing steps that look the same as the last one written
+     * @param useBlendTables            whether to precompute blends between palette colors
+     * @param strategy                  how this component draws to the current frame
+     * @param interleave                how the interpolate area is split into subsets
+     * @param interleaveFactor          number of subsets to update on successive ticks or 1 to update every pixel
+     * @param resolutionScale           width of the blocks of pixels that share an interpolated color
      */
     private AnimationComponent(Area interpolateArea, int frames, int ticksUntilStart,
-                               IntUnaryOperator frameTimeCalculator, IntUnaryOperator frameIndexMapper,
-                               Interpolator interpolator, int syncTicks, Supplier<Optional<Long>> timeGetter,
-                               int xInBase, int yInBase) {
+                               IntUnaryOperator frameTimeCalculator, IntUnaryOperator frameHoldCalculator,
+                               IntUnaryOperator frameIndexMapper, Interpolator interpolator, int syncTicks,
+                               Supplier<Optional<Long>> timeGetter, int xInBase, int yInBase,
+                               boolean skipUnchangedSteps, boolean useBlendTables, Strategy strategy,
+                               Interleave interleave, int interleaveFactor, int resolutionScale) {
         STATE = new AnimationState(frames, frameTimeCalculator);
+        FRAMES = frames;
         TICKS_UNTIL_START = ticksUntilStart;
         STATE.tick(TICKS_UNTIL_START);
 
+        FRAME_TIME_CALCULATOR = frameTimeCalculator;
+        FRAME_HOLD_CALCULATOR = frameHoldCalculator;
         FRAME_INDEX_MAPPER = frameIndexMapper;
-        INTERPOLATOR = interpolator;
-        INTERPOLATE_AREA = interpolateArea;
 
         SYNC_TICKS = syncTicks;
         TIME_GETTER = timeGetter;
 
-        X_IN_BASE = xInBase;
-        Y_IN_BASE = yInBase;
+        MEMORY = new ComponentMemory();
+        RUNS = new PixelRuns(interpolateArea, xInBase, yInBase);
+        StepRenderer renderer = new StepRenderer(RUNS, interpolator, useBlendTables, resolutionScale, MEMORY);
+
+        // Unchanged steps can only be found cheaply when colors change monotonically
+        SKIP_UNCHANGED_STEPS = skipUnchangedSteps && interpolator.changesMonotonically();
+        CHANGED_STEPS = new ChangedSteps(RUNS, renderer, MEMORY);
+
+        STRATEGY = strategy;
+        INTERLEAVER = new Interleaver(RUNS, interleave, interleaveFactor);
+        DRAWER = Drawer.of(strategy, RUNS, renderer, INTERLEAVER, MEMORY);
+        quality = Quality.FULL;
+    }
+
+    /**
+     * Writes the current animation state to the current frame without advancing the animation.
+     * @param currentFrame          current frame of the animated texture (to which all animations write)
+     * @param predefinedFrames      predefined frames in the base texture
+     * @param fromTick              whether this draw is part of this component's tick, rather than a draw
+     *                              for a texture that shares this component
+     * @return number of pixels written to the current frame
+     */
+    private int draw(CurrentFrameView currentFrame, List<Frame> predefinedFrames, boolean fromTick) {
+        if (RUNS.runs() == 0 || STRATEGY == Strategy.NO_OP) {
+            return 0;
+        }
+
+        // The frame may be drawn to by several textures, so the next tick cannot assume what it contains
+        lastTarget = null;
+
+        expectFrames(predefinedFrames);
+
+        int startIndex = FRAME_INDEX_MAPPER.applyAsInt(STATE.startIndex());
+        int endIndex = FRAME_INDEX_MAPPER.applyAsInt(STATE.endIndex());
+        int steps = transitionSteps();
+        return DRAWER.draw(
+                currentFrame,
+                fromTick,
+                STATE.ticks() - STATE.frameTicks(),
+                transitionKey(startIndex, endIndex, steps),
+                steps,
+                transitionStep(),
+                predefinedFrames.get(startIndex),
+                predefinedFrames.get(endIndex)
+        );
+    }
+
+    /**
+     * Gets the number of steps in the transition from the current frame to the next, which excludes the
+     * ticks that the current frame is held for.
+     * @return number of steps in the current transition
+     */
+    private int transitionSteps() {
+        int hold = FRAME_HOLD_CALCULATOR.applyAsInt(STATE.startIndex());
+        if (hold < 0 || hold >= STATE.frameMaxTime()) {
+            throw new UnsupportedOperationException("Frame holds must be between zero and the frame time but was: "
+                    + hold);
+        }
+
+        return STATE.frameMaxTime() - hold;
+    }
+
+    /**
+     * Gets the current step in the transition from the current frame to the next. Every tick while the
+     * current frame is held is the first step. Lower qualities round the step down to a step they draw.
+     * @return current step in the current transition
+     */
+    private int transitionStep() {
+        int step = Math.max(0, STATE.frameTicks() - FRAME_HOLD_CALCULATOR.applyAsInt(STATE.startIndex()));
+        return quality.drawnStep(step);
+    }
+
+    /**
+     * Tells frames that can prepare frames ahead of time which frames this animation will read next.
+     * @param predefinedFrames      predefined frames in the base texture
+     */
+    private void expectFrames(List<Frame> predefinedFrames) {
+        if (!(predefinedFrames instanceof FrameLookahead lookahead)) {
+            return;
+        }
+
+        if (expectedFrames == null) {
+            expectedFrames = new int[Math.min(FRAMES, lookahead.maxExpectedFrames())];
+        }
+
+        for (int index = 0; index < expectedFrames.length; index++) {
+            expectedFrames[index] = FRAME_INDEX_MAPPER.applyAsInt((STATE.startIndex() + index) % FRAMES);
+        }
+
+        lookahead.expect(expectedFrames);
+    }
+
+    /**
+     * Creates a key that identifies a transition between two predefined frames.
+     * @param startIndex    index of the predefined frame to start interpolation from
+     * @param endIndex      index of the predefined frame to end interpolation at
+     * @param steps         total number of steps in the transition
+     * @return key for the transition or -1 if it is too large to fit in a key
+     */
+    private static long transitionKey(int startIndex, int endIndex, int steps) {
+        if (startIndex >= MAX_TRANSITION_VALUE || endIndex >= MAX_TRANSITION_VALUE || steps >= MAX_TRANSITION_VALUE) {
+            return -1;
+        }
+
+        return ((long) startIndex << 42) | ((long) endIndex << 21) | steps;
     }
 
     /**
@@ -115,12 +462,19 @@ public final class AnimationComponent {
         private int frames = -1;
         private int ticksUntilStart = -1;
         private IntUnaryOperator frameTimeCalculator;
+        private IntUnaryOperator frameHoldCalculator = (frame) -> 0;
+        private Strategy strategy = Strategy.DIRECT;
         private IntUnaryOperator frameIndexMapper;
         private Interpolator interpolator;
         private int syncTicks = -1;
         private Supplier<Optional<Long>> timeGetter = Optional::empty;
         private int xInBase;
         private int yInBase;
+        private boolean skipUnchangedSteps;
+        private boolean useBlendTables;
+        private Interleave interleave = Interleave.ROWS;
+        private int interleaveFactor = 1;
+        private int resolutionScale = 1;
 
         /**
          * Sets the interpolate area for this builder (required).
@@ -168,6 +522,18 @@ public final class AnimationComponent {
             return this;
         }
 
+        /**
+         * Sets the frame hold calculator for this builder (optional). A frame is shown without interpolation
+         * for its hold time, then interpolated to the next frame for the rest of its frame time. Every hold
+         * must be at least zero and less than the frame's time. By default, no frames are held.
+         * @param frameHoldCalculator   calculates the ticks at the start of each frame before interpolation begins
+         * @return this builder
+         */
+        public Builder frameHoldCalculator(IntUnaryOperator frameHoldCalculator) {
+            this.frameHoldCalculator = requireNonNull(frameHoldCalculator, "Frame hold calculator cannot be null");
+            return this;
+        }
+
         /**
          * Sets the frame index mapper for this builder (required).
          * @param frameIndexMapper      maps frame indices to the index of the corresponding predefined frame
@@ -219,6 +585,79 @@ public final class AnimationComponent {
             return this;
         }
 
+        /**
+         * Sets whether the component skips writing to the current frame when a tick would not change how it
+         * looks (optional). Skipping is only correct when no other component writes to the same pixels, and
+         * it only happens if the interpolator {@link Interpolator#changesMonotonically() changes monotonically}.
+         * @param skipUnchangedSteps    whether to skip writing steps that look the same as the last one written
+         * @return this builder
+         */
+        public Builder skipUnchangedSteps(boolean skipUnchangedSteps) {
+            this.skipUnchangedSteps = skipUnchangedSteps;
+            return this;
+        }
+
+        /**
+         * Sets whether the component precomputes the blends between each pair of palette colors in a
+         * transition (optional). Blend tables are only used for frames that are {@link PaletteFrame}s
+         * sharing the same palette, and they are limited in size.
+         * @param useBlendTables        whether to precompute blends between palette colors
+         * @return this builder
+         */
+        public Builder useBlendTables(boolean useBlendTables) {
+            this.useBlendTables = useBlendTables;
+            return this;
+        }
+
+        /**
+         * Sets how the component draws to the current frame (optional). Components interpolate directly
+         * on every draw by default.
+         * @param strategy      how the component draws to the current frame
+         * @return this builder
+         */
+        public Builder strategy(Strategy strategy) {
+            this.strategy = requireNonNull(strategy, "Strategy cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets how the component splits its interpolate area into subsets that are updated on successive
+         * ticks (optional). While a transition is interpolated, each tick only updates one subset, so each
+         * pixel is updated once every {@code factor} ticks. Every pixel is still updated when the animation
+         * moves to a new frame. Interleaving is only correct when no other component writes to the same
+         * pixels, and it does not apply to {@link Strategy#PRECOMPUTED} components. By default, every pixel
+         * is updated on every tick.
+         * @param interleave    how the interpolate area is split into subsets
+         * @param factor        number of subsets or 1 to update every pixel on every tick
+         * @return this builder
+         */
+        public Builder interleave(Interleave interleave, int factor) {
+            if (factor <= 0) {
+                throw new IllegalArgumentException("Interleave factor cannot be zero or negative but was: "
+                        + factor);
+            }
+            this.interleave = requireNonNull(interleave, "Interleave cannot be null");
+            this.interleaveFactor = factor;
+            return this;
+        }
+
+        /**
+         * Sets the width of the square blocks of pixels that share one interpolated color (optional). Only
+         * the top-left pixel of each block is interpolated, so a scale of 2 interpolates a quarter of the
+         * pixels and a scale of 4 interpolates a sixteenth of them. Steps that do not depend on the next
+         * frame are always drawn at full resolution. Components with a reduced resolution are not
+         * interleaved. By default, every pixel is interpolated.
+         * @param scale     width of the blocks of pixels that share an interpolated color
+         * @return this builder
+         */
+        public Builder resolutionScale(int scale) {
+            if (scale <= 0) {
+                throw new IllegalArgumentException("Resolution scale cannot be zero or negative but was: " + scale);
+            }
+            this.resolutionScale = scale;
+            return this;
+        }
+
         /**
          * Builds an {@link AnimationComponent} from the values provided to the builder. The interpolate area,
          * frames, ticks until start, frame time calculator, frame index mapper, and interpolator must have
@@ -255,15 +694,137 @@ public final class AnimationComponent {
                     frames,
                     ticksUntilStart,
                     frameTimeCalculator,
+                    frameHoldCalculator,
                     frameIndexMapper,
                     interpolator,
                     syncTicks,
                     timeGetter,
                     xInBase,
-                    yInBase
+                    yInBase,
+                    skipUnchangedSteps,
+                    useBlendTables,
+                    strategy,
+                    interleave,
+                    interleaveFactor,
+                    resolutionScale
             );
         }
 
     }
 
+    /**
+     * How a component draws to the current frame.
+     * @author soir20
+     */
+    public enum Strategy {
+
+        /**
+         * Draws nothing. Only correct for animations whose frames never change.
+         */
+        NO_OP,
+
+        /**
+         * Reads and interpolates every pixel in the interpolate area on every draw.
+         */
+        DIRECT,
+
+        /**
+         * Keeps the colors of every interpolated step the first time it is drawn, so later draws of the
+         * same step only copy them.
+         */
+        PRECOMPUTED,
+
+        /**
+         * Interpolates every pixel but only writes the pixels that differ from the last draw. Only correct
+         * when no other component writes to the same pixels.
+         */
+        DELTA
+
+    }
+
+    /**
+     * How a component splits its interpolate area into subsets that are updated on successive ticks.
+     * @author soir20
+     */
+    public enum Interleave {
+
+        /**
+         * Puts every {@code factor}th row in the same subset.
+         */
+        ROWS {
+            @Override
+            int subset(int x, int y, int factor) {
+                return Math.floorMod(y, factor);
+            }
+        },
+
+        /**
+         * Puts pixels on the same diagonal in the same subset, so that a factor of two splits the area
+         * into a checkerboard.
+         */
+        CHECKERBOARD {
+            @Override
+            int subset(int x, int y, int factor) {
+                return Math.floorMod(x + y, factor);
+            }
+        };
+
+        /**
+         * Finds the subset that a pixel belongs to.
+         * @param x         x-coordinate of the pixel in the base texture
+         * @param y         y-coordinate of the pixel in the base texture
+         * @param factor    number of subsets
+         * @return index of the pixel's subset
+         */
+        abstract int subset(int x, int y, int factor);
+
+    }
+
+    /**
+     * How many of the interpolated steps in each transition a component draws, from most to fewest.
+     * @author soir20
+     */
+    public enum Quality {
+
+        /**
+         * Draws every step.
+         */
+        FULL(1),
+
+        /**
+         * Draws every second step, so interpolated colors change at most every other tick.
+         */
+        HALF_RATE(2),
+
+        /**
+         * Draws every fourth step, so interpolated colors change at most every fourth tick.
+         */
+        QUARTER_RATE(4),
+
+        /**
+         * Draws only the first step, so the animation moves from frame to frame without interpolation.
+         */
+        STEPPED(0);
+
+        private final int INTERVAL;
+
+        /**
+         * Creates a new quality.
+         * @param interval      number of steps between drawn steps or 0 to only draw the first step
+         */
+        Quality(int interval) {
+            INTERVAL = interval;
+        }
+
+        /**
+         * Rounds a step down to the closest step that is drawn at this quality.
+         * @param step      step to round
+         * @return the drawn step
+         */
+        int drawnStep(int step) {
+            return INTERVAL == 0 ? 0 : step - step % INTERVAL;
+        }
+
+    }
+
 }
@@ -18,55 +18,383 @@
 package io.github.moremcmeta.animationplugin.animate;
 
 import com.mojang.datafixers.util.Pair;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
+import io.github.moremcmeta.animationplugin.profile.TextureTickEvent;
 import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
 import io.github.moremcmeta.moremcmeta.api.client.texture.FrameGroup;
 import io.github.moremcmeta.moremcmeta.api.client.texture.PersistentFrameView;
 import io.github.moremcmeta.moremcmeta.api.client.texture.TextureComponent;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static java.util.Objects.requireNonNull;
 
 /**
- * Updates several separate animations within one texture.
+ * Updates several separate animations within one texture. The core mod may close the texture while a
+ * tick is still running, so its resources are only released once the last in-flight tick finishes.
+ * Components may still be building in the background when the group is created. Until they are ready, the
+ * texture keeps showing its first frame, and the ticks that pass are applied once the components are ready.
+ * If a background build fails, its error is thrown from the next tick, and the group stops ticking afterward.
+ *
+ * Unless scheduling is turned off, components are only ticked when they may change. A {@link TimingWheel}
+ * holds the tick at which each component is next due, so a tick only visits the components due on it, and
+ * each visit is given all the ticks since the component's last visit. Every component is visited when the
+ * group starts advancing its components or draws to a different frame, since the frame may not hold the
+ * components' colors.
+ * Components synced to the time of day are also visited whenever the time has jumped since their last visit.
+ *
+ * The group reports how long each of its ticks takes to a {@link QualityGovernor}, which may lower the
+ * quality of its components when animations take too long to tick.
  * @author soir20
  */
 public final class AnimationGroupComponent implements TextureComponent<CurrentFrameView> {
-    private final Collection<Pair<AnimationComponent, Optional<List<Frame>>>> COMPONENTS;
+    private final long TEXTURE_ID;
+    private final List<Optional<List<Frame>>> PART_FRAMES;
+    private final CompletableFuture<ComponentReuseCache.Lease> PENDING_LEASE;
     private final Collection<Runnable> RESOURCE_CLOSERS;
+    private final MemoryTracker MEMORY_TRACKER;
+    private final QualityGovernor.Member QUALITY;
+    private final AtomicInteger IN_FLIGHT_TICKS;
+    private final AtomicBoolean RELEASED;
+    private final boolean SCHEDULE_COMPONENTS;
+    private volatile boolean closed;
     private List<Frame> predefinedFrameCache;
+    private MemoryTracker.Allocation componentAllocation;
+    private List<Pair<AnimationComponent, Optional<List<Frame>>>> components;
+    private ComponentReuseCache.Lease lease;
+    private int pendingTicks;
+    private TimingWheel schedule;
+    private long[] lastVisitTicks;
+    private int[] syncedComponents;
+    private BitSet dueComponents;
+    private CurrentFrameView scheduledFrame;
+    private AnimationComponent.Quality appliedQuality;
 
     /**
      * Creates a new group component.
+     * @param textureId         plugin-assigned ID of the texture this component belongs to
      * @param components        components and their frames, if they should not use the base texture's frames
+     * @param lease             lease for the components, which decides whether this component advances them
+     * @param resourceClosers   closes resources used by all the components
+     * @param memoryTracker     tracks the memory held by the animation components' buffers and caches
+     */
+    public AnimationGroupComponent(long textureId,
+                                   Collection<Pair<AnimationComponent, Optional<List<Frame>>>> components,
+                                   ComponentReuseCache.Lease lease, Collection<Runnable> resourceClosers,
+                                   MemoryTracker memoryTracker) {
+        this(textureId, CompletableFuture.completedFuture(requireNonNull(lease, "Lease cannot be null")), List.of(),
+                resourceClosers, memoryTracker);
+        this.components = new ArrayList<>(requireNonNull(components, "Components cannot be null"));
+        this.lease = lease;
+    }
+
+    /**
+     * Creates a new group component whose components may still be building. If the build has already
+     * failed, its error is thrown immediately. Otherwise, a failed build's error is thrown on the first
+     * tick after it fails, and the group stops ticking.
+     * @param textureId         plugin-assigned ID of the texture this component belongs to
+     * @param pendingLease      lease for the components, in the same order as their part frames, once they
+     *                          are built
+     * @param partFrames        frames for each component, if they should not use the base texture's frames
+     * @param resourceClosers   closes resources used by all the components
+     * @param memoryTracker     tracks the memory held by the animation components' buffers and caches
+     */
+    public AnimationGroupComponent(long textureId, CompletableFuture<ComponentReuseCache.Lease> pendingLease,
+                                   List<Optional<List<Frame>>> partFrames, Collection<Runnable> resourceClosers,
+                                   MemoryTracker memoryTracker) {
+        this(textureId, pendingLease, partFrames, resourceClosers, memoryTracker, QualityGovernor.unlimited());
+    }
+
+    /**
+     * Creates a new group component whose components may still be building and whose quality is decided
+     * by a governor. If the build has already failed, its error is thrown immediately. Otherwise, a failed
+     * build's error is thrown on the first tick after it fails, and the group stops ticking.
+     * @param textureId         plugin-assigned ID of the texture this component belongs to
+     * @param pendingLease      lease for the components, in the same order as their part frames, once they
+     *                          are built
+     * @param partFrames        frames for each component, if they should not use the base texture's frames
      * @param resourceClosers   closes resources used by all the components
+     * @param memoryTracker     tracks the memory held by the animation components' buffers and caches
+     * @param qualityGovernor   lowers the quality of the components when animations take too long to tick
+     */
+    public AnimationGroupComponent(long textureId, CompletableFuture<ComponentReuseCache.Lease> pendingLease,
+                                   List<Optional<List<Frame>>> partFrames, Collection<Runnable> resourceClosers,
+                                   MemoryTracker memoryTracker, QualityGovernor qualityGovernor) {
+        this(textureId, pendingLease, partFrames, resourceClosers, memoryTracker, qualityGovernor, true);
+    }
+
+    /**
+     * Creates a new group component whose components may still be building and whose quality is decided
+     * by a governor. If the build has already failed, its error is thrown immediately. Otherwise, a failed
+     * build's error is thrown on the first tick after it fails, and the group stops ticking.
+     * @param textureId             plugin-assigned ID of the texture this component belongs to
+     * @param pendingLease          lease for the components, in the same order as their part frames, once
+     *                              they are built
+     * @param partFrames            frames for each component, if they should not use the base texture's frames
+     * @param resourceClosers       closes resources used by all the components
+     * @param memoryTracker         tracks the memory held by the animation components' buffers and caches
+     * @param qualityGovernor       lowers the quality of the components when animations take too long to tick
+     * @param scheduleComponents    whether to only tick the components that may change instead of every
+     *                              component on every tick
      */
-    public AnimationGroupComponent(Collection<Pair<AnimationComponent, Optional<List<Frame>>>> components,
-                                   Collection<Runnable> resourceClosers) {
-        COMPONENTS = requireNonNull(components, "Components cannot be null");
+    public AnimationGroupComponent(long textureId, CompletableFuture<ComponentReuseCache.Lease> pendingLease,
+                                   List<Optional<List<Frame>>> partFrames, Collection<Runnable> resourceClosers,
+                                   MemoryTracker memoryTracker, QualityGovernor qualityGovernor,
+                                   boolean scheduleComponents) {
+        TEXTURE_ID = textureId;
+        PENDING_LEASE = requireNonNull(pendingLease, "Pending lease cannot be null");
+        PART_FRAMES = requireNonNull(partFrames, "Part frames cannot be null");
         RESOURCE_CLOSERS = requireNonNull(resourceClosers, "Resource closers cannot be null");
+        MEMORY_TRACKER = requireNonNull(memoryTracker, "Memory tracker cannot be null");
+        IN_FLIGHT_TICKS = new AtomicInteger();
+        RELEASED = new AtomicBoolean();
+        SCHEDULE_COMPONENTS = scheduleComponents;
+
+        // Report builds that have already failed the same way as builds on the calling thread
+        if (PENDING_LEASE.isCompletedExceptionally()) {
+            awaitLease();
+        }
+
+        QUALITY = requireNonNull(qualityGovernor, "Quality governor cannot be null").join(textureId);
+    }
+
+    /**
+     * Gets the quality this group's components currently draw at.
+     * @return current quality of this group
+     */
+    public AnimationComponent.Quality quality() {
+        return QUALITY.quality();
     }
 
     @Override
     public void onTick(CurrentFrameView currentFrame, FrameGroup<? extends PersistentFrameView> predefinedFrames, int ticks) {
-        if (predefinedFrameCache == null) {
-            predefinedFrameCache = wrapFrames(predefinedFrames);
-        }
+        IN_FLIGHT_TICKS.incrementAndGet();
+        try {
+            if (closed) {
+                return;
+            }
+
+            // The wrapped frames read the core mod's frames directly, so they hold no pixels of their own
+            if (predefinedFrameCache == null) {
+                predefinedFrameCache = wrapFrames(predefinedFrames);
+            }
+
+            // The texture shows its first frame until the components are ready, so no time is lost
+            if (components == null) {
+                if (!PENDING_LEASE.isDone()) {
+                    pendingTicks += ticks;
+                    return;
+                }
+
+                // Report the failure the same way as a build on the calling thread, but only once
+                if (PENDING_LEASE.isCompletedExceptionally()) {
+                    closed = true;
+                    awaitLease();
+                }
+
+                lease = PENDING_LEASE.join();
+                components = new ArrayList<>();
+                for (int index = 0; index < PART_FRAMES.size(); index++) {
+                    components.add(Pair.of(lease.components().get(index), PART_FRAMES.get(index)));
+                }
+
+                ticks += pendingTicks;
+                pendingTicks = 0;
+            }
+
+            TextureTickEvent event = new TextureTickEvent();
+            event.begin();
+            QUALITY.beginTick();
 
-        COMPONENTS.forEach((pair) ->
-                pair.getSecond().ifPresentOrElse(
-                        (frames) -> pair.getFirst().onTick(currentFrame, frames, ticks),
-                        () -> pair.getFirst().onTick(currentFrame, predefinedFrameCache, ticks)
-                )
-        );
+            // Components shared with a texture from an earlier reload must only be advanced by one texture
+            boolean advance = lease.tick();
+
+            // Components may change sooner at a higher quality, so they are all visited again
+            AnimationComponent.Quality quality = QUALITY.quality();
+            if (advance && quality != appliedQuality) {
+                for (Pair<AnimationComponent, Optional<List<Frame>>> pair : components) {
+                    pair.getFirst().quality(quality);
+                }
+
+                appliedQuality = quality;
+                scheduledFrame = null;
+            }
+
+            long pixelsWritten = 0;
+            if (advance && SCHEDULE_COMPONENTS) {
+                pixelsWritten = tickDueComponents(currentFrame, ticks);
+            } else {
+                scheduledFrame = null;
+                for (Pair<AnimationComponent, Optional<List<Frame>>> pair : components) {
+                    List<Frame> frames = pair.getSecond().orElse(predefinedFrameCache);
+                    if (advance) {
+                        pixelsWritten += pair.getFirst().onTick(currentFrame, frames, ticks);
+                    } else {
+                        pixelsWritten += pair.getFirst().draw(currentFrame, frames);
+                    }
+                }
+            }
+
+            trackComponentMemory();
+            QUALITY.endTick();
+            event.end();
+            if (event.shouldCommit()) {
+                event.textureId = TEXTURE_ID;
+                event.ticks = ticks;
+                event.pixelsWritten = pixelsWritten;
+                event.quality = quality.name();
+                event.commit();
+            }
+        } finally {
+            if (IN_FLIGHT_TICKS.decrementAndGet() == 0 && closed) {
+                release();
+            }
+        }
     }
 
     @Override
     public void onClose(CurrentFrameView currentFrame, FrameGroup<? extends PersistentFrameView> predefinedFrames) {
-        RESOURCE_CLOSERS.forEach(Runnable::run);
+        closed = true;
+
+        // An in-flight tick may still be reading part textures, so it releases them when it finishes instead
+        if (IN_FLIGHT_TICKS.get() == 0) {
+            release();
+        }
+    }
+
+    /**
+     * Ticks the components that are due, in the same order as they would be ticked if every component
+     * were ticked.
+     * @param currentFrame      current frame of the animated texture (to which all animations write)
+     * @param ticks             number of ticks that have passed since the last time this component was ticked
+     * @return number of pixels written to the current frame
+     */
+    private long tickDueComponents(CurrentFrameView currentFrame, int ticks) {
+        if (schedule == null) {
+            schedule = new TimingWheel(components.size(), 0);
+            lastVisitTicks = new long[components.size()];
+            dueComponents = new BitSet(components.size());
+            syncedComponents = IntStream.range(0, components.size())
+                    .filter((index) -> components.get(index).getFirst().synced())
+                    .toArray();
+        }
+
+        long currentTick = schedule.currentTick() + ticks;
+
+        // Another frame or another texture's draws may have replaced colors that unchanged components rely on
+        if (currentFrame != scheduledFrame) {
+            schedule.clear();
+            schedule.advance(currentTick, dueComponents);
+            dueComponents.set(0, components.size());
+            scheduledFrame = currentFrame;
+        } else {
+            schedule.advance(currentTick, dueComponents);
+
+            // Synced components are scheduled as if the time of day advances with every tick
+            for (int index : syncedComponents) {
+                int ticksSinceVisit = (int) Math.min(Integer.MAX_VALUE, currentTick - lastVisitTicks[index]);
+                if (!dueComponents.get(index) && components.get(index).getFirst().outOfSync(ticksSinceVisit)) {
+                    schedule.cancel(index);
+                    dueComponents.set(index);
+                }
+            }
+        }
+
+        long pixelsWritten = 0;
+        for (int index = dueComponents.nextSetBit(0); index >= 0; index = dueComponents.nextSetBit(index + 1)) {
+            AnimationComponent component = components.get(index).getFirst();
+            List<Frame> frames = components.get(index).getSecond().orElse(predefinedFrameCache);
+            int ticksSinceVisit = (int) Math.min(Integer.MAX_VALUE, currentTick - lastVisitTicks[index]);
+
+            pixelsWritten += component.onTick(currentFrame, frames, ticksSinceVisit);
+            lastVisitTicks[index] = currentTick;
+
+            int ticksUntilChange = component.ticksUntilChange();
+            if (ticksUntilChange != Integer.MAX_VALUE) {
+                schedule.schedule(index, currentTick + ticksUntilChange);
+            }
+        }
+
+        dueComponents.clear();
+        return pixelsWritten;
+    }
+
+    /**
+     * Tracks the memory held by this group's components, replacing the last allocation if the components
+     * have allocated more since. Components shared with a texture from an earlier reload are counted by
+     * both textures until the earlier one closes.
+     */
+    private void trackComponentMemory() {
+        long bytes = 0;
+        for (Pair<AnimationComponent, Optional<List<Frame>>> pair : components) {
+            bytes += pair.getFirst().memoryBytes();
+        }
+
+        if (componentAllocation != null && componentAllocation.bytes() == bytes) {
+            return;
+        }
+
+        if (componentAllocation != null) {
+            componentAllocation.close();
+        }
+
+        componentAllocation = MEMORY_TRACKER.trackHeap("Animation components", bytes);
+        componentAllocation.attachTo(TEXTURE_ID);
+    }
+
+    /**
+     * Releases all resources used by this component exactly once.
+     */
+    private void release() {
+        if (!RELEASED.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (componentAllocation != null) {
+            componentAllocation.close();
+        }
+
+        QUALITY.leave();
+
+        // A build still running in the background reads the part textures, so they are closed when it finishes
+        PENDING_LEASE.whenComplete((builtLease, err) -> {
+            if (builtLease != null) {
+                builtLease.close();
+            }
+
+            RESOURCE_CLOSERS.forEach(Runnable::run);
+            MEMORY_TRACKER.checkTextureClosed(TEXTURE_ID);
+        });
+    }
+
+    /**
+     * Gets the lease for the components once they are built, throwing the same error as the build
+     * if it failed.
+     * @return lease for the built components
+     */
+    private ComponentReuseCache.Lease awaitLease() {
+        try {
+            return PENDING_LEASE.join();
+        } catch (CompletionException err) {
+            if (err.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            if (err.getCause() instanceof Error cause) {
+                throw cause;
+            }
+
+            throw err;
+        }
     }
 
     /**
@@ -0,0 +1,172 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Interpolated colors for every pair of palette colors that appears in one transition between two
+ * {@link PaletteFrame}s. Many pixels share the same pair, so each pair is interpolated once per step,
+ * and the colors of every pixel are then looked up from that step's row of the table. Rows are
+ * computed the first time their step is drawn.
+ * @author soir20
+ */
+final class BlendTable {
+    private final int STEPS;
+    private final Interpolator INTERPOLATOR;
+    private final int[] PAIR_IDS;
+    private final int[] START_COLORS;
+    private final int[] END_COLORS;
+    private final int[][] ROWS;
+    private final ComponentMemory MEMORY;
+
+    /**
+     * Creates a blend table for a transition if its frames share a palette and the table fits in the
+     * given number of entries.
+     * @param steps             total number of steps in the transition
+     * @param interpolator      interpolates between colors
+     * @param startFrame        frame to start interpolation from
+     * @param endFrame          frame to end interpolation at
+     * @param runX              x-coordinate of the first pixel in each run, relative to the frame
+     * @param runY              y-coordinate of each run, relative to the frame
+     * @param runLength         number of pixels in each run
+     * @param maxEntries        maximum number of colors the table may hold over all its steps
+     * @param memory            counts the memory held by the table
+     * @return the table, or empty if the frames do not share a palette or the table would be too large
+     */
+    static Optional<BlendTable> of(int steps, Interpolator interpolator, Frame startFrame, Frame endFrame,
+                                   int[] runX, int[] runY, int[] runLength, long maxEntries,
+                                   ComponentMemory memory) {
+        if (!(startFrame instanceof PaletteFrame start) || !(endFrame instanceof PaletteFrame end)
+                || !start.sharesPalette(end)) {
+            return Optional.empty();
+        }
+
+        int pixels = 0;
+        for (int length : runLength) {
+            pixels += length;
+        }
+
+        int[] pairIds = new int[pixels];
+        Int2IntMap pairIdsByIndices = new Int2IntOpenHashMap();
+        pairIdsByIndices.defaultReturnValue(-1);
+        int[] startColors = new int[Math.min(pixels, start.paletteSize() * start.paletteSize())];
+        int[] endColors = new int[startColors.length];
+
+        int pixel = 0;
+        for (int run = 0; run < runX.length; run++) {
+            for (int x = runX[run]; x < runX[run] + runLength[run]; x++) {
+                int startIndex = start.paletteIndex(x, runY[run]);
+                int endIndex = end.paletteIndex(x, runY[run]);
+                int pairKey = startIndex * PaletteFrame.MAX_COLORS + endIndex;
+
+                int pairId = pairIdsByIndices.get(pairKey);
+                if (pairId < 0) {
+                    pairId = pairIdsByIndices.size();
+                    pairIdsByIndices.put(pairKey, pairId);
+                    startColors[pairId] = start.paletteColor(startIndex);
+                    endColors[pairId] = end.paletteColor(endIndex);
+                }
+
+                pairIds[pixel++] = pairId;
+            }
+        }
+
+        // A table is only worth keeping when pixels share pairs
+        int pairs = pairIdsByIndices.size();
+        if (pairs * 2 > pixels || (long) pairs * steps > maxEntries) {
+            return Optional.empty();
+        }
+
+        int[] trimmedStartColors = memory.allocate(pairs);
+        int[] trimmedEndColors = memory.allocate(pairs);
+        System.arraycopy(startColors, 0, trimmedStartColors, 0, pairs);
+        System.arraycopy(endColors, 0, trimmedEndColors, 0, pairs);
+
+        return Optional.of(new BlendTable(steps, interpolator, memory.count(pairIds), trimmedStartColors,
+                trimmedEndColors, memory));
+    }
+
+    /**
+     * Writes the colors of every pixel at a step into their runs in an output buffer.
+     * @param step          step to write
+     * @param runOffset     index of the first pixel of each run in the output buffer
+     * @param runLength     number of pixels in each run
+     * @param output        buffer to write colors to
+     */
+    void write(int step, int[] runOffset, int[] runLength, int[] output) {
+        int[] row = row(step);
+
+        int pixel = 0;
+        for (int run = 0; run < runOffset.length; run++) {
+            for (int index = runOffset[run]; index < runOffset[run] + runLength[run]; index++) {
+                output[index] = row[PAIR_IDS[pixel++]];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of colors this table holds when every row has been computed.
+     * @return maximum number of colors in the table
+     */
+    long entries() {
+        return (long) START_COLORS.length * STEPS;
+    }
+
+    /**
+     * Creates a new blend table.
+     * @param steps             total number of steps in the transition
+     * @param interpolator      interpolates between colors
+     * @param pairIds           ID of the color pair for each pixel, in run order
+     * @param startColors       start color of each pair
+     * @param endColors         end color of each pair
+     * @param memory            counts the memory held by the table's rows
+     */
+    private BlendTable(int steps, Interpolator interpolator, int[] pairIds, int[] startColors, int[] endColors,
+                       ComponentMemory memory) {
+        STEPS = steps;
+        INTERPOLATOR = requireNonNull(interpolator, "Interpolator cannot be null");
+        PAIR_IDS = pairIds;
+        START_COLORS = startColors;
+        END_COLORS = endColors;
+        ROWS = new int[steps][];
+        MEMORY = memory;
+    }
+
+    /**
+     * Gets the interpolated color of every pair at a step, computing them if this is the first time
+     * the step is used.
+     * @param step      step to get colors for
+     * @return interpolated colors by pair ID
+     */
+    private int[] row(int step) {
+        if (ROWS[step] == null) {
+            int[] row = MEMORY.allocate(START_COLORS.length);
+            INTERPOLATOR.interpolate(STEPS, step, START_COLORS, END_COLORS, row, 0, row.length);
+            ROWS[step] = row;
+        }
+
+        return ROWS[step];
+    }
+
+}
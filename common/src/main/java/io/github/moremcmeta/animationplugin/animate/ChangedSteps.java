@@ -0,0 +1,150 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the steps of each transition whose colors differ from those of the step before it. The steps
+ * between two changed steps all produce the same colors, so they do not need to be drawn again. Changed
+ * steps are kept for every transition that is found, and there is one transition for each frame in an
+ * animation's timeline, so the cache never grows past the length of the timeline. The cache and the
+ * buffers used to find changed steps are counted in the component's memory.
+ * @author soir20
+ */
+final class ChangedSteps {
+    private final StepRenderer RENDERER;
+    private final int BOX_SIZE;
+    private final Long2ObjectMap<int[]> STEPS_BY_TRANSITION;
+    private final List<int[]> SCRATCH_BUFFERS;
+    private final ComponentMemory MEMORY;
+
+    /**
+     * Creates a new finder for changed steps.
+     * @param runs          pixels in the interpolate area
+     * @param renderer      renders steps of a transition
+     * @param memory        counts the memory held by the changed steps and the buffers used to find them
+     */
+    ChangedSteps(PixelRuns runs, StepRenderer renderer, ComponentMemory memory) {
+        RENDERER = renderer;
+        BOX_SIZE = runs.boxSize();
+        STEPS_BY_TRANSITION = new Long2ObjectOpenHashMap<>();
+        SCRATCH_BUFFERS = new ArrayList<>();
+        MEMORY = memory;
+    }
+
+    /**
+     * Gets the changed steps of a transition, finding them the first time the transition is requested.
+     * @param transition    key for the transition
+     * @param steps         total number of steps in the transition
+     * @param startFrame    frame to start interpolation from
+     * @param endFrame      frame to end interpolation at
+     * @return the changed steps in ascending order
+     */
+    int[] find(long transition, int steps, Frame startFrame, Frame endFrame) {
+        int[] changedSteps = STEPS_BY_TRANSITION.get(transition);
+        if (changedSteps == null) {
+            IntArrayList foundSteps = new IntArrayList();
+
+            int[] firstOutput = scratchBuffer(0);
+            int[] lastOutput = scratchBuffer(1);
+            RENDERER.render(transition, steps, 0, startFrame, endFrame, firstOutput);
+            RENDERER.render(transition, steps, steps - 1, startFrame, endFrame, lastOutput);
+            find(transition, steps, 0, firstOutput, steps - 1, lastOutput, 2, startFrame, endFrame, foundSteps);
+
+            changedSteps = MEMORY.count(foundSteps.toIntArray());
+            STEPS_BY_TRANSITION.put(transition, changedSteps);
+        }
+
+        return changedSteps;
+    }
+
+    /**
+     * Gets the changed steps of a transition if they have already been found.
+     * @param transition    key for the transition
+     * @return the changed steps in ascending order or null if they have not been found
+     */
+    int[] get(long transition) {
+        return STEPS_BY_TRANSITION.get(transition);
+    }
+
+    /**
+     * Releases the buffers used to find changed steps. They are allocated again if another transition
+     * needs to be searched.
+     */
+    void releaseBuffers() {
+        SCRATCH_BUFFERS.forEach(MEMORY::release);
+        SCRATCH_BUFFERS.clear();
+    }
+
+    /**
+     * Finds the changed steps in a range of steps. Since colors change monotonically, a range whose first
+     * and last steps have the same colors has no changed steps, so only ranges with changes are split.
+     * @param transition    key for the transition
+     * @param steps         total number of steps in the transition
+     * @param low           first step in the range
+     * @param lowOutput     colors at the first step in the range
+     * @param high          last step in the range
+     * @param highOutput    colors at the last step in the range
+     * @param depth         index of the scratch buffer that is free to hold the middle step's colors
+     * @param startFrame    frame to start interpolation from
+     * @param endFrame      frame to end interpolation at
+     * @param changedSteps  list to add changed steps to in ascending order
+     */
+    private void find(long transition, int steps, int low, int[] lowOutput, int high, int[] highOutput, int depth,
+                      Frame startFrame, Frame endFrame, IntArrayList changedSteps) {
+        if (high <= low || Arrays.equals(lowOutput, highOutput)) {
+            return;
+        }
+
+        if (high - low == 1) {
+            changedSteps.add(high);
+            return;
+        }
+
+        // The lower half is done with the middle buffer before the upper half reuses the deeper buffers
+        int middle = (low + high) >>> 1;
+        int[] middleOutput = scratchBuffer(depth);
+        RENDERER.render(transition, steps, middle, startFrame, endFrame, middleOutput);
+
+        find(transition, steps, low, lowOutput, middle, middleOutput, depth + 1, startFrame, endFrame,
+                changedSteps);
+        find(transition, steps, middle, middleOutput, high, highOutput, depth + 1, startFrame, endFrame,
+                changedSteps);
+    }
+
+    /**
+     * Gets a scratch buffer, allocating it the first time it is needed.
+     * @param index     index of the buffer, which is the recursion depth it is used at
+     * @return buffer that covers the interpolate area's bounding box
+     */
+    private int[] scratchBuffer(int index) {
+        while (SCRATCH_BUFFERS.size() <= index) {
+            SCRATCH_BUFFERS.add(MEMORY.allocate(BOX_SIZE));
+        }
+
+        return SCRATCH_BUFFERS.get(index);
+    }
+
+}
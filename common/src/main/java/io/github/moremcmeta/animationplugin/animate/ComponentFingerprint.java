@@ -0,0 +1,163 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies everything a texture's {@link AnimationComponent}s are built from. Two fingerprints are only
+ * equal when both the SHA-256 digests of their values and their dimensions are equal, so textures of
+ * different sizes never share components even if their digests collide.
+ * @author soir20
+ */
+public final class ComponentFingerprint {
+    private final byte[] DIGEST;
+    private final int[] DIMENSIONS;
+    private final int HASH_CODE;
+
+    /**
+     * Creates a new fingerprint.
+     * @param digest        digest of every value added to the fingerprint
+     * @param dimensions    every dimension added to the fingerprint, in order
+     */
+    private ComponentFingerprint(byte[] digest, int[] dimensions) {
+        DIGEST = digest;
+        DIMENSIONS = dimensions;
+        HASH_CODE = 31 * Arrays.hashCode(DIGEST) + Arrays.hashCode(DIMENSIONS);
+    }
+
+    /**
+     * Checks whether another object is a fingerprint of the same values and dimensions.
+     * @param other     other object to compare to
+     * @return whether the other object is an equal fingerprint
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof ComponentFingerprint otherFingerprint)) {
+            return false;
+        }
+
+        return HASH_CODE == otherFingerprint.HASH_CODE
+                && Arrays.equals(DIMENSIONS, otherFingerprint.DIMENSIONS)
+                && MessageDigest.isEqual(DIGEST, otherFingerprint.DIGEST);
+    }
+
+    /**
+     * Gets a hash code for this fingerprint, which is consistent with {@link #equals(Object)}.
+     * @return hash code for this fingerprint
+     */
+    @Override
+    public int hashCode() {
+        return HASH_CODE;
+    }
+
+    /**
+     * Builder to create new {@link ComponentFingerprint}s.
+     * @author soir20
+     */
+    public static final class Builder {
+        private static final String ALGORITHM = "SHA-256";
+
+        private final MessageDigest DIGEST;
+        private final IntArrayList DIMENSIONS;
+        private ByteBuffer buffer;
+
+        /**
+         * Creates a new builder for a fingerprint with no values.
+         */
+        public Builder() {
+            try {
+                DIGEST = MessageDigest.getInstance(ALGORITHM);
+            } catch (NoSuchAlgorithmException err) {
+                throw new IllegalStateException("Every Java platform must support " + ALGORITHM, err);
+            }
+
+            DIMENSIONS = new IntArrayList();
+            buffer = ByteBuffer.allocate(Long.BYTES);
+        }
+
+        /**
+         * Adds a value to the fingerprint.
+         * @param value         value to add
+         * @return this builder for chaining
+         */
+        public Builder add(long value) {
+            buffer.clear();
+            buffer.putLong(value);
+            buffer.flip();
+            DIGEST.update(buffer);
+            return this;
+        }
+
+        /**
+         * Adds a dimension, such as a frame width or a number of frames, to the fingerprint. Fingerprints
+         * with different dimensions are never equal.
+         * @param dimension     dimension to add
+         * @return this builder for chaining
+         */
+        public Builder addDimension(int dimension) {
+            DIMENSIONS.add(dimension);
+            return add(dimension);
+        }
+
+        /**
+         * Adds several values, such as a row of colors, to the fingerprint.
+         * @param values        array holding the values to add
+         * @param length        number of values to add from the start of the array
+         * @return this builder for chaining
+         */
+        public Builder add(int[] values, int length) {
+            requireNonNull(values, "Values cannot be null");
+            if (length < 0 || length > values.length) {
+                throw new IllegalArgumentException("Length must be between 0 and " + values.length
+                        + " but was: " + length);
+            }
+
+            if (buffer.capacity() < length * Integer.BYTES) {
+                buffer = ByteBuffer.allocate(length * Integer.BYTES);
+            }
+
+            buffer.clear();
+            buffer.asIntBuffer().put(values, 0, length);
+            buffer.limit(length * Integer.BYTES);
+            DIGEST.update(buffer);
+            return this;
+        }
+
+        /**
+         * Builds a fingerprint of every value added so far. The builder should not be used afterward.
+         * @return fingerprint of the added values
+         */
+        public ComponentFingerprint build() {
+            return new ComponentFingerprint(DIGEST.digest(), DIMENSIONS.toIntArray());
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+/**
+ * Counts the heap memory held by one {@link AnimationComponent}. Its collaborators allocate their buffers
+ * through this class, so the count covers every buffer where it is allocated. Only the colors held in the
+ * buffers are counted, not the overhead of the arrays themselves.
+ * @author soir20
+ */
+final class ComponentMemory {
+    private long bytes;
+
+    /**
+     * Allocates and counts a buffer of colors.
+     * @param length        number of colors in the buffer
+     * @return the new buffer
+     */
+    int[] allocate(int length) {
+        bytes += (long) length * Integer.BYTES;
+        return new int[length];
+    }
+
+    /**
+     * Counts a buffer of colors that was allocated elsewhere.
+     * @param buffer        buffer to count
+     * @return the same buffer
+     */
+    int[] count(int[] buffer) {
+        bytes += (long) buffer.length * Integer.BYTES;
+        return buffer;
+    }
+
+    /**
+     * Stops counting a buffer that is no longer held.
+     * @param buffer        buffer to stop counting
+     */
+    void release(int[] buffer) {
+        bytes -= (long) buffer.length * Integer.BYTES;
+    }
+
+    /**
+     * Gets the number of bytes counted so far.
+     * @return bytes held by the component
+     */
+    long bytes() {
+        return bytes;
+    }
+
+}
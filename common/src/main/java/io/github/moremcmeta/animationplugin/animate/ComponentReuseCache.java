@@ -0,0 +1,331 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps built {@link AnimationComponent}s across resource reloads so that textures whose metadata and
+ * pixels did not change keep their compiled areas and current animation state instead of restarting.
+ * Components are found by a {@link ComponentFingerprint} of everything they were built from, which is
+ * compared in full so that textures with the same hash code do not share components.
+ *
+ * Only textures from an earlier reload can give their components to a later texture. Two identical
+ * textures from the same reload are separate animations, even if one of them was built in the background
+ * after the other started ticking. Call {@link #startReload()} before each reload builds its textures.
+ *
+ * The core mod builds the components for a reloaded texture before it closes the old ones, so components
+ * are shared between the old and the new texture for a short time. Only one of them advances the shared
+ * state: the old texture until the new one ticks for the first time, and the new one afterward. Every lease
+ * of the same components has a higher version than the lease it replaced, and the owner is swapped to the
+ * newest version that has ticked. If the new texture is closed while the old one is still open, ownership
+ * goes back to the old texture. Ticking never takes a lock, so it does not wait on a reload that is
+ * building components in the background.
+ * @author soir20
+ */
+public final class ComponentReuseCache {
+    private static final int DEFAULT_MAX_RETIRED = 512;
+
+    private final int MAX_RETIRED;
+    private final Map<ComponentFingerprint, Deque<Lease>> AVAILABLE;
+    private final Deque<Lease> RETIRED;
+    private long generation;
+    private long retiredBytes;
+
+    /**
+     * Creates a new cache that keeps the default number of components from closed textures.
+     */
+    public ComponentReuseCache() {
+        this(DEFAULT_MAX_RETIRED);
+    }
+
+    /**
+     * Creates a new cache.
+     * @param maxRetired        maximum number of component sets from closed textures to keep. Components
+     *                          of textures that are still open are always available for reuse.
+     */
+    public ComponentReuseCache(int maxRetired) {
+        if (maxRetired < 0) {
+            throw new IllegalArgumentException("Maximum retired components cannot be negative but was: "
+                    + maxRetired);
+        }
+
+        MAX_RETIRED = maxRetired;
+        AVAILABLE = new HashMap<>();
+        RETIRED = new ArrayDeque<>();
+    }
+
+    /**
+     * Starts a new reload. Textures built afterward can reuse the components of textures built before.
+     */
+    public synchronized void startReload() {
+        generation++;
+    }
+
+    /**
+     * Gets the current reload, which should be read when a texture starts building so that a build that
+     * finishes in the background after the next reload starts is still counted in its own reload.
+     * @return current reload generation
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Leases components with the given fingerprint for a texture in the current reload. If components
+     * with the same fingerprint were built for a texture in an earlier reload or for a texture that is
+     * closed, those components are reused. Otherwise, new components are built.
+     * @param fingerprint           fingerprint of the metadata and pixels the components are built from
+     * @param componentBuilder      builds new components if none can be reused
+     * @return lease for the reused or newly-built components
+     */
+    public Lease lease(ComponentFingerprint fingerprint, Supplier<List<AnimationComponent>> componentBuilder) {
+        requireNonNull(fingerprint, "Fingerprint cannot be null");
+        requireNonNull(componentBuilder, "Component builder cannot be null");
+
+        long generation = generation();
+        return reuse(fingerprint, generation).orElseGet(() -> add(fingerprint, generation, componentBuilder.get()));
+    }
+
+    /**
+     * Leases components with the given fingerprint for a texture in the given reload if components with
+     * the same fingerprint were built for a texture in an earlier reload or for a texture that is closed.
+     * @param fingerprint           fingerprint of the metadata and pixels the components are built from
+     * @param generation            reload the texture is built in from {@link #generation()}
+     * @return lease for the reused components or empty if there are none to reuse
+     */
+    public Optional<Lease> reuse(ComponentFingerprint fingerprint, long generation) {
+        requireNonNull(fingerprint, "Fingerprint cannot be null");
+        Lease predecessor = claim(fingerprint, generation);
+        if (predecessor == null) {
+            return Optional.empty();
+        }
+
+        Lease lease = new Lease(fingerprint, predecessor.COMPONENTS, predecessor.OWNER_VERSION,
+                predecessor.VERSION + 1, generation, predecessor);
+        makeAvailable(lease);
+        return Optional.of(lease);
+    }
+
+    /**
+     * Leases newly-built components for a texture in the given reload, which textures in later reloads
+     * with the same fingerprint can reuse. Components can be added from any thread.
+     * @param fingerprint           fingerprint of the metadata and pixels the components are built from
+     * @param generation            reload the texture is built in from {@link #generation()}
+     * @param components            newly-built components
+     * @return lease for the components
+     */
+    public Lease add(ComponentFingerprint fingerprint, long generation, List<AnimationComponent> components) {
+        requireNonNull(fingerprint, "Fingerprint cannot be null");
+        requireNonNull(components, "Built components cannot be null");
+
+        Lease lease = new Lease(fingerprint, components, new AtomicLong(), 0, generation, null);
+        makeAvailable(lease);
+        return lease;
+    }
+
+    /**
+     * Gets the number of component sets from closed textures that are being kept.
+     * @return number of retired component sets
+     */
+    public synchronized int retired() {
+        return RETIRED.size();
+    }
+
+    /**
+     * Gets the heap memory held by component sets from closed textures. Textures no longer count these
+     * components in their own memory once they close.
+     * @return bytes held by retired component sets
+     */
+    public synchronized long retiredBytes() {
+        return retiredBytes;
+    }
+
+    /**
+     * Removes a reusable lease with the given fingerprint from the available leases.
+     * @param fingerprint       fingerprint of the components to find
+     * @param generation        reload of the texture claiming the lease
+     * @return the claimed lease or null if there are no reusable leases
+     */
+    private synchronized Lease claim(ComponentFingerprint fingerprint, long generation) {
+        Deque<Lease> leases = AVAILABLE.get(fingerprint);
+        if (leases == null) {
+            return null;
+        }
+
+        // Open textures from the same reload are separate animations, so they are not replacements
+        Iterator<Lease> iterator = leases.iterator();
+        while (iterator.hasNext()) {
+            Lease lease = iterator.next();
+            if (lease.GENERATION < generation || lease.closed) {
+                iterator.remove();
+                if (RETIRED.remove(lease)) {
+                    retiredBytes -= lease.retiredBytes;
+                }
+
+                if (leases.isEmpty()) {
+                    AVAILABLE.remove(fingerprint);
+                }
+
+                return lease;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Allows the components of a lease to be claimed by a later texture.
+     * @param lease     lease to make available
+     */
+    private synchronized void makeAvailable(Lease lease) {
+        AVAILABLE.computeIfAbsent(lease.FINGERPRINT, (key) -> new ArrayDeque<>()).add(lease);
+    }
+
+    /**
+     * Releases a lease whose texture was closed.
+     * @param lease     lease to release
+     */
+    private synchronized void release(Lease lease) {
+        Deque<Lease> leases = AVAILABLE.get(lease.FINGERPRINT);
+        if (leases == null || !leases.contains(lease)) {
+            return;
+        }
+
+        // The predecessor is still open, so it takes back its components and advances them again
+        Lease predecessor = lease.predecessor;
+        if (predecessor != null && !predecessor.closed) {
+            leases.remove(lease);
+            leases.add(predecessor);
+            lease.OWNER_VERSION.compareAndSet(lease.VERSION, predecessor.VERSION);
+            return;
+        }
+
+        // Retired components no longer draw, so their size does not change until they are claimed
+        lease.retiredBytes = lease.COMPONENTS.stream().mapToLong(AnimationComponent::memoryBytes).sum();
+        retiredBytes += lease.retiredBytes;
+        RETIRED.add(lease);
+        while (RETIRED.size() > MAX_RETIRED) {
+            Lease evicted = RETIRED.remove();
+            retiredBytes -= evicted.retiredBytes;
+            Deque<Lease> evictedLeases = AVAILABLE.get(evicted.FINGERPRINT);
+            evictedLeases.remove(evicted);
+            if (evictedLeases.isEmpty()) {
+                AVAILABLE.remove(evicted.FINGERPRINT);
+            }
+        }
+    }
+
+    /**
+     * A texture's claim on a set of components. Components may be shared with the lease for the texture
+     * that this texture replaced.
+     * @author soir20
+     */
+    public final class Lease {
+        private final ComponentFingerprint FINGERPRINT;
+        private final List<AnimationComponent> COMPONENTS;
+        private final AtomicLong OWNER_VERSION;
+        private final long VERSION;
+        private final long GENERATION;
+        private final boolean REUSED;
+        private volatile Lease predecessor;
+        private volatile boolean ticked;
+        private volatile boolean closed;
+        private long retiredBytes;
+
+        /**
+         * Creates a new lease.
+         * @param fingerprint       fingerprint of the metadata and pixels the components are built from
+         * @param components        leased components
+         * @param ownerVersion      version of the lease that advances the components, shared by all their leases
+         * @param version           version of this lease
+         * @param generation        reload the texture holding this lease was built in
+         * @param predecessor       lease this lease took its components from, if any
+         */
+        private Lease(ComponentFingerprint fingerprint, List<AnimationComponent> components,
+                      AtomicLong ownerVersion, long version, long generation, Lease predecessor) {
+            FINGERPRINT = fingerprint;
+            COMPONENTS = components;
+            OWNER_VERSION = ownerVersion;
+            VERSION = version;
+            GENERATION = generation;
+            REUSED = predecessor != null;
+            this.predecessor = predecessor;
+        }
+
+        /**
+         * Gets the leased components, which are in the same order as they were built.
+         * @return leased components
+         */
+        public List<AnimationComponent> components() {
+            return COMPONENTS;
+        }
+
+        /**
+         * Checks whether these components were taken from an earlier texture.
+         * @return whether these components were reused
+         */
+        public boolean reused() {
+            return REUSED;
+        }
+
+        /**
+         * Records that the texture holding this lease is ticking.
+         * @return whether the texture should advance the components' state. If false, the texture
+         *         should only draw the components' current state.
+         */
+        public boolean tick() {
+            if (!ticked) {
+                ticked = true;
+                OWNER_VERSION.accumulateAndGet(VERSION, Math::max);
+            }
+
+            // Drop the reference once it cannot take the components back so that leases do not form a chain
+            Lease currentPredecessor = predecessor;
+            if (currentPredecessor != null && currentPredecessor.closed) {
+                predecessor = null;
+            }
+
+            return OWNER_VERSION.get() == VERSION;
+        }
+
+        /**
+         * Releases this lease when its texture is closed. The components stay available for reuse.
+         */
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            release(this);
+        }
+
+    }
+
+}
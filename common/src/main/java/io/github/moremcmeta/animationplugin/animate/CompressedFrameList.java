@@ -0,0 +1,403 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Frames that are kept compressed in memory for long, high-resolution animations. Only a small ring
+ * of frames is decompressed at a time. When the animation says which frames it will read next, a
+ * shared worker thread decompresses them into the ring ahead of time, so reading an expected frame
+ * does not wait for decompression. Reading a frame that was not expected decompresses it on the
+ * reading thread instead. Frames should only be read from one thread.
+ * @author soir20
+ */
+public final class CompressedFrameList extends AbstractList<Frame> implements FrameLookahead {
+    public static final int RING_SIZE = 6;
+    public static final int MAX_EXPECTED_FRAMES = RING_SIZE - 2;
+
+    private static final Executor DECOMPRESSOR = Executors.newSingleThreadExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "MoreMcmeta Animation Frame Decompressor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final byte[][] COMPRESSED_FRAMES;
+    private final int WIDTH;
+    private final int FRAME_BYTES;
+    private final ByteBuffer[] SLOT_BYTES;
+    private final IntBuffer[] SLOT_PIXELS;
+    private final int[] SLOT_FRAMES;
+    private final boolean[] SLOT_READY;
+    private final List<Frame> VIEWS;
+    private int[] expectedFrames;
+    private boolean prefetchQueued;
+    private boolean closed;
+
+    /**
+     * Compresses frames into a new compressed frame list. A frame that appears more than once in the list
+     * is only compressed once.
+     * @param frames        frames to compress
+     * @param width         width of every frame
+     * @param height        height of every frame
+     * @return the compressed frames, in the same order
+     */
+    public static CompressedFrameList compress(List<? extends Frame> frames, int width, int height) {
+        requireNonNull(frames, "Frames cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Frame width and height must be positive but were: "
+                    + width + "x" + height);
+        }
+
+        ByteBuffer pixels = ByteBuffer.allocate(width * height * Integer.BYTES).order(ByteOrder.nativeOrder());
+        byte[][] compressedFrames = new byte[frames.size()][];
+        Map<Frame, byte[]> compressedByFrame = new IdentityHashMap<>();
+        int[] row = new int[width];
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            for (int index = 0; index < frames.size(); index++) {
+                byte[] existing = compressedByFrame.get(frames.get(index));
+                if (existing != null) {
+                    compressedFrames[index] = existing;
+                    continue;
+                }
+
+                IntBuffer pixelInts = pixels.clear().asIntBuffer();
+                for (int y = 0; y < height; y++) {
+                    frames.get(index).copyRow(0, y, width, row, 0);
+                    pixelInts.put(row);
+                }
+
+                deflater.reset();
+                deflater.setInput(pixels);
+                deflater.finish();
+
+                byte[] compressed = new byte[Math.max(64, pixels.capacity() / 4)];
+                int compressedLength = 0;
+                while (!deflater.finished()) {
+                    if (compressedLength == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    compressedLength += deflater.deflate(compressed, compressedLength,
+                            compressed.length - compressedLength);
+                }
+
+                compressedFrames[index] = Arrays.copyOf(compressed, compressedLength);
+                compressedByFrame.put(frames.get(index), compressedFrames[index]);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        return new CompressedFrameList(compressedFrames, width, height);
+    }
+
+    @Override
+    public Frame get(int index) {
+        return VIEWS.get(index);
+    }
+
+    @Override
+    public int size() {
+        return VIEWS.size();
+    }
+
+    @Override
+    public synchronized void expect(int[] frameIndices) {
+        requireNonNull(frameIndices, "Frame indices cannot be null");
+        if (frameIndices.length > MAX_EXPECTED_FRAMES) {
+            throw new IllegalArgumentException("Cannot expect more than " + MAX_EXPECTED_FRAMES
+                    + " frames but got " + frameIndices.length);
+        }
+
+        expectedFrames = frameIndices.clone();
+
+        if (!prefetchQueued && !closed && nextMissingFrame() >= 0) {
+            prefetchQueued = true;
+            DECOMPRESSOR.execute(this::prefetch);
+        }
+    }
+
+    @Override
+    public int maxExpectedFrames() {
+        return MAX_EXPECTED_FRAMES;
+    }
+
+    /**
+     * Checks whether a frame is decompressed and can be read without waiting.
+     * @param frameIndex    index of the frame
+     * @return whether the frame is decompressed
+     */
+    public synchronized boolean isReady(int frameIndex) {
+        int slot = findSlot(frameIndex);
+        return slot >= 0 && SLOT_READY[slot];
+    }
+
+    /**
+     * Estimates the memory used by these frames.
+     * @return size of all compressed frames and the ring of decompressed frames in bytes
+     */
+    public long bytes() {
+        long compressedBytes = Arrays.stream(COMPRESSED_FRAMES).distinct().mapToLong((frame) -> frame.length).sum();
+        return compressedBytes + (long) RING_SIZE * FRAME_BYTES;
+    }
+
+    /**
+     * Stops decompressing frames ahead of time. Frames can still be read afterward.
+     */
+    public synchronized void close() {
+        closed = true;
+    }
+
+    /**
+     * Creates a new compressed frame list.
+     * @param compressedFrames      compressed pixels of every frame
+     * @param width                 width of every frame
+     * @param height                height of every frame
+     */
+    private CompressedFrameList(byte[][] compressedFrames, int width, int height) {
+        COMPRESSED_FRAMES = compressedFrames;
+        WIDTH = width;
+        FRAME_BYTES = width * height * Integer.BYTES;
+
+        SLOT_BYTES = new ByteBuffer[RING_SIZE];
+        SLOT_PIXELS = new IntBuffer[RING_SIZE];
+        SLOT_FRAMES = new int[RING_SIZE];
+        SLOT_READY = new boolean[RING_SIZE];
+        Arrays.fill(SLOT_FRAMES, -1);
+
+        Frame[] views = new Frame[compressedFrames.length];
+        for (int index = 0; index < compressedFrames.length; index++) {
+            views[index] = new CompressedFrame(index);
+        }
+        VIEWS = List.of(views);
+
+        expectedFrames = new int[0];
+    }
+
+    /**
+     * Gets the pixels of a frame, decompressing it on this thread if it is not in the ring already.
+     * @param frameIndex    index of the frame
+     * @return the frame's pixels by row
+     */
+    private IntBuffer pixels(int frameIndex) {
+        int slot;
+        synchronized (this) {
+            while (true) {
+                slot = findSlot(frameIndex);
+                if (slot >= 0 && SLOT_READY[slot]) {
+                    return SLOT_PIXELS[slot];
+                }
+
+                // Wait if the worker is already decompressing this frame or every slot is in use
+                if (slot < 0) {
+                    slot = freeSlot();
+                    if (slot >= 0) {
+                        SLOT_FRAMES[slot] = frameIndex;
+                        break;
+                    }
+                }
+
+                waitForSlot();
+            }
+        }
+
+        decompress(slot, frameIndex);
+        return SLOT_PIXELS[slot];
+    }
+
+    /**
+     * Decompresses every expected frame that is not in the ring yet. Runs on the worker thread.
+     */
+    private void prefetch() {
+        while (true) {
+            int frameIndex;
+            int slot;
+            synchronized (this) {
+                frameIndex = closed ? -1 : nextMissingFrame();
+                slot = frameIndex < 0 ? -1 : freeSlot();
+                if (slot < 0) {
+                    prefetchQueued = false;
+                    return;
+                }
+
+                SLOT_FRAMES[slot] = frameIndex;
+            }
+
+            decompress(slot, frameIndex);
+        }
+    }
+
+    /**
+     * Decompresses a frame into a slot claimed for it and marks the slot as ready.
+     * @param slot          slot claimed for the frame
+     * @param frameIndex    index of the frame
+     */
+    private void decompress(int slot, int frameIndex) {
+        if (SLOT_BYTES[slot] == null) {
+            SLOT_BYTES[slot] = ByteBuffer.allocateDirect(FRAME_BYTES).order(ByteOrder.nativeOrder());
+            SLOT_PIXELS[slot] = SLOT_BYTES[slot].asIntBuffer();
+        }
+
+        ByteBuffer output = SLOT_BYTES[slot].clear();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(COMPRESSED_FRAMES[frameIndex]);
+            while (output.hasRemaining() && !inflater.finished()) {
+                inflater.inflate(output);
+            }
+        } catch (DataFormatException err) {
+            throw new IllegalStateException("Compressed frame " + frameIndex + " is corrupt", err);
+        } finally {
+            inflater.end();
+
+            synchronized (this) {
+                SLOT_READY[slot] = output.position() == FRAME_BYTES;
+                if (!SLOT_READY[slot]) {
+                    SLOT_FRAMES[slot] = -1;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Finds the slot that contains or is being filled with a frame.
+     * @param frameIndex    index of the frame
+     * @return the slot or -1 if the frame is not in the ring
+     */
+    private int findSlot(int frameIndex) {
+        for (int slot = 0; slot < RING_SIZE; slot++) {
+            if (SLOT_FRAMES[slot] == frameIndex) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds a slot that can be filled with a new frame: either an empty slot or a slot with a frame that
+     * is no longer expected. Marks the slot as not ready.
+     * @return the slot or -1 if every slot is in use
+     */
+    private int freeSlot() {
+        int freeSlot = -1;
+        for (int slot = 0; slot < RING_SIZE && freeSlot < 0; slot++) {
+            if (SLOT_FRAMES[slot] < 0) {
+                freeSlot = slot;
+            }
+        }
+
+        for (int slot = 0; slot < RING_SIZE && freeSlot < 0; slot++) {
+            if (SLOT_READY[slot] && !isExpected(SLOT_FRAMES[slot])) {
+                freeSlot = slot;
+            }
+        }
+
+        if (freeSlot >= 0) {
+            SLOT_READY[freeSlot] = false;
+        }
+
+        return freeSlot;
+    }
+
+    /**
+     * Finds the first expected frame that is not in the ring.
+     * @return the index of the frame or -1 if all expected frames are in the ring
+     */
+    private int nextMissingFrame() {
+        for (int frameIndex : expectedFrames) {
+            if (findSlot(frameIndex) < 0) {
+                return frameIndex;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks whether a frame is expected to be read soon.
+     * @param frameIndex    index of the frame
+     * @return whether the frame is expected
+     */
+    private boolean isExpected(int frameIndex) {
+        for (int expectedFrame : expectedFrames) {
+            if (expectedFrame == frameIndex) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Waits until another thread finishes decompressing a frame.
+     */
+    private void waitForSlot() {
+        try {
+            wait();
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a frame to decompress", err);
+        }
+    }
+
+    /**
+     * A single frame in a {@link CompressedFrameList}.
+     * @author soir20
+     */
+    private final class CompressedFrame implements Frame {
+        private final int INDEX;
+
+        /**
+         * Creates a new compressed frame.
+         * @param index     index of the frame in the list
+         */
+        public CompressedFrame(int index) {
+            INDEX = index;
+        }
+
+        @Override
+        public int color(int x, int y) {
+            return pixels(INDEX).get(y * WIDTH + x);
+        }
+
+        @Override
+        public void copyRow(int x, int y, int length, int[] destination, int offset) {
+            pixels(INDEX).get(y * WIDTH + x, destination, offset, length);
+        }
+
+    }
+
+}
@@ -19,6 +19,8 @@ package io.github.moremcmeta.animationplugin.animate;
 
 import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
 
+import java.util.Optional;
+
 /**
  * Generates an interpolated color in between two other colors using
  * Minecraft's default alpha interpolation (always uses the alpha value of the
@@ -26,10 +28,32 @@ import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
  * @author soir20
  */
 public final class DefaultAlphaInterpolator extends RGBAInterpolator {
+    private static final Optional<RowMixer> ROW_MIXER = VectorSupport.rowMixer(false);
+
+    /**
+     * Creates an interpolator that mixes sRGB values without weighting them by alpha.
+     */
+    public DefaultAlphaInterpolator() {
+        super();
+    }
+
+    /**
+     * Creates an interpolator.
+     * @param linear            whether to mix the red, green, and blue components in linear light
+     * @param premultiplied     whether to weight the red, green, and blue components by alpha
+     */
+    public DefaultAlphaInterpolator(boolean linear, boolean premultiplied) {
+        super(linear, premultiplied);
+    }
 
     @Override
     protected int mixAlpha(double startProportion, int startColor, int endColor) {
         return Color.alpha(startColor);
     }
 
+    @Override
+    Optional<RowMixer> rowMixer() {
+        return ROW_MIXER;
+    }
+
 }
@@ -0,0 +1,116 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.math.Area;
+
+/**
+ * Draws for the {@link AnimationComponent.Strategy#DELTA} strategy by interpolating every pixel, or every
+ * pixel in the next interleaved subset, but only writing the pixels that differ from the last draw. The
+ * pixels are only compared when the current frame still contains the last draw's colors.
+ * @author soir20
+ */
+final class DeltaDrawer extends Drawer {
+    private final StepRenderer RENDERER;
+    private final Interleaver INTERLEAVER;
+    private final ComponentMemory MEMORY;
+    private int[] drawBuffer;
+    private int[] lastOutput;
+    private CurrentFrameView deltaTarget;
+
+    /**
+     * Creates a new delta drawer.
+     * @param runs          pixels in the interpolate area
+     * @param renderer      renders steps of a transition
+     * @param interleaver   splits the interpolate area into subsets that are drawn on successive ticks
+     * @param memory        counts the memory held by the drawer's buffers
+     */
+    public DeltaDrawer(PixelRuns runs, StepRenderer renderer, Interleaver interleaver, ComponentMemory memory) {
+        super(runs);
+        RENDERER = renderer;
+        INTERLEAVER = interleaver;
+        MEMORY = memory;
+    }
+
+    @Override
+    int draw(CurrentFrameView currentFrame, boolean fromTick, long frameStart, long transition,
+             int steps, int step, Frame startFrame, Frame endFrame) {
+
+        // The frame may be drawn to by several textures, so only this component's own ticks can trust it
+        boolean frameHasLastOutput = fromTick && currentFrame == deltaTarget;
+        deltaTarget = null;
+
+        // Buffers are allocated on the first draw, since many components are built but never drawn
+        if (drawBuffer == null) {
+            drawBuffer = MEMORY.allocate(runs().boxSize());
+            lastOutput = MEMORY.allocate(runs().boxSize());
+        }
+
+        // The other subsets keep the colors from their own last draws, so the delta only finds this subset
+        INTERLEAVER.render(RENDERER, currentFrame, fromTick, frameStart, transition, steps, step, startFrame,
+                endFrame, drawBuffer);
+
+        int pixelsWritten;
+        if (frameHasLastOutput) {
+            pixelsWritten = writeChanged(currentFrame);
+        } else {
+            write(currentFrame, drawBuffer, runs().area());
+            pixelsWritten = runs().areaSize();
+        }
+
+        System.arraycopy(drawBuffer, 0, lastOutput, 0, drawBuffer.length);
+        if (fromTick) {
+            deltaTarget = currentFrame;
+        }
+
+        return pixelsWritten;
+    }
+
+    /**
+     * Writes only the pixels whose colors differ from the last draw.
+     * @param currentFrame      current frame of the animated texture (to which all animations write)
+     * @return number of pixels written to the current frame
+     */
+    private int writeChanged(CurrentFrameView currentFrame) {
+        PixelRuns runs = runs();
+        int[] runX = runs.runX();
+        int[] runY = runs.runY();
+        int[] runLength = runs.runLength();
+        int[] runOffset = runs.runOffset();
+
+        Area.Builder changedArea = new Area.Builder();
+        int pixelsWritten = 0;
+        for (int run = 0; run < runX.length; run++) {
+            int offset = runOffset[run];
+            for (int index = 0; index < runLength[run]; index++) {
+                if (drawBuffer[offset + index] != lastOutput[offset + index]) {
+                    changedArea.addPixel(runX[run] + runs.xInBase() + index, runY[run] + runs.yInBase());
+                    pixelsWritten++;
+                }
+            }
+        }
+
+        if (pixelsWritten > 0) {
+            write(currentFrame, drawBuffer, changedArea.build());
+        }
+
+        return pixelsWritten;
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+
+/**
+ * Draws for the {@link AnimationComponent.Strategy#DIRECT} strategy by reading and interpolating every
+ * pixel in the interpolate area, or in its next interleaved subset, on every draw.
+ * @author soir20
+ */
+final class DirectDrawer extends Drawer {
+    private final StepRenderer RENDERER;
+    private final Interleaver INTERLEAVER;
+    private final ComponentMemory MEMORY;
+    private int[] drawBuffer;
+
+    /**
+     * Creates a new direct drawer.
+     * @param runs          pixels in the interpolate area
+     * @param renderer      renders steps of a transition
+     * @param interleaver   splits the interpolate area into subsets that are drawn on successive ticks
+     * @param memory        counts the memory held by the drawer's buffers
+     */
+    public DirectDrawer(PixelRuns runs, StepRenderer renderer, Interleaver interleaver, ComponentMemory memory) {
+        super(runs);
+        RENDERER = renderer;
+        INTERLEAVER = interleaver;
+        MEMORY = memory;
+    }
+
+    @Override
+    int draw(CurrentFrameView currentFrame, boolean fromTick, long frameStart, long transition,
+             int steps, int step, Frame startFrame, Frame endFrame) {
+
+        // Buffers are allocated on the first draw, since many components are built but never drawn
+        if (drawBuffer == null) {
+            drawBuffer = MEMORY.allocate(runs().boxSize());
+        }
+
+        int subset = INTERLEAVER.render(RENDERER, currentFrame, fromTick, frameStart, transition, steps, step,
+                startFrame, endFrame, drawBuffer);
+
+        if (subset >= 0) {
+            write(currentFrame, drawBuffer, INTERLEAVER.area(subset));
+            return INTERLEAVER.areaSize(subset);
+        }
+
+        write(currentFrame, drawBuffer, runs().area());
+        return runs().areaSize();
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import io.github.moremcmeta.moremcmeta.api.client.texture.ColorTransform;
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.math.Area;
+
+/**
+ * Draws one step of an animation's current transition to the current frame. Each
+ * {@link AnimationComponent.Strategy} has its own drawer, which decides where the step's colors come
+ * from and which pixels are written.
+ * @author soir20
+ */
+abstract class Drawer {
+    private final PixelRuns RUNS;
+    private final ColorTransform BUFFER_READER;
+    private int[] writtenColors;
+
+    /**
+     * Creates a drawer for a strategy.
+     * @param strategy      how the component draws to the current frame
+     * @param runs          pixels in the interpolate area
+     * @param renderer      renders steps of a transition
+     * @param interleaver   splits the interpolate area into subsets that are drawn on successive ticks
+     * @param memory        counts the memory held by the drawer's buffers
+     * @return a drawer for the strategy
+     */
+    static Drawer of(AnimationComponent.Strategy strategy, PixelRuns runs, StepRenderer renderer,
+                     Interleaver interleaver, ComponentMemory memory) {
+        return switch (strategy) {
+            case NO_OP -> new NoOpDrawer(runs);
+            case DIRECT -> new DirectDrawer(runs, renderer, interleaver, memory);
+            case PRECOMPUTED -> new PrecomputedDrawer(runs, renderer, memory);
+            case DELTA -> new DeltaDrawer(runs, renderer, interleaver, memory);
+        };
+    }
+
+    /**
+     * Prepares to draw a transition before the component is first ticked. Most drawers have nothing to
+     * prepare.
+     * @param transition        key for the transition
+     * @param steps             total number of steps in the transition
+     * @param startFrame        frame to start interpolation from
+     * @param endFrame          frame to end interpolation at
+     */
+    void prepare(long transition, int steps, Frame startFrame, Frame endFrame) {}
+
+    /**
+     * Draws one step of a transition to the current frame.
+     * @param currentFrame      current frame of the animated texture (to which all animations write)
+     * @param fromTick          whether this draw is part of this component's tick, rather than a draw
+     *                          for a texture that shares this component
+     * @param frameStart        tick on which the current frame started
+     * @param transition        key for the transition or -1 if there is no key
+     * @param steps             total number of steps in the transition
+     * @param step              step to draw
+     * @param startFrame        frame to start interpolation from
+     * @param endFrame          frame to end interpolation at
+     * @return number of pixels written to the current frame
+     */
+    abstract int draw(CurrentFrameView currentFrame, boolean fromTick, long frameStart, long transition,
+                      int steps, int step, Frame startFrame, Frame endFrame);
+
+    /**
+     * Creates a new drawer.
+     * @param runs      pixels in the interpolate area
+     */
+    protected Drawer(PixelRuns runs) {
+        RUNS = runs;
+        BUFFER_READER = (overwriteX, overwriteY, dependencyFunction) ->
+                writtenColors[RUNS.bufferIndex(overwriteX, overwriteY)];
+    }
+
+    /**
+     * Gets the pixels in the interpolate area.
+     * @return pixels in the interpolate area
+     */
+    protected final PixelRuns runs() {
+        return RUNS;
+    }
+
+    /**
+     * Writes colors from a buffer to some of the pixels in the current frame.
+     * @param currentFrame      current frame of the animated texture (to which all animations write)
+     * @param colors            buffer that covers the interpolate area with the colors to write
+     * @param area              pixels to write
+     */
+    protected final void write(CurrentFrameView currentFrame, int[] colors, Area area) {
+        writtenColors = colors;
+        currentFrame.generateWith(BUFFER_READER, area);
+    }
+
+    /**
+     * Draws nothing. Only correct for animations whose frames never change.
+     * @author soir20
+     */
+    private static final class NoOpDrawer extends Drawer {
+
+        /**
+         * Creates a new drawer that draws nothing.
+         * @param runs      pixels in the interpolate area
+         */
+        public NoOpDrawer(PixelRuns runs) {
+            super(runs);
+        }
+
+        @Override
+        int draw(CurrentFrameView currentFrame, boolean fromTick, long frameStart, long transition,
+                 int steps, int step, Frame startFrame, Frame endFrame) {
+            return 0;
+        }
+
+    }
+
+}
@@ -31,4 +31,19 @@ public interface Frame {
      */
     int color(int x, int y);
 
+    /**
+     * Copies a horizontal run of pixels in a row of this frame into an array. Frames that can read
+     * several pixels at once should override this method.
+     * @param x             x-coordinate of the first pixel in the run
+     * @param y             y-coordinate of the row
+     * @param length        number of pixels to copy
+     * @param destination   array to copy the pixels into
+     * @param offset        index in the array to copy the first pixel to
+     */
+    default void copyRow(int x, int y, int length, int[] destination, int offset) {
+        for (int index = 0; index < length; index++) {
+            destination[offset + index] = color(x + index, y);
+        }
+    }
+
 }
@@ -0,0 +1,41 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+/**
+ * Frames that can prepare the frames an animation will read soon before they are read, such as frames
+ * that have to be decompressed first.
+ * @author soir20
+ */
+public interface FrameLookahead {
+
+    /**
+     * Tells the frames which ones will be read next. The frames that the animation is reading now come
+     * first, followed by the frames it will read after them in order. These frames stay readable until
+     * the next call to this method. The array is not kept, so it may be reused for the next call.
+     * @param frameIndices      indices of the frames to prepare, in the order they will be read
+     */
+    void expect(int[] frameIndices);
+
+    /**
+     * Gets the maximum number of frames that can be expected at once.
+     * @return maximum number of frame indices to pass to {@link #expect(int[])}
+     */
+    int maxExpectedFrames();
+
+}
@@ -0,0 +1,94 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Frame} whose pixels are stored in an array on the heap, by row.
+ * @author soir20
+ */
+public final class HeapFrame implements Frame {
+    private final int[] PIXELS;
+    private final int WIDTH;
+
+    /**
+     * Copies frames onto the heap so that the memory they were read from can be freed. A frame that
+     * appears more than once in the list is only copied once.
+     * @param frames        frames to copy
+     * @param width         width of every frame
+     * @param height        height of every frame
+     * @return the copied frames, in the same order
+     */
+    public static List<HeapFrame> copyOf(List<? extends Frame> frames, int width, int height) {
+        requireNonNull(frames, "Frames cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Frame width and height must be positive but were: "
+                    + width + "x" + height);
+        }
+
+        Map<Frame, HeapFrame> copiedFrames = new IdentityHashMap<>();
+        return frames.stream().map((frame) -> copiedFrames.computeIfAbsent(frame, (key) -> {
+            int[] pixels = new int[width * height];
+            for (int y = 0; y < height; y++) {
+                key.copyRow(0, y, width, pixels, y * width);
+            }
+
+            return new HeapFrame(pixels, width);
+        })).toList();
+    }
+
+    /**
+     * Creates a new frame over an array of packed colors. The array is not copied.
+     * @param pixels        all pixels in the frame, by row
+     * @param width         number of pixels in a single row of the frame
+     */
+    public HeapFrame(int[] pixels, int width) {
+        requireNonNull(pixels, "Pixels cannot be null");
+        if (width <= 0 || pixels.length % width != 0) {
+            throw new IllegalArgumentException("Width must be positive and divide the pixel count but was: "
+                    + width);
+        }
+
+        PIXELS = pixels;
+        WIDTH = width;
+    }
+
+    @Override
+    public int color(int x, int y) {
+        return PIXELS[y * WIDTH + x];
+    }
+
+    @Override
+    public void copyRow(int x, int y, int length, int[] destination, int offset) {
+        System.arraycopy(PIXELS, y * WIDTH + x, destination, offset, length);
+    }
+
+    /**
+     * Gets the size of this frame's pixels.
+     * @return size of the pixels in bytes
+     */
+    public long bytes() {
+        return (long) PIXELS.length * Integer.BYTES;
+    }
+
+}
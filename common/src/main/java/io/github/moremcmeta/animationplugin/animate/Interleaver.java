@@ -0,0 +1,185 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.math.Area;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Splits an animation's interpolate area into several subsets and renders only one subset on each draw
+ * while a transition is being interpolated. Every pixel is rendered whenever the animation moves to a new
+ * frame, so the frames themselves are never torn. Components with a reduced resolution are never
+ * interleaved.
+ * @author soir20
+ */
+final class Interleaver {
+    private final int FACTOR;
+    private final int[][] RUN_X;
+    private final int[][] RUN_Y;
+    private final int[][] RUN_LENGTH;
+    private final int[][] RUN_OFFSET;
+    private final Area[] AREAS;
+    private final int[] AREA_SIZES;
+    private CurrentFrameView target;
+    private long frameStart;
+    private long transition;
+    private int step;
+    private int nextSubset;
+    private int staleSubsets;
+
+    /**
+     * Creates a new interleaver.
+     * @param runs          pixels in the interpolate area
+     * @param interleave    how the interpolate area is split into subsets
+     * @param factor        number of subsets or 1 to render every pixel on every draw
+     */
+    Interleaver(PixelRuns runs, AnimationComponent.Interleave interleave, int factor) {
+        FACTOR = factor;
+        RUN_X = new int[factor][];
+        RUN_Y = new int[factor][];
+        RUN_LENGTH = new int[factor][];
+        RUN_OFFSET = new int[factor][];
+        AREAS = new Area[factor];
+        AREA_SIZES = new int[factor];
+        if (factor > 1) {
+            for (int subset = 0; subset < factor; subset++) {
+                findRuns(runs, interleave, subset);
+            }
+        }
+    }
+
+    /**
+     * Renders the next subset of the interpolate area if the draw can update only one subset, or the whole
+     * area otherwise. A draw must update every pixel if it starts a new frame, if the current frame may not
+     * contain the last draw, or if the transition is not being interpolated. Transitions with blend tables
+     * are also updated in full, since writing from the table is cheaper than interpolating any subset.
+     * @param renderer          renders steps of the transition
+     * @param currentFrame      current frame of the animated texture (to which all animations write)
+     * @param fromTick          whether this draw is part of this component's tick
+     * @param frameStart        tick on which the current frame started
+     * @param transition        key for the transition or -1 if there is no key
+     * @param steps             total number of steps in the transition
+     * @param step              step to draw
+     * @param startFrame        frame to start interpolation from
+     * @param endFrame          frame to end interpolation at
+     * @param output            buffer that covers the interpolate area to write the interpolated colors to
+     * @return index of the subset that was rendered, or -1 if the whole area was rendered
+     */
+    int render(StepRenderer renderer, CurrentFrameView currentFrame, boolean fromTick, long frameStart,
+               long transition, int steps, int step, Frame startFrame, Frame endFrame, int[] output) {
+        boolean canRenderSubset = FACTOR > 1 && !renderer.reducesResolution() && fromTick && currentFrame == target
+                && frameStart == this.frameStart && transition == this.transition && renderer.needsEnd(steps, step)
+                && renderer.blendTable(transition, steps, startFrame, endFrame).isEmpty();
+
+        if (canRenderSubset) {
+            int subset = nextSubset;
+            renderer.renderRuns(steps, step, startFrame, endFrame, output, RUN_X[subset], RUN_Y[subset],
+                    RUN_LENGTH[subset], RUN_OFFSET[subset]);
+
+            staleSubsets = step == this.step ? Math.max(0, staleSubsets - 1) : FACTOR - 1;
+            this.step = step;
+            nextSubset = (subset + 1) % FACTOR;
+            return subset;
+        }
+
+        renderer.render(transition, steps, step, startFrame, endFrame, output);
+
+        // Every pixel is up-to-date, so the next draw can begin a new rotation through the subsets
+        target = fromTick ? currentFrame : null;
+        this.frameStart = frameStart;
+        this.transition = transition;
+        this.step = step;
+        nextSubset = 0;
+        staleSubsets = 0;
+        return -1;
+    }
+
+    /**
+     * Gets the pixels in one subset.
+     * @param subset    index of the subset
+     * @return the pixels in the subset, in the base texture
+     */
+    Area area(int subset) {
+        return AREAS[subset];
+    }
+
+    /**
+     * Gets the number of pixels in one subset.
+     * @param subset    index of the subset
+     * @return number of pixels in the subset
+     */
+    int areaSize(int subset) {
+        return AREA_SIZES[subset];
+    }
+
+    /**
+     * Gets the number of subsets that have not been rendered since the step last changed.
+     * @return number of subsets that still show an earlier step
+     */
+    int staleSubsets() {
+        return staleSubsets;
+    }
+
+    /**
+     * Splits the runs in the interpolate area into the runs of pixels that belong to one subset.
+     * @param runs          pixels in the interpolate area
+     * @param interleave    how the interpolate area is split into subsets
+     * @param subset        index of the subset to find runs for
+     */
+    private void findRuns(PixelRuns runs, AnimationComponent.Interleave interleave, int subset) {
+        IntArrayList runX = new IntArrayList();
+        IntArrayList runY = new IntArrayList();
+        IntArrayList runLength = new IntArrayList();
+        IntArrayList runOffset = new IntArrayList();
+        Area.Builder area = new Area.Builder();
+        int pixels = 0;
+
+        for (int run = 0; run < runs.runs(); run++) {
+            for (int index = 0; index < runs.runLength()[run]; index++) {
+                int x = runs.runX()[run] + index;
+                int y = runs.runY()[run];
+                if (interleave.subset(x + runs.xInBase(), y + runs.yInBase(), FACTOR) != subset) {
+                    continue;
+                }
+
+                area.addPixel(x + runs.xInBase(), y + runs.yInBase());
+                pixels++;
+
+                int lastRun = runX.size() - 1;
+                if (lastRun >= 0 && runY.getInt(lastRun) == y
+                        && runX.getInt(lastRun) + runLength.getInt(lastRun) == x) {
+                    runLength.set(lastRun, runLength.getInt(lastRun) + 1);
+                } else {
+                    runX.add(x);
+                    runY.add(y);
+                    runLength.add(1);
+                    runOffset.add(runs.runOffset()[run] + index);
+                }
+            }
+        }
+
+        RUN_X[subset] = runX.toIntArray();
+        RUN_Y[subset] = runY.toIntArray();
+        RUN_LENGTH[subset] = runLength.toIntArray();
+        RUN_OFFSET[subset] = runOffset.toIntArray();
+        AREAS[subset] = area.build();
+        AREA_SIZES[subset] = pixels;
+    }
+
+}
@@ -33,4 +33,44 @@ public interface Interpolator {
      */
     int interpolate(int steps, int step, int start, int end);
 
+    /**
+     * Calculates the colors between two runs of colors at a certain step. The output array may be the
+     * same as the start array, in which case the start colors are replaced. Interpolators that can
+     * share work between pixels should override this method.
+     * @param steps     total number of steps to interpolate
+     * @param step      current step of the interpolation (between 1 and steps - 1)
+     * @param start     colors to start interpolation from
+     * @param end       colors to end interpolation at
+     * @param output    array to write the interpolated colors to
+     * @param offset    index of the first color in all three arrays
+     * @param length    number of colors to interpolate
+     */
+    default void interpolate(int steps, int step, int[] start, int[] end, int[] output, int offset, int length) {
+        for (int index = offset; index < offset + length; index++) {
+            output[index] = interpolate(steps, step, start[index], end[index]);
+        }
+    }
+
+    /**
+     * Checks whether the interpolated color at a certain step depends on the end color. When it does not,
+     * the end colors do not need to be read at all.
+     * @param steps     total number of steps to interpolate
+     * @param step      current step of the interpolation
+     * @return whether the end color is needed to interpolate at this step
+     */
+    default boolean needsEnd(int steps, int step) {
+        return true;
+    }
+
+    /**
+     * Checks whether every channel of the interpolated color moves in only one direction as the step
+     * increases, for any start and end color. When it does, two steps that produce the same colors also
+     * produce the same colors at every step between them, so unchanged steps can be found without
+     * interpolating every step.
+     * @return whether every channel changes monotonically with the step
+     */
+    default boolean changesMonotonically() {
+        return false;
+    }
+
 }
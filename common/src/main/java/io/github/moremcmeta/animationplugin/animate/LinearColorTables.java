@@ -0,0 +1,84 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+/**
+ * Converts color channels between sRGB and linear light with precomputed tables, so that interpolation
+ * in linear light needs no calls to {@link Math#pow(double, double)}. Linear values are between 0 and 1.
+ * The table from linear light back to sRGB has more entries than there are sRGB values because sRGB
+ * values near black are very close together in linear light.
+ * @author soir20
+ */
+final class LinearColorTables {
+    private static final int SRGB_VALUES = 256;
+    private static final int LINEAR_STEPS = 16383;
+    private static final double[] TO_LINEAR = new double[SRGB_VALUES];
+    private static final byte[] TO_SRGB = new byte[LINEAR_STEPS + 1];
+
+    static {
+        for (int srgb = 0; srgb < SRGB_VALUES; srgb++) {
+            TO_LINEAR[srgb] = decode(srgb / 255.0);
+        }
+
+        for (int step = 0; step <= LINEAR_STEPS; step++) {
+            TO_SRGB[step] = (byte) Math.round(encode(step / (double) LINEAR_STEPS) * 255);
+        }
+    }
+
+    /**
+     * Converts an sRGB channel to linear light.
+     * @param srgb      value of the channel, from 0 to 255
+     * @return the channel in linear light, from 0 to 1
+     */
+    static double toLinear(int srgb) {
+        return TO_LINEAR[srgb];
+    }
+
+    /**
+     * Converts a channel in linear light to sRGB.
+     * @param linear    value of the channel in linear light, from 0 to 1
+     * @return the channel in sRGB, from 0 to 255
+     */
+    static int toSrgb(double linear) {
+        return TO_SRGB[(int) (linear * LINEAR_STEPS + 0.5)] & 0xFF;
+    }
+
+    /**
+     * Prevents this class from being constructed.
+     */
+    private LinearColorTables() {}
+
+    /**
+     * Applies the sRGB transfer function to convert an sRGB value to linear light.
+     * @param srgb      sRGB value from 0 to 1
+     * @return linear value from 0 to 1
+     */
+    private static double decode(double srgb) {
+        return srgb <= 0.04045 ? srgb / 12.92 : Math.pow((srgb + 0.055) / 1.055, 2.4);
+    }
+
+    /**
+     * Applies the inverse sRGB transfer function to convert linear light to an sRGB value.
+     * @param linear    linear value from 0 to 1
+     * @return sRGB value from 0 to 1
+     */
+    private static double encode(double linear) {
+        return linear <= 0.0031308 ? linear * 12.92 : 1.055 * Math.pow(linear, 1 / 2.4) - 0.055;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import java.nio.IntBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Frame} that reads its pixels directly from native memory, such as the pixel buffer of an
+ * image, without copying them onto the heap. The offset and stride are computed once when the frame
+ * is created, so reading a pixel is a single indexed read with no format checks.
+ * @author soir20
+ */
+public final class OffHeapFrame implements Frame {
+    private final IntBuffer PIXELS;
+    private final int OFFSET;
+    private final int STRIDE;
+
+    /**
+     * Creates a new frame over a buffer of packed colors. The buffer must not be freed while this
+     * frame is in use.
+     * @param pixels        buffer containing all pixels of the image this frame is in, by row
+     * @param minX          x-coordinate of this frame's top-left corner in the image
+     * @param minY          y-coordinate of this frame's top-left corner in the image
+     * @param stride        number of pixels in a single row of the image
+     */
+    public OffHeapFrame(IntBuffer pixels, int minX, int minY, int stride) {
+        if (minX < 0 || minY < 0) {
+            throw new IllegalArgumentException("Frame corner cannot be negative: (" + minX + ", " + minY + ")");
+        }
+        if (stride <= 0) {
+            throw new IllegalArgumentException("Stride must be positive but was: " + stride);
+        }
+
+        PIXELS = requireNonNull(pixels, "Pixels cannot be null");
+        OFFSET = minY * stride + minX;
+        STRIDE = stride;
+    }
+
+    @Override
+    public int color(int x, int y) {
+        return PIXELS.get(OFFSET + y * STRIDE + x);
+    }
+
+    @Override
+    public void copyRow(int x, int y, int length, int[] destination, int offset) {
+        PIXELS.get(OFFSET + y * STRIDE + x, destination, offset, length);
+    }
+
+}
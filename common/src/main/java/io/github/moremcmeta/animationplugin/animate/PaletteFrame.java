@@ -0,0 +1,192 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Frame} stored on the heap as one byte per pixel, which indexes into a palette of colors shared
+ * by every frame in the same animation. Pixel art rarely uses more than {@link #MAX_COLORS} colors, so
+ * most frames take a quarter of the memory of packed colors.
+ * @author soir20
+ */
+public final class PaletteFrame implements Frame {
+    public static final int MAX_COLORS = 256;
+
+    private final byte[] INDICES;
+    private final int[] PALETTE;
+    private final int WIDTH;
+
+    /**
+     * Copies frames into palette frames that share a single palette, if the frames have few enough colors.
+     * A frame that appears more than once in the list is only copied once.
+     * @param frames        frames to copy
+     * @param width         width of every frame
+     * @param height        height of every frame
+     * @return the palette frames, in the same order, or empty if the frames have more than
+     *         {@link #MAX_COLORS} colors
+     */
+    public static Optional<List<PaletteFrame>> fromFrames(List<? extends Frame> frames, int width, int height) {
+        requireNonNull(frames, "Frames cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Frame width and height must be positive but were: "
+                    + width + "x" + height);
+        }
+
+        Int2IntMap colorIndices = new Int2IntOpenHashMap();
+        colorIndices.defaultReturnValue(-1);
+        int[] palette = new int[MAX_COLORS];
+        List<byte[]> frameIndices = new ArrayList<>();
+        Map<Frame, byte[]> copiedFrames = new IdentityHashMap<>();
+        int[] row = new int[width];
+
+        for (Frame frame : frames) {
+            byte[] copiedIndices = copiedFrames.get(frame);
+            if (copiedIndices != null) {
+                frameIndices.add(copiedIndices);
+                continue;
+            }
+
+            byte[] indices = new byte[width * height];
+            copiedFrames.put(frame, indices);
+
+            for (int y = 0; y < height; y++) {
+                frame.copyRow(0, y, width, row, 0);
+
+                for (int x = 0; x < width; x++) {
+                    int index = colorIndices.get(row[x]);
+
+                    if (index < 0) {
+                        index = colorIndices.size();
+                        if (index == MAX_COLORS) {
+                            return Optional.empty();
+                        }
+
+                        colorIndices.put(row[x], index);
+                        palette[index] = row[x];
+                    }
+
+                    indices[y * width + x] = (byte) index;
+                }
+            }
+
+            frameIndices.add(indices);
+        }
+
+        int[] trimmedPalette = new int[colorIndices.size()];
+        System.arraycopy(palette, 0, trimmedPalette, 0, trimmedPalette.length);
+
+        Map<byte[], PaletteFrame> paletteFrames = new IdentityHashMap<>();
+        return Optional.of(frameIndices.stream().map(
+                (indices) -> paletteFrames.computeIfAbsent(
+                        indices,
+                        (key) -> new PaletteFrame(key, trimmedPalette, width)
+                )
+        ).toList());
+    }
+
+    /**
+     * Estimates the heap memory used by frames that share a palette. Frames that appear more than once
+     * are only counted once.
+     * @param frames    frames to measure
+     * @return size of all the frames' pixels and their palette in bytes
+     */
+    public static long bytes(List<PaletteFrame> frames) {
+        requireNonNull(frames, "Frames cannot be null");
+        if (frames.isEmpty()) {
+            return 0;
+        }
+
+        long indexBytes = frames.stream().map((frame) -> frame.INDICES).distinct()
+                .mapToLong((indices) -> indices.length).sum();
+        return indexBytes + (long) frames.get(0).PALETTE.length * Integer.BYTES;
+    }
+
+    @Override
+    public int color(int x, int y) {
+        return PALETTE[paletteIndex(x, y)];
+    }
+
+    @Override
+    public void copyRow(int x, int y, int length, int[] destination, int offset) {
+        int start = y * WIDTH + x;
+        for (int index = 0; index < length; index++) {
+            destination[offset + index] = PALETTE[INDICES[start + index] & 0xFF];
+        }
+    }
+
+    /**
+     * Retrieves the index of the color at the provided coordinate in this frame's palette.
+     * @param x     x-coordinate of the pixel to retrieve
+     * @param y     y-coordinate of the pixel to retrieve
+     * @return index of the color in the palette
+     */
+    public int paletteIndex(int x, int y) {
+        return INDICES[y * WIDTH + x] & 0xFF;
+    }
+
+    /**
+     * Retrieves a color in this frame's palette.
+     * @param index     index of the color in the palette
+     * @return the color at that index
+     */
+    public int paletteColor(int index) {
+        return PALETTE[index];
+    }
+
+    /**
+     * Gets the number of colors in this frame's palette.
+     * @return number of colors in the palette
+     */
+    public int paletteSize() {
+        return PALETTE.length;
+    }
+
+    /**
+     * Checks whether this frame uses the same palette as another frame, so that their palette indices
+     * refer to the same colors.
+     * @param other     other frame to compare to
+     * @return whether both frames share a palette
+     */
+    public boolean sharesPalette(PaletteFrame other) {
+        requireNonNull(other, "Other frame cannot be null");
+        return PALETTE == other.PALETTE;
+    }
+
+    /**
+     * Creates a new palette frame.
+     * @param indices       palette index of every pixel in the frame, by row
+     * @param palette       colors shared by every frame in the animation
+     * @param width         width of the frame
+     */
+    private PaletteFrame(byte[] indices, int[] palette, int width) {
+        INDICES = indices;
+        PALETTE = palette;
+        WIDTH = width;
+    }
+
+}
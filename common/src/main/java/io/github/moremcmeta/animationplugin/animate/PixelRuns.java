@@ -0,0 +1,237 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import io.github.moremcmeta.moremcmeta.api.math.Area;
+import io.github.moremcmeta.moremcmeta.api.math.Point;
+
+import java.util.Arrays;
+
+/**
+ * The pixels in an animation's interpolate area, split into horizontal runs of adjacent pixels so that
+ * frames are read and interpolated a run at a time instead of a pixel at a time. Interpolated colors are
+ * kept in buffers that cover the area's bounding box. The arrays this class returns are shared and must
+ * not be modified.
+ * @author soir20
+ */
+final class PixelRuns {
+    private final Area AREA;
+    private final int AREA_SIZE;
+    private final int X_IN_BASE;
+    private final int Y_IN_BASE;
+    private final int[] RUN_X;
+    private final int[] RUN_Y;
+    private final int[] RUN_LENGTH;
+    private final int[] RUN_OFFSET;
+    private final int BOX_MIN_X;
+    private final int BOX_MIN_Y;
+    private final int BOX_WIDTH;
+    private final int BOX_HEIGHT;
+
+    /**
+     * Splits an area into runs.
+     * @param area          pixels to split, in the base texture
+     * @param xInBase       x-coordinate of the top-left corner of the animation within the base texture
+     * @param yInBase       y-coordinate of the top-left corner of the animation within the base texture
+     */
+    PixelRuns(Area area, int xInBase, int yInBase) {
+        AREA = area;
+        X_IN_BASE = xInBase;
+        Y_IN_BASE = yInBase;
+
+        int pixels = 0;
+        for (long ignored : area) {
+            pixels++;
+        }
+        AREA_SIZE = pixels;
+
+        // Sort points by row, then by column, so that adjacent points in a row form a single run
+        long[] points = new long[AREA_SIZE];
+        int pointIndex = 0;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (long point : area) {
+            int x = Point.x(point);
+            int y = Point.y(point);
+            points[pointIndex++] = ((long) y << 32) | (x & 0xFFFFFFFFL);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        Arrays.sort(points);
+
+        BOX_MIN_X = points.length == 0 ? 0 : minX;
+        BOX_MIN_Y = points.length == 0 ? 0 : minY;
+        BOX_WIDTH = points.length == 0 ? 0 : maxX - minX + 1;
+        BOX_HEIGHT = points.length == 0 ? 0 : maxY - minY + 1;
+
+        int runs = 0;
+        int[] runX = new int[points.length];
+        int[] runY = new int[points.length];
+        int[] runLength = new int[points.length];
+        for (int index = 0; index < points.length; index++) {
+            int x = (int) points[index];
+            int y = (int) (points[index] >> 32);
+
+            if (runs > 0 && runY[runs - 1] == y && runX[runs - 1] + runLength[runs - 1] == x) {
+                runLength[runs - 1]++;
+            } else {
+                runX[runs] = x;
+                runY[runs] = y;
+                runLength[runs] = 1;
+                runs++;
+            }
+        }
+
+        RUN_X = new int[runs];
+        RUN_Y = new int[runs];
+        RUN_LENGTH = Arrays.copyOf(runLength, runs);
+        RUN_OFFSET = new int[runs];
+        for (int run = 0; run < runs; run++) {
+            RUN_X[run] = runX[run] - X_IN_BASE;
+            RUN_Y[run] = runY[run] - Y_IN_BASE;
+            RUN_OFFSET[run] = bufferIndex(runX[run], runY[run]);
+        }
+    }
+
+    /**
+     * Gets the area that was split into runs.
+     * @return the pixels in all runs, in the base texture
+     */
+    Area area() {
+        return AREA;
+    }
+
+    /**
+     * Gets the number of pixels in all runs.
+     * @return number of pixels in the area
+     */
+    int areaSize() {
+        return AREA_SIZE;
+    }
+
+    /**
+     * Gets the number of runs.
+     * @return number of runs
+     */
+    int runs() {
+        return RUN_X.length;
+    }
+
+    /**
+     * Gets the x-coordinate of the first pixel in each run.
+     * @return x-coordinates relative to the animation
+     */
+    int[] runX() {
+        return RUN_X;
+    }
+
+    /**
+     * Gets the y-coordinate of each run.
+     * @return y-coordinates relative to the animation
+     */
+    int[] runY() {
+        return RUN_Y;
+    }
+
+    /**
+     * Gets the number of pixels in each run.
+     * @return length of each run
+     */
+    int[] runLength() {
+        return RUN_LENGTH;
+    }
+
+    /**
+     * Gets the index of the first pixel of each run in a buffer.
+     * @return buffer index of each run
+     */
+    int[] runOffset() {
+        return RUN_OFFSET;
+    }
+
+    /**
+     * Gets the x-coordinate of the top-left corner of the animation within the base texture.
+     * @return x-coordinate of the animation in the base texture
+     */
+    int xInBase() {
+        return X_IN_BASE;
+    }
+
+    /**
+     * Gets the y-coordinate of the top-left corner of the animation within the base texture.
+     * @return y-coordinate of the animation in the base texture
+     */
+    int yInBase() {
+        return Y_IN_BASE;
+    }
+
+    /**
+     * Gets the leftmost x-coordinate of any pixel in the area.
+     * @return x-coordinate of the bounding box in the base texture
+     */
+    int boxMinX() {
+        return BOX_MIN_X;
+    }
+
+    /**
+     * Gets the topmost y-coordinate of any pixel in the area.
+     * @return y-coordinate of the bounding box in the base texture
+     */
+    int boxMinY() {
+        return BOX_MIN_Y;
+    }
+
+    /**
+     * Gets the width of the area's bounding box.
+     * @return width of the bounding box
+     */
+    int boxWidth() {
+        return BOX_WIDTH;
+    }
+
+    /**
+     * Gets the height of the area's bounding box.
+     * @return height of the bounding box
+     */
+    int boxHeight() {
+        return BOX_HEIGHT;
+    }
+
+    /**
+     * Gets the number of colors in a buffer that covers the area's bounding box.
+     * @return size of a buffer
+     */
+    int boxSize() {
+        return BOX_WIDTH * BOX_HEIGHT;
+    }
+
+    /**
+     * Finds the index of a point in a buffer.
+     * @param x     x-coordinate of the point in the base texture
+     * @param y     y-coordinate of the point in the base texture
+     * @return index of the point in a buffer
+     */
+    int bufferIndex(int x, int y) {
+        return (y - BOX_MIN_Y) * BOX_WIDTH + x - BOX_MIN_X;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Draws for the {@link AnimationComponent.Strategy#PRECOMPUTED} strategy by keeping the colors of every
+ * interpolated step, so draws only copy them. Steps are interpolated when the component is built, and any
+ * step that was not is kept the first time it is drawn.
+ * @author soir20
+ */
+final class PrecomputedDrawer extends Drawer {
+    private final StepRenderer RENDERER;
+    private final ComponentMemory MEMORY;
+    private final Long2ObjectMap<int[][]> PRECOMPUTED_STEPS;
+    private int[] drawBuffer;
+
+    /**
+     * Creates a new precomputed drawer.
+     * @param runs          pixels in the interpolate area
+     * @param renderer      renders steps of a transition
+     * @param memory        counts the memory held by the kept steps
+     */
+    public PrecomputedDrawer(PixelRuns runs, StepRenderer renderer, ComponentMemory memory) {
+        super(runs);
+        RENDERER = renderer;
+        MEMORY = memory;
+        PRECOMPUTED_STEPS = new Long2ObjectOpenHashMap<>();
+    }
+
+    @Override
+    void prepare(long transition, int steps, Frame startFrame, Frame endFrame) {
+        for (int step = 0; step < steps; step++) {
+            stepOutput(transition, steps, step, startFrame, endFrame);
+        }
+    }
+
+    @Override
+    int draw(CurrentFrameView currentFrame, boolean fromTick, long frameStart, long transition,
+             int steps, int step, Frame startFrame, Frame endFrame) {
+        int[] output;
+
+        if (transition >= 0) {
+            output = stepOutput(transition, steps, step, startFrame, endFrame);
+        } else {
+
+            // Transitions without a key cannot be stored, so they are interpolated on every draw
+            if (drawBuffer == null) {
+                drawBuffer = MEMORY.allocate(runs().boxSize());
+            }
+
+            RENDERER.render(transition, steps, step, startFrame, endFrame, drawBuffer);
+            output = drawBuffer;
+        }
+
+        write(currentFrame, output, runs().area());
+        return runs().areaSize();
+    }
+
+    /**
+     * Gets the kept colors of a step, interpolating them if they are not kept yet.
+     * @param transition    key for the transition
+     * @param steps         total number of steps in the transition
+     * @param step          step to get
+     * @param startFrame    frame to start interpolation from
+     * @param endFrame      frame to end interpolation at
+     * @return colors of the step in a buffer that covers the interpolate area
+     */
+    private int[] stepOutput(long transition, int steps, int step, Frame startFrame, Frame endFrame) {
+        int[][] stepOutputs = PRECOMPUTED_STEPS.get(transition);
+        if (stepOutputs == null) {
+            stepOutputs = new int[steps][];
+            PRECOMPUTED_STEPS.put(transition, stepOutputs);
+        }
+
+        if (stepOutputs[step] == null) {
+            stepOutputs[step] = MEMORY.allocate(runs().boxSize());
+            RENDERER.render(transition, steps, step, startFrame, endFrame, stepOutputs[step]);
+        }
+
+        return stepOutputs[step];
+    }
+
+}
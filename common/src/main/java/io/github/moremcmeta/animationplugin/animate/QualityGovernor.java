@@ -0,0 +1,294 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lowers the {@link AnimationComponent.Quality} of the most expensive animated textures when all textures
+ * together take longer than a budget to tick, and restores it once they are well under the budget.
+ *
+ * Every texture joins the governor as a {@link Member} and reports how long each of its ticks took. A
+ * game tick is considered over when a texture that already ticked during it ticks again, since every
+ * texture ticks once per game tick. Quality is lowered one level at a time, for the texture that took
+ * longest in the last game tick, after the textures stay over budget for several game ticks in a row. It
+ * is restored one level at a time, most recently lowered first, after the textures stay under half the
+ * budget for a longer run of game ticks. The gap between the two thresholds keeps quality from changing
+ * back and forth when the cost is close to the budget.
+ * @author soir20
+ */
+public final class QualityGovernor {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final AnimationComponent.Quality[] QUALITIES = AnimationComponent.Quality.values();
+
+    private final long BUDGET_NANOS;
+    private final int DEGRADE_AFTER_TICKS;
+    private final int RESTORE_AFTER_TICKS;
+    private final LongSupplier CLOCK;
+    private final List<Member> MEMBERS;
+    private final Deque<Member> DEGRADED;
+    private int overBudgetTicks;
+    private int underBudgetTicks;
+    private long lastTickNanos;
+
+    /**
+     * Creates a new governor.
+     * @param budgetNanos           most time all textures together should take to tick in each game tick
+     * @param degradeAfterTicks     number of game ticks in a row over budget before quality is lowered
+     * @param restoreAfterTicks     number of game ticks in a row under half the budget before quality is
+     *                              restored
+     * @param clock                 supplies the current time in nanoseconds
+     */
+    public QualityGovernor(long budgetNanos, int degradeAfterTicks, int restoreAfterTicks, LongSupplier clock) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("Budget cannot be zero or negative but was: " + budgetNanos);
+        }
+
+        if (degradeAfterTicks <= 0) {
+            throw new IllegalArgumentException("Ticks before degrading cannot be zero or negative but was: "
+                    + degradeAfterTicks);
+        }
+
+        if (restoreAfterTicks <= 0) {
+            throw new IllegalArgumentException("Ticks before restoring cannot be zero or negative but was: "
+                    + restoreAfterTicks);
+        }
+
+        BUDGET_NANOS = budgetNanos;
+        DEGRADE_AFTER_TICKS = degradeAfterTicks;
+        RESTORE_AFTER_TICKS = restoreAfterTicks;
+        CLOCK = requireNonNull(clock, "Clock cannot be null");
+        MEMBERS = new ArrayList<>();
+        DEGRADED = new ArrayDeque<>();
+    }
+
+    /**
+     * Creates a governor that never lowers quality.
+     * @return governor with an unlimited budget
+     */
+    public static QualityGovernor unlimited() {
+        return new QualityGovernor(Long.MAX_VALUE, Integer.MAX_VALUE, 1, System::nanoTime);
+    }
+
+    /**
+     * Adds a texture to those whose ticks count towards the budget.
+     * @param textureId     plugin-assigned ID of the texture
+     * @return member for the texture, which starts at {@link AnimationComponent.Quality#FULL} quality
+     */
+    public synchronized Member join(long textureId) {
+        Member member = new Member(this, textureId);
+        MEMBERS.add(member);
+        return member;
+    }
+
+    /**
+     * Gets every texture's current quality.
+     * @return a snapshot of all current members
+     */
+    public synchronized List<Member> members() {
+        return List.copyOf(MEMBERS);
+    }
+
+    /**
+     * Gets the total time all textures took to tick in the last complete game tick.
+     * @return tick time in nanoseconds
+     */
+    public synchronized long lastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Records the time a texture took to tick, ending the current game tick first if the texture already
+     * ticked during it.
+     * @param member        texture that ticked
+     * @param nanos         time the texture took to tick
+     */
+    private synchronized void report(Member member, long nanos) {
+        if (member.left) {
+            return;
+        }
+
+        if (member.reported) {
+            endTick();
+        }
+
+        member.reported = true;
+        member.tickNanos += nanos;
+    }
+
+    /**
+     * Removes a texture from those whose ticks count towards the budget.
+     * @param member        texture to remove
+     */
+    private synchronized void leave(Member member) {
+        member.left = true;
+        MEMBERS.remove(member);
+        DEGRADED.removeIf((degraded) -> degraded == member);
+    }
+
+    /**
+     * Compares the time taken by the game tick that just ended to the budget and changes quality if the
+     * textures have been over or under the budget for long enough.
+     */
+    private void endTick() {
+        long totalNanos = 0;
+        for (Member member : MEMBERS) {
+            totalNanos += member.tickNanos;
+            member.lastTickNanos = member.tickNanos;
+            member.tickNanos = 0;
+            member.reported = false;
+        }
+        lastTickNanos = totalNanos;
+
+        if (totalNanos > BUDGET_NANOS) {
+            underBudgetTicks = 0;
+            if (++overBudgetTicks >= DEGRADE_AFTER_TICKS) {
+                overBudgetTicks = 0;
+                degradeMostExpensive(totalNanos);
+            }
+        } else if (totalNanos < BUDGET_NANOS / 2) {
+            overBudgetTicks = 0;
+            if (++underBudgetTicks >= RESTORE_AFTER_TICKS) {
+                underBudgetTicks = 0;
+                restoreLastDegraded(totalNanos);
+            }
+        } else {
+            overBudgetTicks = 0;
+            underBudgetTicks = 0;
+        }
+    }
+
+    /**
+     * Lowers the quality of the texture that took longest to tick in the last game tick, among those that
+     * can still be lowered.
+     * @param totalNanos    time all textures took to tick in the last game tick
+     */
+    private void degradeMostExpensive(long totalNanos) {
+        Member mostExpensive = null;
+        for (Member member : MEMBERS) {
+            boolean canDegrade = member.quality.ordinal() < QUALITIES.length - 1;
+            if (canDegrade && member.lastTickNanos > 0
+                    && (mostExpensive == null || member.lastTickNanos > mostExpensive.lastTickNanos)) {
+                mostExpensive = member;
+            }
+        }
+
+        if (mostExpensive == null) {
+            return;
+        }
+
+        mostExpensive.quality = QUALITIES[mostExpensive.quality.ordinal() + 1];
+        DEGRADED.push(mostExpensive);
+        LOGGER.debug("Animations took {} ns to tick, over the budget of {} ns. Lowered texture {} to {}",
+                totalNanos, BUDGET_NANOS, mostExpensive.TEXTURE_ID, mostExpensive.quality);
+    }
+
+    /**
+     * Raises the quality of the texture whose quality was lowered most recently.
+     * @param totalNanos    time all textures took to tick in the last game tick
+     */
+    private void restoreLastDegraded(long totalNanos) {
+        Member lastDegraded = DEGRADED.poll();
+        if (lastDegraded == null) {
+            return;
+        }
+
+        lastDegraded.quality = QUALITIES[lastDegraded.quality.ordinal() - 1];
+        LOGGER.debug("Animations took {} ns to tick, under the budget of {} ns. Raised texture {} to {}",
+                totalNanos, BUDGET_NANOS, lastDegraded.TEXTURE_ID, lastDegraded.quality);
+    }
+
+    /**
+     * A texture whose ticks count towards a governor's budget.
+     * @author soir20
+     */
+    public static final class Member {
+        private final QualityGovernor GOVERNOR;
+        private final long TEXTURE_ID;
+        private volatile AnimationComponent.Quality quality;
+        private boolean reported;
+        private boolean left;
+        private long tickNanos;
+        private long lastTickNanos;
+        private long tickStart;
+
+        /**
+         * Creates a new member at full quality.
+         * @param governor      governor the texture belongs to
+         * @param textureId     plugin-assigned ID of the texture
+         */
+        private Member(QualityGovernor governor, long textureId) {
+            GOVERNOR = governor;
+            TEXTURE_ID = textureId;
+            quality = AnimationComponent.Quality.FULL;
+        }
+
+        /**
+         * Gets the plugin-assigned ID of the texture.
+         * @return ID of the texture
+         */
+        public long textureId() {
+            return TEXTURE_ID;
+        }
+
+        /**
+         * Gets the quality the texture should currently draw at.
+         * @return the texture's quality
+         */
+        public AnimationComponent.Quality quality() {
+            return quality;
+        }
+
+        /**
+         * Starts timing a tick of the texture.
+         */
+        public void beginTick() {
+            tickStart = GOVERNOR.CLOCK.getAsLong();
+        }
+
+        /**
+         * Stops timing a tick of the texture and reports its time to the governor.
+         */
+        public void endTick() {
+            GOVERNOR.report(this, GOVERNOR.CLOCK.getAsLong() - tickStart);
+        }
+
+        /**
+         * Removes the texture from the governor. Its quality no longer changes.
+         */
+        public void leave() {
+            GOVERNOR.leave(this);
+        }
+
+        @Override
+        public String toString() {
+            return "Texture " + TEXTURE_ID + " at " + quality;
+        }
+
+    }
+
+}
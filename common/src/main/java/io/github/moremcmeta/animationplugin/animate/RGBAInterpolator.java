@@ -19,12 +19,37 @@ package io.github.moremcmeta.animationplugin.animate;
 
 import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
 
+import java.util.Optional;
+
 /**
  * Generates an interpolated color in between two other colors.
  * Color format: AAAA AAAA RRRR RRRR GGGG GGGG BBBB BBBB in binary, stored as an integer (32 bits total)
+ *
+ * By default, the red, green, and blue components are mixed as sRGB values, like vanilla Minecraft. They
+ * can instead be mixed in linear light, which keeps midpoints from darkening, and they can be weighted
+ * by alpha, as if premultiplied, so that colors of transparent pixels do not bleed into visible ones.
  * @author soir20
  */
 public abstract class RGBAInterpolator implements Interpolator {
+    private final boolean LINEAR;
+    private final boolean PREMULTIPLIED;
+
+    /**
+     * Creates an interpolator that mixes sRGB values without weighting them by alpha.
+     */
+    protected RGBAInterpolator() {
+        this(false, false);
+    }
+
+    /**
+     * Creates an interpolator.
+     * @param linear            whether to mix the red, green, and blue components in linear light
+     * @param premultiplied     whether to weight the red, green, and blue components by alpha
+     */
+    protected RGBAInterpolator(boolean linear, boolean premultiplied) {
+        LINEAR = linear;
+        PREMULTIPLIED = premultiplied;
+    }
 
     /**
      * Generates an interpolated color between two other colors.
@@ -43,6 +68,51 @@ public abstract class RGBAInterpolator implements Interpolator {
         return mixPixel(ratio, start, end);
     }
 
+    @Override
+    public void interpolate(int steps, int step, int[] start, int[] end, int[] output, int offset, int length) {
+        if (step < 0 || step >= steps) {
+            throw new IllegalArgumentException("Step must be between 0 and steps - 1 (inclusive)");
+        }
+
+        double ratio = 1.0 - (step / (double) steps);
+        Optional<RowMixer> rowMixer = LINEAR || PREMULTIPLIED ? Optional.empty() : rowMixer();
+        int mixed = rowMixer.isPresent() ? rowMixer.get().mix(ratio, start, end, output, offset, length) : 0;
+
+        for (int index = offset + mixed; index < offset + length; index++) {
+            output[index] = mixPixel(ratio, start[index], end[index]);
+        }
+    }
+
+    /**
+     * Checks whether the end color is needed at a certain step. At the first step, the start color is
+     * mixed in full, so the end color is not needed.
+     * @param steps     the number of steps it should take from the start color to reach the end color
+     * @param step      the current step in the interpolation
+     * @return whether the end color is needed to interpolate at this step
+     */
+    @Override
+    public boolean needsEnd(int steps, int step) {
+        return step != 0;
+    }
+
+    /**
+     * Checks whether every channel moves in only one direction as the step increases. The proportion
+     * of the start color only decreases, so each mixed component only moves toward the end color.
+     * @return whether every channel changes monotonically with the step
+     */
+    @Override
+    public boolean changesMonotonically() {
+        return true;
+    }
+
+    /**
+     * Gets a mixer that mixes runs of colors faster than mixing them one at a time, with identical results.
+     * @return the faster mixer or empty if runs should be mixed one color at a time
+     */
+    Optional<RowMixer> rowMixer() {
+        return Optional.empty();
+    }
+
     /**
      * Mixes the alpha component from two RGB colors.
      * @param startProportion   proportion of start color to mix (1 - proportion of end color)
@@ -71,11 +141,41 @@ public abstract class RGBAInterpolator implements Interpolator {
      * @return  the resultant mixed color
      */
     private int mixPixel(double startProportion, int startColor, int endColor) {
-        int red = mixComponent(startProportion, Color.red(startColor), Color.red(endColor));
-        int green = mixComponent(startProportion, Color.green(startColor), Color.green(endColor));
-        int blue = mixComponent(startProportion, Color.blue(startColor), Color.blue(endColor));
+        double colorStartProportion = startProportion;
+
+        if (PREMULTIPLIED) {
+            double startAlphaWeight = startProportion * Color.alpha(startColor);
+            double totalAlphaWeight = startAlphaWeight + (1.0 - startProportion) * Color.alpha(endColor);
+
+            // When both pixels are invisible, neither can bleed into the other
+            if (totalAlphaWeight > 0) {
+                colorStartProportion = startAlphaWeight / totalAlphaWeight;
+            }
+        }
+
+        int red = mixColorComponent(colorStartProportion, Color.red(startColor), Color.red(endColor));
+        int green = mixColorComponent(colorStartProportion, Color.green(startColor), Color.green(endColor));
+        int blue = mixColorComponent(colorStartProportion, Color.blue(startColor), Color.blue(endColor));
 
         return Color.pack(red, green, blue, mixAlpha(startProportion, startColor, endColor));
     }
 
+    /**
+     * Mixes the red, green, or blue component from two RGB colors, in linear light if enabled.
+     * @param startProportion   proportion of start color to mix (1 - proportion of end color)
+     * @param startColor        value of the first color's component
+     * @param endColor          value of the second color's component
+     * @return  the resultant mixed component
+     */
+    private int mixColorComponent(double startProportion, int startColor, int endColor) {
+        if (!LINEAR) {
+            return mixComponent(startProportion, startColor, endColor);
+        }
+
+        return LinearColorTables.toSrgb(
+                startProportion * LinearColorTables.toLinear(startColor)
+                        + (1.0 - startProportion) * LinearColorTables.toLinear(endColor)
+        );
+    }
+
 }
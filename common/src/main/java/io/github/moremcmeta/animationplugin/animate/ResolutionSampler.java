@@ -0,0 +1,154 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Interpolates an animation at a reduced resolution. Only the top-left pixel of each square block of
+ * pixels is interpolated, and its color is copied to the rest of the block. Blocks are aligned to the
+ * animation, not the base texture, so that they line up with the frames.
+ * @author soir20
+ */
+final class ResolutionSampler {
+    private final PixelRuns RUNS;
+    private final int SCALE;
+    private final ComponentMemory MEMORY;
+    private final int SAMPLE_MIN_X;
+    private final int SAMPLE_MIN_Y;
+    private final int SAMPLE_WIDTH;
+    private final int SAMPLE_BOX_SIZE;
+    private final int[] SAMPLE_RUN_X;
+    private final int[] SAMPLE_RUN_Y;
+    private final int[] SAMPLE_RUN_LENGTH;
+    private final int[] SAMPLE_RUN_OFFSET;
+    private int[] sampleBuffer;
+    private int[] sampleEndBuffer;
+    private int[] sampleRowBuffer;
+
+    /**
+     * Creates a new sampler.
+     * @param runs      pixels in the interpolate area, which must not be empty
+     * @param scale     width of the blocks of pixels that share an interpolated color
+     * @param memory    counts the memory held by the sample buffers
+     */
+    ResolutionSampler(PixelRuns runs, int scale, ComponentMemory memory) {
+        RUNS = runs;
+        SCALE = scale;
+        MEMORY = memory;
+
+        SAMPLE_MIN_X = (runs.boxMinX() - runs.xInBase()) / scale;
+        SAMPLE_MIN_Y = (runs.boxMinY() - runs.yInBase()) / scale;
+        SAMPLE_WIDTH = (runs.boxMinX() + runs.boxWidth() - 1 - runs.xInBase()) / scale - SAMPLE_MIN_X + 1;
+        int sampleHeight = (runs.boxMinY() + runs.boxHeight() - 1 - runs.yInBase()) / scale - SAMPLE_MIN_Y + 1;
+        SAMPLE_BOX_SIZE = SAMPLE_WIDTH * sampleHeight;
+
+        // Only blocks that contain a pixel in the interpolate area need to be sampled
+        boolean[] sampled = new boolean[SAMPLE_BOX_SIZE];
+        for (int run = 0; run < runs.runs(); run++) {
+            for (int index = 0; index < runs.runLength()[run]; index++) {
+                sampled[sampleIndex(runs.runX()[run] + index, runs.runY()[run])] = true;
+            }
+        }
+
+        IntArrayList sampleRunX = new IntArrayList();
+        IntArrayList sampleRunY = new IntArrayList();
+        IntArrayList sampleRunLength = new IntArrayList();
+        IntArrayList sampleRunOffset = new IntArrayList();
+        for (int sample = 0; sample < SAMPLE_BOX_SIZE; sample++) {
+            if (!sampled[sample]) {
+                continue;
+            }
+
+            int lastRun = sampleRunX.size() - 1;
+            if (lastRun >= 0 && sample % SAMPLE_WIDTH > 0
+                    && sampleRunOffset.getInt(lastRun) + sampleRunLength.getInt(lastRun) == sample) {
+                sampleRunLength.set(lastRun, sampleRunLength.getInt(lastRun) + 1);
+            } else {
+                sampleRunX.add((sample % SAMPLE_WIDTH + SAMPLE_MIN_X) * scale);
+                sampleRunY.add((sample / SAMPLE_WIDTH + SAMPLE_MIN_Y) * scale);
+                sampleRunLength.add(1);
+                sampleRunOffset.add(sample);
+            }
+        }
+
+        SAMPLE_RUN_X = sampleRunX.toIntArray();
+        SAMPLE_RUN_Y = sampleRunY.toIntArray();
+        SAMPLE_RUN_LENGTH = sampleRunLength.toIntArray();
+        SAMPLE_RUN_OFFSET = sampleRunOffset.toIntArray();
+    }
+
+    /**
+     * Interpolates the top-left pixel of each block in the interpolate area at one step of a transition,
+     * then copies each block's color to every pixel in the block.
+     * @param interpolator  interpolates between colors
+     * @param steps         total number of steps in the transition
+     * @param step          step to interpolate
+     * @param startFrame    frame to start interpolation from
+     * @param endFrame      frame to end interpolation at
+     * @param output        buffer that covers the interpolate area to write the interpolated colors to
+     */
+    void render(Interpolator interpolator, int steps, int step, Frame startFrame, Frame endFrame, int[] output) {
+        if (sampleBuffer == null) {
+            sampleBuffer = MEMORY.allocate(SAMPLE_BOX_SIZE);
+            sampleEndBuffer = MEMORY.allocate(SAMPLE_BOX_SIZE);
+            sampleRowBuffer = MEMORY.allocate(SAMPLE_WIDTH * SCALE);
+        }
+
+        // Whole rows are read since frames are cheapest to read a run at a time
+        for (int run = 0; run < SAMPLE_RUN_X.length; run++) {
+            int rowLength = (SAMPLE_RUN_LENGTH[run] - 1) * SCALE + 1;
+            int offset = SAMPLE_RUN_OFFSET[run];
+
+            startFrame.copyRow(SAMPLE_RUN_X[run], SAMPLE_RUN_Y[run], rowLength, sampleRowBuffer, 0);
+            for (int index = 0; index < SAMPLE_RUN_LENGTH[run]; index++) {
+                sampleBuffer[offset + index] = sampleRowBuffer[index * SCALE];
+            }
+
+            endFrame.copyRow(SAMPLE_RUN_X[run], SAMPLE_RUN_Y[run], rowLength, sampleRowBuffer, 0);
+            for (int index = 0; index < SAMPLE_RUN_LENGTH[run]; index++) {
+                sampleEndBuffer[offset + index] = sampleRowBuffer[index * SCALE];
+            }
+
+            interpolator.interpolate(steps, step, sampleBuffer, sampleEndBuffer, sampleBuffer, offset,
+                    SAMPLE_RUN_LENGTH[run]);
+        }
+
+        int[] runX = RUNS.runX();
+        int[] runY = RUNS.runY();
+        int[] runLength = RUNS.runLength();
+        int[] runOffset = RUNS.runOffset();
+        for (int run = 0; run < runX.length; run++) {
+            int offset = runOffset[run];
+            for (int index = 0; index < runLength[run]; index++) {
+                output[offset + index] = sampleBuffer[sampleIndex(runX[run] + index, runY[run])];
+            }
+        }
+    }
+
+    /**
+     * Finds the index of the block containing a point in the sample buffer.
+     * @param x     x-coordinate of the point relative to the animation
+     * @param y     y-coordinate of the point relative to the animation
+     * @return index of the point's block in the sample buffer
+     */
+    private int sampleIndex(int x, int y) {
+        return (y / SCALE - SAMPLE_MIN_Y) * SAMPLE_WIDTH + x / SCALE - SAMPLE_MIN_X;
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+/**
+ * Mixes runs of colors for an {@link RGBAInterpolator} with the same results as mixing them one by one.
+ * @author soir20
+ */
+interface RowMixer {
+
+    /**
+     * Mixes a run of colors. Implementations may stop before the end of the run, such as when the rest
+     * of the run is too short to process efficiently, and the caller mixes the rest.
+     * @param startProportion   proportion of start color to mix (1 - proportion of end color)
+     * @param start             colors to start interpolation from
+     * @param end               colors to end interpolation at
+     * @param output            array to write the mixed colors to, which may be the start array
+     * @param offset            index of the first color in all three arrays
+     * @param length            number of colors to mix
+     * @return number of colors mixed, starting from the offset
+     */
+    int mix(double startProportion, int[] start, int[] end, int[] output, int offset, int length);
+
+}
@@ -19,16 +19,40 @@ package io.github.moremcmeta.animationplugin.animate;
 
 import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
 
+import java.util.Optional;
+
 /**
  * Generates an interpolated color in between two other colors with a smooth
  * transition in alpha values between the start color and end color.
  * @author soir20
  */
 public final class SmoothAlphaInterpolator extends RGBAInterpolator {
+    private static final Optional<RowMixer> ROW_MIXER = VectorSupport.rowMixer(true);
+
+    /**
+     * Creates an interpolator that mixes sRGB values without weighting them by alpha.
+     */
+    public SmoothAlphaInterpolator() {
+        super();
+    }
+
+    /**
+     * Creates an interpolator.
+     * @param linear            whether to mix the red, green, and blue components in linear light
+     * @param premultiplied     whether to weight the red, green, and blue components by alpha
+     */
+    public SmoothAlphaInterpolator(boolean linear, boolean premultiplied) {
+        super(linear, premultiplied);
+    }
 
     @Override
     protected int mixAlpha(double startProportion, int startColor, int endColor) {
         return mixComponent(startProportion, Color.alpha(startColor), Color.alpha(endColor));
     }
 
+    @Override
+    Optional<RowMixer> rowMixer() {
+        return ROW_MIXER;
+    }
+
 }
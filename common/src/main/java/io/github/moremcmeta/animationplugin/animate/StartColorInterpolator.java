@@ -0,0 +1,49 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+/**
+ * Does not interpolate at all. The start color is used for every step, so frames change all at once,
+ * like animations in vanilla Minecraft without interpolation.
+ * @author soir20
+ */
+public final class StartColorInterpolator implements Interpolator {
+
+    @Override
+    public int interpolate(int steps, int step, int start, int end) {
+        return start;
+    }
+
+    @Override
+    public void interpolate(int steps, int step, int[] start, int[] end, int[] output, int offset, int length) {
+        if (start != output) {
+            System.arraycopy(start, offset, output, offset, length);
+        }
+    }
+
+    @Override
+    public boolean needsEnd(int steps, int step) {
+        return false;
+    }
+
+    @Override
+    public boolean changesMonotonically() {
+        return true;
+    }
+
+}
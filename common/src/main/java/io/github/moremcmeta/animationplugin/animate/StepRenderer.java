@@ -0,0 +1,166 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.Optional;
+
+/**
+ * Interpolates the colors of an animation's interpolate area at one step of a transition into a buffer.
+ * Transitions between frames that share a palette are written from a {@link BlendTable} when possible, and
+ * components with a reduced resolution are interpolated through a {@link ResolutionSampler}.
+ * @author soir20
+ */
+final class StepRenderer {
+    private static final long MAX_BLEND_TABLE_ENTRIES = 1 << 16;
+
+    private final PixelRuns RUNS;
+    private final Interpolator INTERPOLATOR;
+    private final boolean USE_BLEND_TABLES;
+    private final Long2ObjectMap<Optional<BlendTable>> BLEND_TABLES;
+    private final Optional<ResolutionSampler> SAMPLER;
+    private final ComponentMemory MEMORY;
+    private int[] endBuffer;
+    private long blendTableEntries;
+
+    /**
+     * Creates a new renderer.
+     * @param runs                  pixels in the interpolate area
+     * @param interpolator          interpolates between colors
+     * @param useBlendTables        whether to precompute blends between palette colors
+     * @param resolutionScale       width of the blocks of pixels that share an interpolated color
+     * @param memory                counts the memory held by the renderer's buffers and blend tables
+     */
+    StepRenderer(PixelRuns runs, Interpolator interpolator, boolean useBlendTables, int resolutionScale,
+                 ComponentMemory memory) {
+        RUNS = runs;
+        INTERPOLATOR = interpolator;
+        USE_BLEND_TABLES = useBlendTables;
+        BLEND_TABLES = new Long2ObjectOpenHashMap<>();
+        SAMPLER = resolutionScale > 1 && runs.runs() > 0
+                ? Optional.of(new ResolutionSampler(runs, resolutionScale, memory))
+                : Optional.empty();
+        MEMORY = memory;
+    }
+
+    /**
+     * Interpolates the runs in the interpolate area at one step of a transition.
+     * @param transition    key for the transition or -1 if there is no key
+     * @param steps         total number of steps in the transition
+     * @param step          step to interpolate
+     * @param startFrame    frame to start interpolation from
+     * @param endFrame      frame to end interpolation at
+     * @param output        buffer that covers the interpolate area to write the interpolated colors to
+     */
+    void render(long transition, int steps, int step, Frame startFrame, Frame endFrame, int[] output) {
+        if (INTERPOLATOR.needsEnd(steps, step)) {
+            Optional<BlendTable> blendTable = blendTable(transition, steps, startFrame, endFrame);
+            if (blendTable.isPresent()) {
+                blendTable.get().write(step, RUNS.runOffset(), RUNS.runLength(), output);
+                return;
+            }
+
+            if (SAMPLER.isPresent()) {
+                SAMPLER.get().render(INTERPOLATOR, steps, step, startFrame, endFrame, output);
+                return;
+            }
+        }
+
+        renderRuns(steps, step, startFrame, endFrame, output, RUNS.runX(), RUNS.runY(), RUNS.runLength(),
+                RUNS.runOffset());
+    }
+
+    /**
+     * Interpolates some of the runs in the interpolate area at one step of a transition.
+     * @param steps         total number of steps in the transition
+     * @param step          step to interpolate
+     * @param startFrame    frame to start interpolation from
+     * @param endFrame      frame to end interpolation at
+     * @param output        buffer that covers the interpolate area to write the interpolated colors to
+     * @param runX          x-coordinate of the first pixel in each run, relative to the animation
+     * @param runY          y-coordinate of each run, relative to the animation
+     * @param runLength     number of pixels in each run
+     * @param runOffset     index of the first pixel in each run in the output buffer
+     */
+    void renderRuns(int steps, int step, Frame startFrame, Frame endFrame, int[] output,
+                    int[] runX, int[] runY, int[] runLength, int[] runOffset) {
+        for (int run = 0; run < runX.length; run++) {
+            startFrame.copyRow(runX[run], runY[run], runLength[run], output, runOffset[run]);
+        }
+
+        if (!INTERPOLATOR.needsEnd(steps, step)) {
+            return;
+        }
+
+        if (endBuffer == null) {
+            endBuffer = MEMORY.allocate(RUNS.boxSize());
+        }
+
+        for (int run = 0; run < runX.length; run++) {
+            endFrame.copyRow(runX[run], runY[run], runLength[run], endBuffer, runOffset[run]);
+            INTERPOLATOR.interpolate(steps, step, output, endBuffer, output, runOffset[run], runLength[run]);
+        }
+    }
+
+    /**
+     * Checks whether a step of a transition depends on the frame it ends at.
+     * @param steps     total number of steps in the transition
+     * @param step      step to check
+     * @return whether the step blends with the end frame
+     */
+    boolean needsEnd(int steps, int step) {
+        return INTERPOLATOR.needsEnd(steps, step);
+    }
+
+    /**
+     * Checks whether this renderer interpolates at a reduced resolution.
+     * @return whether only some pixels are interpolated
+     */
+    boolean reducesResolution() {
+        return SAMPLER.isPresent();
+    }
+
+    /**
+     * Gets the blend table for a transition, creating it the first time the transition is drawn. Tables
+     * are only created for frames that share a palette, and only until this renderer's tables reach
+     * {@link #MAX_BLEND_TABLE_ENTRIES} colors in total.
+     * @param transition    key for the transition or -1 if there is no key
+     * @param steps         total number of steps in the transition
+     * @param startFrame    frame to start interpolation from
+     * @param endFrame      frame to end interpolation at
+     * @return the blend table or empty if the transition has none
+     */
+    Optional<BlendTable> blendTable(long transition, int steps, Frame startFrame, Frame endFrame) {
+        if (!USE_BLEND_TABLES || transition < 0) {
+            return Optional.empty();
+        }
+
+        Optional<BlendTable> blendTable = BLEND_TABLES.get(transition);
+        if (blendTable == null) {
+            blendTable = BlendTable.of(steps, INTERPOLATOR, startFrame, endFrame, RUNS.runX(), RUNS.runY(),
+                    RUNS.runLength(), MAX_BLEND_TABLE_ENTRIES - blendTableEntries, MEMORY);
+            blendTableEntries += blendTable.map(BlendTable::entries).orElse(0L);
+            BLEND_TABLES.put(transition, blendTable);
+        }
+
+        return blendTable;
+    }
+
+}
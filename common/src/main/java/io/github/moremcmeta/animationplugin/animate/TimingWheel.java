@@ -0,0 +1,256 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hierarchical timing wheel that remembers the tick at which each item is next due. Each level has
+ * {@link #SLOTS} slots, and each slot in a level spans as many ticks as the whole level below it. An
+ * item is placed in the lowest level that can hold its delay and moved to lower levels as its tick
+ * approaches, so advancing the wheel only touches items that are due or about to be due.
+ *
+ * Items are identified by indices from zero up to the wheel's capacity, and each item is scheduled at
+ * most once at a time. Delays longer than the wheel can hold make items due early, at the end of the
+ * wheel's span.
+ * @author soir20
+ */
+final class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+    private static final long UNSCHEDULED = -1;
+
+    private final IntArrayList[][] WHEEL;
+    private final long[] DUE_TICKS;
+    private long currentTick;
+
+    /**
+     * Creates a new timing wheel with no scheduled items.
+     * @param capacity      number of items that can be scheduled
+     * @param currentTick   tick the wheel starts at
+     */
+    public TimingWheel(int capacity, long currentTick) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+
+        WHEEL = new IntArrayList[LEVELS][SLOTS];
+        DUE_TICKS = new long[capacity];
+        Arrays.fill(DUE_TICKS, UNSCHEDULED);
+        this.currentTick = currentTick;
+    }
+
+    /**
+     * Gets the tick the wheel has been advanced to.
+     * @return the current tick
+     */
+    public long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Schedules an item that is not already scheduled.
+     * @param item          index of the item to schedule
+     * @param dueTick       tick at which the item is due, after the current tick
+     */
+    public void schedule(int item, long dueTick) {
+        if (item < 0 || item >= DUE_TICKS.length) {
+            throw new IllegalArgumentException("Item is outside the wheel's capacity: " + item);
+        }
+
+        if (DUE_TICKS[item] != UNSCHEDULED) {
+            throw new IllegalStateException("Item is already scheduled: " + item);
+        }
+
+        if (dueTick <= currentTick) {
+            throw new IllegalArgumentException("Items must be due after the current tick " + currentTick
+                    + " but was due at " + dueTick);
+        }
+
+        insert(item, Math.min(dueTick, currentTick + MAX_DELAY));
+    }
+
+    /**
+     * Checks whether an item is scheduled.
+     * @param item          index of the item to check
+     * @return whether the item is scheduled
+     */
+    public boolean isScheduled(int item) {
+        return DUE_TICKS[item] != UNSCHEDULED;
+    }
+
+    /**
+     * Advances the wheel and removes every item that is due at or before the new tick. Large jumps
+     * visit each scheduled item once instead of every tick in between.
+     * @param tick          tick to advance to
+     * @param dueItems      set to add the indices of due items to
+     */
+    public void advance(long tick, BitSet dueItems) {
+        requireNonNull(dueItems, "Due items cannot be null");
+        if (tick <= currentTick) {
+            return;
+        }
+
+        if (tick - currentTick > SLOTS) {
+            jump(tick, dueItems);
+            return;
+        }
+
+        while (currentTick < tick) {
+            currentTick++;
+
+            // Move items down from higher levels first, since they may need to move down several levels
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, slot(level, currentTick));
+                }
+            }
+
+            IntArrayList dueSlot = WHEEL[0][slot(0, currentTick)];
+            if (dueSlot != null) {
+                for (int index = 0; index < dueSlot.size(); index++) {
+                    int item = dueSlot.getInt(index);
+                    DUE_TICKS[item] = UNSCHEDULED;
+                    dueItems.set(item);
+                }
+
+                dueSlot.clear();
+            }
+        }
+    }
+
+    /**
+     * Unschedules an item if it is scheduled.
+     * @param item          index of the item to unschedule
+     */
+    public void cancel(int item) {
+        long dueTick = DUE_TICKS[item];
+        if (dueTick == UNSCHEDULED) {
+            return;
+        }
+
+        // The item may have cascaded to a lower level since it was scheduled, so each level is searched
+        for (int level = 0; level < LEVELS; level++) {
+            IntArrayList slot = WHEEL[level][slot(level, dueTick)];
+            if (slot != null && slot.rem(item)) {
+                break;
+            }
+        }
+
+        DUE_TICKS[item] = UNSCHEDULED;
+    }
+
+    /**
+     * Unschedules every item.
+     */
+    public void clear() {
+        for (IntArrayList[] level : WHEEL) {
+            for (IntArrayList slot : level) {
+                if (slot != null) {
+                    slot.clear();
+                }
+            }
+        }
+
+        Arrays.fill(DUE_TICKS, UNSCHEDULED);
+    }
+
+    /**
+     * Advances the wheel past many ticks at once by removing every item and scheduling the items that
+     * are not yet due again.
+     * @param tick          tick to advance to
+     * @param dueItems      set to add the indices of due items to
+     */
+    private void jump(long tick, BitSet dueItems) {
+        long[] dueTicks = DUE_TICKS.clone();
+        clear();
+        currentTick = tick;
+
+        for (int item = 0; item < dueTicks.length; item++) {
+            if (dueTicks[item] == UNSCHEDULED) {
+                continue;
+            }
+
+            if (dueTicks[item] <= tick) {
+                dueItems.set(item);
+            } else {
+                insert(item, dueTicks[item]);
+            }
+        }
+    }
+
+    /**
+     * Moves every item in a slot to the lower levels.
+     * @param level     level of the slot
+     * @param slot      index of the slot in its level
+     */
+    private void cascade(int level, int slot) {
+        IntArrayList items = WHEEL[level][slot];
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        // Items in this slot are due within one slot of the level, so they always move to a lower level
+        int[] cascadedItems = items.toIntArray();
+        items.clear();
+        for (int item : cascadedItems) {
+            long dueTick = DUE_TICKS[item];
+            DUE_TICKS[item] = UNSCHEDULED;
+            insert(item, dueTick);
+        }
+    }
+
+    /**
+     * Places an item in the lowest level that can hold its delay.
+     * @param item          index of the item to place
+     * @param dueTick       tick at which the item is due, no earlier than the current tick
+     */
+    private void insert(int item, long dueTick) {
+        long delay = dueTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        int slot = slot(level, dueTick);
+        if (WHEEL[level][slot] == null) {
+            WHEEL[level][slot] = new IntArrayList();
+        }
+
+        WHEEL[level][slot].add(item);
+        DUE_TICKS[item] = dueTick;
+    }
+
+    /**
+     * Finds the slot that holds a tick in a level.
+     * @param level     level of the slot
+     * @param tick      tick to find the slot for
+     * @return index of the slot in its level
+     */
+    private static int slot(int level, long tick) {
+        return (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.lang.reflect.Constructor;
+import java.util.Optional;
+
+/**
+ * Detects whether the incubating Vector API can be used for interpolation. The API is only available
+ * when the game is started with {@code --add-modules jdk.incubator.vector} on a recent enough Java version,
+ * so the scalar path is used otherwise. The vector mixer is compiled separately from the rest of the plugin
+ * and is only ever loaded by name, so nothing else depends on the incubating module. Vector interpolation
+ * can also be turned off with the system property {@code moremcmeta.animationplugin.vectorInterpolation=false}.
+ * @author soir20
+ */
+final class VectorSupport {
+    static final String ENABLED_PROPERTY = "moremcmeta.animationplugin.vectorInterpolation";
+    private static final String MODULE_NAME = "jdk.incubator.vector";
+    private static final String MIXER_CLASS = "io.github.moremcmeta.animationplugin.animate.VectorRowMixer";
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Optional<Constructor<? extends RowMixer>> MIXER_CONSTRUCTOR = findMixer();
+
+    /**
+     * Checks whether vector interpolation is available and enabled.
+     * @return whether vector interpolation can be used
+     */
+    static boolean isAvailable() {
+        return MIXER_CONSTRUCTOR.isPresent();
+    }
+
+    /**
+     * Creates a vectorized row mixer if vector interpolation is available.
+     * @param smoothAlpha       whether to mix alpha like the other channels instead of keeping the start
+     *                          color's alpha
+     * @return the vector mixer or empty if the scalar path should be used
+     */
+    static Optional<RowMixer> rowMixer(boolean smoothAlpha) {
+        if (MIXER_CONSTRUCTOR.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(MIXER_CONSTRUCTOR.get().newInstance(smoothAlpha));
+        } catch (ReflectiveOperationException err) {
+            LOGGER.warn("Vector interpolation is unavailable", err);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Prevents this class from being constructed.
+     */
+    private VectorSupport() {}
+
+    /**
+     * Finds the vector mixer if the Vector API module is present and works on this hardware. The mixer
+     * class is only loaded after the module is found, since loading it without the module fails. It is
+     * also missing when the plugin was built without it.
+     * @return constructor for the vector mixer or empty if the scalar path should be used
+     */
+    private static Optional<Constructor<? extends RowMixer>> findMixer() {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            LOGGER.info("Vector interpolation is disabled by {}", ENABLED_PROPERTY);
+            return Optional.empty();
+        }
+
+        if (ModuleLayer.boot().findModule(MODULE_NAME).isEmpty()) {
+            LOGGER.debug("Vector interpolation is unavailable because {} is not loaded", MODULE_NAME);
+            return Optional.empty();
+        }
+
+        try {
+            Class<? extends RowMixer> mixerClass = Class.forName(MIXER_CLASS).asSubclass(RowMixer.class);
+            boolean supported = (boolean) mixerClass.getDeclaredMethod("isSupported").invoke(null);
+
+            if (!supported) {
+                LOGGER.info("Vector interpolation is unavailable because it would be slower on this Java "
+                        + "version or hardware");
+                return Optional.empty();
+            }
+
+            LOGGER.info("Using vector interpolation");
+            return Optional.of(mixerClass.getDeclaredConstructor(boolean.class));
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException err) {
+            LOGGER.warn("Vector interpolation is unavailable", err);
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import net.minecraft.client.multiplayer.ClientLevel;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Supplies the current time of day in the client's level for animations that sync to it. Like the
+ * vanilla clock, the time wobbles in dimensions without a natural day.
+ * @author soir20
+ */
+public final class WorldTimeSource implements Supplier<Optional<Long>> {
+    private final WobbleFunction WOBBLE_FUNCTION;
+    private final Supplier<Optional<ClientLevel>> LEVEL_SUPPLIER;
+
+    /**
+     * Creates a new time source.
+     * @param levelSupplier     supplies the current level, if any
+     */
+    public WorldTimeSource(Supplier<Optional<ClientLevel>> levelSupplier) {
+        LEVEL_SUPPLIER = requireNonNull(levelSupplier, "Level supplier cannot be null");
+        WOBBLE_FUNCTION = new WobbleFunction();
+    }
+
+    @Override
+    public Optional<Long> get() {
+        Optional<ClientLevel> levelOptional = LEVEL_SUPPLIER.get();
+        if (levelOptional.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ClientLevel level = levelOptional.get();
+        long time = WOBBLE_FUNCTION.calculate(level.dayTime(), level.getGameTime(), level.dimensionType().natural());
+        return Optional.of(time);
+    }
+
+}
@@ -0,0 +1,246 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataView;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Remembers the analysis of metadata so that textures with identical animation sections are only analyzed
+ * once. Generated packs often give many textures the same section. Entries are found by every key and value
+ * in the metadata along with the image size, and the least recently used entries are removed once the memo
+ * is full.
+ *
+ * The next reload may change any texture, so the memo is cleared whenever a reload finishes analyzing
+ * metadata and moves on to building textures.
+ * @author soir20
+ */
+final class AnalysisMemo {
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final int MAX_ENTRIES;
+    private final Map<Key, AnimationGroupMetadata> ENTRIES;
+
+    /**
+     * Gets the key of metadata in the memo. Metadata with parts has no key because each part's frames are
+     * read from another texture and their memory is tracked per texture, so their analysis cannot be shared.
+     * @param metadata          metadata to find the key of
+     * @param imageWidth        width of the image the metadata belongs to
+     * @param imageHeight       height of the image the metadata belongs to
+     * @return the key or empty if the metadata cannot be memoized
+     */
+    public static Optional<Key> key(MetadataView metadata, int imageWidth, int imageHeight) {
+        requireNonNull(metadata, "Metadata cannot be null");
+        if (metadata.hasKey("parts")) {
+            return Optional.empty();
+        }
+
+        List<Object> contents = new ArrayList<>();
+        long hash = mix(mix(1, imageWidth), imageHeight);
+        hash = addView(hash, metadata, contents);
+        return Optional.of(new Key(imageWidth, imageHeight, contents, hash));
+    }
+
+    /**
+     * Creates a new memo.
+     * @param maxEntries    maximum number of analyses to remember
+     */
+    public AnalysisMemo(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Maximum entries cannot be negative but was: " + maxEntries);
+        }
+
+        MAX_ENTRIES = maxEntries;
+        ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets an earlier analysis of metadata with the given key.
+     * @param key       key of the metadata
+     * @return the earlier analysis or empty if there is none
+     */
+    public synchronized Optional<AnimationGroupMetadata> get(Key key) {
+        requireNonNull(key, "Key cannot be null");
+        return Optional.ofNullable(ENTRIES.get(key));
+    }
+
+    /**
+     * Remembers the analysis of metadata with the given key.
+     * @param key               key of the metadata
+     * @param metadata          analyzed metadata
+     */
+    public synchronized void put(Key key, AnimationGroupMetadata metadata) {
+        requireNonNull(key, "Key cannot be null");
+        requireNonNull(metadata, "Metadata cannot be null");
+
+        if (MAX_ENTRIES == 0) {
+            return;
+        }
+
+        ENTRIES.put(key, metadata);
+        if (ENTRIES.size() > MAX_ENTRIES) {
+            ENTRIES.remove(ENTRIES.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Forgets every analysis.
+     */
+    public synchronized void clear() {
+        ENTRIES.clear();
+    }
+
+    /**
+     * Gets the number of analyses currently remembered.
+     * @return number of remembered analyses
+     */
+    public synchronized int size() {
+        return ENTRIES.size();
+    }
+
+    /**
+     * Adds every key and value in a view to a hash and to a list of contents, in order.
+     * @param hash          hash so far
+     * @param view          view to add
+     * @param contents      list of every key and value added so far
+     * @return the new hash
+     */
+    private static long addView(long hash, MetadataView view, List<Object> contents) {
+        hash = mix(hash, view.size());
+        contents.add(view.size());
+
+        for (String key : view.keys()) {
+            hash = hashString(hash, key);
+            contents.add(key);
+
+            Optional<MetadataView> subView = view.subView(key);
+            if (subView.isPresent()) {
+                hash = addView(mix(hash, 1), subView.get(), contents);
+                continue;
+            }
+
+            Optional<String> stringValue = view.stringValue(key);
+            Optional<Integer> integerValue = view.integerValue(key);
+            Optional<Long> longValue = view.longValue(key);
+            Optional<Double> doubleValue = view.doubleValue(key);
+            Optional<Boolean> booleanValue = view.booleanValue(key);
+
+            hash = mix(hash, stringValue.map(AnalysisMemo::hashString).orElse(0L));
+            hash = mix(hash, integerValue.hashCode());
+            hash = mix(hash, longValue.hashCode());
+            hash = mix(hash, doubleValue.map(Double::doubleToLongBits).orElse(0L));
+            hash = mix(hash, booleanValue.hashCode());
+
+            contents.add(stringValue);
+            contents.add(integerValue);
+            contents.add(longValue);
+            contents.add(doubleValue);
+            contents.add(booleanValue);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Computes the hash of a string.
+     * @param value     string to hash
+     * @return the string's hash
+     */
+    private static long hashString(String value) {
+        return hashString(2, value);
+    }
+
+    /**
+     * Adds a string to a hash.
+     * @param hash      hash so far
+     * @param value     string to add
+     * @return the new hash
+     */
+    private static long hashString(long hash, String value) {
+        hash = mix(hash, value.length());
+        for (int index = 0; index < value.length(); index++) {
+            hash = mix(hash, value.charAt(index));
+        }
+
+        return hash;
+    }
+
+    /**
+     * Adds a value to a hash.
+     * @param hash      hash so far
+     * @param value     value to add
+     * @return the new hash
+     */
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * HASH_MULTIPLIER;
+        return hash ^ (hash >>> 32);
+    }
+
+    /**
+     * Identifies metadata in the memo. Keys hold every key and value in the metadata, so metadata whose
+     * structural hashes collide never shares an analysis.
+     * @author soir20
+     */
+    static final class Key {
+        private final int IMAGE_WIDTH;
+        private final int IMAGE_HEIGHT;
+        private final List<Object> CONTENTS;
+        private final int HASH_CODE;
+
+        /**
+         * Creates a new key.
+         * @param imageWidth        width of the image the metadata belongs to
+         * @param imageHeight       height of the image the metadata belongs to
+         * @param contents          every key and value in the metadata, in order
+         * @param hash              structural hash of the image size and contents
+         */
+        Key(int imageWidth, int imageHeight, List<Object> contents, long hash) {
+            IMAGE_WIDTH = imageWidth;
+            IMAGE_HEIGHT = imageHeight;
+            CONTENTS = List.copyOf(requireNonNull(contents, "Contents cannot be null"));
+            HASH_CODE = Long.hashCode(hash);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            return other instanceof Key otherKey
+                    && HASH_CODE == otherKey.HASH_CODE
+                    && IMAGE_WIDTH == otherKey.IMAGE_WIDTH
+                    && IMAGE_HEIGHT == otherKey.IMAGE_HEIGHT
+                    && CONTENTS.equals(otherKey.CONTENTS);
+        }
+
+        @Override
+        public int hashCode() {
+            return HASH_CODE;
+        }
+
+    }
+
+}
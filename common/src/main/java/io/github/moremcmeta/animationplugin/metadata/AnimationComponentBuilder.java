@@ -17,14 +17,21 @@
 
 package io.github.moremcmeta.animationplugin.metadata;
 
-import com.mojang.datafixers.util.Pair;
+import com.mojang.logging.LogUtils;
 import io.github.moremcmeta.animationplugin.animate.AnimationComponent;
 import io.github.moremcmeta.animationplugin.animate.AnimationGroupComponent;
+import io.github.moremcmeta.animationplugin.animate.ComponentFingerprint;
+import io.github.moremcmeta.animationplugin.animate.ComponentReuseCache;
 import io.github.moremcmeta.animationplugin.animate.DefaultAlphaInterpolator;
 import io.github.moremcmeta.animationplugin.animate.Frame;
+import io.github.moremcmeta.animationplugin.animate.HeapFrame;
 import io.github.moremcmeta.animationplugin.animate.Interpolator;
+import io.github.moremcmeta.animationplugin.animate.QualityGovernor;
 import io.github.moremcmeta.animationplugin.animate.SmoothAlphaInterpolator;
-import io.github.moremcmeta.animationplugin.animate.WobbleFunction;
+import io.github.moremcmeta.animationplugin.animate.StartColorInterpolator;
+import io.github.moremcmeta.animationplugin.profile.ComponentBuildEvent;
+import io.github.moremcmeta.animationplugin.profile.ComponentPlanEvent;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
 import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
 import io.github.moremcmeta.moremcmeta.api.client.texture.ComponentBuilder;
@@ -33,15 +40,16 @@ import io.github.moremcmeta.moremcmeta.api.client.texture.FrameGroup;
 import io.github.moremcmeta.moremcmeta.api.client.texture.MutableFrameView;
 import io.github.moremcmeta.moremcmeta.api.client.texture.TextureComponent;
 import io.github.moremcmeta.moremcmeta.api.math.Area;
-import io.github.moremcmeta.moremcmeta.api.math.Point;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntIntPair;
-import net.minecraft.client.multiplayer.ClientLevel;
+import org.slf4j.Logger;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.IntUnaryOperator;
 import java.util.function.Supplier;
 
@@ -52,17 +60,82 @@ import static java.util.Objects.requireNonNull;
  * @author soir20
  */
 public final class AnimationComponentBuilder implements ComponentBuilder {
+    private static final Logger LOGGER = LogUtils.getLogger();
     private static final int TICKS_PER_DAY = 24000;
-    private static final WobbleFunction WOBBLE_FUNCTION = new WobbleFunction();
 
-    private final Supplier<Optional<ClientLevel>> LEVEL_SUPPLIER;
+    private final Supplier<Optional<Long>> TIME_SOURCE;
+    private final MemoryTracker MEMORY_TRACKER;
+    private final ComponentReuseCache REUSE_CACHE;
+    private final Executor BUILD_EXECUTOR;
+    private final QualityGovernor QUALITY_GOVERNOR;
+    private final BuildSettings SETTINGS;
+    private final StrategyPlanner PLANNER;
 
     /**
-     * Creates a new animation component builder.
-     * @param levelSupplier     supplies the
+     * Creates a new animation component builder that builds components on the calling thread.
+     * @param timeSource        supplies the current time of day for synced animations, if there is a level
+     * @param memoryTracker     tracks the memory used by built components
+     * @param reuseCache        keeps components from earlier reloads for textures that did not change
      */
-    public AnimationComponentBuilder(Supplier<Optional<ClientLevel>> levelSupplier) {
-        LEVEL_SUPPLIER = requireNonNull(levelSupplier, "Level supplier cannot be null");
+    public AnimationComponentBuilder(Supplier<Optional<Long>> timeSource, MemoryTracker memoryTracker,
+                                     ComponentReuseCache reuseCache) {
+        this(timeSource, memoryTracker, reuseCache, Runnable::run);
+    }
+
+    /**
+     * Creates a new animation component builder. Textures show their first frame until their components
+     * finish building on the build executor.
+     * @param timeSource        supplies the current time of day for synced animations, if there is a level
+     * @param memoryTracker     tracks the memory used by built components
+     * @param reuseCache        keeps components from earlier reloads for textures that did not change
+     * @param buildExecutor     runs the expensive part of building components, such as finding the area
+     *                          that changes in each animation
+     */
+    public AnimationComponentBuilder(Supplier<Optional<Long>> timeSource, MemoryTracker memoryTracker,
+                                     ComponentReuseCache reuseCache, Executor buildExecutor) {
+        this(timeSource, memoryTracker, reuseCache, buildExecutor, QualityGovernor.unlimited());
+    }
+
+    /**
+     * Creates a new animation component builder whose textures lower their quality when animations take
+     * too long to tick. Textures show their first frame until their components finish building on the
+     * build executor.
+     * @param timeSource        supplies the current time of day for synced animations, if there is a level
+     * @param memoryTracker     tracks the memory used by built components
+     * @param reuseCache        keeps components from earlier reloads for textures that did not change
+     * @param buildExecutor     runs the expensive part of building components, such as finding the area
+     *                          that changes in each animation
+     * @param qualityGovernor   decides the quality of every built texture's components
+     */
+    public AnimationComponentBuilder(Supplier<Optional<Long>> timeSource, MemoryTracker memoryTracker,
+                                     ComponentReuseCache reuseCache, Executor buildExecutor,
+                                     QualityGovernor qualityGovernor) {
+        this(timeSource, memoryTracker, reuseCache, buildExecutor, qualityGovernor,
+                new BuildSettings.Builder().build());
+    }
+
+    /**
+     * Creates a new animation component builder whose textures lower their quality when animations take
+     * too long to tick. Textures show their first frame until their components finish building on the
+     * build executor.
+     * @param timeSource        supplies the current time of day for synced animations, if there is a level
+     * @param memoryTracker     tracks the memory used by built components
+     * @param reuseCache        keeps components from earlier reloads for textures that did not change
+     * @param buildExecutor     runs the expensive part of building components, such as finding the area
+     *                          that changes in each animation
+     * @param qualityGovernor   decides the quality of every built texture's components
+     * @param settings          decides how components are built
+     */
+    public AnimationComponentBuilder(Supplier<Optional<Long>> timeSource, MemoryTracker memoryTracker,
+                                     ComponentReuseCache reuseCache, Executor buildExecutor,
+                                     QualityGovernor qualityGovernor, BuildSettings settings) {
+        TIME_SOURCE = requireNonNull(timeSource, "Time source cannot be null");
+        MEMORY_TRACKER = requireNonNull(memoryTracker, "Memory tracker cannot be null");
+        REUSE_CACHE = requireNonNull(reuseCache, "Reuse cache cannot be null");
+        BUILD_EXECUTOR = requireNonNull(buildExecutor, "Build executor cannot be null");
+        QUALITY_GOVERNOR = requireNonNull(qualityGovernor, "Quality governor cannot be null");
+        SETTINGS = requireNonNull(settings, "Settings cannot be null");
+        PLANNER = new StrategyPlanner(SETTINGS.precomputeBudget());
     }
 
     @Override
@@ -77,6 +150,9 @@ public final class AnimationComponentBuilder implements ComponentBuilder {
                     "metadata. Something is wrong with the core MoreMcmeta mod.");
         }
 
+        ComponentBuildEvent event = new ComponentBuildEvent();
+        event.begin();
+
         // Run larger animations first, then the leftmost, then the topmost
         List<AnimationMetadata> sortedAnimations = animationGroupMetadata.parts().stream()
                 .sorted(
@@ -100,27 +176,81 @@ public final class AnimationComponentBuilder implements ComponentBuilder {
             }
         }));
 
-        List<Pair<AnimationComponent, Optional<List<Frame>>>> components = sortedAnimations.stream()
-                .map((animation) -> Pair.of(buildComponent(animation, baseFrames), animation.partFrames()))
-                .toList();
+        // The base frames belong to the core mod, so components built on another thread read a copy of them
+        List<Frame> baseFrameCopies = List.of();
+        int baseWidth = 0;
+        int baseHeight = 0;
+        if (sortedAnimations.stream().anyMatch((animation) -> animation.partFrames().isEmpty())) {
+            baseFrameCopies = copyFrames(baseFrames);
+            if (baseFrames.frames() > 0) {
+                baseWidth = baseFrames.frame(0).width();
+                baseHeight = baseFrames.frame(0).height();
+            }
+        }
 
-        return new AnimationGroupComponent(
-                components,
-                sortedAnimations.stream().<Runnable>map((animation) -> animation::close).toList()
+        List<Frame> finalBaseFrameCopies = baseFrameCopies;
+        int finalBaseWidth = baseWidth;
+        int finalBaseHeight = baseHeight;
+        long generation = REUSE_CACHE.generation();
+        CompletableFuture<ComponentReuseCache.Lease> lease = CompletableFuture.supplyAsync(() -> {
+            ComponentFingerprint fingerprint = fingerprint(sortedAnimations, finalBaseFrameCopies, finalBaseWidth,
+                    finalBaseHeight);
+            return REUSE_CACHE.reuse(fingerprint, generation).orElseGet(() -> REUSE_CACHE.add(
+                    fingerprint,
+                    generation,
+                    sortedAnimations.stream()
+                            .map((animation) -> buildComponent(
+                                    animationGroupMetadata.textureId(),
+                                    animation,
+                                    finalBaseFrameCopies,
+                                    overlapsAny(animation, sortedAnimations)
+                            ))
+                            .toList()
+            ));
+        }, BUILD_EXECUTOR);
+
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                animationGroupMetadata.textureId(),
+                lease,
+                sortedAnimations.stream().map(AnimationMetadata::partFrames).toList(),
+                sortedAnimations.stream().<Runnable>map((animation) -> animation::close).toList(),
+                MEMORY_TRACKER,
+                QUALITY_GOVERNOR,
+                SETTINGS.scheduleComponents()
         );
+
+        // The event covers the whole build, so it is committed once the components are ready
+        boolean deferred = !lease.isDone();
+        lease.thenAccept((builtLease) -> {
+            event.end();
+            if (event.shouldCommit()) {
+                event.textureId = animationGroupMetadata.textureId();
+                event.componentCount = sortedAnimations.size();
+                event.deferred = deferred;
+                event.changedAreaSize = builtLease.components().stream()
+                        .mapToLong(AnimationComponent::areaSize)
+                        .sum();
+                event.reused = builtLease.reused();
+                event.commit();
+            }
+        });
+
+        return groupComponent;
     }
 
     /**
      * Retrieves data from animation metadata to build an animation component.
+     * @param textureId             plugin-assigned ID of the texture the animation belongs to
      * @param animationMetadata     animation metadata to use for the component
-     * @param baseFrames            frames in the base texture
+     * @param baseFrames            copies of the frames in the base texture
+     * @param overlapsOthers        whether the animation shares pixels with other animations in the texture
      * @return built component
      */
-    private AnimationComponent buildComponent(AnimationMetadata animationMetadata,
-                                              FrameGroup<? extends MutableFrameView> baseFrames) {
-        List<Frame> frames = animationMetadata.partFrames().orElse(wrapFrames(baseFrames));
+    private AnimationComponent buildComponent(long textureId, AnimationMetadata animationMetadata,
+                                              List<Frame> baseFrames, boolean overlapsOthers) {
+        List<Frame> frames = animationMetadata.partFrames().orElse(baseFrames);
 
-        Area changedArea = findChangedArea(
+        FrameChanges changes = findChanges(
                 frames,
                 animationMetadata.frameWidth(),
                 animationMetadata.frameHeight(),
@@ -128,135 +258,352 @@ public final class AnimationComponentBuilder implements ComponentBuilder {
                 animationMetadata.yInBase()
         );
 
-        List<IntIntPair> predefinedFrames = animationMetadata.predefinedFrames();
+        // Consecutive entries for the same frame are merged into one entry that holds the frame until the last
+        // entry's time begins, so that the same steps are interpolated without visiting every entry
+        IntArrayList frameIndices = new IntArrayList();
+        IntArrayList frameTimes = new IntArrayList();
+        IntArrayList frameHolds = new IntArrayList();
+        for (IntIntPair frame : animationMetadata.predefinedFrames()) {
+            int lastEntry = frameIndices.size() - 1;
+            if (lastEntry >= 0 && frameIndices.getInt(lastEntry) == frame.leftInt()) {
+                frameHolds.set(lastEntry, frameTimes.getInt(lastEntry));
+                frameTimes.set(lastEntry, frameTimes.getInt(lastEntry) + frame.rightInt());
+            } else {
+                frameIndices.add(frame.leftInt());
+                frameTimes.add(frame.rightInt());
+                frameHolds.add(0);
+            }
+        }
 
         // Number of frames
         int frameCount = frames.size();
-        if (!predefinedFrames.isEmpty()) {
-            frameCount = predefinedFrames.size();
+        if (!frameIndices.isEmpty()) {
+            frameCount = frameIndices.size();
         }
 
         // Frame time calculation
         IntUnaryOperator frameTimeCalculator = (index) -> {
-            if (predefinedFrames.isEmpty()) {
+            if (frameTimes.isEmpty()) {
                 return animationMetadata.defaultTime();
             }
 
-            return predefinedFrames.get(index).rightInt();
+            return frameTimes.getInt(index);
         };
 
-        // Index mapping
-        IntUnaryOperator frameIndexMapper = (index) -> {
-            if (predefinedFrames.isEmpty()) {
-                return index;
+        // Hold time calculation
+        IntUnaryOperator frameHoldCalculator = (index) -> {
+            if (frameHolds.isEmpty()) {
+                return 0;
             }
 
-            return predefinedFrames.get(index).leftInt();
+            return frameHolds.getInt(index);
         };
 
-        // Time retrieval
-        Supplier<Optional<Long>> timeGetter = () -> {
-            Optional<ClientLevel> levelOptional = LEVEL_SUPPLIER.get();
-            if (levelOptional.isEmpty()) {
-                return Optional.empty();
+        // Index mapping
+        IntUnaryOperator frameIndexMapper = (index) -> {
+            if (frameIndices.isEmpty()) {
+                return index;
             }
 
-            ClientLevel level = levelOptional.get();
-            long time = WOBBLE_FUNCTION.calculate(level.dayTime(), level.getGameTime(), level.dimensionType().natural());
-            return Optional.of(time);
+            return frameIndices.getInt(index);
         };
 
         Interpolator interpolator;
         if (!animationMetadata.interpolate()) {
-            interpolator = (steps, step, start, end) -> start;
+            interpolator = new StartColorInterpolator();
         } else if (animationMetadata.smoothAlpha()) {
-            interpolator = new SmoothAlphaInterpolator();
+            interpolator = new SmoothAlphaInterpolator(animationMetadata.linear(), animationMetadata.premultiplied());
         } else {
-            interpolator = new DefaultAlphaInterpolator();
+            interpolator = new DefaultAlphaInterpolator(animationMetadata.linear(), animationMetadata.premultiplied());
         }
 
         AnimationComponent.Builder componentBuilder = new AnimationComponent.Builder();
-        componentBuilder.interpolateArea(changedArea)
+        AnimationComponent.Strategy strategy = AnimationComponent.Strategy.DIRECT;
+        if (SETTINGS.planStrategies()) {
+            long ticksPerCycle = 0;
+            long interpolatedSteps = 0;
+            for (int index = 0; index < frameCount; index++) {
+                int frameTime = frameTimeCalculator.applyAsInt(index);
+                ticksPerCycle += frameTime;
+                interpolatedSteps += Math.max(0, frameTime - frameHoldCalculator.applyAsInt(index));
+            }
+
+            StrategyPlanner.Plan plan = PLANNER.plan(
+                    changes.AREA,
+                    changes.CHANGED_PIXELS_PER_FRAME,
+                    Math.max(1, frameCount),
+                    Math.max(1, ticksPerCycle),
+                    interpolatedSteps,
+                    animationMetadata.interpolate(),
+                    overlapsOthers
+            );
+            strategy = plan.strategy();
+            reportPlan(textureId, animationMetadata, changes.AREA_SIZE, plan);
+        }
+
+        componentBuilder.interpolateArea(changes.AREA)
                 .frames(frameCount)
                 .ticksUntilStart(animationMetadata.skipTicks())
                 .frameTimeCalculator(frameTimeCalculator)
+                .frameHoldCalculator(frameHoldCalculator)
                 .frameIndexMapper(frameIndexMapper)
                 .interpolator(interpolator)
-                .coordinateInBase(animationMetadata.xInBase(), animationMetadata.yInBase());
+                .coordinateInBase(animationMetadata.xInBase(), animationMetadata.yInBase())
+                .skipUnchangedSteps(SETTINGS.skipUnchangedSteps() && !overlapsOthers)
+                .useBlendTables(SETTINGS.useBlendTables() && animationMetadata.interpolate())
+                .strategy(strategy);
+
+        // Interleaving is opt-in because it lets large interpolated areas lag behind by a few ticks
+        if (SETTINGS.interleaveFactor() > 1 && animationMetadata.interpolate() && !overlapsOthers
+                && changes.AREA_SIZE >= SETTINGS.interleaveOverPixels()) {
+            componentBuilder.interleave(SETTINGS.interleavePattern(), SETTINGS.interleaveFactor());
+        }
+
+        // Reduced resolution is opt-in because blocks of pixels are visible on low-resolution textures
+        if (SETTINGS.resolutionScale() > 1 && animationMetadata.interpolate()
+                && animationMetadata.frameWidth() >= SETTINGS.resolutionScaleWidth()) {
+            componentBuilder.resolutionScale(SETTINGS.resolutionScale());
+        }
 
         if (animationMetadata.daytimeSync()) {
-            componentBuilder.syncTicks(TICKS_PER_DAY, timeGetter);
+            componentBuilder.syncTicks(TICKS_PER_DAY, TIME_SOURCE);
         }
 
-        return componentBuilder.build();
+        AnimationComponent component = componentBuilder.build();
+        component.prepare(frames);
+        return component;
     }
 
     /**
-     * Wraps {@link MutableFrameView}s to be compatible with the {@link Frame} interface.
-     * @param frames    frames to wrap
-     * @return wrapped frames
+     * Reports the strategy planned for an animation in the debug log and as a {@link ComponentPlanEvent}.
+     * @param textureId             plugin-assigned ID of the texture the animation belongs to
+     * @param animationMetadata     animation that was planned
+     * @param changedAreaSize       number of pixels that change throughout the animation
+     * @param plan                  plan for the animation
      */
-    private static List<Frame> wrapFrames(FrameGroup<? extends MutableFrameView> frames) {
-        List<Frame> wrappedFrames = new ArrayList<>();
-        for (int index = 0; index < frames.frames(); index++) {
-            final int finalIndex = index;
-            wrappedFrames.add((x, y) -> {
-                AtomicInteger color = new AtomicInteger();
-
-                frames.frame(finalIndex).transform(
-                        (overwriteX, overwriteY, layerBelow) -> {
-                            int existingColor = layerBelow.color(overwriteX, overwriteY);
-                            color.set(existingColor);
-                            return existingColor;
-                        },
-                        Area.of(Point.pack(x, y))
-                );
+    private static void reportPlan(long textureId, AnimationMetadata animationMetadata, int changedAreaSize,
+                                   StrategyPlanner.Plan plan) {
+        LOGGER.debug("Planned animation at ({}, {}) in texture {}: {}", animationMetadata.xInBase(),
+                animationMetadata.yInBase(), textureId, plan);
+
+        ComponentPlanEvent event = new ComponentPlanEvent();
+        if (event.shouldCommit()) {
+            event.textureId = textureId;
+            event.strategy = plan.strategy().name();
+            event.changedAreaSize = changedAreaSize;
+            event.estimatedTickCost = plan.chosen().tickCost();
+            event.estimatedMemory = plan.chosen().memoryBytes();
+            event.estimates = plan.estimates().toString();
+            event.commit();
+        }
+    }
 
-                return color.get();
-            });
+    /**
+     * Checks whether an animation shares any pixels with another animation in the same texture. Another
+     * animation may overwrite the shared pixels, so their colors cannot be assumed to remain unchanged
+     * between ticks.
+     * @param animation         animation to check
+     * @param animations        all animations in the texture
+     * @return whether the animation overlaps any other animation
+     */
+    private static boolean overlapsAny(AnimationMetadata animation, List<AnimationMetadata> animations) {
+        return animations.stream().anyMatch((other) -> other != animation
+                && animation.xInBase() < other.xInBase() + other.frameWidth()
+                && other.xInBase() < animation.xInBase() + animation.frameWidth()
+                && animation.yInBase() < other.yInBase() + other.frameHeight()
+                && other.yInBase() < animation.yInBase() + animation.frameHeight()
+        );
+    }
+
+    /**
+     * Computes a fingerprint of everything that components are built from: the animation properties and
+     * the pixels of every frame. Textures with the same fingerprint can share the same components.
+     * @param animations        all animations in the texture, in the order their components are built
+     * @param baseFrameCopies   copies of the frames in the base texture if any animation uses them
+     * @param baseWidth         width of each frame in the base texture
+     * @param baseHeight        height of each frame in the base texture
+     * @return fingerprint of the animations and their frames
+     */
+    private static ComponentFingerprint fingerprint(List<AnimationMetadata> animations, List<Frame> baseFrameCopies,
+                                                    int baseWidth, int baseHeight) {
+        ComponentFingerprint.Builder fingerprint = new ComponentFingerprint.Builder();
+        fingerprint.addDimension(animations.size());
+        boolean usesBaseFrames = false;
+
+        for (AnimationMetadata animation : animations) {
+            fingerprint.addDimension(animation.frameWidth());
+            fingerprint.addDimension(animation.frameHeight());
+            fingerprint.add(animation.defaultTime());
+            fingerprint.add(animation.interpolate() ? 1 : 0);
+            fingerprint.add(animation.smoothAlpha() ? 1 : 0);
+            fingerprint.add(animation.linear() ? 1 : 0);
+            fingerprint.add(animation.premultiplied() ? 1 : 0);
+            fingerprint.add(animation.skipTicks());
+            fingerprint.add(animation.daytimeSync() ? 1 : 0);
+            fingerprint.addDimension(animation.xInBase());
+            fingerprint.addDimension(animation.yInBase());
+
+            fingerprint.addDimension(animation.predefinedFrames().size());
+            for (IntIntPair frame : animation.predefinedFrames()) {
+                fingerprint.add(frame.leftInt());
+                fingerprint.add(frame.rightInt());
+            }
+
+            if (animation.partFrames().isPresent()) {
+                List<Frame> partFrames = animation.partFrames().get();
+                fingerprint.addDimension(partFrames.size());
+
+                int[] row = new int[animation.frameWidth()];
+                for (Frame frame : partFrames) {
+                    for (int y = 0; y < animation.frameHeight(); y++) {
+                        frame.copyRow(0, y, row.length, row, 0);
+                        fingerprint.add(row, row.length);
+                    }
+                }
+            } else {
+                fingerprint.addDimension(-1);
+                usesBaseFrames = true;
+            }
         }
 
-        return wrappedFrames;
+        if (usesBaseFrames) {
+            fingerprint.addDimension(baseFrameCopies.size());
+            fingerprint.addDimension(baseWidth);
+            fingerprint.addDimension(baseHeight);
+
+            int[] row = new int[baseWidth];
+            for (Frame frame : baseFrameCopies) {
+                for (int y = 0; y < baseHeight; y++) {
+                    frame.copyRow(0, y, row.length, row, 0);
+                    fingerprint.add(row, row.length);
+                }
+            }
+        }
+
+        return fingerprint.build();
+    }
+
+    /**
+     * Copies the pixels of {@link MutableFrameView}s to the heap so that they can be read from any thread.
+     * @param frames    frames to copy
+     * @return copied frames
+     */
+    private static List<Frame> copyFrames(FrameGroup<? extends MutableFrameView> frames) {
+        List<Frame> copiedFrames = new ArrayList<>();
+        for (int index = 0; index < frames.frames(); index++) {
+            MutableFrameView frame = frames.frame(index);
+            int width = frame.width();
+            int[] pixels = new int[width * frame.height()];
+
+            // Read each frame with one identity transform since reading single pixels is expensive
+            frame.transform(
+                    (x, y, layerBelow) -> {
+                        int color = layerBelow.color(x, y);
+                        pixels[y * width + x] = color;
+                        return color;
+                    },
+                    new Area(0, 0, width, frame.height())
+            );
+
+            copiedFrames.add(new HeapFrame(pixels, width));
+        }
+
+        return copiedFrames;
     }
 
     /**
-     * Gets the pixels that will change throughout the animation. If the image
-     * is empty, an empty area will be returned.
+     * Gets the pixels that will change throughout the animation and how many pixels change from one
+     * frame to the next. If the image is empty, an empty area will be returned.
      * @param frames        frames to analyze
      * @param frameWidth    width of a frame in the animation
      * @param frameHeight   height of a frame in the animation
      * @param xInBase       x-coordinate of the top-left corner of this animation within the base texture
      * @param yInBase       y-coordinate of the top-left corner of this animation within the base texture
-     * @return area representing pixels that change throughout the animation
+     * @return pixels that change throughout the animation
      */
-    private static Area findChangedArea(List<Frame> frames, int frameWidth, int frameHeight, int xInBase, int yInBase) {
+    private static FrameChanges findChanges(List<Frame> frames, int frameWidth, int frameHeight, int xInBase,
+                                            int yInBase) {
         requireNonNull(frames, "Image cannot be null");
         if (frames.size() == 0) {
-            return Area.of();
+            return new FrameChanges(Area.of(), 0, 0);
         }
 
         Frame firstFrame = frames.get(0);
-        Area fullFrameArea = new Area(0, 0, frameWidth, frameHeight);
         Area.Builder areaBuilder = new Area.Builder();
+        boolean[] changed = new boolean[frameWidth * frameHeight];
+        int[] firstPixels = new int[frameWidth * frameHeight];
+        int[] otherRow = new int[frameWidth];
+        long changedBetweenFrames = 0;
 
-        // For every point in the first frame, check that point in the other frames
-        for (long point : fullFrameArea) {
-            int x = Point.x(point);
-            int y = Point.y(point);
-            int firstColor = firstFrame.color(x, y);
+        for (int y = 0; y < frameHeight; y++) {
+            firstFrame.copyRow(0, y, frameWidth, firstPixels, y * frameWidth);
+        }
 
-            // Check the point in each of the other frames
-            for (int frameIndex = 1; frameIndex < frames.size(); frameIndex++) {
-                int otherColor = frames.get(frameIndex).color(x, y);
-                if (!Color.equalsOrBothInvisible(firstColor, otherColor)) {
-                    areaBuilder.addPixel(x + xInBase, y + yInBase);
-                    break;
+        int[] previousPixels = firstPixels.clone();
+
+        // Compare one whole frame at a time, since some frames are expensive to switch between
+        for (int frameIndex = 1; frameIndex < frames.size(); frameIndex++) {
+            Frame otherFrame = frames.get(frameIndex);
+
+            for (int y = 0; y < frameHeight; y++) {
+                otherFrame.copyRow(0, y, frameWidth, otherRow, 0);
+
+                for (int x = 0; x < frameWidth; x++) {
+                    if (!Color.equalsOrBothInvisible(firstPixels[y * frameWidth + x], otherRow[x])) {
+                        changed[y * frameWidth + x] = true;
+                    }
+
+                    if (!Color.equalsOrBothInvisible(previousPixels[y * frameWidth + x], otherRow[x])) {
+                        changedBetweenFrames++;
+                    }
                 }
 
+                System.arraycopy(otherRow, 0, previousPixels, y * frameWidth, frameWidth);
+            }
+        }
+
+        // The last frame transitions back to the first
+        for (int index = 0; index < previousPixels.length; index++) {
+            if (!Color.equalsOrBothInvisible(previousPixels[index], firstPixels[index])) {
+                changedBetweenFrames++;
+            }
+        }
+
+        int areaSize = 0;
+
+        for (int y = 0; y < frameHeight; y++) {
+            for (int x = 0; x < frameWidth; x++) {
+                if (changed[y * frameWidth + x]) {
+                    areaBuilder.addPixel(x + xInBase, y + yInBase);
+                    areaSize++;
+                }
             }
         }
 
-        return areaBuilder.build();
+        return new FrameChanges(areaBuilder.build(), areaSize, (double) changedBetweenFrames / frames.size());
+    }
+
+    /**
+     * Pixels that change throughout an animation.
+     * @author soir20
+     */
+    private static final class FrameChanges {
+        private final Area AREA;
+        private final int AREA_SIZE;
+        private final double CHANGED_PIXELS_PER_FRAME;
+
+        /**
+         * Creates a new set of frame changes.
+         * @param area                      pixels that change throughout the animation
+         * @param areaSize                  number of pixels in the area
+         * @param changedPixelsPerFrame     average number of pixels that differ from one frame to the next
+         */
+        private FrameChanges(Area area, int areaSize, double changedPixelsPerFrame) {
+            AREA = area;
+            AREA_SIZE = areaSize;
+            CHANGED_PIXELS_PER_FRAME = changedPixelsPerFrame;
+        }
+
     }
 
 }
@@ -21,6 +21,7 @@ import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.Objects.requireNonNull;
 
@@ -29,6 +30,9 @@ import static java.util.Objects.requireNonNull;
  * @author soir20
  */
 public final class AnimationGroupMetadata implements AnalyzedMetadata {
+    private static final AtomicLong NEXT_TEXTURE_ID = new AtomicLong();
+
+    private final long TEXTURE_ID;
     private final int FRAME_WIDTH;
     private final int FRAME_HEIGHT;
     private final List<AnimationMetadata> PARTS;
@@ -40,6 +44,7 @@ public final class AnimationGroupMetadata implements AnalyzedMetadata {
      * @param parts             all parts of the animation/members of the group
      */
     public AnimationGroupMetadata(int frameWidth, int frameHeight, List<AnimationMetadata> parts) {
+        TEXTURE_ID = NEXT_TEXTURE_ID.incrementAndGet();
         FRAME_WIDTH = frameWidth;
         FRAME_HEIGHT = frameHeight;
         PARTS = requireNonNull(parts, "Parts cannot be null");
@@ -55,6 +60,15 @@ public final class AnimationGroupMetadata implements AnalyzedMetadata {
         return Optional.of(FRAME_HEIGHT);
     }
 
+    /**
+     * Gets the plugin-assigned ID of the texture this metadata was analyzed for. The core mod does not
+     * expose the texture's location to plugins, so this ID is only used to correlate profiling events and tick traces.
+     * @return unique ID of the texture this metadata belongs to
+     */
+    public long textureId() {
+        return TEXTURE_ID;
+    }
+
     /**
      * Gets the list of all animations in this group/within the same texture.
      * @return all animations in this group
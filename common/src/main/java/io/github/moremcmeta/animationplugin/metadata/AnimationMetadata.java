@@ -36,6 +36,8 @@ public final class AnimationMetadata {
     private final int DEFAULT_TIME;
     private final boolean INTERPOLATE;
     private final boolean SMOOTH_ALPHA;
+    private final boolean LINEAR;
+    private final boolean PREMULTIPLIED;
     private final ImmutableList<IntIntPair> FRAMES;
     private final int SKIP_TICKS;
     private final boolean DAYTIME_SYNC;
@@ -51,6 +53,8 @@ public final class AnimationMetadata {
      * @param defaultTime       default time for a frame in the animation
      * @param interpolate       whether to interpolate frames in the animation
      * @param smoothAlpha       whether to interpolate alpha smoothly throughout the animation
+     * @param linear            whether to interpolate colors in linear light instead of sRGB
+     * @param premultiplied     whether to weight interpolated colors by alpha
      * @param frames            frames in the animation
      * @param skipTicks         ticks to skip before the animation starts
      * @param daytimeSync       whether to synchronize the animation to the time of day
@@ -61,13 +65,16 @@ public final class AnimationMetadata {
      * @param resourceCloser    closes resources associated with this animation
      */
     public AnimationMetadata(int frameWidth, int frameHeight, int defaultTime, boolean interpolate, boolean smoothAlpha,
-                             List<IntIntPair> frames, int skipTicks, boolean daytimeSync, int xInBase, int yInBase,
-                             Optional<List<Frame>> partFrames, Runnable resourceCloser) {
+                             boolean linear, boolean premultiplied, List<IntIntPair> frames, int skipTicks,
+                             boolean daytimeSync, int xInBase, int yInBase, Optional<List<Frame>> partFrames,
+                             Runnable resourceCloser) {
         FRAME_WIDTH = frameWidth;
         FRAME_HEIGHT = frameHeight;
         DEFAULT_TIME = defaultTime;
         INTERPOLATE = interpolate;
         SMOOTH_ALPHA = smoothAlpha;
+        LINEAR = linear;
+        PREMULTIPLIED = premultiplied;
         FRAMES = requireNonNull(ImmutableList.copyOf(frames), "Frames cannot be null");
         SKIP_TICKS = skipTicks;
         DAYTIME_SYNC = daytimeSync;
@@ -117,6 +124,23 @@ public final class AnimationMetadata {
         return SMOOTH_ALPHA;
     }
 
+    /**
+     * Gets whether to interpolate colors in linear light instead of sRGB, so that midpoints do not darken.
+     * @return whether to interpolate colors in linear light
+     */
+    public boolean linear() {
+        return LINEAR;
+    }
+
+    /**
+     * Gets whether to weight interpolated colors by alpha, so that colors of transparent pixels do not
+     * bleed into visible pixels.
+     * @return whether to weight interpolated colors by alpha
+     */
+    public boolean premultiplied() {
+        return PREMULTIPLIED;
+    }
+
     /**
      * Gets all predefined frames in the animation as (index, time) pairs. If no frames are defined,
      * then all the frames in the animation should be used with the default frame time.
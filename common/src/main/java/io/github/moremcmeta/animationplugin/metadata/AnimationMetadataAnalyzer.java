@@ -20,17 +20,31 @@ package io.github.moremcmeta.animationplugin.metadata;
 import com.google.common.collect.ImmutableList;
 import com.mojang.blaze3d.platform.NativeImage;
 import io.github.moremcmeta.animationplugin.animate.Frame;
+import io.github.moremcmeta.animationplugin.animate.OffHeapFrame;
+import io.github.moremcmeta.animationplugin.animate.CompressedFrameList;
+import io.github.moremcmeta.animationplugin.animate.HeapFrame;
+import io.github.moremcmeta.animationplugin.animate.PaletteFrame;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
+import io.github.moremcmeta.animationplugin.profile.MetadataAnalysisEvent;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataAnalyzer;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataView;
 import it.unimi.dsi.fastutil.ints.IntIntPair;
+import org.lwjgl.system.MemoryUtil;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -39,111 +53,424 @@ import static java.util.Objects.requireNonNull;
  * @author soir20
  */
 public final class AnimationMetadataAnalyzer implements MetadataAnalyzer {
+    private static final long DEFAULT_COMPRESS_FRAMES_OVER_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_MEMO_ENTRIES = 1024;
+    private static final long DEFAULT_READ_IN_PLACE_OVER_BYTES = 16L * 1024 * 1024;
+
+    private final MemoryTracker MEMORY_TRACKER;
+    private final long COMPRESS_FRAMES_OVER_BYTES;
+    private final boolean STREAM_TEXTURES;
+    private final AnalysisMemo MEMO;
+    private final long READ_IN_PLACE_OVER_BYTES;
+
+    /**
+     * Creates a new metadata analyzer that keeps parts whose frames are larger than 64 MiB compressed,
+     * streams PNG part textures into frames, remembers up to 1024 analyses, and reads part textures
+     * larger than 16 MiB in place.
+     * @param memoryTracker     tracks the memory used by part textures
+     */
+    public AnimationMetadataAnalyzer(MemoryTracker memoryTracker) {
+        this(memoryTracker, DEFAULT_COMPRESS_FRAMES_OVER_BYTES);
+    }
+
+    /**
+     * Creates a new metadata analyzer that streams PNG part textures into frames.
+     * @param memoryTracker             tracks the memory used by part textures
+     * @param compressFramesOverBytes   size in bytes above which a part's frames are kept compressed,
+     *                                  or a negative number to never compress frames
+     */
+    public AnimationMetadataAnalyzer(MemoryTracker memoryTracker, long compressFramesOverBytes) {
+        this(memoryTracker, compressFramesOverBytes, true);
+    }
+
+    /**
+     * Creates a new metadata analyzer that remembers the default number of analyses.
+     * @param memoryTracker             tracks the memory used by part textures
+     * @param compressFramesOverBytes   size in bytes above which a part's frames are kept compressed,
+     *                                  or a negative number to never compress frames
+     * @param streamTextures            whether to read PNG part textures row by row straight into frames
+     *                                  instead of decoding the whole texture first
+     */
+    public AnimationMetadataAnalyzer(MemoryTracker memoryTracker, long compressFramesOverBytes,
+                                     boolean streamTextures) {
+        this(memoryTracker, compressFramesOverBytes, streamTextures, DEFAULT_MEMO_ENTRIES);
+    }
+
+    /**
+     * Creates a new metadata analyzer that reads part textures larger than 16 MiB in place.
+     * @param memoryTracker             tracks the memory used by part textures
+     * @param compressFramesOverBytes   size in bytes above which a part's frames are kept compressed,
+     *                                  or a negative number to never compress frames
+     * @param streamTextures            whether to read PNG part textures row by row straight into frames
+     *                                  instead of decoding the whole texture first
+     * @param memoEntries               maximum number of analyses of identical metadata without parts to
+     *                                  remember during a reload, or zero to analyze all metadata again
+     */
+    public AnimationMetadataAnalyzer(MemoryTracker memoryTracker, long compressFramesOverBytes,
+                                     boolean streamTextures, int memoEntries) {
+        this(memoryTracker, compressFramesOverBytes, streamTextures, memoEntries, DEFAULT_READ_IN_PLACE_OVER_BYTES);
+    }
+
+    /**
+     * Creates a new metadata analyzer.
+     * @param memoryTracker             tracks the memory used by part textures
+     * @param compressFramesOverBytes   size in bytes above which a part's frames are kept compressed,
+     *                                  or a negative number to never compress frames
+     * @param streamTextures            whether to read PNG part textures row by row straight into frames
+     *                                  instead of decoding the whole texture first
+     * @param memoEntries               maximum number of analyses of identical metadata without parts to
+     *                                  remember during a reload, or zero to analyze all metadata again
+     * @param readInPlaceOverBytes      size in bytes above which a part texture is decoded into native
+     *                                  memory and its frames are read there instead of being copied
+     *                                  onto the heap, or a negative number to always copy frames
+     */
+    public AnimationMetadataAnalyzer(MemoryTracker memoryTracker, long compressFramesOverBytes,
+                                     boolean streamTextures, int memoEntries, long readInPlaceOverBytes) {
+        MEMORY_TRACKER = requireNonNull(memoryTracker, "Memory tracker cannot be null");
+        COMPRESS_FRAMES_OVER_BYTES = compressFramesOverBytes;
+        STREAM_TEXTURES = streamTextures;
+        MEMO = new AnalysisMemo(memoEntries);
+        READ_IN_PLACE_OVER_BYTES = readInPlaceOverBytes;
+    }
+
+    /**
+     * Marks the end of a reload's analysis, which happens once the reload starts building textures from
+     * the analyzed metadata. Remembered analyses are forgotten since the next reload may change any texture.
+     */
+    public void endReload() {
+        MEMO.clear();
+    }
 
     @Override
     public AnalyzedMetadata analyze(MetadataView metadata, int imageWidth, int imageHeight) throws InvalidMetadataException {
         requireNonNull(metadata, "Metadata cannot be null");
 
+        MetadataAnalysisEvent event = new MetadataAnalysisEvent();
+        event.begin();
+
+        // Memoized parts are immutable and have nothing to close, so they can be shared between textures
+        Optional<AnalysisMemo.Key> memoKey = AnalysisMemo.key(metadata, imageWidth, imageHeight);
+        Optional<AnimationGroupMetadata> memoized = memoKey.flatMap(MEMO::get);
+        if (memoized.isPresent()) {
+            AnimationGroupMetadata groupMetadata = new AnimationGroupMetadata(
+                    memoized.get().frameWidth().orElseThrow(),
+                    memoized.get().frameHeight().orElseThrow(),
+                    memoized.get().parts()
+            );
+            commitEvent(event, groupMetadata, imageWidth, imageHeight, 0, true);
+            return groupMetadata;
+        }
+
         List<AnimationMetadata> animations = new ArrayList<>();
+        List<MemoryTracker.Allocation> partAllocations = new ArrayList<>();
         int frameWidth;
         int frameHeight;
+        long bytesDecoded = 0;
 
-        Optional<MetadataView> partsViewOptional = metadata.subView("parts");
-        if (partsViewOptional.isPresent()) {
-            frameWidth = imageWidth;
-            frameHeight = imageHeight;
-            MetadataView partsView = partsViewOptional.get();
-
-            for (int index = 0; index < partsView.size(); index++) {
-                Optional<MetadataView> singleAnimViewOptional = partsView.subView(index);
-
-                if (singleAnimViewOptional.isPresent()) {
-                    MetadataView singleAnimView = singleAnimViewOptional.get();
-                    NativeImage texture = readTexture(singleAnimView);
-
-                    AnimationMetadata part = readAnimationProperties(
-                            singleAnimView,
-                            texture.getWidth(),
-                            texture.getHeight(),
-                            texture
-                    );
-
-                    boolean isOutsideX = part.xInBase() + part.frameWidth() > frameWidth;
-                    boolean isOutsideY = part.yInBase() + part.frameHeight() > frameHeight;
-                    if (isOutsideX || isOutsideY) {
-                        throw new InvalidMetadataException(String.format(
-                                "Part (%sx%s) extends outside base texture (%sx%s)",
-                                part.frameWidth(), part.frameHeight(), frameWidth, frameHeight
-                        ));
+        try {
+            Optional<MetadataView> partsViewOptional = metadata.subView("parts");
+            if (partsViewOptional.isPresent()) {
+                frameWidth = imageWidth;
+                frameHeight = imageHeight;
+                MetadataView partsView = partsViewOptional.get();
+
+                for (int index = 0; index < partsView.size(); index++) {
+                    Optional<MetadataView> singleAnimViewOptional = partsView.subView(index);
+
+                    if (singleAnimViewOptional.isPresent()) {
+                        MetadataView singleAnimView = singleAnimViewOptional.get();
+                        PartTexture texture = readPartTexture(singleAnimView, index);
+                        bytesDecoded += texture.decodedBytes();
+                        MemoryTracker.Allocation allocation = texture.allocation();
+                        partAllocations.add(allocation);
+
+                        IntIntPair frameSize = readFrameSize(singleAnimView, texture.width(), texture.height());
+                        List<Frame> frames = texture.frames();
+
+                        // Low-color parts are copied into palette frames so that the larger texture can be freed
+                        Optional<List<PaletteFrame>> paletteFrames = PaletteFrame.fromFrames(
+                                frames,
+                                frameSize.leftInt(),
+                                frameSize.rightInt()
+                        );
+                        if (paletteFrames.isPresent()) {
+                            allocation.close();
+                            allocation = MEMORY_TRACKER.trackHeap(
+                                    String.format("Palette part %s (%s colors)", index,
+                                            paletteFrames.get().get(0).paletteSize()),
+                                    PaletteFrame.bytes(paletteFrames.get())
+                            );
+                            partAllocations.add(allocation);
+                            frames = List.copyOf(paletteFrames.get());
+                        }
+
+                        // Huge sheets stay in native memory, which is freed when the part closes instead of now
+                        boolean keepFrames = paletteFrames.isPresent()
+                                || (allocation.kind() == MemoryTracker.Kind.NATIVE
+                                && isReadInPlace(texture.width(), texture.height()));
+
+                        // Long, high-resolution parts are kept compressed and decompressed just before they are drawn
+                        long frameBytes = (long) frames.size() * frameSize.leftInt() * frameSize.rightInt()
+                                * Integer.BYTES;
+                        Runnable frameCloser = () -> {};
+                        if (!keepFrames && COMPRESS_FRAMES_OVER_BYTES >= 0
+                                && frameBytes > COMPRESS_FRAMES_OVER_BYTES) {
+                            CompressedFrameList compressedFrames = CompressedFrameList.compress(
+                                    frames,
+                                    frameSize.leftInt(),
+                                    frameSize.rightInt()
+                            );
+                            allocation.close();
+                            allocation = MEMORY_TRACKER.trackHeap(
+                                    String.format("Compressed part %s (%s frames)", index, compressedFrames.size()),
+                                    compressedFrames.bytes()
+                            );
+                            partAllocations.add(allocation);
+                            frames = compressedFrames;
+                            frameCloser = compressedFrames::close;
+                        } else if (!keepFrames && allocation.kind() == MemoryTracker.Kind.NATIVE) {
+
+                            // Frames are copied out so the native texture can be freed now instead of on close
+                            List<HeapFrame> heapFrames = HeapFrame.copyOf(
+                                    frames,
+                                    frameSize.leftInt(),
+                                    frameSize.rightInt()
+                            );
+                            allocation.close();
+                            allocation = MEMORY_TRACKER.trackHeap(
+                                    String.format("Copied part %s (%s frames)", index, heapFrames.size()),
+                                    heapFrames.stream().distinct().mapToLong(HeapFrame::bytes).sum()
+                            );
+                            partAllocations.add(allocation);
+                            frames = List.copyOf(heapFrames);
+                        }
+
+                        AnimationMetadata part = readAnimationProperties(
+                                singleAnimView,
+                                texture.width(),
+                                texture.height(),
+                                frames,
+                                closeAll(frameCloser, allocation::close)
+                        );
+                        MEMORY_TRACKER.watch(part, allocation);
+
+                        boolean isOutsideX = part.xInBase() + part.frameWidth() > frameWidth;
+                        boolean isOutsideY = part.yInBase() + part.frameHeight() > frameHeight;
+                        if (isOutsideX || isOutsideY) {
+                            throw new InvalidMetadataException(String.format(
+                                    "Part (%sx%s) extends outside base texture (%sx%s)",
+                                    part.frameWidth(), part.frameHeight(), frameWidth, frameHeight
+                            ));
+                        }
+
+                        animations.add(part);
                     }
-
-                    animations.add(part);
                 }
+            } else {
+                AnimationMetadata baseAnimation = readAnimationProperties(
+                        metadata,
+                        imageWidth,
+                        imageHeight,
+                        null,
+                        () -> {}
+                );
+                frameWidth = baseAnimation.frameWidth();
+                frameHeight = baseAnimation.frameHeight();
+                animations.add(baseAnimation);
             }
-        } else {
-            AnimationMetadata baseAnimation = readAnimationProperties(metadata, imageWidth, imageHeight, null);
-            frameWidth = baseAnimation.frameWidth();
-            frameHeight = baseAnimation.frameHeight();
-            animations.add(baseAnimation);
+        } catch (InvalidMetadataException | RuntimeException err) {
+
+            // The core mod never receives metadata that failed analysis, so it will never close these textures
+            partAllocations.forEach(MemoryTracker.Allocation::close);
+            throw err;
+
         }
 
-        return new AnimationGroupMetadata(frameWidth, frameHeight, animations);
+        AnimationGroupMetadata groupMetadata = new AnimationGroupMetadata(frameWidth, frameHeight, animations);
+        partAllocations.forEach((allocation) -> allocation.attachTo(groupMetadata.textureId()));
+
+        memoKey.ifPresent((key) -> MEMO.put(key, groupMetadata));
+
+        commitEvent(event, groupMetadata, imageWidth, imageHeight, bytesDecoded, false);
+        return groupMetadata;
+    }
+
+    /**
+     * Ends and commits an analysis event if it is enabled.
+     * @param event             event to commit
+     * @param groupMetadata     result of the analysis
+     * @param imageWidth        width of the analyzed image
+     * @param imageHeight       height of the analyzed image
+     * @param bytesDecoded      size of the pixels decoded from all part textures
+     * @param memoized          whether an earlier analysis was reused
+     */
+    private static void commitEvent(MetadataAnalysisEvent event, AnimationGroupMetadata groupMetadata,
+                                    int imageWidth, int imageHeight, long bytesDecoded, boolean memoized) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.textureId = groupMetadata.textureId();
+            event.imageWidth = imageWidth;
+            event.imageHeight = imageHeight;
+            event.partCount = groupMetadata.parts().size();
+            event.bytesDecoded = bytesDecoded;
+            event.memoized = memoized;
+            event.commit();
+        }
     }
 
     /**
-     * Reads a texture from the "texture" key in the given view.
+     * Combines resource closers into one closer that runs them in order.
+     * @param closers       closers to combine
+     * @return closer that runs all the closers
+     */
+    private static Runnable closeAll(Runnable... closers) {
+        return () -> Arrays.stream(closers).forEach(Runnable::run);
+    }
+
+    /**
+     * Checks whether a part texture is large enough that its frames should be read in place from native
+     * memory instead of being copied onto the heap.
+     * @param width         width of the part texture
+     * @param height        height of the part texture
+     * @return whether to read the texture's frames in place
+     */
+    private boolean isReadInPlace(int width, int height) {
+        return READ_IN_PLACE_OVER_BYTES >= 0 && (long) width * height * Integer.BYTES > READ_IN_PLACE_OVER_BYTES;
+    }
+
+    /**
+     * Reads the frames in a part's texture from the "texture" key in the given view. PNGs are streamed
+     * straight into frames when possible, so unreferenced and duplicate frames are never stored. Other
+     * textures and textures large enough to be read in place are fully decoded into a native image that
+     * the frames read from.
      * @param animationView     view with all animation properties
-     * @return the read texture
+     * @param partIndex         index of the part in the parts array
+     * @return the part's texture and frames
      * @throws InvalidMetadataException if the texture is missing or not valid
      */
-    private NativeImage readTexture(MetadataView animationView) throws InvalidMetadataException {
-        InputStream textureData = animationView.byteStreamValue("texture")
+    private PartTexture readPartTexture(MetadataView animationView, int partIndex) throws InvalidMetadataException {
+        InputStream rawData = animationView.byteStreamValue("texture")
                 .orElseThrow(() -> new InvalidMetadataException("Animation part has no texture defined"));
 
-        NativeImage texture;
+        // Files are mapped so that both the streaming reader and the decoder can read them in place
+        TextureBuffer mappedFile;
         try {
-            texture = NativeImage.read(textureData);
+            mappedFile = rawData instanceof FileInputStream fileData ? TextureBuffer.map(fileData) : null;
         } catch (IOException err) {
             throw new InvalidMetadataException("Part texture is not a valid texture");
         }
 
-        return texture;
+        InputStream textureData = mappedFile != null ? mappedFile.stream() : new BufferedInputStream(rawData);
+        if (STREAM_TEXTURES) {
+            try {
+                textureData.mark(PngFrameReader.HEADER_BYTES);
+                Optional<PngFrameReader> reader = PngFrameReader.open(textureData);
+                if (reader.isPresent() && !isReadInPlace(reader.get().width(), reader.get().height())) {
+                    return streamTexture(animationView, reader.get(), partIndex);
+                }
+
+                textureData.reset();
+            } catch (IOException err) {
+                throw new InvalidMetadataException("Part texture is not a valid texture");
+            }
+        }
+
+        NativeImage texture = readTexture(textureData, mappedFile);
+        long textureBytes = (long) texture.getWidth() * texture.getHeight() * Integer.BYTES;
+        MemoryTracker.Allocation allocation = MEMORY_TRACKER.trackNative(
+                String.format("Part texture %s (%sx%s)", partIndex, texture.getWidth(), texture.getHeight()),
+                textureBytes,
+                texture::close
+        );
+
+        try {
+            IntIntPair frameSize = readFrameSize(animationView, texture.getWidth(), texture.getHeight());
+            List<Frame> frames = findFrames(texture, frameSize.leftInt(), frameSize.rightInt());
+            return new PartTexture(texture.getWidth(), texture.getHeight(), frames, allocation, textureBytes);
+        } catch (InvalidMetadataException | RuntimeException err) {
+            allocation.close();
+            throw err;
+        }
     }
 
     /**
-     * Reads all animation properties from a given view.
-     * @param metadata      metadata containing animation properties
-     * @param imageWidth    width of the texture containing this animation's frames
-     * @param imageHeight   height of the texture containing this animation's frames
-     * @param partTexture   texture containing this animation's frames
-     * @return the read animation metadata
+     * Streams a PNG part texture into frames, storing only frames that are referenced and different
+     * from every earlier frame.
+     * @param animationView     view with all animation properties
+     * @param reader            reader positioned after the PNG's header
+     * @param partIndex         index of the part in the parts array
+     * @return the part's texture and frames
      * @throws InvalidMetadataException if the metadata is not valid
+     * @throws IOException if the texture is not valid
      */
-    private AnimationMetadata readAnimationProperties(MetadataView metadata, int imageWidth, int imageHeight,
-                                                      NativeImage partTexture) throws InvalidMetadataException {
-        Optional<Integer> metadataFrameWidth = metadata.integerValue("width");
-        Optional<Integer> metadataFrameHeight = metadata.integerValue("height");
+    private PartTexture streamTexture(MetadataView animationView, PngFrameReader reader, int partIndex)
+            throws InvalidMetadataException, IOException {
+        IntIntPair frameSize = readFrameSize(animationView, reader.width(), reader.height());
 
-        int frameWidth = metadataFrameWidth.orElse(imageWidth);
-        int frameHeight = metadataFrameHeight.orElse(imageHeight);
-        if (metadataFrameWidth.isEmpty() && metadataFrameHeight.isEmpty()) {
-            int dimension = Math.min(frameWidth, frameHeight);
-            frameWidth = dimension;
-            frameHeight = dimension;
+        IntPredicate isReferenced = (frameIndex) -> true;
+        Optional<MetadataView> framesViewOptional = animationView.subView("frames");
+        if (framesViewOptional.isPresent()) {
+            Set<Integer> referencedFrames = parseFrameList(framesViewOptional.get(), 1).stream()
+                    .map(IntIntPair::leftInt)
+                    .collect(Collectors.toSet());
+            isReferenced = referencedFrames::contains;
         }
 
-        if (frameWidth <= 0 || frameHeight <= 0) {
-            throw new InvalidMetadataException("Frame width and height must be positive");
-        }
-        if (frameWidth > imageWidth) {
-            throw new InvalidMetadataException("Frame width " + frameWidth + " cannot be greater than image width "
-                    + imageWidth);
+        List<Frame> frames = reader.readFrames(frameSize.leftInt(), frameSize.rightInt(), isReferenced);
+        List<Frame> distinctFrames = frames.stream().distinct().toList();
+        long storedBytes = distinctFrames.stream().mapToLong((frame) -> ((HeapFrame) frame).bytes()).sum();
+
+        MemoryTracker.Allocation allocation = MEMORY_TRACKER.trackHeap(
+                String.format("Streamed part %s (%s of %s frames stored)", partIndex, distinctFrames.size(),
+                        frames.size()),
+                storedBytes
+        );
+        return new PartTexture(reader.width(), reader.height(), frames, allocation, reader.decodedBytes());
+    }
+
+    /**
+     * Decodes a texture into a native image. The encoded texture is read into off-heap memory and decoded
+     * from there, so it is never copied onto the heap.
+     * @param textureData       stream of the texture's bytes
+     * @param mappedFile        the texture's file mapped into memory, or null if it was not read from a file
+     * @return the read texture
+     * @throws InvalidMetadataException if the texture is not valid
+     */
+    private NativeImage readTexture(InputStream textureData, TextureBuffer mappedFile)
+            throws InvalidMetadataException {
+        NativeImage texture;
+        try (TextureBuffer buffer = mappedFile != null ? mappedFile : TextureBuffer.read(textureData)) {
+            texture = NativeImage.read(buffer.buffer());
+        } catch (IOException err) {
+            throw new InvalidMetadataException("Part texture is not a valid texture");
         }
-        if (frameHeight > imageHeight) {
-            throw new InvalidMetadataException("Frame height " + frameHeight + " cannot be greater than image height "
-                    + imageHeight);
+
+        // Frames read the pixel buffer directly, so check the format once instead of on every read
+        if (texture.format() != NativeImage.Format.RGBA) {
+            texture.close();
+            throw new InvalidMetadataException("Part texture must be decoded as RGBA but was " + texture.format());
         }
 
+        return texture;
+    }
+
+    /**
+     * Reads all animation properties from a given view.
+     * @param metadata          metadata containing animation properties
+     * @param imageWidth        width of the texture containing this animation's frames
+     * @param imageHeight       height of the texture containing this animation's frames
+     * @param partFrames        frames in this animation's part texture or null if it has no part texture
+     * @param resourceCloser    closes resources associated with this animation
+     * @return the read animation metadata
+     * @throws InvalidMetadataException if the metadata is not valid
+     */
+    private AnimationMetadata readAnimationProperties(MetadataView metadata, int imageWidth, int imageHeight,
+                                                      List<Frame> partFrames, Runnable resourceCloser)
+            throws InvalidMetadataException {
+        IntIntPair frameSize = readFrameSize(metadata, imageWidth, imageHeight);
+        int frameWidth = frameSize.leftInt();
+        int frameHeight = frameSize.rightInt();
+
         int defaultTime = (int) (double) metadata.doubleValue("frametime").orElse(1d);
         if (defaultTime <= 0) {
             throw new InvalidMetadataException("Frame time must be positive but was: " + defaultTime);
@@ -151,6 +478,8 @@ public final class AnimationMetadataAnalyzer implements MetadataAnalyzer {
 
         boolean interpolate = metadata.booleanValue("interpolate").orElse(false);
         boolean smoothAlpha = metadata.booleanValue("smoothAlpha").orElse(false);
+        boolean linear = metadata.booleanValue("linear").orElse(false);
+        boolean premultiplied = metadata.booleanValue("premultiplied").orElse(false);
         boolean daytimeSync = metadata.booleanValue("daytimeSync").orElse(false);
 
         Optional<MetadataView> framesViewOptional = metadata.subView("frames");
@@ -173,7 +502,7 @@ public final class AnimationMetadataAnalyzer implements MetadataAnalyzer {
 
         int xInBase = 0;
         int yInBase = 0;
-        if (partTexture != null) {
+        if (partFrames != null) {
             xInBase = metadata.integerValue("x")
                     .orElseThrow(() -> new InvalidMetadataException("Part defined without x coordinate"));
             yInBase = metadata.integerValue("y")
@@ -192,31 +521,65 @@ public final class AnimationMetadataAnalyzer implements MetadataAnalyzer {
             throw new InvalidMetadataException("Skip ticks cannot be negative but was: " + skipTicks);
         }
 
-        Optional<List<Frame>> partFrames;
-        if (partTexture == null) {
-            partFrames = Optional.empty();
-        } else {
-            partFrames = Optional.of(findFrames(partTexture, frameWidth, frameHeight));
-        }
-
         return new AnimationMetadata(
                 frameWidth,
                 frameHeight,
                 defaultTime,
                 interpolate,
                 smoothAlpha,
+                linear,
+                premultiplied,
                 frames,
                 skipTicks,
                 daytimeSync,
                 xInBase,
                 yInBase,
-                partFrames,
-                partTexture == null ? () -> {} : partTexture::close
+                Optional.ofNullable(partFrames),
+                resourceCloser
         );
     }
 
     /**
-     * Generates a list of animation frames from a given texture. Frames are read by row.
+     * Reads the size of a single frame from a given view.
+     * @param metadata          metadata containing animation properties
+     * @param imageWidth        width of the texture containing this animation's frames
+     * @param imageHeight       height of the texture containing this animation's frames
+     * @return the frame width and height
+     * @throws InvalidMetadataException if the frame size is not valid
+     */
+    private static IntIntPair readFrameSize(MetadataView metadata, int imageWidth, int imageHeight)
+            throws InvalidMetadataException {
+        Optional<Integer> metadataFrameWidth = metadata.integerValue("width");
+        Optional<Integer> metadataFrameHeight = metadata.integerValue("height");
+
+        int frameWidth = metadataFrameWidth.orElse(imageWidth);
+        int frameHeight = metadataFrameHeight.orElse(imageHeight);
+        if (metadataFrameWidth.isEmpty() && metadataFrameHeight.isEmpty()) {
+            int dimension = Math.min(frameWidth, frameHeight);
+            frameWidth = dimension;
+            frameHeight = dimension;
+        }
+
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            throw new InvalidMetadataException("Frame width and height must be positive");
+        }
+        if (frameWidth > imageWidth) {
+            throw new InvalidMetadataException("Frame width " + frameWidth + " cannot be greater than image width "
+                    + imageWidth);
+        }
+        if (frameHeight > imageHeight) {
+            throw new InvalidMetadataException("Frame height " + frameHeight + " cannot be greater than image height "
+                    + imageHeight);
+        }
+
+        return IntIntPair.of(frameWidth, frameHeight);
+    }
+
+    /**
+     * Generates a list of animation frames from a given texture. Frames are read by row. Frames at the
+     * right or bottom edge that do not fit entirely in the texture are kept so that later frames have the
+     * same indices, and their pixels outside the texture are transparent. All frames read directly from
+     * the texture's native pixel buffer, so the texture must stay open while the frames are in use.
      * @param texture       texture to read frames from
      * @param frameWidth    width of a frame in the texture
      * @param frameHeight   height of a frame in the texture
@@ -224,12 +587,20 @@ public final class AnimationMetadataAnalyzer implements MetadataAnalyzer {
      */
     private List<Frame> findFrames(NativeImage texture, int frameWidth, int frameHeight) {
         List<Frame> frames = new ArrayList<>();
+        IntBuffer pixels = MemoryUtil.memIntBuffer(texture.pixels, texture.getWidth() * texture.getHeight());
 
         for (int minY = 0; minY < texture.getHeight(); minY += frameHeight) {
             for (int minX = 0; minX < texture.getWidth(); minX += frameWidth) {
                 int finalMinX = minX;
                 int finalMinY = minY;
-                frames.add((x, y) -> texture.getPixelRGBA(finalMinX + x, finalMinY + y));
+                Frame frame = new OffHeapFrame(pixels, minX, minY, texture.getWidth());
+
+                if (minX + frameWidth <= texture.getWidth() && minY + frameHeight <= texture.getHeight()) {
+                    frames.add(frame);
+                } else {
+                    frames.add((x, y) -> finalMinX + x < texture.getWidth() && finalMinY + y < texture.getHeight()
+                            ? frame.color(x, y) : 0);
+                }
             }
         }
 
@@ -286,4 +657,74 @@ public final class AnimationMetadataAnalyzer implements MetadataAnalyzer {
         return IntIntPair.of(index, frameTime);
     }
 
+    /**
+     * The frames read from a part's texture and the memory that holds them.
+     * @author soir20
+     */
+    private static final class PartTexture {
+        private final int WIDTH;
+        private final int HEIGHT;
+        private final List<Frame> FRAMES;
+        private final MemoryTracker.Allocation ALLOCATION;
+        private final long DECODED_BYTES;
+
+        /**
+         * Creates a new part texture.
+         * @param width             width of the texture
+         * @param height            height of the texture
+         * @param frames            all frames in the texture
+         * @param allocation        memory that holds the frames
+         * @param decodedBytes      number of bytes decoded from the texture
+         */
+        public PartTexture(int width, int height, List<Frame> frames, MemoryTracker.Allocation allocation,
+                           long decodedBytes) {
+            WIDTH = width;
+            HEIGHT = height;
+            FRAMES = frames;
+            ALLOCATION = allocation;
+            DECODED_BYTES = decodedBytes;
+        }
+
+        /**
+         * Gets the width of the texture.
+         * @return width of the texture
+         */
+        public int width() {
+            return WIDTH;
+        }
+
+        /**
+         * Gets the height of the texture.
+         * @return height of the texture
+         */
+        public int height() {
+            return HEIGHT;
+        }
+
+        /**
+         * Gets all frames in the texture.
+         * @return all frames in the texture
+         */
+        public List<Frame> frames() {
+            return FRAMES;
+        }
+
+        /**
+         * Gets the memory that holds the frames.
+         * @return the allocation that holds the frames
+         */
+        public MemoryTracker.Allocation allocation() {
+            return ALLOCATION;
+        }
+
+        /**
+         * Gets the number of bytes decoded from the texture.
+         * @return number of bytes decoded
+         */
+        public long decodedBytes() {
+            return DECODED_BYTES;
+        }
+
+    }
+
 }
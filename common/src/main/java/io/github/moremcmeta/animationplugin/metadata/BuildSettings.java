@@ -0,0 +1,274 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import io.github.moremcmeta.animationplugin.animate.AnimationComponent;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Settings that decide how an {@link AnimationComponentBuilder} builds components. Every setting has a
+ * default, so only the settings that differ from the defaults need to be set.
+ * @author soir20
+ */
+public final class BuildSettings {
+    private final boolean SKIP_UNCHANGED_STEPS;
+    private final boolean USE_BLEND_TABLES;
+    private final boolean PLAN_STRATEGIES;
+    private final long PRECOMPUTE_BUDGET;
+    private final int INTERLEAVE_FACTOR;
+    private final AnimationComponent.Interleave INTERLEAVE_PATTERN;
+    private final int INTERLEAVE_OVER_PIXELS;
+    private final int RESOLUTION_SCALE;
+    private final int RESOLUTION_SCALE_WIDTH;
+    private final boolean SCHEDULE_COMPONENTS;
+
+    /**
+     * Checks whether components skip writing steps that look the same as the last one written.
+     * @return whether unchanged steps are skipped
+     */
+    boolean skipUnchangedSteps() {
+        return SKIP_UNCHANGED_STEPS;
+    }
+
+    /**
+     * Checks whether components precompute blends between palette colors.
+     * @return whether blend tables are used
+     */
+    boolean useBlendTables() {
+        return USE_BLEND_TABLES;
+    }
+
+    /**
+     * Checks whether a strategy is planned for every component instead of always drawing directly.
+     * @return whether strategies are planned
+     */
+    boolean planStrategies() {
+        return PLAN_STRATEGIES;
+    }
+
+    /**
+     * Gets the maximum bytes a component may use to keep its interpolated steps.
+     * @return precompute budget in bytes
+     */
+    long precomputeBudget() {
+        return PRECOMPUTE_BUDGET;
+    }
+
+    /**
+     * Gets the number of subsets that large interpolated areas are split into.
+     * @return interleave factor, which is 1 if areas are not interleaved
+     */
+    int interleaveFactor() {
+        return INTERLEAVE_FACTOR;
+    }
+
+    /**
+     * Gets how large interpolated areas are split into subsets.
+     * @return interleave pattern
+     */
+    AnimationComponent.Interleave interleavePattern() {
+        return INTERLEAVE_PATTERN;
+    }
+
+    /**
+     * Gets the minimum number of changed pixels in an area before it is interleaved.
+     * @return minimum pixels to interleave
+     */
+    int interleaveOverPixels() {
+        return INTERLEAVE_OVER_PIXELS;
+    }
+
+    /**
+     * Gets the width of the blocks of pixels that share an interpolated color in wide animations.
+     * @return resolution scale, which is 1 if every pixel is interpolated
+     */
+    int resolutionScale() {
+        return RESOLUTION_SCALE;
+    }
+
+    /**
+     * Gets the minimum frame width of animations that are interpolated at a reduced resolution.
+     * @return minimum frame width to reduce resolution
+     */
+    int resolutionScaleWidth() {
+        return RESOLUTION_SCALE_WIDTH;
+    }
+
+    /**
+     * Checks whether textures only tick the components that may change instead of every component.
+     * @return whether components are scheduled
+     */
+    boolean scheduleComponents() {
+        return SCHEDULE_COMPONENTS;
+    }
+
+    /**
+     * Creates new build settings.
+     * @param skipUnchangedSteps        whether to skip writing steps that look the same as the last one
+     * @param useBlendTables            whether to precompute blends between palette colors
+     * @param planStrategies            whether to plan a strategy for every component
+     * @param precomputeBudget          maximum bytes a component may use to keep its interpolated steps
+     * @param interleaveFactor          number of subsets that large interpolated areas are split into
+     * @param interleavePattern         how large interpolated areas are split into subsets
+     * @param interleaveOverPixels      minimum number of changed pixels in an area before it is interleaved
+     * @param resolutionScale           width of the blocks of pixels that share an interpolated color
+     * @param resolutionScaleWidth      minimum frame width of animations interpolated at a reduced resolution
+     * @param scheduleComponents        whether textures only tick the components that may change
+     */
+    private BuildSettings(boolean skipUnchangedSteps, boolean useBlendTables, boolean planStrategies,
+                          long precomputeBudget, int interleaveFactor,
+                          AnimationComponent.Interleave interleavePattern, int interleaveOverPixels,
+                          int resolutionScale, int resolutionScaleWidth, boolean scheduleComponents) {
+        SKIP_UNCHANGED_STEPS = skipUnchangedSteps;
+        USE_BLEND_TABLES = useBlendTables;
+        PLAN_STRATEGIES = planStrategies;
+        PRECOMPUTE_BUDGET = precomputeBudget;
+        INTERLEAVE_FACTOR = interleaveFactor;
+        INTERLEAVE_PATTERN = interleavePattern;
+        INTERLEAVE_OVER_PIXELS = interleaveOverPixels;
+        RESOLUTION_SCALE = resolutionScale;
+        RESOLUTION_SCALE_WIDTH = resolutionScaleWidth;
+        SCHEDULE_COMPONENTS = scheduleComponents;
+    }
+
+    /**
+     * Builder to create new {@link BuildSettings}.
+     * @author soir20
+     */
+    public static final class Builder {
+        private boolean skipUnchangedSteps = true;
+        private boolean useBlendTables;
+        private boolean planStrategies = true;
+        private long precomputeBudget = 256 * 1024;
+        private int interleaveFactor = 1;
+        private AnimationComponent.Interleave interleavePattern = AnimationComponent.Interleave.CHECKERBOARD;
+        private int interleaveOverPixels = 256 * 256;
+        private int resolutionScale = 1;
+        private int resolutionScaleWidth = 256;
+        private boolean scheduleComponents = true;
+
+        /**
+         * Sets whether components skip writing steps that look the same as the last one written (optional).
+         * By default, unchanged steps are skipped.
+         * @param skipUnchangedSteps    whether to skip unchanged steps
+         * @return this builder for chaining
+         */
+        public Builder skipUnchangedSteps(boolean skipUnchangedSteps) {
+            this.skipUnchangedSteps = skipUnchangedSteps;
+            return this;
+        }
+
+        /**
+         * Sets whether components precompute blends between palette colors (optional). By default, blend
+         * tables are not used.
+         * @param useBlendTables        whether to use blend tables
+         * @return this builder for chaining
+         */
+        public Builder useBlendTables(boolean useBlendTables) {
+            this.useBlendTables = useBlendTables;
+            return this;
+        }
+
+        /**
+         * Sets whether a strategy is planned for every component (optional). Components that are not planned
+         * always draw directly. By default, strategies are planned.
+         * @param planStrategies        whether to plan strategies
+         * @return this builder for chaining
+         */
+        public Builder planStrategies(boolean planStrategies) {
+            this.planStrategies = planStrategies;
+            return this;
+        }
+
+        /**
+         * Sets the maximum bytes a component may use to keep its interpolated steps (optional). By default,
+         * the budget is 256 KiB.
+         * @param precomputeBudget      precompute budget in bytes
+         * @return this builder for chaining
+         */
+        public Builder precomputeBudget(long precomputeBudget) {
+            if (precomputeBudget < 0) {
+                throw new IllegalArgumentException("Precompute budget cannot be negative: " + precomputeBudget);
+            }
+
+            this.precomputeBudget = precomputeBudget;
+            return this;
+        }
+
+        /**
+         * Sets how large interpolated areas are split into subsets that are updated on successive ticks
+         * (optional). By default, areas are not interleaved.
+         * @param interleavePattern     how areas are split into subsets
+         * @param interleaveFactor      number of subsets or 1 to update every pixel on every tick
+         * @param interleaveOverPixels  minimum number of changed pixels in an area before it is interleaved
+         * @return this builder for chaining
+         */
+        public Builder interleave(AnimationComponent.Interleave interleavePattern, int interleaveFactor,
+                                  int interleaveOverPixels) {
+            if (interleaveFactor < 1) {
+                throw new IllegalArgumentException("Interleave factor must be at least one: " + interleaveFactor);
+            }
+
+            this.interleavePattern = requireNonNull(interleavePattern, "Interleave pattern cannot be null");
+            this.interleaveFactor = interleaveFactor;
+            this.interleaveOverPixels = interleaveOverPixels;
+            return this;
+        }
+
+        /**
+         * Sets the reduced resolution that wide animations are interpolated at (optional). By default, every
+         * pixel is interpolated.
+         * @param resolutionScale       width of the blocks of pixels that share an interpolated color
+         * @param resolutionScaleWidth  minimum frame width of animations interpolated at a reduced resolution
+         * @return this builder for chaining
+         */
+        public Builder resolutionScale(int resolutionScale, int resolutionScaleWidth) {
+            if (resolutionScale < 1) {
+                throw new IllegalArgumentException("Resolution scale must be at least one: " + resolutionScale);
+            }
+
+            this.resolutionScale = resolutionScale;
+            this.resolutionScaleWidth = resolutionScaleWidth;
+            return this;
+        }
+
+        /**
+         * Sets whether textures only tick the components that may change (optional). Textures that do not
+         * schedule their components tick every component on every tick. By default, components are scheduled.
+         * @param scheduleComponents    whether to schedule components
+         * @return this builder for chaining
+         */
+        public Builder scheduleComponents(boolean scheduleComponents) {
+            this.scheduleComponents = scheduleComponents;
+            return this;
+        }
+
+        /**
+         * Builds the settings.
+         * @return the settings
+         */
+        public BuildSettings build() {
+            return new BuildSettings(skipUnchangedSteps, useBlendTables, planStrategies, precomputeBudget,
+                    interleaveFactor, interleavePattern, interleaveOverPixels, resolutionScale,
+                    resolutionScaleWidth, scheduleComponents);
+        }
+
+    }
+
+}
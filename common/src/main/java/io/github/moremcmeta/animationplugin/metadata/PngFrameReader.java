@@ -0,0 +1,725 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import io.github.moremcmeta.animationplugin.animate.Frame;
+import io.github.moremcmeta.animationplugin.animate.HeapFrame;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decodes a PNG one row at a time and slices the rows straight into separate frames, so the whole image
+ * is never held in memory at once. Frames that are not referenced are never stored, and frames that
+ * repeat an earlier frame are recognized while they are read and share the earlier frame's pixels.
+ * Interlaced images cannot be read one row at a time, so they are not supported. The checksum of every
+ * chunk that is read completely is validated. Image data after the last row that is needed is never
+ * read, so the checksum of the image data chunk that holds that row cannot be validated.
+ * @author soir20
+ */
+public final class PngFrameReader {
+
+    /**
+     * Number of bytes that {@link #open(InputStream)} reads before deciding whether the image can be read.
+     */
+    public static final int HEADER_BYTES = 33;
+
+    private static final long SIGNATURE = 0x89504E470D0A1A0AL;
+    private static final int IHDR = 0x49484452;
+    private static final int PLTE = 0x504C5445;
+    private static final int TRNS = 0x74524E53;
+    private static final int IDAT = 0x49444154;
+    private static final int IEND = 0x49454E44;
+    private static final int GRAY = 0;
+    private static final int RGB = 2;
+    private static final int INDEXED = 3;
+    private static final int GRAY_ALPHA = 4;
+    private static final int RGBA = 6;
+
+    private final DataInputStream STREAM;
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int BIT_DEPTH;
+    private final int COLOR_TYPE;
+    private final int CHANNELS;
+    private int[] palette;
+    private int[] transparentSample;
+    private boolean read;
+    private long decodedBytes;
+
+    /**
+     * Reads the header of a PNG.
+     * @param stream    stream of the PNG's bytes
+     * @return a reader for the rest of the image or empty if the stream is not a PNG that can be read
+     *         one row at a time. {@link #HEADER_BYTES} bytes of the stream have been read either way.
+     * @throws IOException if the stream is a PNG but its header is not valid
+     */
+    public static Optional<PngFrameReader> open(InputStream stream) throws IOException {
+        DataInputStream data = new DataInputStream(requireNonNull(stream, "Stream cannot be null"));
+
+        try {
+            if (data.readLong() != SIGNATURE) {
+                return Optional.empty();
+            }
+        } catch (EOFException err) {
+            return Optional.empty();
+        }
+
+        if (data.readInt() != 13 || data.readInt() != IHDR) {
+            throw new IOException("PNG does not start with a header");
+        }
+
+        byte[] header = new byte[13];
+        data.readFully(header);
+        checkCrc(data, IHDR, header, header.length);
+
+        DataInputStream headerData = new DataInputStream(new ByteArrayInputStream(header));
+        int width = headerData.readInt();
+        int height = headerData.readInt();
+        int bitDepth = headerData.readUnsignedByte();
+        int colorType = headerData.readUnsignedByte();
+        int compression = headerData.readUnsignedByte();
+        int filter = headerData.readUnsignedByte();
+        int interlace = headerData.readUnsignedByte();
+
+        if (width <= 0 || height <= 0) {
+            throw new IOException("PNG size must be positive but was: " + width + "x" + height);
+        }
+        if (compression != 0 || filter != 0 || interlace > 1) {
+            throw new IOException("Unknown PNG compression, filter, or interlace method");
+        }
+
+        boolean validDepth = switch (colorType) {
+            case GRAY -> bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+            case INDEXED -> bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+            case RGB, GRAY_ALPHA, RGBA -> bitDepth == 8 || bitDepth == 16;
+            default -> false;
+        };
+        if (!validDepth) {
+            throw new IOException("Invalid PNG color type " + colorType + " with bit depth " + bitDepth);
+        }
+
+        if (interlace != 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new PngFrameReader(data, width, height, bitDepth, colorType));
+    }
+
+    /**
+     * Gets the width of the image.
+     * @return width of the image in pixels
+     */
+    public int width() {
+        return WIDTH;
+    }
+
+    /**
+     * Gets the height of the image.
+     * @return height of the image in pixels
+     */
+    public int height() {
+        return HEIGHT;
+    }
+
+    /**
+     * Gets the size of the pixels decoded by {@link #readFrames(int, int, IntPredicate)}. Rows after the last
+     * referenced frame are never decoded, so they are not counted.
+     * @return size of the decoded pixels in bytes, or 0 if no frames have been read
+     */
+    public long decodedBytes() {
+        return decodedBytes;
+    }
+
+    /**
+     * Reads the image into frames. Frames are ordered by row and then by column. Frames at the right or
+     * bottom edge that do not fit entirely in the image are kept, and their pixels outside the image are
+     * transparent, so frame indices are the same as in a native image. Every frame that is not referenced
+     * is the same as the first frame, which is always read. Colors are packed in the same way as in a
+     * native image. This method can only be called once.
+     * @param frameWidth        width of each frame
+     * @param frameHeight       height of each frame
+     * @param isReferenced      checks whether the frame at an index is used by the animation
+     * @return all frames in the image
+     * @throws IOException if the image is not valid
+     */
+    public List<Frame> readFrames(int frameWidth, int frameHeight, IntPredicate isReferenced) throws IOException {
+        requireNonNull(isReferenced, "Reference checker cannot be null");
+        if (frameWidth <= 0 || frameHeight <= 0 || frameWidth > WIDTH || frameHeight > HEIGHT) {
+            throw new IllegalArgumentException("Frame size " + frameWidth + "x" + frameHeight
+                    + " does not fit in image of size " + WIDTH + "x" + HEIGHT);
+        }
+        if (read) {
+            throw new IllegalStateException("Frames have already been read");
+        }
+        read = true;
+
+        int framesPerRow = (WIDTH + frameWidth - 1) / frameWidth;
+        int frameCount = framesPerRow * ((HEIGHT + frameHeight - 1) / frameHeight);
+
+        int lastReferenced = 0;
+        for (int index = 1; index < frameCount; index++) {
+            if (isReferenced.test(index)) {
+                lastReferenced = index;
+            }
+        }
+
+        InputStream compressedData = new ImageDataStream(readToImageData());
+        DataInputStream imageData = new DataInputStream(new InflaterInputStream(compressedData));
+        FrameSlicer slicer = new FrameSlicer(frameWidth, frameHeight, framesPerRow, frameCount,
+                (index) -> index == 0 || isReferenced.test(index));
+
+        int bitsPerPixel = CHANNELS * BIT_DEPTH;
+        int filterDistance = Math.max(1, bitsPerPixel / 8);
+        byte[] previousRow = new byte[(WIDTH * bitsPerPixel + 7) / 8];
+        byte[] row = new byte[previousRow.length];
+        int[] colors = new int[framesPerRow * frameWidth];
+
+        // Rows after the last referenced frame are never needed
+        int rows = (lastReferenced / framesPerRow + 1) * frameHeight;
+        for (int y = 0; y < rows; y++) {
+
+            // Partial frames at the bottom edge are padded with transparent rows
+            if (y >= HEIGHT) {
+                Arrays.fill(colors, 0);
+                slicer.addRow(y, colors);
+                continue;
+            }
+
+            int filterType = imageData.readUnsignedByte();
+            imageData.readFully(row);
+            unfilter(filterType, row, previousRow, filterDistance);
+            convertRow(row, colors);
+            slicer.addRow(y, colors);
+            decodedBytes += (long) WIDTH * Integer.BYTES;
+
+            byte[] swap = previousRow;
+            previousRow = row;
+            row = swap;
+        }
+
+        return slicer.frames();
+    }
+
+    /**
+     * Creates a new PNG reader.
+     * @param stream        stream positioned just after the image header
+     * @param width         width of the image
+     * @param height        height of the image
+     * @param bitDepth      number of bits in each sample
+     * @param colorType     PNG color type
+     */
+    private PngFrameReader(DataInputStream stream, int width, int height, int bitDepth, int colorType) {
+        STREAM = stream;
+        WIDTH = width;
+        HEIGHT = height;
+        BIT_DEPTH = bitDepth;
+        COLOR_TYPE = colorType;
+        CHANNELS = switch (colorType) {
+            case RGB -> 3;
+            case GRAY_ALPHA -> 2;
+            case RGBA -> 4;
+            default -> 1;
+        };
+    }
+
+    /**
+     * Reads chunks until the first image data chunk, keeping the palette and transparency.
+     * @return length of the first image data chunk
+     * @throws IOException if the image has no image data or a chunk is not valid
+     */
+    private int readToImageData() throws IOException {
+        while (true) {
+            int length = STREAM.readInt();
+            int type = STREAM.readInt();
+            if (length < 0) {
+                throw new IOException("PNG chunk length is too large");
+            }
+
+            if (type == IDAT) {
+                return length;
+            } else if (type == IEND) {
+                throw new IOException("PNG has no image data");
+            }
+
+            byte[] data = new byte[length];
+            STREAM.readFully(data);
+            checkCrc(STREAM, type, data, length);
+
+            if (type == PLTE) {
+                readPalette(data);
+            } else if (type == TRNS) {
+                readTransparency(data);
+            }
+        }
+    }
+
+    /**
+     * Reads a chunk's checksum and checks that it matches the chunk's type and contents.
+     * @param stream        stream positioned at the checksum
+     * @param type          type of the chunk
+     * @param data          contents of the chunk
+     * @param length        number of bytes in the contents
+     * @throws IOException if the checksum cannot be read or does not match
+     */
+    private static void checkCrc(DataInputStream stream, int type, byte[] data, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        updateCrc(crc, type);
+        crc.update(data, 0, length);
+
+        if ((int) crc.getValue() != stream.readInt()) {
+            throw new IOException("PNG chunk " + typeName(type) + " has an invalid checksum");
+        }
+    }
+
+    /**
+     * Adds a chunk type to a checksum.
+     * @param crc       checksum to update
+     * @param type      type of the chunk
+     */
+    private static void updateCrc(CRC32 crc, int type) {
+        crc.update(type >>> 24);
+        crc.update(type >>> 16);
+        crc.update(type >>> 8);
+        crc.update(type);
+    }
+
+    /**
+     * Converts a chunk type to its four-letter name.
+     * @param type      type of the chunk
+     * @return name of the chunk
+     */
+    private static String typeName(int type) {
+        byte[] name = ByteBuffer.allocate(Integer.BYTES).putInt(type).array();
+        return new String(name, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads the colors in the palette.
+     * @param data      contents of the palette chunk
+     * @throws IOException if the palette is not valid
+     */
+    private void readPalette(byte[] data) throws IOException {
+        if (data.length % 3 != 0 || data.length / 3 > 256) {
+            throw new IOException("PNG palette has invalid length " + data.length);
+        }
+
+        palette = new int[data.length / 3];
+        for (int index = 0; index < palette.length; index++) {
+            palette[index] = pack(data[index * 3] & 0xFF, data[index * 3 + 1] & 0xFF, data[index * 3 + 2] & 0xFF,
+                    255);
+        }
+    }
+
+    /**
+     * Reads the transparent palette alphas or the transparent color.
+     * @param data      contents of the transparency chunk
+     * @throws IOException if the transparency is not valid
+     */
+    private void readTransparency(byte[] data) throws IOException {
+        if (COLOR_TYPE == INDEXED) {
+            if (palette == null || data.length > palette.length) {
+                throw new IOException("PNG transparency does not match palette");
+            }
+
+            for (int index = 0; index < data.length; index++) {
+                palette[index] = (palette[index] & 0x00FFFFFF) | ((data[index] & 0xFF) << 24);
+            }
+        } else if (COLOR_TYPE == GRAY || COLOR_TYPE == RGB) {
+            if (data.length != CHANNELS * 2) {
+                throw new IOException("PNG transparency has invalid length " + data.length);
+            }
+
+            transparentSample = new int[CHANNELS];
+            for (int channel = 0; channel < CHANNELS; channel++) {
+                transparentSample[channel] = ((data[channel * 2] & 0xFF) << 8) | (data[channel * 2 + 1] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Reverses the filter applied to a row.
+     * @param filterType        type of filter applied to the row
+     * @param row               filtered row, which is unfiltered in place
+     * @param previousRow       unfiltered previous row, or all zeroes for the first row
+     * @param distance          number of bytes between corresponding bytes in adjacent pixels
+     * @throws IOException if the filter type is not valid
+     */
+    private static void unfilter(int filterType, byte[] row, byte[] previousRow, int distance) throws IOException {
+        for (int index = 0; index < row.length; index++) {
+            int left = index >= distance ? row[index - distance] & 0xFF : 0;
+            int up = previousRow[index] & 0xFF;
+            int upLeft = index >= distance ? previousRow[index - distance] & 0xFF : 0;
+
+            int predictor = switch (filterType) {
+                case 0 -> 0;
+                case 1 -> left;
+                case 2 -> up;
+                case 3 -> (left + up) >>> 1;
+                case 4 -> paeth(left, up, upLeft);
+                default -> throw new IOException("Invalid PNG filter type " + filterType);
+            };
+
+            row[index] = (byte) (row[index] + predictor);
+        }
+    }
+
+    /**
+     * Chooses the neighboring byte closest to a linear prediction from all three neighbors.
+     * @param left      byte to the left
+     * @param up        byte above
+     * @param upLeft    byte above and to the left
+     * @return the chosen byte
+     */
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int leftDistance = Math.abs(estimate - left);
+        int upDistance = Math.abs(estimate - up);
+        int upLeftDistance = Math.abs(estimate - upLeft);
+
+        if (leftDistance <= upDistance && leftDistance <= upLeftDistance) {
+            return left;
+        }
+
+        return upDistance <= upLeftDistance ? up : upLeft;
+    }
+
+    /**
+     * Converts an unfiltered row to packed colors. Samples with 16 bits keep their high byte, and samples
+     * with fewer than 8 bits are scaled to the full range.
+     * @param row       unfiltered row
+     * @param colors    array to write the packed colors to
+     * @throws IOException if a palette index is not in the palette
+     */
+    private void convertRow(byte[] row, int[] colors) throws IOException {
+        for (int x = 0; x < WIDTH; x++) {
+            if (COLOR_TYPE == INDEXED) {
+                int index = sample(row, x, 0);
+                if (palette == null || index >= palette.length) {
+                    throw new IOException("PNG palette index " + index + " is not in the palette");
+                }
+
+                colors[x] = palette[index];
+                continue;
+            }
+
+            int first = sample(row, x, 0);
+            boolean transparent = transparentSample != null && first == transparentSample[0];
+            int red = toByte(first);
+            int green = red;
+            int blue = red;
+            int alpha = 255;
+
+            if (COLOR_TYPE == GRAY_ALPHA) {
+                alpha = toByte(sample(row, x, 1));
+            } else if (COLOR_TYPE == RGB || COLOR_TYPE == RGBA) {
+                int second = sample(row, x, 1);
+                int third = sample(row, x, 2);
+                transparent = transparent && second == transparentSample[1] && third == transparentSample[2];
+                green = toByte(second);
+                blue = toByte(third);
+
+                if (COLOR_TYPE == RGBA) {
+                    alpha = toByte(sample(row, x, 3));
+                }
+            }
+
+            colors[x] = pack(red, green, blue, transparent ? 0 : alpha);
+        }
+    }
+
+    /**
+     * Reads one sample from a row.
+     * @param row           unfiltered row
+     * @param x             x-coordinate of the pixel
+     * @param channel       channel of the sample within the pixel
+     * @return the sample at its full bit depth
+     */
+    private int sample(byte[] row, int x, int channel) {
+        int sampleIndex = x * CHANNELS + channel;
+
+        return switch (BIT_DEPTH) {
+            case 16 -> ((row[sampleIndex * 2] & 0xFF) << 8) | (row[sampleIndex * 2 + 1] & 0xFF);
+            case 8 -> row[sampleIndex] & 0xFF;
+            default -> {
+                int bit = sampleIndex * BIT_DEPTH;
+                int shift = 8 - BIT_DEPTH - (bit & 7);
+                yield (row[bit >> 3] >> shift) & ((1 << BIT_DEPTH) - 1);
+            }
+        };
+    }
+
+    /**
+     * Converts a sample at the image's bit depth to 8 bits.
+     * @param sample    sample at the image's bit depth
+     * @return the sample with 8 bits
+     */
+    private int toByte(int sample) {
+        if (BIT_DEPTH == 16) {
+            return sample >> 8;
+        }
+
+        return sample * (255 / ((1 << BIT_DEPTH) - 1));
+    }
+
+    /**
+     * Packs color components in the same order as the pixels in a native image.
+     * @param red       red component
+     * @param green     green component
+     * @param blue      blue component
+     * @param alpha     alpha component
+     * @return the packed color
+     */
+    private static int pack(int red, int green, int blue, int alpha) {
+        return (alpha << 24) | (blue << 16) | (green << 8) | red;
+    }
+
+    /**
+     * Joins the data in consecutive image data chunks into a single stream.
+     * @author soir20
+     */
+    private final class ImageDataStream extends InputStream {
+        private final CRC32 CRC;
+        private final byte[] SINGLE_BYTE;
+        private int remainingInChunk;
+        private boolean ended;
+
+        /**
+         * Creates a new stream of image data.
+         * @param firstChunkLength      length of the first image data chunk, whose header was already read
+         */
+        public ImageDataStream(int firstChunkLength) {
+            CRC = new CRC32();
+            SINGLE_BYTE = new byte[1];
+            remainingInChunk = firstChunkLength;
+            updateCrc(CRC, IDAT);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(SINGLE_BYTE, 0, 1) < 0 ? -1 : SINGLE_BYTE[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            while (remainingInChunk == 0) {
+                if (ended) {
+                    return -1;
+                }
+
+                if ((int) CRC.getValue() != STREAM.readInt()) {
+                    throw new IOException("PNG chunk IDAT has an invalid checksum");
+                }
+
+                remainingInChunk = STREAM.readInt();
+                ended = STREAM.readInt() != IDAT;
+                if (ended) {
+                    return -1;
+                }
+
+                CRC.reset();
+                updateCrc(CRC, IDAT);
+            }
+
+            int bytesRead = STREAM.read(buffer, offset, Math.min(length, remainingInChunk));
+            if (bytesRead < 0) {
+                throw new EOFException("PNG image data ended early");
+            }
+
+            CRC.update(buffer, offset, bytesRead);
+            remainingInChunk -= bytesRead;
+            return bytesRead;
+        }
+
+    }
+
+    /**
+     * Copies rows of the image into separate frames as they are read.
+     * @author soir20
+     */
+    private static final class FrameSlicer {
+        private final int FRAME_WIDTH;
+        private final int FRAME_HEIGHT;
+        private final int FRAMES_PER_ROW;
+        private final int FRAME_COUNT;
+        private final IntPredicate IS_REFERENCED;
+        private final Frame[] FRAMES;
+        private final int[][] STORED_PIXELS;
+        private final Map<Integer, IntArrayList> FRAMES_BY_FIRST_ROW;
+        private final int[][] pixelsInRow;
+        private final IntArrayList[] matchingFrames;
+
+        /**
+         * Creates a new frame slicer.
+         * @param frameWidth        width of each frame
+         * @param frameHeight       height of each frame
+         * @param framesPerRow      number of frames in each row of frames
+         * @param frameCount        number of frames in the image
+         * @param isReferenced      checks whether the frame at an index should be stored
+         */
+        public FrameSlicer(int frameWidth, int frameHeight, int framesPerRow, int frameCount,
+                           IntPredicate isReferenced) {
+            FRAME_WIDTH = frameWidth;
+            FRAME_HEIGHT = frameHeight;
+            FRAMES_PER_ROW = framesPerRow;
+            FRAME_COUNT = frameCount;
+            IS_REFERENCED = isReferenced;
+            FRAMES = new Frame[frameCount];
+            STORED_PIXELS = new int[frameCount][];
+            FRAMES_BY_FIRST_ROW = new HashMap<>();
+            pixelsInRow = new int[framesPerRow][];
+            matchingFrames = new IntArrayList[framesPerRow];
+        }
+
+        /**
+         * Copies a row of the image into the frames that contain it. A frame is only stored once one of
+         * its rows differs from every earlier stored frame, at which point its matching rows are copied
+         * from an earlier frame that has them.
+         * @param y         y-coordinate of the row in the image
+         * @param colors    colors in the row
+         */
+        public void addRow(int y, int[] colors) {
+            int frameRow = y / FRAME_HEIGHT;
+            int rowInFrame = y % FRAME_HEIGHT;
+
+            for (int column = 0; column < FRAMES_PER_ROW; column++) {
+                int frameIndex = frameRow * FRAMES_PER_ROW + column;
+                if (frameIndex >= FRAME_COUNT || !IS_REFERENCED.test(frameIndex)) {
+                    continue;
+                }
+
+                int start = column * FRAME_WIDTH;
+                if (pixelsInRow[column] == null) {
+                    IntArrayList candidates = rowInFrame == 0
+                            ? FRAMES_BY_FIRST_ROW.getOrDefault(rowHash(colors, start), new IntArrayList())
+                            : matchingFrames[column];
+
+                    IntArrayList matches = new IntArrayList();
+                    for (int candidateIndex = 0; candidateIndex < candidates.size(); candidateIndex++) {
+                        int candidate = candidates.getInt(candidateIndex);
+                        if (Arrays.equals(colors, start, start + FRAME_WIDTH, STORED_PIXELS[candidate],
+                                rowInFrame * FRAME_WIDTH, (rowInFrame + 1) * FRAME_WIDTH)) {
+                            matches.add(candidate);
+                        }
+                    }
+
+                    if (matches.size() == 0) {
+                        pixelsInRow[column] = new int[FRAME_WIDTH * FRAME_HEIGHT];
+                        if (rowInFrame > 0) {
+                            System.arraycopy(STORED_PIXELS[candidates.getInt(0)], 0, pixelsInRow[column], 0,
+                                    rowInFrame * FRAME_WIDTH);
+                        }
+                    }
+
+                    matchingFrames[column] = matches;
+                }
+
+                if (pixelsInRow[column] != null) {
+                    System.arraycopy(colors, start, pixelsInRow[column], rowInFrame * FRAME_WIDTH, FRAME_WIDTH);
+                }
+
+                if (rowInFrame == FRAME_HEIGHT - 1) {
+                    finishFrame(frameIndex, column);
+                }
+            }
+        }
+
+        /**
+         * Gets all frames in the image. Frames that were not referenced are the same as the first frame.
+         * @return all frames in the image
+         */
+        public List<Frame> frames() {
+            Frame[] frames = FRAMES.clone();
+            for (int index = 0; index < frames.length; index++) {
+                if (frames[index] == null) {
+                    frames[index] = frames[0];
+                }
+            }
+
+            return List.of(frames);
+        }
+
+        /**
+         * Stores a frame after its last row, or shares an earlier frame's pixels if every row matched.
+         * Frames in the same row of frames are compared all at once because they are read together.
+         * @param frameIndex    index of the frame
+         * @param column        column of the frame in its row of frames
+         */
+        private void finishFrame(int frameIndex, int column) {
+            int[] pixels = pixelsInRow[column];
+            pixelsInRow[column] = null;
+
+            if (pixels == null) {
+                FRAMES[frameIndex] = FRAMES[matchingFrames[column].getInt(0)];
+                matchingFrames[column] = null;
+                return;
+            }
+
+            matchingFrames[column] = null;
+            IntArrayList sameFirstRow = FRAMES_BY_FIRST_ROW.computeIfAbsent(rowHash(pixels, 0),
+                    (hash) -> new IntArrayList());
+
+            // Frames earlier in the same row of frames were not finished while this frame was read
+            for (int candidateIndex = 0; candidateIndex < sameFirstRow.size(); candidateIndex++) {
+                int candidate = sameFirstRow.getInt(candidateIndex);
+                if (candidate / FRAMES_PER_ROW == frameIndex / FRAMES_PER_ROW
+                        && Arrays.equals(pixels, STORED_PIXELS[candidate])) {
+                    FRAMES[frameIndex] = FRAMES[candidate];
+                    return;
+                }
+            }
+
+            STORED_PIXELS[frameIndex] = pixels;
+            FRAMES[frameIndex] = new HeapFrame(pixels, FRAME_WIDTH);
+            sameFirstRow.add(frameIndex);
+        }
+
+        /**
+         * Computes a hash of one row of a frame.
+         * @param colors    colors that contain the row
+         * @param start     index of the first color in the row
+         * @return hash of the row
+         */
+        private int rowHash(int[] colors, int start) {
+            int hash = 1;
+            for (int index = start; index < start + FRAME_WIDTH; index++) {
+                hash = 31 * hash + colors[index];
+            }
+
+            return hash;
+        }
+
+    }
+
+}
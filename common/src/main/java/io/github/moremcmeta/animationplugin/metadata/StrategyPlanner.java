@@ -0,0 +1,267 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import io.github.moremcmeta.animationplugin.animate.AnimationComponent;
+import io.github.moremcmeta.moremcmeta.api.math.Area;
+import io.github.moremcmeta.moremcmeta.api.math.Point;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Picks the {@link AnimationComponent.Strategy} for an animation from a simple cost model. The model estimates
+ * the work done on each tick in relative units, where reading one pixel from a frame costs one unit, along
+ * with the memory that each strategy holds. The cheapest strategy whose memory fits in the budget is chosen.
+ * @author soir20
+ */
+final class StrategyPlanner {
+    private static final double READ_COST = 1;
+    private static final double INTERPOLATE_COST = 3;
+    private static final double WRITE_COST = 4;
+    private static final double COMPARE_COST = 1;
+    private static final double MIN_DELTA_SAVINGS = 0.25;
+
+    private final long PRECOMPUTE_BUDGET;
+
+    /**
+     * Creates a new planner.
+     * @param precomputeBudget      maximum bytes an animation may use to keep its interpolated steps
+     */
+    public StrategyPlanner(long precomputeBudget) {
+        if (precomputeBudget < 0) {
+            throw new IllegalArgumentException("Precompute budget cannot be negative: " + precomputeBudget);
+        }
+
+        PRECOMPUTE_BUDGET = precomputeBudget;
+    }
+
+    /**
+     * Plans how an animation's component should draw.
+     * @param changedArea               pixels that change throughout the animation
+     * @param changedPixelsPerFrame     average number of pixels that differ from one frame to the next
+     * @param frames                    number of frames in the animation's timeline
+     * @param ticksPerCycle             number of ticks before the animation's timeline repeats
+     * @param interpolatedSteps         number of distinct interpolated steps in one cycle of the timeline
+     * @param interpolate               whether the animation interpolates between frames
+     * @param overlapsOthers            whether another animation writes to the same pixels
+     * @return the chosen strategy and the estimates it was chosen from
+     */
+    public Plan plan(Area changedArea, double changedPixelsPerFrame, int frames, long ticksPerCycle,
+                     long interpolatedSteps, boolean interpolate, boolean overlapsOthers) {
+        requireNonNull(changedArea, "Changed area cannot be null");
+        if (changedPixelsPerFrame < 0) {
+            throw new IllegalArgumentException("Changed pixels per frame cannot be negative: "
+                    + changedPixelsPerFrame);
+        }
+
+        if (frames <= 0) {
+            throw new IllegalArgumentException("Frames must be positive: " + frames);
+        }
+
+        if (ticksPerCycle <= 0) {
+            throw new IllegalArgumentException("Ticks per cycle must be positive: " + ticksPerCycle);
+        }
+
+        if (interpolatedSteps < 0) {
+            throw new IllegalArgumentException("Interpolated steps cannot be negative: " + interpolatedSteps);
+        }
+
+        int areaSize = 0;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (long point : changedArea) {
+            areaSize++;
+            minX = Math.min(minX, Point.x(point));
+            minY = Math.min(minY, Point.y(point));
+            maxX = Math.max(maxX, Point.x(point));
+            maxY = Math.max(maxY, Point.y(point));
+        }
+
+        if (areaSize == 0) {
+            return new Plan(List.of(new Estimate(AnimationComponent.Strategy.NO_OP, 0, 0, true)));
+        }
+
+        long bufferBytes = (long) (maxX - minX + 1) * (maxY - minY + 1) * Integer.BYTES;
+
+        // Without interpolation, frames are only drawn when the timeline reaches a new frame
+        double drawsPerTick = interpolate ? 1 : Math.min(1, (double) frames / ticksPerCycle);
+        double renderCost = areaSize * (interpolate ? 2 * READ_COST + INTERPOLATE_COST : READ_COST);
+        long directBytes = interpolate ? 2 * bufferBytes : bufferBytes;
+
+        List<Estimate> estimates = new ArrayList<>();
+        Estimate direct = new Estimate(
+                AnimationComponent.Strategy.DIRECT,
+                drawsPerTick * (renderCost + areaSize * WRITE_COST),
+                directBytes,
+                true
+        );
+        estimates.add(direct);
+
+        // Frames that are only copied are as cheap to read again as a precomputed step would be
+        if (interpolate) {
+            long precomputedBytes = interpolatedSteps * bufferBytes;
+            estimates.add(new Estimate(
+                    AnimationComponent.Strategy.PRECOMPUTED,
+                    drawsPerTick * areaSize * WRITE_COST,
+                    directBytes + precomputedBytes,
+                    precomputedBytes <= PRECOMPUTE_BUDGET
+            ));
+        }
+
+        // Another animation may overwrite the pixels that a delta would leave alone
+        if (!overlapsOthers) {
+            double deltaCost = drawsPerTick * (renderCost + areaSize * COMPARE_COST
+                    + Math.min(areaSize, changedPixelsPerFrame) * WRITE_COST);
+            estimates.add(new Estimate(
+                    AnimationComponent.Strategy.DELTA,
+                    deltaCost,
+                    directBytes + bufferBytes,
+                    deltaCost <= (1 - MIN_DELTA_SAVINGS) * direct.tickCost()
+            ));
+        }
+
+        return new Plan(estimates);
+    }
+
+    /**
+     * The strategy chosen for an animation and the estimates for every strategy that was considered.
+     * @author soir20
+     */
+    public static final class Plan {
+        private final List<Estimate> ESTIMATES;
+        private final Estimate CHOSEN;
+
+        /**
+         * Creates a new plan that chooses the cheapest feasible estimate.
+         * @param estimates     estimates for every strategy that was considered, including at least one
+         *                      feasible estimate
+         */
+        private Plan(List<Estimate> estimates) {
+            ESTIMATES = List.copyOf(estimates);
+            CHOSEN = ESTIMATES.stream()
+                    .filter(Estimate::feasible)
+                    .min(Comparator.comparingDouble(Estimate::tickCost))
+                    .orElseThrow();
+        }
+
+        /**
+         * Gets the chosen strategy.
+         * @return the chosen strategy
+         */
+        public AnimationComponent.Strategy strategy() {
+            return CHOSEN.strategy();
+        }
+
+        /**
+         * Gets the estimate for the chosen strategy.
+         * @return the estimate for the chosen strategy
+         */
+        public Estimate chosen() {
+            return CHOSEN;
+        }
+
+        /**
+         * Gets the estimates for every strategy that was considered, including the chosen strategy.
+         * @return all estimates
+         */
+        public List<Estimate> estimates() {
+            return ESTIMATES;
+        }
+
+        @Override
+        public String toString() {
+            return CHOSEN.strategy() + " chosen from " + ESTIMATES.stream()
+                    .map(Estimate::toString)
+                    .collect(Collectors.joining(", ", "[", "]"));
+        }
+
+    }
+
+    /**
+     * Estimated cost of drawing an animation with one strategy.
+     * @author soir20
+     */
+    public static final class Estimate {
+        private final AnimationComponent.Strategy STRATEGY;
+        private final double TICK_COST;
+        private final long MEMORY_BYTES;
+        private final boolean FEASIBLE;
+
+        /**
+         * Creates a new estimate.
+         * @param strategy      strategy that was estimated
+         * @param tickCost      estimated work on each tick, in relative units
+         * @param memoryBytes   estimated bytes the strategy holds
+         * @param feasible      whether the strategy can be chosen
+         */
+        private Estimate(AnimationComponent.Strategy strategy, double tickCost, long memoryBytes, boolean feasible) {
+            STRATEGY = strategy;
+            TICK_COST = tickCost;
+            MEMORY_BYTES = memoryBytes;
+            FEASIBLE = feasible;
+        }
+
+        /**
+         * Gets the strategy that was estimated.
+         * @return the estimated strategy
+         */
+        public AnimationComponent.Strategy strategy() {
+            return STRATEGY;
+        }
+
+        /**
+         * Gets the estimated work on each tick, in relative units.
+         * @return the estimated work per tick
+         */
+        public double tickCost() {
+            return TICK_COST;
+        }
+
+        /**
+         * Gets the estimated bytes the strategy holds.
+         * @return the estimated memory
+         */
+        public long memoryBytes() {
+            return MEMORY_BYTES;
+        }
+
+        /**
+         * Checks whether the strategy fits the memory budget and saves enough work to be chosen.
+         * @return whether the strategy can be chosen
+         */
+        public boolean feasible() {
+            return FEASIBLE;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %.1f/tick, %d bytes%s", STRATEGY, TICK_COST, MEMORY_BYTES,
+                    FEASIBLE ? "" : " (rejected)");
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds a texture's encoded bytes in off-heap memory so they can be decoded without first being
+ * copied onto the heap. Textures read from files are memory-mapped instead of copied at all.
+ * @author soir20
+ */
+final class TextureBuffer implements AutoCloseable {
+    private static final int MIN_CAPACITY = 8192;
+
+    private final ByteBuffer BUFFER;
+    private final boolean IS_ALLOCATED;
+    private boolean closed;
+
+    /**
+     * Maps the rest of a file into memory.
+     * @param fileStream    stream of the file's bytes
+     * @return a buffer of the file's remaining bytes
+     * @throws IOException if the file cannot be mapped
+     */
+    public static TextureBuffer map(FileInputStream fileStream) throws IOException {
+        requireNonNull(fileStream, "File stream cannot be null");
+
+        FileChannel channel = fileStream.getChannel();
+        long position = channel.position();
+        ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+
+        return new TextureBuffer(mapped, false);
+    }
+
+    /**
+     * Reads the rest of a stream into a direct buffer. The buffer starts at the size the stream
+     * reports as available, so it usually does not need to grow.
+     * @param stream    stream to read
+     * @return a buffer of the stream's remaining bytes
+     * @throws IOException if the stream cannot be read
+     */
+    public static TextureBuffer read(InputStream stream) throws IOException {
+        requireNonNull(stream, "Stream cannot be null");
+
+        // One extra byte lets the end of the stream be found without growing a buffer of the exact size
+        ByteBuffer buffer = MemoryUtil.memAlloc(Math.max(stream.available(), MIN_CAPACITY - 1) + 1);
+
+        try {
+            ReadableByteChannel channel = Channels.newChannel(stream);
+            while (channel.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    buffer = MemoryUtil.memRealloc(buffer, buffer.capacity() * 2);
+                }
+            }
+        } catch (IOException | RuntimeException err) {
+            MemoryUtil.memFree(buffer);
+            throw err;
+        }
+
+        buffer.flip();
+        return new TextureBuffer(buffer, true);
+    }
+
+    /**
+     * Gets the texture's bytes. The buffer is only valid until this texture buffer is closed.
+     * @return the texture's bytes, from position zero to the limit
+     */
+    public ByteBuffer buffer() {
+        if (closed) {
+            throw new IllegalStateException("Texture buffer has been closed");
+        }
+
+        return BUFFER;
+    }
+
+    /**
+     * Creates a stream over the texture's bytes. The stream is only valid until this texture buffer is closed.
+     * @return a stream over the texture's bytes
+     */
+    public InputStream stream() {
+        ByteBuffer bytes = buffer().duplicate();
+
+        return new InputStream() {
+            private int mark;
+
+            @Override
+            public int read() {
+                return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] destination, int offset, int length) {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!bytes.hasRemaining()) {
+                    return -1;
+                }
+
+                int bytesRead = Math.min(length, bytes.remaining());
+                bytes.get(destination, offset, bytesRead);
+                return bytesRead;
+            }
+
+            @Override
+            public int available() {
+                return bytes.remaining();
+            }
+
+            @Override
+            public boolean markSupported() {
+                return true;
+            }
+
+            @Override
+            public void mark(int readLimit) {
+                mark = bytes.position();
+            }
+
+            @Override
+            public void reset() {
+                bytes.position(mark);
+            }
+        };
+    }
+
+    /**
+     * Frees the texture's bytes if they were copied. Mapped files are unmapped once they are no
+     * longer reachable.
+     */
+    @Override
+    public void close() {
+        if (!closed && IS_ALLOCATED) {
+            MemoryUtil.memFree(BUFFER);
+        }
+
+        closed = true;
+    }
+
+    /**
+     * Creates a new texture buffer.
+     * @param buffer        buffer with the texture's bytes
+     * @param isAllocated   whether the buffer was allocated and must be freed
+     */
+    private TextureBuffer(ByteBuffer buffer, boolean isAllocated) {
+        BUFFER = buffer;
+        IS_ALLOCATED = isAllocated;
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.profile;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic Java Flight Recorder event reporting the memory held by all animations.
+ * @author soir20
+ */
+@Name(AnimationMemoryEvent.NAME)
+@Label("Animation Memory")
+@Category({"MoreMcmeta", "Animation"})
+@Description("Native and heap memory held by animated textures")
+@Period("1 s")
+@StackTrace(false)
+public final class AnimationMemoryEvent extends Event {
+    public static final String NAME = "io.github.moremcmeta.animationplugin.AnimationMemory";
+
+    @Label("Native Bytes")
+    @Description("Live native memory held by part textures")
+    @DataAmount(DataAmount.BYTES)
+    public long nativeBytes;
+
+    @Label("Heap Bytes")
+    @Description("Estimated heap memory held by frame stores and caches")
+    @DataAmount(DataAmount.BYTES)
+    public long heapBytes;
+
+    @Label("Retired Component Bytes")
+    @Description("Estimated heap memory held by components kept for reuse after their textures closed")
+    @DataAmount(DataAmount.BYTES)
+    public long retiredComponentBytes;
+
+    @Label("Open Allocations")
+    @Description("Number of tracked resources whose closers have not run yet")
+    public int openAllocations;
+
+}
@@ -0,0 +1,59 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.profile;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted when the components for an animated texture are built.
+ * @author soir20
+ */
+@Name(ComponentBuildEvent.NAME)
+@Label("Animation Component Build")
+@Category({"MoreMcmeta", "Animation"})
+@Description("Finds the changed area of every animation in a texture and creates its components")
+@StackTrace(false)
+public final class ComponentBuildEvent extends Event {
+    public static final String NAME = "io.github.moremcmeta.animationplugin.ComponentBuild";
+
+    @Label("Texture ID")
+    @Description("Plugin-assigned ID of the texture, shared with its analysis and tick events")
+    public long textureId;
+
+    @Label("Component Count")
+    @Description("Number of animations built for the texture")
+    public int componentCount;
+
+    @Label("Changed Area Size")
+    @Description("Total number of pixels that change throughout all animations in the texture")
+    public long changedAreaSize;
+
+    @Label("Reused")
+    @Description("Whether the components were reused from an earlier reload instead of being built")
+    public boolean reused;
+
+    @Label("Deferred")
+    @Description("Whether the components were still being built in the background when the texture was created")
+    public boolean deferred;
+
+}
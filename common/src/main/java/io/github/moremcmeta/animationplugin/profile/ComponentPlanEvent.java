@@ -0,0 +1,65 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.profile;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted when the drawing strategy for one animation is planned.
+ * @author soir20
+ */
+@Name(ComponentPlanEvent.NAME)
+@Label("Animation Component Plan")
+@Category({"MoreMcmeta", "Animation"})
+@Description("Chooses how one animation in a texture draws from its estimated cost")
+@StackTrace(false)
+public final class ComponentPlanEvent extends Event {
+    public static final String NAME = "io.github.moremcmeta.animationplugin.ComponentPlan";
+
+    @Label("Texture ID")
+    @Description("Plugin-assigned ID of the texture, shared with its analysis, build, and tick events")
+    public long textureId;
+
+    @Label("Strategy")
+    @Description("Strategy chosen for the animation")
+    public String strategy;
+
+    @Label("Changed Area Size")
+    @Description("Number of pixels that change throughout the animation")
+    public long changedAreaSize;
+
+    @Label("Estimated Tick Cost")
+    @Description("Estimated work on each tick for the chosen strategy, in relative units")
+    public double estimatedTickCost;
+
+    @Label("Estimated Memory")
+    @Description("Estimated memory held by the chosen strategy")
+    @DataAmount
+    public long estimatedMemory;
+
+    @Label("Estimates")
+    @Description("Estimates for every strategy that was considered")
+    public String estimates;
+
+}
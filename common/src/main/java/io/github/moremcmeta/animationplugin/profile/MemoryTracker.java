@@ -0,0 +1,293 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.profile;
+
+import com.mojang.logging.LogUtils;
+import jdk.jfr.FlightRecorder;
+import org.slf4j.Logger;
+
+import java.lang.ref.Cleaner;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps track of the native and heap memory held by animations so that it can be attributed to
+ * individual textures. Every tracked {@link Allocation} is considered live until it is closed. An
+ * allocation that is still live after its texture's component closed, or whose owner is garbage
+ * collected without closing it, is logged as a leak.
+ * @author soir20
+ */
+public final class MemoryTracker {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final long NO_TEXTURE = -1;
+
+    private final Set<Allocation> LIVE_ALLOCATIONS;
+    private final AtomicLong NATIVE_BYTES;
+    private final AtomicLong HEAP_BYTES;
+
+    /**
+     * Creates a new memory tracker with no live allocations.
+     */
+    public MemoryTracker() {
+        LIVE_ALLOCATIONS = ConcurrentHashMap.newKeySet();
+        NATIVE_BYTES = new AtomicLong();
+        HEAP_BYTES = new AtomicLong();
+    }
+
+    /**
+     * Starts tracking native memory that is freed by the given closer.
+     * @param description       human-readable description of the allocation for leak logs
+     * @param bytes             size of the allocation in bytes
+     * @param closer            frees the native memory. Run at most once.
+     * @return the tracked allocation, which should be closed instead of running the closer directly
+     */
+    public Allocation trackNative(String description, long bytes, Runnable closer) {
+        return track(new Allocation(this, Kind.NATIVE, description, bytes, closer));
+    }
+
+    /**
+     * Starts tracking heap memory used by a frame store or cache. The size is an estimate.
+     * @param description       human-readable description of the allocation for leak logs
+     * @param bytes             estimated size of the allocation in bytes
+     * @return the tracked allocation, which should be closed when the store or cache is discarded
+     */
+    public Allocation trackHeap(String description, long bytes) {
+        return track(new Allocation(this, Kind.HEAP, description, bytes, () -> {}));
+    }
+
+    /**
+     * Logs the allocation as a leak if the owner is garbage collected before the allocation is closed.
+     * This catches resources that were never closed, such as those belonging to a texture that was
+     * discarded during a resource reload without its component being closed.
+     * @param owner             object that is responsible for closing the allocation. Must not be
+     *                          referenced by the allocation's closer.
+     * @param allocation        allocation to watch
+     */
+    public void watch(Object owner, Allocation allocation) {
+        requireNonNull(owner, "Owner cannot be null");
+        requireNonNull(allocation, "Allocation cannot be null");
+
+        CLEANER.register(owner, () -> {
+            if (!allocation.isClosed()) {
+                LOGGER.warn("Animation resource was never closed before its owner was discarded: {}", allocation);
+            }
+        });
+    }
+
+    /**
+     * Logs any allocations belonging to a texture that are still live after its component has closed.
+     * @param textureId         plugin-assigned ID of the texture whose component closed
+     */
+    public void checkTextureClosed(long textureId) {
+        LIVE_ALLOCATIONS.stream()
+                .filter((allocation) -> allocation.textureId() == textureId)
+                .forEach((allocation) -> LOGGER.warn(
+                        "Animation resource is still open after its texture's component closed: {}",
+                        allocation
+                ));
+    }
+
+    /**
+     * Gets the total size of all live native allocations.
+     * @return live native memory in bytes
+     */
+    public long nativeBytes() {
+        return NATIVE_BYTES.get();
+    }
+
+    /**
+     * Gets the estimated total size of all live heap allocations.
+     * @return estimated live heap memory in bytes
+     */
+    public long heapBytes() {
+        return HEAP_BYTES.get();
+    }
+
+    /**
+     * Gets the number of allocations whose closers have not run yet.
+     * @return number of live allocations
+     */
+    public int openAllocations() {
+        return LIVE_ALLOCATIONS.size();
+    }
+
+    /**
+     * Gets all allocations that are currently live.
+     * @return a snapshot of all live allocations
+     */
+    public List<Allocation> liveAllocations() {
+        return List.copyOf(LIVE_ALLOCATIONS);
+    }
+
+    /**
+     * Emits a {@link AnimationMemoryEvent} with this tracker's totals every time Java Flight Recorder
+     * requests periodic events. Only the tracker shared by the whole plugin should be registered.
+     * @param retiredComponentBytes     gets the heap memory held by components kept for reuse after
+     *                                  their textures closed, which no texture tracks
+     */
+    public void registerPeriodicEvent(LongSupplier retiredComponentBytes) {
+        requireNonNull(retiredComponentBytes, "Retired component bytes cannot be null");
+        FlightRecorder.addPeriodicEvent(AnimationMemoryEvent.class, () -> {
+            AnimationMemoryEvent event = new AnimationMemoryEvent();
+            event.nativeBytes = nativeBytes();
+            event.heapBytes = heapBytes();
+            event.retiredComponentBytes = retiredComponentBytes.getAsLong();
+            event.openAllocations = openAllocations();
+            event.commit();
+        });
+    }
+
+    /**
+     * Adds an allocation to the live set and the totals.
+     * @param allocation        allocation to add
+     * @return the added allocation
+     */
+    private Allocation track(Allocation allocation) {
+        LIVE_ALLOCATIONS.add(allocation);
+        counter(allocation.KIND).addAndGet(allocation.BYTES);
+        return allocation;
+    }
+
+    /**
+     * Removes a closed allocation from the live set and the totals.
+     * @param allocation        allocation to remove
+     */
+    private void untrack(Allocation allocation) {
+        LIVE_ALLOCATIONS.remove(allocation);
+        counter(allocation.KIND).addAndGet(-allocation.BYTES);
+    }
+
+    /**
+     * Gets the running total for a kind of memory.
+     * @param kind      kind of memory
+     * @return running total for that kind of memory
+     */
+    private AtomicLong counter(Kind kind) {
+        return kind == Kind.NATIVE ? NATIVE_BYTES : HEAP_BYTES;
+    }
+
+    /**
+     * Kind of memory an allocation uses.
+     * @author soir20
+     */
+    public enum Kind {
+        NATIVE,
+        HEAP
+    }
+
+    /**
+     * A single resource whose memory is tracked until it is closed.
+     * @author soir20
+     */
+    public static final class Allocation {
+        private final MemoryTracker TRACKER;
+        private final Kind KIND;
+        private final String DESCRIPTION;
+        private final long BYTES;
+        private final Runnable CLOSER;
+        private final AtomicBoolean CLOSED;
+        private volatile long textureId;
+
+        /**
+         * Creates a new allocation.
+         * @param tracker           tracker that this allocation is counted in
+         * @param kind              kind of memory used by this allocation
+         * @param description       human-readable description of the allocation for leak logs
+         * @param bytes             size of the allocation in bytes
+         * @param closer            frees the resource
+         */
+        private Allocation(MemoryTracker tracker, Kind kind, String description, long bytes, Runnable closer) {
+            if (bytes < 0) {
+                throw new IllegalArgumentException("Allocation size cannot be negative but was: " + bytes);
+            }
+
+            TRACKER = tracker;
+            KIND = kind;
+            DESCRIPTION = requireNonNull(description, "Description cannot be null");
+            BYTES = bytes;
+            CLOSER = requireNonNull(closer, "Closer cannot be null");
+            CLOSED = new AtomicBoolean();
+            textureId = NO_TEXTURE;
+        }
+
+        /**
+         * Attributes this allocation to a texture so that it can be checked when the texture's
+         * component closes.
+         * @param textureId         plugin-assigned ID of the texture that uses this allocation
+         */
+        public void attachTo(long textureId) {
+            this.textureId = textureId;
+        }
+
+        /**
+         * Gets the plugin-assigned ID of the texture this allocation is attributed to.
+         * @return ID of the texture this allocation belongs to or -1 if it has not been attached yet
+         */
+        public long textureId() {
+            return textureId;
+        }
+
+        /**
+         * Gets the kind of memory this allocation uses.
+         * @return kind of memory used
+         */
+        public Kind kind() {
+            return KIND;
+        }
+
+        /**
+         * Gets the size of this allocation.
+         * @return size of this allocation in bytes
+         */
+        public long bytes() {
+            return BYTES;
+        }
+
+        /**
+         * Checks whether this allocation has been closed.
+         * @return whether this allocation has been closed
+         */
+        public boolean isClosed() {
+            return CLOSED.get();
+        }
+
+        /**
+         * Frees this allocation if it has not already been freed.
+         */
+        public void close() {
+            if (CLOSED.compareAndSet(false, true)) {
+                CLOSER.run();
+                TRACKER.untrack(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s, %d bytes, texture #%d)", DESCRIPTION, KIND, BYTES, textureId);
+        }
+
+    }
+
+}
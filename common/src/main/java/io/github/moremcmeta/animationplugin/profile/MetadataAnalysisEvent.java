@@ -0,0 +1,63 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.profile;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted when animation metadata for a texture is analyzed.
+ * @author soir20
+ */
+@Name(MetadataAnalysisEvent.NAME)
+@Label("Animation Metadata Analysis")
+@Category({"MoreMcmeta", "Animation"})
+@Description("Parses and validates the animation metadata of a texture and decodes its part textures")
+@StackTrace(false)
+public final class MetadataAnalysisEvent extends Event {
+    public static final String NAME = "io.github.moremcmeta.animationplugin.MetadataAnalysis";
+
+    @Label("Texture ID")
+    @Description("Plugin-assigned ID of the texture, shared with its build and tick events")
+    public long textureId;
+
+    @Label("Image Width")
+    public int imageWidth;
+
+    @Label("Image Height")
+    public int imageHeight;
+
+    @Label("Part Count")
+    @Description("Number of animations defined for the texture")
+    public int partCount;
+
+    @Label("Bytes Decoded")
+    @Description("Size of the pixels decoded from all part textures")
+    @DataAmount(DataAmount.BYTES)
+    public long bytesDecoded;
+
+    @Label("Memoized")
+    @Description("Whether an earlier analysis of identical metadata was reused")
+    public boolean memoized;
+
+}
@@ -0,0 +1,55 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.profile;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted once for every tick of an animated texture.
+ * @author soir20
+ */
+@Name(TextureTickEvent.NAME)
+@Label("Animated Texture Tick")
+@Category({"MoreMcmeta", "Animation"})
+@Description("Updates all animations in a single texture")
+@StackTrace(false)
+public final class TextureTickEvent extends Event {
+    public static final String NAME = "io.github.moremcmeta.animationplugin.TextureTick";
+
+    @Label("Texture ID")
+    @Description("Plugin-assigned ID of the texture, shared with its analysis and build events")
+    public long textureId;
+
+    @Label("Ticks")
+    @Description("Number of ticks that passed since the texture's previous update")
+    public int ticks;
+
+    @Label("Pixels Written")
+    @Description("Number of pixels written to the current frame")
+    public long pixelsWritten;
+
+    @Label("Quality")
+    @Description("Quality the texture's animations were drawn at")
+    public String quality;
+
+}
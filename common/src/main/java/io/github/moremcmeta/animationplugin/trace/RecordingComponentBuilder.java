@@ -0,0 +1,110 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.trace;
+
+import io.github.moremcmeta.animationplugin.metadata.AnimationGroupMetadata;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
+import io.github.moremcmeta.moremcmeta.api.client.texture.ComponentBuilder;
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.FrameGroup;
+import io.github.moremcmeta.moremcmeta.api.client.texture.MutableFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.PersistentFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.TextureComponent;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Wraps another component builder so that every tick and close of the components it builds is written
+ * to a tick trace. Recording happens before the wrapped component runs, so a trace still contains the
+ * tick that caused an error.
+ * @author soir20
+ */
+public final class RecordingComponentBuilder implements ComponentBuilder {
+    private final ComponentBuilder DELEGATE;
+    private final TickTraceWriter WRITER;
+    private final Supplier<Optional<Long>> TIME_SOURCE;
+
+    /**
+     * Creates a new recording component builder.
+     * @param delegate      builds the components that are recorded
+     * @param writer        writes the trace
+     * @param timeSource    supplies the current time of day for synced animations, if there is a level. This
+     *                      should be the same time source that the delegate uses.
+     */
+    public RecordingComponentBuilder(ComponentBuilder delegate, TickTraceWriter writer,
+                                     Supplier<Optional<Long>> timeSource) {
+        DELEGATE = requireNonNull(delegate, "Delegate cannot be null");
+        WRITER = requireNonNull(writer, "Writer cannot be null");
+        TIME_SOURCE = requireNonNull(timeSource, "Time source cannot be null");
+    }
+
+    @Override
+    public TextureComponent<? super CurrentFrameView>
+    build(AnalyzedMetadata metadata, FrameGroup<? extends MutableFrameView> baseFrames) {
+        requireNonNull(metadata, "Metadata cannot be null");
+        requireNonNull(baseFrames, "Frame group cannot be null");
+
+        if (!(metadata instanceof AnimationGroupMetadata animationGroupMetadata)) {
+            throw new IllegalArgumentException("Metadata provided to animation component builder is not animation " +
+                    "metadata. Something is wrong with the core MoreMcmeta mod.");
+        }
+
+        return new RecordingComponent(
+                animationGroupMetadata.textureId(),
+                DELEGATE.build(metadata, baseFrames)
+        );
+    }
+
+    /**
+     * Records ticks and closes before passing them to another component.
+     * @author soir20
+     */
+    private final class RecordingComponent implements TextureComponent<CurrentFrameView> {
+        private final long TEXTURE_ID;
+        private final TextureComponent<? super CurrentFrameView> COMPONENT;
+
+        /**
+         * Creates a new recording component.
+         * @param textureId     plugin-assigned ID of the texture this component belongs to
+         * @param component     component to record
+         */
+        public RecordingComponent(long textureId, TextureComponent<? super CurrentFrameView> component) {
+            TEXTURE_ID = textureId;
+            COMPONENT = component;
+        }
+
+        @Override
+        public void onTick(CurrentFrameView currentFrame, FrameGroup<? extends PersistentFrameView> predefinedFrames,
+                           int ticks) {
+            WRITER.recordTick(TEXTURE_ID, ticks, TIME_SOURCE.get());
+            COMPONENT.onTick(currentFrame, predefinedFrames, ticks);
+        }
+
+        @Override
+        public void onClose(CurrentFrameView currentFrame,
+                            FrameGroup<? extends PersistentFrameView> predefinedFrames) {
+            WRITER.recordClose(TEXTURE_ID);
+            COMPONENT.onClose(currentFrame, predefinedFrames);
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.trace;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A single tick or close of a texture in a trace.
+ * @author soir20
+ */
+public final class TickRecord {
+    private final long TEXTURE_ID;
+    private final int TICKS;
+    private final Optional<Long> TIME;
+    private final boolean IS_CLOSE;
+
+    /**
+     * Creates a new record.
+     * @param textureId     plugin-assigned ID of the texture
+     * @param ticks         number of ticks passed to the texture
+     * @param time          time of day that synced animations saw, if there was a level
+     * @param isClose       whether the texture was closed instead of ticked
+     */
+    public TickRecord(long textureId, int ticks, Optional<Long> time, boolean isClose) {
+        TEXTURE_ID = textureId;
+        TICKS = ticks;
+        TIME = requireNonNull(time, "Time cannot be null");
+        IS_CLOSE = isClose;
+    }
+
+    /**
+     * Gets the ID of the texture this record is for.
+     * @return plugin-assigned ID of the texture
+     */
+    public long textureId() {
+        return TEXTURE_ID;
+    }
+
+    /**
+     * Gets the number of ticks passed to the texture.
+     * @return number of ticks, or 0 if the texture was closed
+     */
+    public int ticks() {
+        return TICKS;
+    }
+
+    /**
+     * Gets the time of day that synced animations saw during the tick.
+     * @return the time of day or empty if there was no level
+     */
+    public Optional<Long> time() {
+        return TIME;
+    }
+
+    /**
+     * Checks whether the texture was closed instead of ticked.
+     * @return whether this record is a close
+     */
+    public boolean isClose() {
+        return IS_CLOSE;
+    }
+
+}
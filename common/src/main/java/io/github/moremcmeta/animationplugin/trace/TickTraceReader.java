@@ -0,0 +1,129 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads records from a trace written by a {@link TickTraceWriter}.
+ * @author soir20
+ */
+public final class TickTraceReader implements Closeable {
+    private static final int MAX_VAR_LONG_BYTES = 10;
+
+    private final DataInputStream INPUT;
+    private final Map<Long, Long> LAST_TIMES;
+
+    /**
+     * Creates a new trace reader and reads the trace header.
+     * @param input     stream to read the trace from. The reader closes it.
+     * @throws IOException if the header cannot be read or the stream is not a supported trace
+     */
+    public TickTraceReader(InputStream input) throws IOException {
+        INPUT = new DataInputStream(new BufferedInputStream(requireNonNull(input, "Input cannot be null")));
+        LAST_TIMES = new HashMap<>();
+
+        if (INPUT.readInt() != TickTraceWriter.MAGIC) {
+            throw new IOException("Not a tick trace");
+        }
+
+        int version = INPUT.readUnsignedByte();
+        if (version != TickTraceWriter.VERSION) {
+            throw new IOException("Unsupported tick trace version: " + version);
+        }
+    }
+
+    /**
+     * Reads the next record in the trace.
+     * @return the next record or empty if the trace has ended
+     * @throws IOException if the record cannot be read or the trace ends in the middle of a record
+     */
+    public Optional<TickRecord> next() throws IOException {
+        int firstByte = INPUT.read();
+        if (firstByte < 0) {
+            return Optional.empty();
+        }
+
+        long textureId = readVarLong(firstByte);
+        long header = readVarLong(INPUT.readUnsignedByte());
+        if ((header & 1) == 1) {
+            LAST_TIMES.remove(textureId);
+            return Optional.of(new TickRecord(textureId, 0, Optional.empty(), true));
+        }
+
+        long ticksLong = header >>> 1;
+        if (ticksLong > Integer.MAX_VALUE) {
+            throw new IOException("Tick count is too large: " + ticksLong);
+        }
+        int ticks = (int) ticksLong;
+
+        long timeCode = readVarLong(INPUT.readUnsignedByte());
+        Optional<Long> time = Optional.empty();
+        if (timeCode != 0) {
+            long zigzag = timeCode - 1;
+            long delta = (zigzag >>> 1) ^ -(zigzag & 1);
+            long currentTime = LAST_TIMES.getOrDefault(textureId, 0L) + ticks + delta;
+            LAST_TIMES.put(textureId, currentTime);
+            time = Optional.of(currentTime);
+        }
+
+        return Optional.of(new TickRecord(textureId, ticks, time, false));
+    }
+
+    @Override
+    public void close() throws IOException {
+        INPUT.close();
+    }
+
+    /**
+     * Reads an unsigned variable-length integer.
+     * @param firstByte     first byte of the integer, which was already read
+     * @return the integer
+     * @throws IOException if the integer cannot be read or is too long
+     */
+    private long readVarLong(int firstByte) throws IOException {
+        long value = 0;
+        int currentByte = firstByte;
+
+        for (int index = 0; index < MAX_VAR_LONG_BYTES; index++) {
+            value |= (long) (currentByte & 0x7F) << (7 * index);
+            if ((currentByte & 0x80) == 0) {
+                return value;
+            }
+
+            try {
+                currentByte = INPUT.readUnsignedByte();
+            } catch (EOFException err) {
+                throw new IOException("Tick trace ends in the middle of a record", err);
+            }
+        }
+
+        throw new IOException("Variable-length integer in tick trace is too long");
+    }
+
+}
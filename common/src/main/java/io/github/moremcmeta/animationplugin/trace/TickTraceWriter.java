@@ -0,0 +1,154 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.trace;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes the inputs that reach animated textures on every tick to a compact binary trace, so that real
+ * sessions can be replayed later by a {@link TickTraceReader}.
+ *
+ * A trace starts with a 4-byte magic number and a 1-byte version. Each record that follows has a texture
+ * ID, then the number of ticks shifted left by one with the lowest bit set if the texture was closed, then
+ * (for ticks only) the time code. The time code is 0 if there was no level. Otherwise, it is one more than
+ * the zigzag-encoded difference between the time and the previous time for the texture plus the ticks,
+ * which is usually 0 or 1 byte. All numbers are unsigned LEB128 variable-length integers.
+ * @author soir20
+ */
+public final class TickTraceWriter implements Closeable {
+    static final int MAGIC = 0x414D5452;
+    static final int VERSION = 1;
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final DataOutputStream OUTPUT;
+    private final Map<Long, Long> LAST_TIMES;
+    private boolean stopped;
+
+    /**
+     * Creates a new trace writer and writes the trace header.
+     * @param output        stream to write the trace to. The writer closes it.
+     * @throws IOException if the header cannot be written
+     */
+    public TickTraceWriter(OutputStream output) throws IOException {
+        OUTPUT = new DataOutputStream(new BufferedOutputStream(requireNonNull(output, "Output cannot be null")));
+        LAST_TIMES = new HashMap<>();
+
+        OUTPUT.writeInt(MAGIC);
+        OUTPUT.writeByte(VERSION);
+    }
+
+    /**
+     * Records that a texture ticked.
+     * @param textureId     plugin-assigned ID of the texture
+     * @param ticks         number of ticks passed to the texture
+     * @param time          time of day that synced animations saw during the tick, if there was a level
+     */
+    public synchronized void recordTick(long textureId, int ticks, Optional<Long> time) {
+        requireNonNull(time, "Time cannot be null");
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Ticks cannot be negative but was: " + ticks);
+        }
+
+        long timeCode = 0;
+        if (time.isPresent()) {
+            long expectedTime = LAST_TIMES.getOrDefault(textureId, 0L) + ticks;
+            long delta = time.get() - expectedTime;
+            timeCode = ((delta << 1) ^ (delta >> 63)) + 1;
+            LAST_TIMES.put(textureId, time.get());
+        }
+
+        write(textureId, (long) ticks << 1, timeCode, true);
+    }
+
+    /**
+     * Records that a texture was closed. Its ID will not appear again.
+     * @param textureId     plugin-assigned ID of the texture
+     */
+    public synchronized void recordClose(long textureId) {
+        LAST_TIMES.remove(textureId);
+        write(textureId, 1, 0, false);
+    }
+
+    /**
+     * Flushes and closes the trace. Later records are ignored.
+     */
+    @Override
+    public synchronized void close() {
+        if (stopped) {
+            return;
+        }
+
+        stopped = true;
+        try {
+            OUTPUT.close();
+        } catch (IOException err) {
+            LOGGER.error("Unable to finish writing tick trace", err);
+        }
+    }
+
+    /**
+     * Writes a single record. If writing fails, recording stops instead of interrupting the game.
+     * @param textureId         plugin-assigned ID of the texture
+     * @param header            ticks and close flag
+     * @param timeCode          encoded time
+     * @param hasTimeCode       whether the time code should be written
+     */
+    private void write(long textureId, long header, long timeCode, boolean hasTimeCode) {
+        if (stopped) {
+            return;
+        }
+
+        try {
+            writeVarLong(textureId);
+            writeVarLong(header);
+            if (hasTimeCode) {
+                writeVarLong(timeCode);
+            }
+        } catch (IOException err) {
+            LOGGER.error("Unable to write tick trace. No more ticks will be recorded.", err);
+            close();
+        }
+    }
+
+    /**
+     * Writes an unsigned variable-length integer.
+     * @param value     value to write
+     * @throws IOException if the value cannot be written
+     */
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            OUTPUT.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        OUTPUT.writeByte((int) value);
+    }
+
+}
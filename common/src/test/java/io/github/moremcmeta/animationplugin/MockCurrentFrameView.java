@@ -19,41 +19,63 @@ package io.github.moremcmeta.animationplugin;
 
 import io.github.moremcmeta.moremcmeta.api.client.texture.ColorTransform;
 import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.PersistentFrameView;
 import io.github.moremcmeta.moremcmeta.api.math.Area;
 import io.github.moremcmeta.moremcmeta.api.math.Point;
-import it.unimi.dsi.fastutil.longs.Long2IntMap;
-import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 
 /**
- * Mock implementation of {@link CurrentFrameView}.
+ * Mock implementation of {@link CurrentFrameView}. Like the core mod's frames, transforms read the colors
+ * that were in the frame before the transform started.
  * @author soir20
  */
 public final class MockCurrentFrameView implements CurrentFrameView {
-    private final int WIDTH = 10;
-    private final int HEIGHT = 20;
+    private final int WIDTH;
+    private final int HEIGHT;
     private final int[][] PIXELS;
+    private int[] newColors;
+    private long pixelsWritten;
 
     public MockCurrentFrameView() {
+        WIDTH = 10;
+        HEIGHT = 20;
         PIXELS = new int[HEIGHT][WIDTH];
+        newColors = new int[0];
+    }
+
+    public MockCurrentFrameView(PersistentFrameView initialFrame) {
+        WIDTH = initialFrame.width();
+        HEIGHT = initialFrame.height();
+        PIXELS = new int[HEIGHT][WIDTH];
+        newColors = new int[0];
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                PIXELS[y][x] = initialFrame.color(x, y);
+            }
+        }
     }
 
     @Override
     public void generateWith(ColorTransform transform, Area applyArea) {
 
-        Long2IntMap oldColors = new Long2IntOpenHashMap();
-        for (long dependency : applyArea) {
-            oldColors.put(dependency, PIXELS[Point.y(dependency)][Point.x(dependency)]);
+        // Find all new colors before writing any so that dependencies see the frame as it was
+        int count = 0;
+        for (long applyPoint : applyArea) {
+            if (count == newColors.length) {
+                int[] largerColors = new int[Math.max(16, newColors.length * 2)];
+                System.arraycopy(newColors, 0, largerColors, 0, count);
+                newColors = largerColors;
+            }
+
+            newColors[count++] = transform.transform(Point.x(applyPoint), Point.y(applyPoint), this::color);
         }
 
+        int written = 0;
         for (long applyPoint : applyArea) {
-            int x = Point.x(applyPoint);
-            int y = Point.y(applyPoint);
-            PIXELS[y][x] = transform.transform(
-                    x,
-                    y,
-                    (depX, depY) -> oldColors.get(Point.pack(depX, depY))
-            );
+            PIXELS[Point.y(applyPoint)][Point.x(applyPoint)] = newColors[written++];
         }
+
+        pixelsWritten += written;
     }
 
     @Override
@@ -69,4 +91,8 @@ public final class MockCurrentFrameView implements CurrentFrameView {
     public int color(int x, int y) {
         return PIXELS[y][x];
     }
+
+    public long pixelsWritten() {
+        return pixelsWritten;
+    }
 }
@@ -29,15 +29,19 @@ import java.util.List;
  * Mock implementation of a {@link FrameGroup} for {@link MutableFrameView}s.
  * @author soir20
  */
-public final class MockMutableFrameGroup implements FrameGroup<MutableFrameView> {
-    private final List<MutableFrameView> FRAMES;
+public final class MockMutableFrameGroup implements FrameGroup<MockMutableFrameView> {
+    private final List<MockMutableFrameView> FRAMES;
 
     public MockMutableFrameGroup(MockMutableFrameView... frames) {
-        FRAMES = Arrays.asList(frames);
+        this(Arrays.asList(frames));
+    }
+
+    public MockMutableFrameGroup(List<MockMutableFrameView> frames) {
+        FRAMES = frames;
     }
 
     @Override
-    public MutableFrameView frame(int index) {
+    public MockMutableFrameView frame(int index) {
         return FRAMES.get(index);
     }
 
@@ -48,7 +52,7 @@ public final class MockMutableFrameGroup implements FrameGroup<MutableFrameView>
 
     @NotNull
     @Override
-    public Iterator<MutableFrameView> iterator() {
+    public Iterator<MockMutableFrameView> iterator() {
         return FRAMES.iterator();
     }
 }
@@ -21,19 +21,21 @@ import com.mojang.datafixers.util.Pair;
 import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
 import io.github.moremcmeta.moremcmeta.api.client.texture.ColorTransform;
 import io.github.moremcmeta.moremcmeta.api.client.texture.MutableFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.PersistentFrameView;
 import io.github.moremcmeta.moremcmeta.api.math.Area;
 import io.github.moremcmeta.moremcmeta.api.math.Point;
 import it.unimi.dsi.fastutil.longs.Long2IntMap;
 import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 
 /**
- * Mock implementation of a {@link MutableFrameView}.
+ * Mock implementation of a {@link MutableFrameView}. It is also a {@link PersistentFrameView}, so the same
+ * frames can be used to build a component and as the predefined frames that it ticks with.
  * @author soir20
  */
-public final class MockMutableFrameView implements MutableFrameView {
-    private final int WIDTH = 10;
-    private final int HEIGHT = 20;
-    private final int[][] PIXELS = new int[HEIGHT][WIDTH];
+public final class MockMutableFrameView implements MutableFrameView, PersistentFrameView {
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int[][] PIXELS;
 
     @SafeVarargs
     public MockMutableFrameView(Pair<Integer, Area>... colorAndArea) {
@@ -42,6 +44,10 @@ public final class MockMutableFrameView implements MutableFrameView {
 
     @SafeVarargs
     public MockMutableFrameView(int defaultColor, Pair<Integer, Area>... colorAndArea) {
+        WIDTH = 10;
+        HEIGHT = 20;
+        PIXELS = new int[HEIGHT][WIDTH];
+
         for (int y = 0; y < HEIGHT; y++) {
             for (int x = 0; x < WIDTH; x++) {
                 PIXELS[y][x] = defaultColor;
@@ -56,6 +62,16 @@ public final class MockMutableFrameView implements MutableFrameView {
         }
     }
 
+    public MockMutableFrameView(int width, int height, int[] pixels) {
+        WIDTH = width;
+        HEIGHT = height;
+        PIXELS = new int[HEIGHT][WIDTH];
+
+        for (int y = 0; y < HEIGHT; y++) {
+            System.arraycopy(pixels, y * WIDTH, PIXELS[y], 0, WIDTH);
+        }
+    }
+
     @Override
     public void transform(ColorTransform transform, Area applyArea) {
         Long2IntMap oldColors = new Long2IntOpenHashMap();
@@ -77,6 +93,7 @@ public final class MockMutableFrameView implements MutableFrameView {
         return HEIGHT;
     }
 
+    @Override
     public int color(int x, int y) {
         return PIXELS[y][x];
     }
@@ -26,6 +26,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -33,6 +36,8 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests the {@link AnimationComponent}.
@@ -576,6 +581,826 @@ public final class AnimationComponentTest {
         );
     }
 
+    @Test
+    public void tick_MultiplePixelsInArea_AllPixelsReportedWritten() {
+        int frames = 10;
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(new Area(2, 3, 4, 5))
+                .frames(frames)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> (frame + 1) * 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+
+        int pixelsWritten = component.onTick(new MockCurrentFrameView(), makeMockFrames(frames), 1);
+
+        assertEquals(20, component.areaSize());
+        assertEquals(20, pixelsWritten);
+    }
+
+    @Test
+    public void tick_AreaWithGapsInterpolated_SameAsSinglePixels() {
+        Area area = Area.of(
+                Point.pack(1, 2), Point.pack(2, 2), Point.pack(4, 2),
+                Point.pack(3, 3),
+                Point.pack(1, 5), Point.pack(2, 5)
+        );
+        Frame startFrame = (x, y) -> Color.pack(x * 20, y * 30, 100, 255);
+        Frame endFrame = (x, y) -> Color.pack(200 - x * 10, 50, y * 40, 150);
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(area)
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 8)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new SmoothAlphaInterpolator())
+                .coordinateInBase(1, 2)
+                .build();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        int pixelsWritten = component.onTick(currentFrameView, List.of(startFrame, endFrame), 3);
+
+        assertEquals(6, pixelsWritten);
+        for (long point : area) {
+            int x = Point.x(point);
+            int y = Point.y(point);
+            int expected = new SmoothAlphaInterpolator().interpolate(
+                    8,
+                    3,
+                    startFrame.color(x - 1, y - 2),
+                    endFrame.color(x - 1, y - 2)
+            );
+            assertEquals(expected, currentFrameView.color(x, y));
+        }
+        assertEquals(0, currentFrameView.color(3, 2));
+    }
+
+    @Test
+    public void tick_NotInterpolated_EndFrameNotRead() {
+        Frame endFrame = (x, y) -> {
+            throw new AssertionError("End frame should not be read");
+        };
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(new Area(0, 0, 3, 2))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 8)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new StartColorInterpolator())
+                .build();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, List.of((x, y) -> indexToColor(x + y * 3 + 1), endFrame), 3);
+
+        assertEquals(indexToColor(1), currentFrameView.color(0, 0));
+        assertEquals(indexToColor(6), currentFrameView.color(2, 1));
+    }
+
+    @Test
+    public void tick_EmptyArea_NothingWritten() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of())
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 8)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+
+        assertEquals(0, component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 3));
+    }
+
+    @Test
+    public void tick_SkipUnchangedSteps_SameColorsAsWithoutSkipping() {
+        Area area = Area.of(Point.pack(0, 0), Point.pack(1, 0), Point.pack(0, 1));
+        List<Frame> frames = List.of(
+                (x, y) -> Color.pack(10 + x, 20, 30 + y, 255),
+                (x, y) -> Color.pack(14, 20 - x, 33, 255),
+                (x, y) -> Color.pack(14, 20 - x, 33, 255)
+        );
+        AnimationComponent skipping = makeSkippingComponent(area, 3, 40, true, new SmoothAlphaInterpolator());
+        AnimationComponent notSkipping = makeSkippingComponent(area, 3, 40, false, new SmoothAlphaInterpolator());
+
+        MockCurrentFrameView skippingView = new MockCurrentFrameView();
+        MockCurrentFrameView notSkippingView = new MockCurrentFrameView();
+        int skippingPixels = 0;
+        int notSkippingPixels = 0;
+        for (int tick = 0; tick < 300; tick++) {
+            skippingPixels += skipping.onTick(skippingView, frames, 1);
+            notSkippingPixels += notSkipping.onTick(notSkippingView, frames, 1);
+
+            for (long point : area) {
+                assertEquals(notSkippingView.color(Point.x(point), Point.y(point)),
+                        skippingView.color(Point.x(point), Point.y(point)));
+            }
+        }
+
+        assertEquals(900, notSkippingPixels);
+        assertTrue(skippingPixels < notSkippingPixels / 4);
+    }
+
+    @Test
+    public void tick_SkipUnchangedStepsHeldFrame_WrittenOncePerFrame() {
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 10, true,
+                new StartColorInterpolator());
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        int pixelsWritten = 0;
+        for (int tick = 0; tick < 39; tick++) {
+            pixelsWritten += component.onTick(currentFrameView, makeMockFrames(2), 1);
+        }
+
+        assertEquals(4, pixelsWritten);
+    }
+
+    @Test
+    public void tick_SkipUnchangedStepsDifferentFrameView_Written() {
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 10, true,
+                new StartColorInterpolator());
+
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 1);
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+
+        assertEquals(1, component.onTick(currentFrameView, makeMockFrames(2), 1));
+        assertEquals(indexToColor(0), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void tick_SkipUnchangedStepsAfterDraw_Written() {
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 10, true,
+                new StartColorInterpolator());
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+
+        component.onTick(currentFrameView, makeMockFrames(2), 1);
+        component.draw(new MockCurrentFrameView(), makeMockFrames(2));
+
+        assertEquals(1, component.onTick(currentFrameView, makeMockFrames(2), 1));
+    }
+
+    @Test
+    public void tick_SkipUnchangedStepsNotMonotonic_EveryTickWritten() {
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 10, true,
+                (steps, step, start, end) -> start);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        int pixelsWritten = 0;
+        for (int tick = 0; tick < 40; tick++) {
+            pixelsWritten += component.onTick(currentFrameView, makeMockFrames(2), 1);
+        }
+
+        assertEquals(40, pixelsWritten);
+    }
+
+    @Test
+    public void tick_FrameHeld_StartColorUntilHoldEnds() {
+        Frame startFrame = (x, y) -> Color.pack(0, 0, 0, 255);
+        Frame endFrame = (x, y) -> Color.pack(200, 100, 50, 255);
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameHoldCalculator((frame) -> 6)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        for (int tick = 1; tick < 10; tick++) {
+            component.onTick(currentFrameView, List.of(startFrame, endFrame), 1);
+
+            int expected = INTERPOLATOR.interpolate(4, Math.max(0, tick - 6), startFrame.color(0, 0),
+                    endFrame.color(0, 0));
+            assertEquals(expected, currentFrameView.color(0, 0));
+        }
+    }
+
+    @Test
+    public void tick_HoldAsLongAsFrameTime_UnsupportedOperationException() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameHoldCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+
+        expectedException.expect(UnsupportedOperationException.class);
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 1);
+    }
+
+    @Test
+    public void build_NullFrameHoldCalculator_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationComponent.Builder().frameHoldCalculator(null);
+    }
+
+    @Test
+    public void tick_BlendTablesForPaletteFrames_SameColorsAsWithoutTables() {
+        Area area = Area.of(Point.pack(0, 0), Point.pack(1, 0), Point.pack(2, 0), Point.pack(0, 1), Point.pack(2, 1));
+        List<Frame> frames = List.copyOf(PaletteFrame.fromFrames(
+                List.of(
+                        (x, y) -> x == 1 ? Color.pack(10, 20, 30, 255) : Color.pack(200, 100, 50, 255),
+                        (x, y) -> Color.pack(40, 250, 90, 128),
+                        (x, y) -> y == 0 ? Color.pack(0, 0, 0, 0) : Color.pack(200, 100, 50, 255)
+                ),
+                3,
+                2
+        ).orElseThrow());
+        AnimationComponent withTables = new AnimationComponent.Builder()
+                .interpolateArea(area)
+                .frames(3)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 7)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new SmoothAlphaInterpolator())
+                .useBlendTables(true)
+                .build();
+        AnimationComponent withoutTables = makeSkippingComponent(area, 3, 7, false, new SmoothAlphaInterpolator());
+
+        MockCurrentFrameView withTablesView = new MockCurrentFrameView();
+        MockCurrentFrameView withoutTablesView = new MockCurrentFrameView();
+        for (int tick = 0; tick < 30; tick++) {
+            withTables.onTick(withTablesView, frames, 1);
+            withoutTables.onTick(withoutTablesView, frames, 1);
+
+            for (long point : area) {
+                assertEquals(withoutTablesView.color(Point.x(point), Point.y(point)),
+                        withTablesView.color(Point.x(point), Point.y(point)));
+            }
+        }
+    }
+
+    @Test
+    public void build_NullStrategy_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationComponent.Builder().strategy(null);
+    }
+
+    @Test
+    public void tick_PrecomputedStrategy_SameColorsAsDirect() {
+        Area area = Area.of(Point.pack(0, 0), Point.pack(1, 0), Point.pack(0, 1));
+        List<Frame> frames = List.of(
+                (x, y) -> Color.pack(10 + x, 20, 30 + y, 255),
+                (x, y) -> Color.pack(14, 20 - x, 33, 255),
+                (x, y) -> Color.pack(200, 100, 50, 128)
+        );
+        AnimationComponent precomputed = makeStrategyComponent(area, 3, 40, new SmoothAlphaInterpolator(),
+                AnimationComponent.Strategy.PRECOMPUTED);
+        AnimationComponent direct = makeStrategyComponent(area, 3, 40, new SmoothAlphaInterpolator(),
+                AnimationComponent.Strategy.DIRECT);
+
+        MockCurrentFrameView precomputedView = new MockCurrentFrameView();
+        MockCurrentFrameView directView = new MockCurrentFrameView();
+        for (int tick = 0; tick < 300; tick++) {
+            precomputed.onTick(precomputedView, frames, 1);
+            direct.onTick(directView, frames, 1);
+
+            for (long point : area) {
+                assertEquals(directView.color(Point.x(point), Point.y(point)),
+                        precomputedView.color(Point.x(point), Point.y(point)));
+            }
+        }
+    }
+
+    @Test
+    public void tick_PrecomputedStrategySecondCycle_FramesNotRead() {
+        AtomicInteger reads = new AtomicInteger();
+        List<Frame> frames = List.of(
+                (x, y) -> {
+                    reads.incrementAndGet();
+                    return indexToColor(0);
+                },
+                (x, y) -> {
+                    reads.incrementAndGet();
+                    return indexToColor(1);
+                }
+        );
+        AnimationComponent component = makeStrategyComponent(Area.of(Point.pack(0, 0)), 2, 10,
+                new DefaultAlphaInterpolator(), AnimationComponent.Strategy.PRECOMPUTED);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        for (int tick = 0; tick < 20; tick++) {
+            component.onTick(currentFrameView, frames, 1);
+        }
+
+        int firstCycleReads = reads.get();
+        for (int tick = 0; tick < 20; tick++) {
+            component.onTick(currentFrameView, frames, 1);
+        }
+
+        assertEquals(firstCycleReads, reads.get());
+    }
+
+    @Test
+    public void tick_PrecomputedStrategyPrepared_FramesNotRead() {
+        AtomicInteger reads = new AtomicInteger();
+        List<Frame> frames = List.of(
+                (x, y) -> {
+                    reads.incrementAndGet();
+                    return indexToColor(0);
+                },
+                (x, y) -> {
+                    reads.incrementAndGet();
+                    return indexToColor(1);
+                }
+        );
+        AnimationComponent component = makeStrategyComponent(Area.of(Point.pack(0, 0)), 2, 10,
+                new DefaultAlphaInterpolator(), AnimationComponent.Strategy.PRECOMPUTED);
+        component.prepare(frames);
+
+        int preparedReads = reads.get();
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        for (int tick = 0; tick < 20; tick++) {
+            component.onTick(currentFrameView, frames, 1);
+        }
+
+        assertEquals(preparedReads, reads.get());
+    }
+
+    @Test
+    public void memoryBytes_PrecomputedStrategyPrepared_EveryStepCounted() {
+        AnimationComponent component = makeStrategyComponent(Area.of(Point.pack(0, 0)), 2, 10,
+                new DefaultAlphaInterpolator(), AnimationComponent.Strategy.PRECOMPUTED);
+        component.prepare(makeMockFrames(2));
+
+        // One buffer for each step of both transitions, plus the end frame's buffer used to interpolate them
+        assertEquals((2 * 10 + 1) * Integer.BYTES, component.memoryBytes());
+    }
+
+    @Test
+    public void memoryBytes_DeltaStrategyDrawn_DrawBuffersCounted() {
+        AnimationComponent component = makeStrategyComponent(Area.of(Point.pack(0, 0), Point.pack(1, 0)), 2, 10,
+                new DefaultAlphaInterpolator(), AnimationComponent.Strategy.DELTA);
+        assertEquals(0, component.memoryBytes());
+
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 1);
+
+        // The draw buffer, the last output, and the end frame's buffer each cover both pixels
+        assertEquals(3 * 2 * Integer.BYTES, component.memoryBytes());
+    }
+
+    @Test
+    public void tick_DeltaStrategy_OnlyChangedPixelsWritten() {
+        Area area = Area.of(Point.pack(0, 0), Point.pack(1, 0));
+        List<Frame> frames = List.of(
+                (x, y) -> indexToColor(0),
+                (x, y) -> x == 0 ? indexToColor(1) : indexToColor(0),
+                (x, y) -> indexToColor(1)
+        );
+        AnimationComponent component = makeStrategyComponent(area, 3, 10, new StartColorInterpolator(),
+                AnimationComponent.Strategy.DELTA);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        assertEquals(2, component.onTick(currentFrameView, frames, 1));
+        assertEquals(1, component.onTick(currentFrameView, frames, 10));
+        assertEquals(indexToColor(1), currentFrameView.color(0, 0));
+        assertEquals(indexToColor(0), currentFrameView.color(1, 0));
+
+        assertEquals(1, component.onTick(currentFrameView, frames, 10));
+        assertEquals(indexToColor(1), currentFrameView.color(1, 0));
+    }
+
+    @Test
+    public void tick_DeltaStrategyAfterDraw_AllPixelsWritten() {
+        Area area = Area.of(Point.pack(0, 0), Point.pack(1, 0));
+        List<Frame> frames = List.of(
+                (x, y) -> indexToColor(0),
+                (x, y) -> x == 0 ? indexToColor(1) : indexToColor(0)
+        );
+        AnimationComponent component = makeStrategyComponent(area, 2, 10, new StartColorInterpolator(),
+                AnimationComponent.Strategy.DELTA);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, frames, 1);
+        component.draw(new MockCurrentFrameView(), frames);
+
+        assertEquals(2, component.onTick(currentFrameView, frames, 10));
+    }
+
+    @Test
+    public void tick_DeltaStrategyDifferentFrameView_AllPixelsWritten() {
+        Area area = Area.of(Point.pack(0, 0), Point.pack(1, 0));
+        List<Frame> frames = List.of(
+                (x, y) -> indexToColor(0),
+                (x, y) -> x == 0 ? indexToColor(1) : indexToColor(0)
+        );
+        AnimationComponent component = makeStrategyComponent(area, 2, 10, new StartColorInterpolator(),
+                AnimationComponent.Strategy.DELTA);
+
+        component.onTick(new MockCurrentFrameView(), frames, 1);
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+
+        assertEquals(2, component.onTick(currentFrameView, frames, 10));
+        assertEquals(indexToColor(0), currentFrameView.color(1, 0));
+    }
+
+    @Test
+    public void tick_NoOpStrategy_NothingWritten() {
+        AnimationComponent component = makeStrategyComponent(Area.of(Point.pack(0, 0)), 2, 10,
+                new DefaultAlphaInterpolator(), AnimationComponent.Strategy.NO_OP);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+
+        assertEquals(0, component.onTick(currentFrameView, makeMockFrames(2), 5));
+        assertEquals(0, component.draw(currentFrameView, makeMockFrames(2)));
+        assertEquals(0, currentFrameView.color(0, 0));
+        assertEquals(AnimationComponent.Strategy.NO_OP, component.strategy());
+    }
+
+    @Test
+    public void interleave_NullInterleave_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationComponent.Builder().interleave(null, 2);
+    }
+
+    @Test
+    public void interleave_ZeroFactor_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AnimationComponent.Builder().interleave(AnimationComponent.Interleave.ROWS, 0);
+    }
+
+    @Test
+    public void tick_InterleavedMidTransition_OneSubsetWritten() {
+        AnimationComponent component = makeInterleavedComponent(AnimationComponent.Interleave.CHECKERBOARD, 2,
+                AnimationComponent.Strategy.DIRECT, false);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+
+        assertEquals(16, component.onTick(currentFrameView, frames, 1));
+        assertEquals(8, component.onTick(currentFrameView, frames, 1));
+        assertEquals(8, component.onTick(currentFrameView, frames, 1));
+    }
+
+    @Test
+    public void tick_InterleavedRows_OtherRowsKeepLastColors() {
+        AnimationComponent component = makeInterleavedComponent(AnimationComponent.Interleave.ROWS, 2,
+                AnimationComponent.Strategy.DIRECT, false);
+        AnimationComponent direct = makeInterleavedComponent(AnimationComponent.Interleave.ROWS, 1,
+                AnimationComponent.Strategy.DIRECT, false);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockCurrentFrameView directView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, frames, 1);
+        direct.onTick(directView, frames, 1);
+        int lastColor = currentFrameView.color(0, 1);
+
+        component.onTick(currentFrameView, frames, 1);
+        direct.onTick(directView, frames, 1);
+
+        assertEquals(directView.color(0, 0), currentFrameView.color(0, 0));
+        assertEquals(directView.color(3, 2), currentFrameView.color(3, 2));
+        assertEquals(lastColor, currentFrameView.color(0, 1));
+        assertTrue(lastColor != directView.color(0, 1));
+    }
+
+    @Test
+    public void tick_InterleavedFrameBoundary_AllPixelsWritten() {
+        AnimationComponent component = makeInterleavedComponent(AnimationComponent.Interleave.CHECKERBOARD, 3,
+                AnimationComponent.Strategy.DIRECT, false);
+        AnimationComponent direct = makeInterleavedComponent(AnimationComponent.Interleave.CHECKERBOARD, 1,
+                AnimationComponent.Strategy.DIRECT, false);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockCurrentFrameView directView = new MockCurrentFrameView();
+        for (int tick = 0; tick < 99; tick++) {
+            component.onTick(currentFrameView, frames, 1);
+            direct.onTick(directView, frames, 1);
+        }
+
+        assertEquals(16, component.onTick(currentFrameView, frames, 1));
+        direct.onTick(directView, frames, 1);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertEquals(directView.color(x, y), currentFrameView.color(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void tick_InterleavedAfterDraw_AllPixelsWritten() {
+        AnimationComponent component = makeInterleavedComponent(AnimationComponent.Interleave.CHECKERBOARD, 2,
+                AnimationComponent.Strategy.DIRECT, false);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, frames, 1);
+        component.draw(new MockCurrentFrameView(), frames);
+
+        assertEquals(16, component.onTick(currentFrameView, frames, 1));
+    }
+
+    @Test
+    public void tick_InterleavedDifferentFrameView_AllPixelsWritten() {
+        AnimationComponent component = makeInterleavedComponent(AnimationComponent.Interleave.CHECKERBOARD, 2,
+                AnimationComponent.Strategy.DIRECT, false);
+        List<Frame> frames = makeInterleavedFrames();
+
+        component.onTick(new MockCurrentFrameView(), frames, 1);
+
+        assertEquals(16, component.onTick(new MockCurrentFrameView(), frames, 1));
+    }
+
+    @Test
+    public void tick_InterleavedSkippingSteps_SubsetsCatchUpBeforeSkipping() {
+        AnimationComponent component = makeInterleavedComponent(AnimationComponent.Interleave.CHECKERBOARD, 2,
+                AnimationComponent.Strategy.DELTA, true);
+        AnimationComponent direct = makeInterleavedComponent(AnimationComponent.Interleave.CHECKERBOARD, 1,
+                AnimationComponent.Strategy.DIRECT, false);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockCurrentFrameView directView = new MockCurrentFrameView();
+        for (int tick = 0; tick < 250; tick++) {
+            component.onTick(currentFrameView, frames, 1);
+            direct.onTick(directView, frames, 1);
+
+            if (component.ticksUntilChange() > 1) {
+                for (int y = 0; y < 4; y++) {
+                    for (int x = 0; x < 4; x++) {
+                        assertEquals(directView.color(x, y), currentFrameView.color(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resolutionScale_ZeroScale_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AnimationComponent.Builder().resolutionScale(0);
+    }
+
+    @Test
+    public void tick_ReducedResolutionMidTransition_BlocksShareColor() {
+        AnimationComponent component = makeScaledComponent(makeSquareArea(0, 0, 4), 0, 0, 2);
+        AnimationComponent direct = makeScaledComponent(makeSquareArea(0, 0, 4), 0, 0, 1);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockCurrentFrameView directView = new MockCurrentFrameView();
+        assertEquals(16, component.onTick(currentFrameView, frames, 30));
+        direct.onTick(directView, frames, 30);
+
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                int blockX = x - x % 2;
+                int blockY = y - y % 2;
+                assertEquals(directView.color(blockX, blockY), currentFrameView.color(x, y));
+            }
+        }
+        assertTrue(directView.color(1, 1) != currentFrameView.color(1, 1));
+    }
+
+    @Test
+    public void tick_ReducedResolutionFirstStep_FullResolution() {
+        AnimationComponent component = makeScaledComponent(makeSquareArea(0, 0, 4), 0, 0, 4);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, frames, 100);
+
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertEquals(frames.get(1).color(x, y), currentFrameView.color(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void tick_ReducedResolutionOffsetAnimation_BlocksAlignedToAnimation() {
+        AnimationComponent component = makeScaledComponent(makeSquareArea(5, 3, 4), 5, 3, 2);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, frames, 30);
+
+        assertEquals(currentFrameView.color(5, 3), currentFrameView.color(6, 4));
+        assertEquals(currentFrameView.color(7, 5), currentFrameView.color(8, 6));
+        assertTrue(currentFrameView.color(6, 3) != currentFrameView.color(7, 3));
+    }
+
+    @Test
+    public void tick_ReducedResolutionSparseArea_BlockCornerSampled() {
+        AnimationComponent component = makeScaledComponent(Area.of(Point.pack(1, 1)), 0, 0, 2);
+        AnimationComponent direct = makeScaledComponent(makeSquareArea(0, 0, 2), 0, 0, 1);
+        List<Frame> frames = makeInterleavedFrames();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockCurrentFrameView directView = new MockCurrentFrameView();
+        assertEquals(1, component.onTick(currentFrameView, frames, 30));
+        direct.onTick(directView, frames, 30);
+
+        assertEquals(directView.color(0, 0), currentFrameView.color(1, 1));
+        assertEquals(0, currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void quality_NullQuality_NullPointerException() {
+        AnimationComponent component = makeScaledComponent(Area.of(Point.pack(0, 0)), 0, 0, 1);
+
+        expectedException.expect(NullPointerException.class);
+        component.quality(null);
+    }
+
+    @Test
+    public void tick_SteppedQuality_StartFrameDrawnUntilNextFrame() {
+        AnimationComponent component = makeScaledComponent(Area.of(Point.pack(0, 0)), 0, 0, 1);
+        List<Frame> frames = makeInterleavedFrames();
+        component.quality(AnimationComponent.Quality.STEPPED);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, frames, 60);
+        assertEquals(frames.get(0).color(0, 0), currentFrameView.color(0, 0));
+
+        component.onTick(currentFrameView, frames, 40);
+        assertEquals(frames.get(1).color(0, 0), currentFrameView.color(0, 0));
+        assertEquals(AnimationComponent.Quality.STEPPED, component.quality());
+    }
+
+    @Test
+    public void tick_HalfRateQuality_OddStepsDrawnAsPreviousStep() {
+        AnimationComponent component = makeScaledComponent(Area.of(Point.pack(0, 0)), 0, 0, 1);
+        AnimationComponent full = makeScaledComponent(Area.of(Point.pack(0, 0)), 0, 0, 1);
+        List<Frame> frames = makeInterleavedFrames();
+        component.quality(AnimationComponent.Quality.HALF_RATE);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockCurrentFrameView fullView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, frames, 30);
+        full.onTick(fullView, frames, 30);
+        assertEquals(fullView.color(0, 0), currentFrameView.color(0, 0));
+
+        component.onTick(currentFrameView, frames, 1);
+        assertEquals(fullView.color(0, 0), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void ticksUntilChange_SteppedQuality_TicksUntilNextFrame() {
+        List<Frame> frames = List.of((x, y) -> Color.pack(0, 0, 0, 255), (x, y) -> Color.pack(200, 0, 0, 255));
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 100, true,
+                new DefaultAlphaInterpolator());
+        component.quality(AnimationComponent.Quality.STEPPED);
+        component.onTick(new MockCurrentFrameView(), frames, 30);
+
+        assertEquals(70, component.ticksUntilChange());
+    }
+
+    @Test
+    public void ticksUntilChange_NotInterpolated_TicksUntilNextFrame() {
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 10, true,
+                new StartColorInterpolator());
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 3);
+
+        assertEquals(7, component.ticksUntilChange());
+    }
+
+    @Test
+    public void ticksUntilChange_InterpolatedFewColors_TicksUntilNextChangedStep() {
+        List<Frame> frames = List.of((x, y) -> Color.pack(0, 0, 0, 255), (x, y) -> Color.pack(2, 0, 0, 255));
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 100, true,
+                new DefaultAlphaInterpolator());
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, frames, 1);
+
+        int ticksUntilChange = component.ticksUntilChange();
+        assertTrue(ticksUntilChange > 1);
+        assertTrue(ticksUntilChange < 99);
+
+        int color = currentFrameView.color(0, 0);
+        component.onTick(currentFrameView, frames, ticksUntilChange - 1);
+        assertEquals(color, currentFrameView.color(0, 0));
+        component.onTick(currentFrameView, frames, 1);
+        assertTrue(color != currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void ticksUntilChange_PreparedBeforeTick_TicksUntilNextChangedStep() {
+        List<Frame> frames = List.of((x, y) -> Color.pack(0, 0, 0, 255), (x, y) -> Color.pack(2, 0, 0, 255));
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 100, true,
+                new DefaultAlphaInterpolator());
+        component.prepare(frames);
+
+        int ticksUntilChange = component.ticksUntilChange();
+        assertTrue(ticksUntilChange > 1);
+        assertTrue(ticksUntilChange < 99);
+    }
+
+    @Test
+    public void prepare_NullFrames_NullPointerException() {
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 100, true,
+                new DefaultAlphaInterpolator());
+
+        expectedException.expect(NullPointerException.class);
+        component.prepare(null);
+    }
+
+    @Test
+    public void ticksUntilChange_NotSkippingUnchangedSteps_One() {
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 10, false,
+                new StartColorInterpolator());
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 3);
+
+        assertEquals(1, component.ticksUntilChange());
+    }
+
+    @Test
+    public void ticksUntilChange_Synced_TicksUntilNextFrameAtTime() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new StartColorInterpolator())
+                .skipUnchangedSteps(true)
+                .syncTicks(24000, () -> Optional.of(5L))
+                .build();
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 3);
+
+        assertEquals(5, component.ticksUntilChange());
+    }
+
+    @Test
+    public void outOfSync_NotSynced_False() {
+        AnimationComponent component = makeSkippingComponent(Area.of(Point.pack(0, 0)), 2, 10, true,
+                new StartColorInterpolator());
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 3);
+
+        assertFalse(component.outOfSync(500));
+    }
+
+    @Test
+    public void outOfSync_TimeAdvancedWithTicks_False() {
+        AtomicLong currentTime = new AtomicLong(5);
+        AnimationComponent component = makeSyncedComponent(currentTime);
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 1);
+        currentTime.set(8);
+
+        assertFalse(component.outOfSync(3));
+    }
+
+    @Test
+    public void outOfSync_TimeJumped_True() {
+        AtomicLong currentTime = new AtomicLong(5);
+        AnimationComponent component = makeSyncedComponent(currentTime);
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 1);
+        currentTime.set(100);
+
+        assertTrue(component.outOfSync(3));
+    }
+
+    @Test
+    public void outOfSync_TimeBecameUnavailable_True() {
+        AtomicLong currentTime = new AtomicLong(5);
+        AnimationComponent component = makeSyncedComponent(currentTime);
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 1);
+        currentTime.set(-1);
+
+        assertTrue(component.outOfSync(1));
+    }
+
+    @Test
+    public void outOfSync_TimeBecameAvailable_True() {
+        AtomicLong currentTime = new AtomicLong(-1);
+        AnimationComponent component = makeSyncedComponent(currentTime);
+        component.onTick(new MockCurrentFrameView(), makeMockFrames(2), 1);
+        currentTime.set(5);
+
+        assertTrue(component.outOfSync(1));
+    }
+
+    @Test
+    public void ticksUntilChange_EmptyArea_Never() {
+        AnimationComponent component = makeSkippingComponent(Area.of(), 2, 10, true, new StartColorInterpolator());
+
+        assertEquals(Integer.MAX_VALUE, component.ticksUntilChange());
+    }
+
+    @Test
+    public void tick_FramesWithLookahead_UpcomingFramesExpected() {
+        List<Integer> expected = new ArrayList<>();
+        List<Frame> frames = new LookaheadFrameList(makeMockFrames(6), expected);
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(4)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame + 2)
+                .interpolator(INTERPOLATOR)
+                .build();
+
+        component.onTick(new MockCurrentFrameView(), frames, 25);
+
+        assertEquals(List.of(4, 5, 2), expected);
+    }
+
     public static int indexToColor(int index) {
         return Color.pack(indexToComp(index), indexToComp(index), indexToComp(index), indexToComp(index));
     }
@@ -584,8 +1409,137 @@ public final class AnimationComponentTest {
         return index * 10 % 256;
     }
     
+    private static AnimationComponent makeSkippingComponent(Area area, int frames, int frameTime,
+                                                            boolean skipUnchangedSteps, Interpolator interpolator) {
+        return new AnimationComponent.Builder()
+                .interpolateArea(area)
+                .frames(frames)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> frameTime)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(interpolator)
+                .skipUnchangedSteps(skipUnchangedSteps)
+                .build();
+    }
+
+    private static AnimationComponent makeSyncedComponent(AtomicLong currentTime) {
+        return new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new StartColorInterpolator())
+                .skipUnchangedSteps(true)
+                .syncTicks(24000, () -> currentTime.get() < 0 ? Optional.empty() : Optional.of(currentTime.get()))
+                .build();
+    }
+
+    private static AnimationComponent makeStrategyComponent(Area area, int frames, int frameTime,
+                                                            Interpolator interpolator,
+                                                            AnimationComponent.Strategy strategy) {
+        return new AnimationComponent.Builder()
+                .interpolateArea(area)
+                .frames(frames)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> frameTime)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(interpolator)
+                .strategy(strategy)
+                .build();
+    }
+
+    private static AnimationComponent makeInterleavedComponent(AnimationComponent.Interleave interleave, int factor,
+                                                               AnimationComponent.Strategy strategy,
+                                                               boolean skipUnchangedSteps) {
+        Area.Builder area = new Area.Builder();
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                area.addPixel(x, y);
+            }
+        }
+
+        return new AnimationComponent.Builder()
+                .interpolateArea(area.build())
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 100)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new DefaultAlphaInterpolator())
+                .skipUnchangedSteps(skipUnchangedSteps)
+                .strategy(strategy)
+                .interleave(interleave, factor)
+                .build();
+    }
+
+    private static AnimationComponent makeScaledComponent(Area area, int xInBase, int yInBase, int scale) {
+        return new AnimationComponent.Builder()
+                .interpolateArea(area)
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 100)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new DefaultAlphaInterpolator())
+                .coordinateInBase(xInBase, yInBase)
+                .resolutionScale(scale)
+                .build();
+    }
+
+    private static Area makeSquareArea(int minX, int minY, int width) {
+        Area.Builder area = new Area.Builder();
+        for (int y = minY; y < minY + width; y++) {
+            for (int x = minX; x < minX + width; x++) {
+                area.addPixel(x, y);
+            }
+        }
+
+        return area.build();
+    }
+
+    private static List<Frame> makeInterleavedFrames() {
+        return List.of(
+                (x, y) -> Color.pack(x * 10, y * 10, 0, 255),
+                (x, y) -> Color.pack(200 - x * 10, 150, y * 40, 255)
+        );
+    }
+
     private static List<Frame> makeMockFrames(int frames) {
         return IntStream.range(0, frames).<Frame>mapToObj((index) -> (x, y) -> indexToColor(index)).toList();
     }
 
-}
\ No newline at end of file
+    /**
+     * Frames that record which frames were expected most recently.
+     * @author soir20
+     */
+    private static final class LookaheadFrameList extends AbstractList<Frame> implements FrameLookahead {
+        private final List<Frame> FRAMES;
+        private final List<Integer> EXPECTED;
+
+        public LookaheadFrameList(List<Frame> frames, List<Integer> expected) {
+            FRAMES = frames;
+            EXPECTED = expected;
+        }
+
+        @Override
+        public Frame get(int index) {
+            return FRAMES.get(index);
+        }
+
+        @Override
+        public int size() {
+            return FRAMES.size();
+        }
+
+        @Override
+        public void expect(int[] frameIndices) {
+            EXPECTED.clear();
+            Arrays.stream(frameIndices).forEach(EXPECTED::add);
+        }
+
+        @Override
+        public int maxExpectedFrames() {
+            return 3;
+        }
+    }
+
+}
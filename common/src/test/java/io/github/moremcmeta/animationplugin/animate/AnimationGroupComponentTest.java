@@ -21,14 +21,29 @@ import com.google.common.collect.ImmutableList;
 import com.mojang.datafixers.util.Pair;
 import io.github.moremcmeta.animationplugin.MockCurrentFrameView;
 import io.github.moremcmeta.animationplugin.MockPersistentFrameGroup;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
+import io.github.moremcmeta.animationplugin.profile.TextureTickEvent;
+import io.github.moremcmeta.moremcmeta.api.client.texture.ColorTransform;
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
 import io.github.moremcmeta.moremcmeta.api.math.Area;
 import io.github.moremcmeta.moremcmeta.api.math.Point;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.github.moremcmeta.animationplugin.animate.AnimationComponentTest.indexToColor;
 import static org.junit.Assert.*;
@@ -46,18 +61,36 @@ public final class AnimationGroupComponentTest {
     @Test
     public void construct_NullComponents_NullPointerException() {
         expectedException.expect(NullPointerException.class);
-        new AnimationGroupComponent(null, ImmutableList.of());
+        new AnimationGroupComponent(0, null, newLease(), ImmutableList.of(), new MemoryTracker());
     }
 
     @Test
     public void construct_NullClosers_NullPointerException() {
         expectedException.expect(NullPointerException.class);
-        new AnimationGroupComponent(ImmutableList.of(), null);
+        new AnimationGroupComponent(0, ImmutableList.of(), newLease(), null, new MemoryTracker());
+    }
+
+    @Test
+    public void construct_NullLease_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationGroupComponent(0, ImmutableList.of(), null, ImmutableList.of(), new MemoryTracker());
+    }
+
+    @Test
+    public void construct_NullMemoryTracker_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationGroupComponent(0, ImmutableList.of(), newLease(), ImmutableList.of(), null);
     }
 
     @Test
     public void construct_ComponentsClosersEmpty_NoException() {
-        AnimationGroupComponent component = new AnimationGroupComponent(ImmutableList.of(), ImmutableList.of());
+        AnimationGroupComponent component = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(),
+                newLease(),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
         MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
         component.onTick(new MockCurrentFrameView(), persistentFrames);
         component.onClose(new MockCurrentFrameView(), persistentFrames);
@@ -76,8 +109,11 @@ public final class AnimationGroupComponentTest {
                 .build();
 
         AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
                 ImmutableList.of(Pair.of(component1, Optional.empty())),
-                ImmutableList.of(() -> {}, () -> {})
+                newLease(),
+                ImmutableList.of(() -> {}, () -> {}),
+                new MemoryTracker()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -108,6 +144,7 @@ public final class AnimationGroupComponentTest {
 
         // Use different color values to differentiate from the predefined frames
         AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
                 ImmutableList.of(Pair.of(component1, Optional.of(ImmutableList.of(
                         (x, y) -> indexToColor(10),
                         (x, y) -> indexToColor(11),
@@ -120,7 +157,9 @@ public final class AnimationGroupComponentTest {
                         (x, y) -> indexToColor(18),
                         (x, y) -> indexToColor(19)
                 )))),
-                ImmutableList.of(() -> {}, () -> {})
+                newLease(),
+                ImmutableList.of(() -> {}, () -> {}),
+                new MemoryTracker()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -177,6 +216,7 @@ public final class AnimationGroupComponentTest {
 
         // Use different color values to differentiate from the predefined frames
         AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
                 ImmutableList.of(
                         Pair.of(component1, Optional.empty()),
                         Pair.of(component2, Optional.of(ImmutableList.of(
@@ -205,7 +245,9 @@ public final class AnimationGroupComponentTest {
                                 (x, y) -> indexToColor(29)
                         )))
                 ),
-                ImmutableList.of(() -> {}, () -> {})
+                newLease(),
+                ImmutableList.of(() -> {}, () -> {}),
+                new MemoryTracker()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -234,6 +276,121 @@ public final class AnimationGroupComponentTest {
         );
     }
 
+    @Test
+    public void tick_RecordingEnabled_TickEventCommitted() throws IOException {
+        int frames = 10;
+        AnimationComponent component1 = new AnimationComponent.Builder()
+                .interpolateArea(new Area(0, 0, 10, 20))
+                .frames(frames)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> (frame + 1) * 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+        AnimationComponent component2 = new AnimationComponent.Builder()
+                .interpolateArea(new Area(5, 10, 5, 5))
+                .frames(frames)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> (frame + 1) * 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                42,
+                ImmutableList.of(
+                        Pair.of(component1, Optional.empty()),
+                        Pair.of(component2, Optional.empty())
+                ),
+                newLease(),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        Path recordingPath = Files.createTempFile("animation-tick", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TextureTickEvent.NAME).withoutThreshold();
+            recording.start();
+            groupComponent.onTick(new MockCurrentFrameView(), new MockPersistentFrameGroup(frames), 3);
+            recording.stop();
+            recording.dump(recordingPath);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath);
+            assertEquals(1, events.size());
+            assertEquals(42, events.get(0).getLong("textureId"));
+            assertEquals(3, events.get(0).getInt("ticks"));
+            assertEquals(225, events.get(0).getLong("pixelsWritten"));
+            assertEquals("FULL", events.get(0).getString("quality"));
+        } finally {
+            Files.delete(recordingPath);
+        }
+    }
+
+    @Test
+    public void close_AfterTick_ComponentMemoryReleased() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0), Point.pack(1, 0)))
+                .frames(5)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.empty())),
+                newLease(),
+                ImmutableList.of(),
+                memoryTracker
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
+
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        assertTrue(memoryTracker.heapBytes() > 0);
+
+        groupComponent.onClose(currentFrameView, persistentFrames);
+        assertEquals(0, memoryTracker.heapBytes());
+        assertEquals(0, memoryTracker.openAllocations());
+    }
+
+    @Test
+    public void tick_PreparedPrecomputedComponent_ComponentMemoryTracked() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .strategy(AnimationComponent.Strategy.PRECOMPUTED)
+                .build();
+        List<Frame> frames = List.of((x, y) -> indexToColor(0), (x, y) -> indexToColor(1));
+        component.prepare(frames);
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.of(frames))),
+                newLease(),
+                ImmutableList.of(),
+                memoryTracker
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
+
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        assertTrue(component.memoryBytes() > 0);
+        assertTrue(memoryTracker.liveAllocations().stream()
+                .anyMatch((allocation) -> allocation.bytes() == component.memoryBytes()));
+
+        groupComponent.onClose(currentFrameView, persistentFrames);
+        assertEquals(0, memoryTracker.heapBytes());
+    }
+
     @Test
     public void close_MultipleClosers_AllClosersRun() {
         AtomicBoolean closer1 = new AtomicBoolean();
@@ -243,13 +400,16 @@ public final class AnimationGroupComponentTest {
 
         // Use different color values to differentiate from the predefined frames
         AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
                 ImmutableList.of(),
+                newLease(),
                 ImmutableList.of(
                         () -> closer1.set(true),
                         () -> closer2.set(true),
                         () -> closer3.set(true),
                         () -> closer4.set(true)
-                )
+                ),
+                new MemoryTracker()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -263,4 +423,573 @@ public final class AnimationGroupComponentTest {
         assertTrue(closer4.get());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void tick_ComponentsReusedByNewGroup_OnlyNewGroupAdvancesAfterItTicks() {
+        int frames = 10;
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(frames)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(1), () -> ImmutableList.of(component));
+        AnimationGroupComponent oldGroup = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.empty())),
+                oldLease,
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(frames);
+        for (int tick = 0; tick < 10; tick++) {
+            oldGroup.onTick(currentFrameView, persistentFrames, 1);
+        }
+
+        cache.startReload();
+        ComponentReuseCache.Lease newLease = cache.lease(fingerprint(1), () -> {
+            throw new AssertionError("Components should have been reused");
+        });
+        AnimationGroupComponent newGroup = new AnimationGroupComponent(
+                1,
+                ImmutableList.of(Pair.of(newLease.components().get(0), Optional.empty())),
+                newLease,
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        for (int tick = 0; tick < 10; tick++) {
+            newGroup.onTick(currentFrameView, persistentFrames, 1);
+            oldGroup.onTick(currentFrameView, persistentFrames, 1);
+        }
+
+        assertTrue(newLease.reused());
+        assertEquals(indexToColor(2), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void close_DuringTick_ClosersRunAfterTickFinishes() {
+        AtomicInteger closerRuns = new AtomicInteger();
+        AtomicInteger closerRunsDuringTick = new AtomicInteger(-1);
+        AtomicReference<AnimationGroupComponent> groupReference = new AtomicReference<>();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
+
+        // Simulates the core closing the texture from another thread while the tick is still writing
+        CurrentFrameView closingFrameView = new CurrentFrameView() {
+            @Override
+            public void generateWith(ColorTransform transform, Area applyArea) {
+                groupReference.get().onClose(this, persistentFrames);
+                closerRunsDuringTick.set(closerRuns.get());
+            }
+
+            @Override
+            public int width() {
+                return 10;
+            }
+
+            @Override
+            public int height() {
+                return 20;
+            }
+        };
+
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(5)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+        groupReference.set(new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.empty())),
+                newLease(),
+                ImmutableList.of(closerRuns::incrementAndGet),
+                new MemoryTracker()
+        ));
+
+        groupReference.get().onTick(closingFrameView, persistentFrames, 1);
+
+        assertEquals(0, closerRunsDuringTick.get());
+        assertEquals(1, closerRuns.get());
+    }
+
+    @Test
+    public void close_CalledTwice_ClosersRunOnce() {
+        AtomicInteger closerRuns = new AtomicInteger();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(),
+                newLease(),
+                ImmutableList.of(closerRuns::incrementAndGet),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
+        groupComponent.onClose(currentFrameView, persistentFrames);
+        groupComponent.onClose(currentFrameView, persistentFrames);
+
+        assertEquals(1, closerRuns.get());
+    }
+
+    @Test
+    public void tick_AfterClose_NothingWritten() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(5)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.empty())),
+                newLease(),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
+        groupComponent.onClose(currentFrameView, persistentFrames);
+        groupComponent.onTick(currentFrameView, persistentFrames, 10);
+
+        assertEquals(0, currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void construct_NullPendingLease_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationGroupComponent(0, null, List.of(), ImmutableList.of(), new MemoryTracker());
+    }
+
+    @Test
+    public void construct_BuildAlreadyFailed_BuildErrorThrown() {
+        CompletableFuture<ComponentReuseCache.Lease> pendingLease = new CompletableFuture<>();
+        pendingLease.completeExceptionally(new IllegalArgumentException("Build failed"));
+
+        expectedException.expect(IllegalArgumentException.class);
+        new AnimationGroupComponent(0, pendingLease, List.of(), ImmutableList.of(), new MemoryTracker());
+    }
+
+    @Test
+    public void tick_BuildPending_NothingWrittenUntilBuiltAndNoTicksLost() {
+        int frames = 10;
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(frames)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> (frame + 1) * 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .build();
+
+        CompletableFuture<ComponentReuseCache.Lease> pendingLease = new CompletableFuture<>();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                pendingLease,
+                List.of(Optional.empty()),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(frames);
+
+        for (int tick = 0; tick < 100; tick++) {
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        }
+
+        assertEquals(0, currentFrameView.color(0, 0));
+
+        pendingLease.complete(new ComponentReuseCache().add(fingerprint(0), 0, List.of(component)));
+        for (int tick = 100; tick < 330; tick++) {
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        }
+
+        assertEquals(
+                INTERPOLATOR.interpolate(80, 50, indexToColor(7), indexToColor(8)),
+                currentFrameView.color(0, 0)
+        );
+    }
+
+    @Test
+    public void tick_BuildFailedAfterConstruction_BuildErrorThrown() {
+        CompletableFuture<ComponentReuseCache.Lease> pendingLease = new CompletableFuture<>();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                pendingLease,
+                List.of(Optional.empty()),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        pendingLease.completeExceptionally(new IllegalArgumentException("Build failed"));
+
+        expectedException.expect(IllegalArgumentException.class);
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+    }
+
+    @Test
+    public void tick_BuildFailedAfterConstruction_ErrorThrownOnceThenTicksStop() {
+        AtomicInteger closerRuns = new AtomicInteger();
+        CompletableFuture<ComponentReuseCache.Lease> pendingLease = new CompletableFuture<>();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                pendingLease,
+                List.of(Optional.empty()),
+                ImmutableList.of(closerRuns::incrementAndGet),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        pendingLease.completeExceptionally(new IllegalArgumentException("Build failed"));
+
+        try {
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+            fail("Expected the build error");
+        } catch (IllegalArgumentException ignored) {}
+
+        for (int tick = 0; tick < 10; tick++) {
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        }
+        groupComponent.onClose(currentFrameView, persistentFrames);
+
+        assertEquals(0, currentFrameView.color(0, 0));
+        assertEquals(1, closerRuns.get());
+    }
+
+    @Test
+    public void close_BuildPending_ClosersRunAfterBuildFinishes() {
+        AtomicInteger closerRuns = new AtomicInteger();
+        CompletableFuture<ComponentReuseCache.Lease> pendingLease = new CompletableFuture<>();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                pendingLease,
+                List.of(),
+                ImmutableList.of(closerRuns::incrementAndGet),
+                new MemoryTracker()
+        );
+
+        groupComponent.onClose(new MockCurrentFrameView(), new MockPersistentFrameGroup(5));
+        assertEquals(0, closerRuns.get());
+
+        pendingLease.complete(newLease());
+        assertEquals(1, closerRuns.get());
+    }
+
+    @Test
+    public void close_BuildFailed_ClosersStillRun() {
+        AtomicInteger closerRuns = new AtomicInteger();
+        CompletableFuture<ComponentReuseCache.Lease> pendingLease = new CompletableFuture<>();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                pendingLease,
+                List.of(),
+                ImmutableList.of(closerRuns::incrementAndGet),
+                new MemoryTracker()
+        );
+
+        groupComponent.onClose(new MockCurrentFrameView(), new MockPersistentFrameGroup(5));
+        pendingLease.completeExceptionally(new IllegalArgumentException("Build failed"));
+
+        assertEquals(1, closerRuns.get());
+    }
+
+    @Test
+    public void tick_LongFrameTimes_ComponentsOnlyVisitedWhenFramesChange() {
+        AtomicInteger frameLookups = new AtomicInteger();
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 50)
+                .frameIndexMapper((frame) -> {
+                    frameLookups.incrementAndGet();
+                    return frame;
+                })
+                .interpolator(new StartColorInterpolator())
+                .skipUnchangedSteps(true)
+                .build();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.empty())),
+                newLease(),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(2);
+        for (int tick = 0; tick < 120; tick++) {
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+
+            int expectedFrame = ((tick + 1) / 50) % 2;
+            assertEquals(indexToColor(expectedFrame), currentFrameView.color(0, 0));
+        }
+
+        // Every visit looks up the frames a few times, and there are only three visits
+        assertTrue(frameLookups.get() < 30);
+    }
+
+    @Test
+    public void tick_SchedulingOnOrOff_SameColorsEveryTick() {
+        AtomicLong currentTime = new AtomicLong(0);
+        AnimationGroupComponent scheduledGroup = makeMixedGroup(currentTime, true);
+        AnimationGroupComponent unscheduledGroup = makeMixedGroup(currentTime, false);
+
+        MockCurrentFrameView scheduledFrame = new MockCurrentFrameView();
+        MockCurrentFrameView unscheduledFrame = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(4);
+        for (int tick = 0; tick < 300; tick++) {
+            currentTime.addAndGet(tick == 150 ? 500 : 1);
+            int ticks = tick % 7 == 0 ? 3 : 1;
+            scheduledGroup.onTick(scheduledFrame, persistentFrames, ticks);
+            unscheduledGroup.onTick(unscheduledFrame, persistentFrames, ticks);
+
+            for (int x = 0; x < 3; x++) {
+                assertEquals(unscheduledFrame.color(x, 0), scheduledFrame.color(x, 0));
+            }
+        }
+    }
+
+    @Test
+    public void tick_SyncedTimeJumped_ComponentResynced() {
+        AtomicLong currentTime = new AtomicLong(0);
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 50)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new StartColorInterpolator())
+                .skipUnchangedSteps(true)
+                .syncTicks(24000, () -> Optional.of(currentTime.get()))
+                .build();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.empty())),
+                newLease(),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(2);
+        for (int tick = 0; tick < 10; tick++) {
+            currentTime.incrementAndGet();
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        }
+        assertEquals(indexToColor(0), currentFrameView.color(0, 0));
+
+        currentTime.set(60);
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        assertEquals(indexToColor(1), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void tick_MultiTickJump_ComponentsAtFrameAfterJump() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(5)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new StartColorInterpolator())
+                .skipUnchangedSteps(true)
+                .build();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.empty())),
+                newLease(),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(5);
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        groupComponent.onTick(currentFrameView, persistentFrames, 4);
+        assertEquals(indexToColor(0), currentFrameView.color(0, 0));
+
+        groupComponent.onTick(currentFrameView, persistentFrames, 1000 + 27);
+        assertEquals(indexToColor(3), currentFrameView.color(0, 0));
+
+        groupComponent.onTick(currentFrameView, persistentFrames, 7);
+        assertEquals(indexToColor(3), currentFrameView.color(0, 0));
+
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        assertEquals(indexToColor(4), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void tick_DifferentFrameView_AllComponentsDrawn() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 50)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new StartColorInterpolator())
+                .skipUnchangedSteps(true)
+                .build();
+        AnimationGroupComponent groupComponent = new AnimationGroupComponent(
+                0,
+                ImmutableList.of(Pair.of(component, Optional.empty())),
+                newLease(),
+                ImmutableList.of(),
+                new MemoryTracker()
+        );
+
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(2);
+        groupComponent.onTick(new MockCurrentFrameView(), persistentFrames, 1);
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        groupComponent.onTick(currentFrameView, persistentFrames, 1);
+
+        assertEquals(indexToColor(0), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void construct_NullQualityGovernor_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationGroupComponent(0, CompletableFuture.completedFuture(newLease()), List.of(),
+                ImmutableList.of(), new MemoryTracker(), null);
+    }
+
+    @Test
+    public void tick_OverBudget_ComponentsLoweredToStepped() {
+        AnimationComponent component = makeQualityComponent();
+        AtomicLong cost = new AtomicLong(10);
+        AnimationGroupComponent groupComponent = makeGovernedGroup(component, cost);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(2);
+        for (int tick = 0; tick < 5; tick++) {
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        }
+
+        assertEquals(AnimationComponent.Quality.STEPPED, groupComponent.quality());
+        assertEquals(AnimationComponent.Quality.STEPPED, component.quality());
+        assertEquals(indexToColor(0), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void tick_UnderBudgetAfterLowered_ComponentsInterpolateAgain() {
+        AnimationComponent component = makeQualityComponent();
+        AtomicLong cost = new AtomicLong(10);
+        AnimationGroupComponent groupComponent = makeGovernedGroup(component, cost);
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrames = new MockPersistentFrameGroup(2);
+        for (int tick = 0; tick < 5; tick++) {
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        }
+
+        cost.set(0);
+        for (int tick = 5; tick < 50; tick++) {
+            groupComponent.onTick(currentFrameView, persistentFrames, 1);
+        }
+
+        AnimationComponent reference = makeQualityComponent();
+        MockCurrentFrameView referenceView = new MockCurrentFrameView();
+        reference.onTick(referenceView, List.of((x, y) -> indexToColor(0), (x, y) -> indexToColor(1)), 50);
+
+        assertEquals(AnimationComponent.Quality.FULL, groupComponent.quality());
+        assertEquals(AnimationComponent.Quality.FULL, component.quality());
+        assertNotEquals(indexToColor(0), referenceView.color(0, 0));
+        assertEquals(referenceView.color(0, 0), currentFrameView.color(0, 0));
+    }
+
+    private static AnimationComponent makeQualityComponent() {
+        return new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 100)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .skipUnchangedSteps(true)
+                .build();
+    }
+
+    private static AnimationGroupComponent makeGovernedGroup(AnimationComponent component, AtomicLong cost) {
+        AtomicLong time = new AtomicLong();
+        QualityGovernor governor = new QualityGovernor(5, 1, 1, () -> time.addAndGet(cost.get()));
+
+        return new AnimationGroupComponent(
+                0,
+                CompletableFuture.completedFuture(new ComponentReuseCache().add(fingerprint(0), 0, List.of(component))),
+                List.of(Optional.empty()),
+                ImmutableList.of(),
+                new MemoryTracker(),
+                governor
+        );
+    }
+
+    private static ComponentReuseCache.Lease newLease() {
+        return new ComponentReuseCache().lease(fingerprint(0), ImmutableList::of);
+    }
+
+    private static AnimationGroupComponent makeMixedGroup(AtomicLong currentTime, boolean scheduleComponents) {
+        AnimationComponent slowComponent = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(4)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 40)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new StartColorInterpolator())
+                .skipUnchangedSteps(true)
+                .build();
+        AnimationComponent interpolatedComponent = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(1, 0)))
+                .frames(4)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(INTERPOLATOR)
+                .skipUnchangedSteps(true)
+                .build();
+        AnimationComponent syncedComponent = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(2, 0)))
+                .frames(4)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 25)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new StartColorInterpolator())
+                .skipUnchangedSteps(true)
+                .syncTicks(24000, () -> Optional.of(currentTime.get()))
+                .build();
+
+        return new AnimationGroupComponent(
+                0,
+                CompletableFuture.completedFuture(new ComponentReuseCache().add(
+                        fingerprint(0),
+                        0,
+                        List.of(slowComponent, interpolatedComponent, syncedComponent)
+                )),
+                List.of(Optional.empty(), Optional.empty(), Optional.empty()),
+                ImmutableList.of(),
+                new MemoryTracker(),
+                QualityGovernor.unlimited(),
+                scheduleComponents
+        );
+    }
+
+    private static ComponentFingerprint fingerprint(long value) {
+        return new ComponentFingerprint.Builder().add(value).build();
+    }
+
+}
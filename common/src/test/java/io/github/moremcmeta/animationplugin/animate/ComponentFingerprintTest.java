@@ -0,0 +1,107 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ComponentFingerprint}.
+ * @author soir20
+ */
+public final class ComponentFingerprintTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void add_NullValues_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new ComponentFingerprint.Builder().add(null, 0);
+    }
+
+    @Test
+    public void add_NegativeLength_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new ComponentFingerprint.Builder().add(new int[2], -1);
+    }
+
+    @Test
+    public void add_LengthPastArray_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new ComponentFingerprint.Builder().add(new int[2], 3);
+    }
+
+    @Test
+    public void equals_SameValuesAndDimensions_Equal() {
+        ComponentFingerprint first = new ComponentFingerprint.Builder()
+                .addDimension(16)
+                .add(new int[] { 1, 2, 3 }, 3)
+                .add(4)
+                .build();
+        ComponentFingerprint second = new ComponentFingerprint.Builder()
+                .addDimension(16)
+                .add(new int[] { 1, 2, 3 }, 3)
+                .add(4)
+                .build();
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    public void equals_DifferentValues_NotEqual() {
+        ComponentFingerprint first = new ComponentFingerprint.Builder().add(new int[] { 1, 2, 3 }, 3).build();
+        ComponentFingerprint second = new ComponentFingerprint.Builder().add(new int[] { 1, 2, 4 }, 3).build();
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void equals_SameValuesDifferentDimensions_NotEqual() {
+        ComponentFingerprint first = new ComponentFingerprint.Builder().add(16).build();
+        ComponentFingerprint second = new ComponentFingerprint.Builder().addDimension(16).build();
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void equals_LengthLimitsValues_EqualToShorterArray() {
+        ComponentFingerprint first = new ComponentFingerprint.Builder().add(new int[] { 1, 2, 3 }, 2).build();
+        ComponentFingerprint second = new ComponentFingerprint.Builder().add(new int[] { 1, 2 }, 2).build();
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void equals_ValuesLargerThanBuffer_Equal() {
+        int[] values = new int[1000];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = index;
+        }
+
+        ComponentFingerprint first = new ComponentFingerprint.Builder().add(1).add(values, values.length).build();
+        ComponentFingerprint second = new ComponentFingerprint.Builder().add(1).add(values, values.length).build();
+
+        assertEquals(first, second);
+    }
+
+}
@@ -0,0 +1,376 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import com.google.common.collect.ImmutableList;
+import io.github.moremcmeta.moremcmeta.api.math.Area;
+import io.github.moremcmeta.moremcmeta.api.math.Point;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ComponentReuseCache}.
+ * @author soir20
+ */
+public final class ComponentReuseCacheTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeMaxRetired_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new ComponentReuseCache(-1);
+    }
+
+    @Test
+    public void lease_NullFingerprint_NullPointerException() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        expectedException.expect(NullPointerException.class);
+        cache.lease(null, ComponentReuseCacheTest::makeComponents);
+    }
+
+    @Test
+    public void reuse_NullFingerprint_NullPointerException() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        expectedException.expect(NullPointerException.class);
+        cache.reuse(null, 0);
+    }
+
+    @Test
+    public void add_NullFingerprint_NullPointerException() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        expectedException.expect(NullPointerException.class);
+        cache.add(null, 0, makeComponents());
+    }
+
+    @Test
+    public void lease_SameValuesDifferentDimensions_ComponentsBuilt() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(
+                new ComponentFingerprint.Builder().add(5).build(),
+                ComponentReuseCacheTest::makeComponents
+        );
+        oldLease.tick();
+        cache.startReload();
+
+        ComponentReuseCache.Lease lease = cache.lease(
+                new ComponentFingerprint.Builder().addDimension(5).build(),
+                ComponentReuseCacheTest::makeComponents
+        );
+
+        assertNotSame(oldLease.components(), lease.components());
+    }
+
+    @Test
+    public void lease_NullBuilder_NullPointerException() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        expectedException.expect(NullPointerException.class);
+        cache.lease(fingerprint(0), null);
+    }
+
+    @Test
+    public void lease_BuilderReturnsNull_NullPointerException() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        expectedException.expect(NullPointerException.class);
+        cache.lease(fingerprint(0), () -> null);
+    }
+
+    @Test
+    public void lease_NoEarlierLease_ComponentsBuilt() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        List<AnimationComponent> components = makeComponents();
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), () -> components);
+
+        assertSame(components, lease.components());
+        assertFalse(lease.reused());
+    }
+
+    @Test
+    public void lease_EarlierLeaseSameReload_ComponentsBuilt() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        List<AnimationComponent> components = makeComponents();
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), () -> components);
+
+        assertSame(components, lease.components());
+        assertFalse(lease.reused());
+    }
+
+    @Test
+    public void lease_EarlierLeaseSameReloadTicked_ComponentsBuilt() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.tick();
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertNotSame(oldLease.components(), lease.components());
+        assertFalse(lease.reused());
+        assertTrue(oldLease.tick());
+        assertTrue(lease.tick());
+    }
+
+    @Test
+    public void lease_EarlierLeaseSameReloadTickedBuiltLate_ComponentsBuilt() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        long generation = cache.generation();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.tick();
+        cache.startReload();
+
+        assertFalse(cache.reuse(fingerprint(0), generation).isPresent());
+    }
+
+    @Test
+    public void lease_EarlierReload_ComponentsReused() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        cache.startReload();
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertSame(oldLease.components(), lease.components());
+        assertTrue(lease.reused());
+    }
+
+    @Test
+    public void lease_EarlierLeaseClosed_ComponentsReused() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.close();
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertSame(oldLease.components(), lease.components());
+        assertEquals(0, cache.retired());
+    }
+
+    @Test
+    public void lease_DifferentFingerprint_ComponentsBuilt() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.close();
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(1), ComponentReuseCacheTest::makeComponents);
+
+        assertNotSame(oldLease.components(), lease.components());
+        assertEquals(1, cache.retired());
+    }
+
+    @Test
+    public void lease_EarlierLeaseAlreadyClaimed_ComponentsBuilt() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.tick();
+        cache.startReload();
+        cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertNotSame(oldLease.components(), lease.components());
+    }
+
+    @Test
+    public void lease_MoreRetiredThanMax_OldestEvicted() {
+        ComponentReuseCache cache = new ComponentReuseCache(1);
+        ComponentReuseCache.Lease firstLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        ComponentReuseCache.Lease secondLease = cache.lease(fingerprint(1), ComponentReuseCacheTest::makeComponents);
+        firstLease.close();
+        secondLease.close();
+
+        assertEquals(1, cache.retired());
+        assertNotSame(firstLease.components(),
+                cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents).components());
+        assertSame(secondLease.components(),
+                cache.lease(fingerprint(1), ComponentReuseCacheTest::makeComponents).components());
+    }
+
+    @Test
+    public void tick_NoSuccessor_Advances() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertTrue(lease.tick());
+    }
+
+    @Test
+    public void tick_SuccessorNotTicked_OldLeaseAdvances() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.tick();
+        cache.startReload();
+        cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertTrue(oldLease.tick());
+    }
+
+    @Test
+    public void tick_SuccessorTicked_OnlySuccessorAdvances() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.tick();
+        cache.startReload();
+        ComponentReuseCache.Lease newLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertTrue(newLease.tick());
+        assertFalse(oldLease.tick());
+    }
+
+    @Test
+    public void close_SuccessorClosedAfterTick_PredecessorAdvancesAgain() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.tick();
+        cache.startReload();
+        ComponentReuseCache.Lease newLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        newLease.tick();
+
+        newLease.close();
+
+        assertTrue(oldLease.tick());
+        assertEquals(0, cache.retired());
+    }
+
+    @Test
+    public void close_SuccessorClosedAfterTick_PredecessorAvailableAgain() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.tick();
+        cache.startReload();
+        ComponentReuseCache.Lease newLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        newLease.tick();
+        newLease.close();
+        cache.startReload();
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertSame(oldLease.components(), lease.components());
+        assertTrue(lease.tick());
+        assertFalse(oldLease.tick());
+    }
+
+    @Test
+    public void close_SuccessorClosedBeforeTick_PredecessorAvailableAgain() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease oldLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        oldLease.tick();
+        cache.startReload();
+        cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents).close();
+
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+
+        assertSame(oldLease.components(), lease.components());
+        assertTrue(lease.tick());
+        assertFalse(oldLease.tick());
+    }
+
+    @Test
+    public void close_CalledTwice_RetiredOnce() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        lease.close();
+        lease.close();
+
+        assertEquals(1, cache.retired());
+    }
+
+    @Test
+    public void retiredBytes_LeaseClosed_ComponentBytesCounted() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        ComponentReuseCache.Lease lease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makePreparedComponents);
+        long bytes = lease.components().get(0).memoryBytes();
+
+        lease.close();
+
+        assertTrue(bytes > 0);
+        assertEquals(bytes, cache.retiredBytes());
+    }
+
+    @Test
+    public void retiredBytes_LeaseOpen_NoBytesCounted() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        cache.lease(fingerprint(0), ComponentReuseCacheTest::makePreparedComponents);
+
+        assertEquals(0, cache.retiredBytes());
+    }
+
+    @Test
+    public void retiredBytes_RetiredLeaseClaimed_BytesRemoved() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        cache.lease(fingerprint(0), ComponentReuseCacheTest::makePreparedComponents).close();
+
+        cache.lease(fingerprint(0), ComponentReuseCacheTest::makePreparedComponents);
+
+        assertEquals(0, cache.retiredBytes());
+    }
+
+    @Test
+    public void retiredBytes_RetiredLeaseEvicted_BytesRemoved() {
+        ComponentReuseCache cache = new ComponentReuseCache(1);
+        ComponentReuseCache.Lease firstLease = cache.lease(fingerprint(0), ComponentReuseCacheTest::makeComponents);
+        ComponentReuseCache.Lease secondLease = cache.lease(
+                fingerprint(1),
+                ComponentReuseCacheTest::makePreparedComponents
+        );
+        secondLease.close();
+
+        firstLease.close();
+
+        assertEquals(0, cache.retiredBytes());
+    }
+
+    private static List<AnimationComponent> makeComponents() {
+        return ImmutableList.of(
+                new AnimationComponent.Builder()
+                        .interpolateArea(Area.of())
+                        .frames(1)
+                        .ticksUntilStart(0)
+                        .frameTimeCalculator((frame) -> 1)
+                        .frameIndexMapper((frame) -> frame)
+                        .interpolator((steps, step, start, end) -> start)
+                        .build()
+        );
+    }
+
+    private static List<AnimationComponent> makePreparedComponents() {
+        AnimationComponent component = new AnimationComponent.Builder()
+                .interpolateArea(Area.of(Point.pack(0, 0)))
+                .frames(2)
+                .ticksUntilStart(0)
+                .frameTimeCalculator((frame) -> 10)
+                .frameIndexMapper((frame) -> frame)
+                .interpolator(new DefaultAlphaInterpolator())
+                .strategy(AnimationComponent.Strategy.PRECOMPUTED)
+                .build();
+        component.prepare(List.of((x, y) -> 0, (x, y) -> 1));
+        return ImmutableList.of(component);
+    }
+
+    private static ComponentFingerprint fingerprint(long value) {
+        return new ComponentFingerprint.Builder().add(value).build();
+    }
+
+}
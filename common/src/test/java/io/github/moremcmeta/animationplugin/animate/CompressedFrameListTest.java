@@ -0,0 +1,162 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link CompressedFrameList}.
+ * @author soir20
+ */
+public final class CompressedFrameListTest {
+    private static final int WIDTH = 7;
+    private static final int HEIGHT = 5;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void compress_NullFrames_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        CompressedFrameList.compress(null, WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void compress_ZeroWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        CompressedFrameList.compress(makeFrames(2), 0, HEIGHT);
+    }
+
+    @Test
+    public void compress_ZeroHeight_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        CompressedFrameList.compress(makeFrames(2), WIDTH, 0);
+    }
+
+    @Test
+    public void get_MoreFramesThanRing_SameColorsAsOriginal() {
+        List<Frame> frames = makeFrames(CompressedFrameList.RING_SIZE * 2);
+        CompressedFrameList compressedFrames = CompressedFrameList.compress(frames, WIDTH, HEIGHT);
+
+        assertEquals(frames.size(), compressedFrames.size());
+        for (int pass = 0; pass < 2; pass++) {
+            for (int index = 0; index < frames.size(); index++) {
+                for (int y = 0; y < HEIGHT; y++) {
+                    for (int x = 0; x < WIDTH; x++) {
+                        assertEquals(frames.get(index).color(x, y), compressedFrames.get(index).color(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void copyRow_PartOfRow_SameAsSinglePixels() {
+        List<Frame> frames = makeFrames(3);
+        CompressedFrameList compressedFrames = CompressedFrameList.compress(frames, WIDTH, HEIGHT);
+
+        int[] row = new int[6];
+        compressedFrames.get(2).copyRow(2, 3, 4, row, 1);
+
+        int[] expected = new int[6];
+        frames.get(2).copyRow(2, 3, 4, expected, 1);
+        assertArrayEquals(expected, row);
+    }
+
+    @Test
+    public void expect_NullFrames_NullPointerException() {
+        CompressedFrameList compressedFrames = CompressedFrameList.compress(makeFrames(3), WIDTH, HEIGHT);
+
+        expectedException.expect(NullPointerException.class);
+        compressedFrames.expect(null);
+    }
+
+    @Test
+    public void expect_TooManyFrames_IllegalArgException() {
+        CompressedFrameList compressedFrames = CompressedFrameList.compress(makeFrames(10), WIDTH, HEIGHT);
+
+        expectedException.expect(IllegalArgumentException.class);
+        compressedFrames.expect(IntStream.rangeClosed(0, CompressedFrameList.MAX_EXPECTED_FRAMES).toArray());
+    }
+
+    @Test
+    public void expect_SeveralFrames_DecompressedInBackground() throws InterruptedException {
+        CompressedFrameList compressedFrames = CompressedFrameList.compress(makeFrames(10), WIDTH, HEIGHT);
+        assertFalse(compressedFrames.isReady(7));
+
+        compressedFrames.expect(new int[] {7, 8, 9});
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!(compressedFrames.isReady(7) && compressedFrames.isReady(8) && compressedFrames.isReady(9))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertTrue(compressedFrames.isReady(7));
+        assertTrue(compressedFrames.isReady(8));
+        assertTrue(compressedFrames.isReady(9));
+        assertFalse(compressedFrames.isReady(0));
+    }
+
+    @Test
+    public void expect_ExpectedFramesAfterOtherReads_ExpectedFramesKept() throws InterruptedException {
+        List<Frame> frames = makeFrames(20);
+        CompressedFrameList compressedFrames = CompressedFrameList.compress(frames, WIDTH, HEIGHT);
+        compressedFrames.expect(new int[] {0, 1});
+        compressedFrames.get(0).color(0, 0);
+        compressedFrames.get(1).color(0, 0);
+
+        for (int index = 2; index < frames.size(); index++) {
+            assertEquals(frames.get(index).color(1, 1), compressedFrames.get(index).color(1, 1));
+        }
+
+        assertTrue(compressedFrames.isReady(0));
+        assertTrue(compressedFrames.isReady(1));
+    }
+
+    @Test
+    public void bytes_RepeatedColors_LessThanUncompressed() {
+        List<Frame> frames = List.of((x, y) -> 0xFF00FF00, (x, y) -> 0xFFFF0000, (x, y) -> x);
+        CompressedFrameList compressedFrames = CompressedFrameList.compress(frames, 64, 64);
+
+        long uncompressedBytes = 3L * 64 * 64 * Integer.BYTES;
+        long ringBytes = (long) CompressedFrameList.RING_SIZE * 64 * 64 * Integer.BYTES;
+        assertTrue(compressedFrames.bytes() - ringBytes < uncompressedBytes / 10);
+    }
+
+    private static List<Frame> makeFrames(int count) {
+        Random random = new Random(count);
+        return IntStream.range(0, count).<Frame>mapToObj((index) -> {
+            int[] pixels = random.ints(WIDTH * HEIGHT).toArray();
+            return (x, y) -> pixels[y * WIDTH + x];
+        }).toList();
+    }
+
+}
@@ -22,7 +22,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * Tests the {@link DefaultAlphaInterpolator}.
@@ -147,4 +147,51 @@ public final class DefaultAlphaInterpolatorTest {
         assertEquals(Color.pack(117, 187, 56, 195), interpolator.interpolate(10, 8, fourthStartColor, fourthEndColor));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void interpolateRow_StepEqualsSteps_IllegalArgException() {
+        DefaultAlphaInterpolator interpolator = new DefaultAlphaInterpolator();
+        expectedException.expect(IllegalArgumentException.class);
+        interpolator.interpolate(10, 10, new int[1], new int[1], new int[1], 0, 1);
+    }
+
+    @Test
+    public void interpolateRow_MixedColors_SameAsSinglePixels() {
+        DefaultAlphaInterpolator interpolator = new DefaultAlphaInterpolator();
+        int[] start = { 0, Color.pack(25, 50, 250, 255), Color.pack(250, 25, 50, 60), 0 };
+        int[] end = { 0, Color.pack(100, 200, 0, 10), Color.pack(0, 0, 0, 0), 0 };
+        int[] output = new int[4];
+
+        interpolator.interpolate(7, 3, start, end, output, 1, 2);
+
+        assertEquals(0, output[0]);
+        assertEquals(interpolator.interpolate(7, 3, start[1], end[1]), output[1]);
+        assertEquals(interpolator.interpolate(7, 3, start[2], end[2]), output[2]);
+        assertEquals(0, output[3]);
+    }
+
+    @Test
+    public void interpolateRow_OutputIsStart_StartReplaced() {
+        DefaultAlphaInterpolator interpolator = new DefaultAlphaInterpolator();
+        int[] start = { Color.pack(25, 50, 250, 255), Color.pack(250, 25, 50, 60) };
+        int[] end = { Color.pack(100, 200, 0, 10), Color.pack(0, 0, 0, 0) };
+        int[] expected = {
+                interpolator.interpolate(4, 1, start[0], end[0]),
+                interpolator.interpolate(4, 1, start[1], end[1])
+        };
+
+        interpolator.interpolate(4, 1, start, end, start, 0, 2);
+
+        assertArrayEquals(expected, start);
+    }
+
+    @Test
+    public void needsEnd_FirstStep_False() {
+        assertFalse(new DefaultAlphaInterpolator().needsEnd(10, 0));
+    }
+
+    @Test
+    public void needsEnd_LaterStep_True() {
+        assertTrue(new DefaultAlphaInterpolator().needsEnd(10, 1));
+    }
+
+}
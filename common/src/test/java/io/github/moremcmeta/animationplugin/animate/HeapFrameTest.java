@@ -0,0 +1,115 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link HeapFrame}.
+ * @author soir20
+ */
+public final class HeapFrameTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullPixels_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new HeapFrame(null, 2);
+    }
+
+    @Test
+    public void construct_ZeroWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new HeapFrame(new int[4], 0);
+    }
+
+    @Test
+    public void construct_WidthDoesNotDividePixels_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new HeapFrame(new int[5], 2);
+    }
+
+    @Test
+    public void color_PixelInFrame_ColorFromArray() {
+        HeapFrame frame = new HeapFrame(new int[] {1, 2, 3, 4, 5, 6}, 3);
+        assertEquals(6, frame.color(2, 1));
+    }
+
+    @Test
+    public void copyRow_PartOfRow_SameAsSinglePixels() {
+        HeapFrame frame = new HeapFrame(new int[] {1, 2, 3, 4, 5, 6}, 3);
+
+        int[] row = new int[4];
+        frame.copyRow(1, 1, 2, row, 1);
+
+        assertArrayEquals(new int[] {0, 5, 6, 0}, row);
+    }
+
+    @Test
+    public void bytes_SeveralPixels_PixelsCounted() {
+        assertEquals(6 * Integer.BYTES, new HeapFrame(new int[6], 2).bytes());
+    }
+
+    @Test
+    public void copyOf_NullFrames_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        HeapFrame.copyOf(null, 2, 2);
+    }
+
+    @Test
+    public void copyOf_ZeroHeight_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        HeapFrame.copyOf(List.of((x, y) -> 0), 2, 0);
+    }
+
+    @Test
+    public void copyOf_SeveralFrames_SameColors() {
+        List<Frame> frames = List.of((x, y) -> x * 10 + y, (x, y) -> y * 10 + x);
+        List<HeapFrame> heapFrames = HeapFrame.copyOf(frames, 3, 4);
+
+        assertEquals(2, heapFrames.size());
+        assertNotSame(heapFrames.get(0), heapFrames.get(1));
+        for (int frame = 0; frame < 2; frame++) {
+            for (int y = 0; y < 4; y++) {
+                for (int x = 0; x < 3; x++) {
+                    assertEquals(frames.get(frame).color(x, y), heapFrames.get(frame).color(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void copyOf_SameFrameTwice_FrameCopiedOnce() {
+        Frame frame = (x, y) -> x + y;
+        List<HeapFrame> heapFrames = HeapFrame.copyOf(List.of(frame, frame), 3, 4);
+
+        assertSame(heapFrames.get(0), heapFrames.get(1));
+    }
+
+}
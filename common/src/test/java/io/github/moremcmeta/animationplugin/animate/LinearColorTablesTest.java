@@ -0,0 +1,57 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link LinearColorTables}.
+ * @author soir20
+ */
+public final class LinearColorTablesTest {
+
+    @Test
+    public void toLinear_Black_Zero() {
+        assertEquals(0, LinearColorTables.toLinear(0), 0);
+    }
+
+    @Test
+    public void toLinear_White_One() {
+        assertEquals(1, LinearColorTables.toLinear(255), 1e-12);
+    }
+
+    @Test
+    public void toLinear_Middle_Darker() {
+        assertEquals(0.2158605, LinearColorTables.toLinear(128), 1e-6);
+    }
+
+    @Test
+    public void toSrgb_HalfLinear_AboveMiddle() {
+        assertEquals(188, LinearColorTables.toSrgb(0.5));
+    }
+
+    @Test
+    public void toSrgb_AllConvertedToLinear_SameValue() {
+        for (int srgb = 0; srgb < 256; srgb++) {
+            assertEquals(srgb, LinearColorTables.toSrgb(LinearColorTables.toLinear(srgb)));
+        }
+    }
+
+}
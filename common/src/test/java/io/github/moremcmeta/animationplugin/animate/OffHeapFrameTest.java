@@ -0,0 +1,120 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link OffHeapFrame}.
+ * @author soir20
+ */
+public final class OffHeapFrameTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullPixels_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new OffHeapFrame(null, 0, 0, 10);
+    }
+
+    @Test
+    public void construct_NegativeMinX_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new OffHeapFrame(makePixels(10, 10), -1, 0, 10);
+    }
+
+    @Test
+    public void construct_NegativeMinY_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new OffHeapFrame(makePixels(10, 10), 0, -1, 10);
+    }
+
+    @Test
+    public void construct_ZeroStride_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new OffHeapFrame(makePixels(10, 10), 0, 0, 0);
+    }
+
+    @Test
+    public void color_FrameAtOrigin_ColorAtCoordinate() {
+        OffHeapFrame frame = new OffHeapFrame(makePixels(10, 20), 0, 0, 10);
+        assertEquals(colorAt(3, 4), frame.color(3, 4));
+    }
+
+    @Test
+    public void color_FrameOffsetInImage_ColorRelativeToCorner() {
+        OffHeapFrame frame = new OffHeapFrame(makePixels(10, 20), 5, 10, 10);
+        assertEquals(colorAt(7, 14), frame.color(2, 4));
+    }
+
+    @Test
+    public void color_OutsideBuffer_IndexOutOfBoundsException() {
+        OffHeapFrame frame = new OffHeapFrame(makePixels(10, 20), 5, 10, 10);
+        expectedException.expect(IndexOutOfBoundsException.class);
+        frame.color(0, 10);
+    }
+
+    @Test
+    public void copyRow_FrameOffsetInImage_RowRelativeToCorner() {
+        OffHeapFrame frame = new OffHeapFrame(makePixels(10, 20), 5, 10, 10);
+        int[] row = new int[6];
+
+        frame.copyRow(1, 4, 3, row, 2);
+
+        assertEquals(0, row[1]);
+        assertEquals(colorAt(6, 14), row[2]);
+        assertEquals(colorAt(7, 14), row[3]);
+        assertEquals(colorAt(8, 14), row[4]);
+        assertEquals(0, row[5]);
+    }
+
+    @Test
+    public void copyRow_OutsideBuffer_IndexOutOfBoundsException() {
+        OffHeapFrame frame = new OffHeapFrame(makePixels(10, 20), 5, 10, 10);
+        expectedException.expect(IndexOutOfBoundsException.class);
+        frame.copyRow(0, 9, 6, new int[6], 0);
+    }
+
+    private static IntBuffer makePixels(int width, int height) {
+        IntBuffer pixels = ByteBuffer.allocateDirect(width * height * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels.put(y * width + x, colorAt(x, y));
+            }
+        }
+
+        return pixels;
+    }
+
+    private static int colorAt(int x, int y) {
+        return x * 1000 + y;
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PaletteFrame}.
+ * @author soir20
+ */
+public final class PaletteFrameTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void fromFrames_NullFrames_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        PaletteFrame.fromFrames(null, 2, 2);
+    }
+
+    @Test
+    public void fromFrames_ZeroWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrame.fromFrames(List.of((x, y) -> 0), 0, 2);
+    }
+
+    @Test
+    public void fromFrames_ZeroHeight_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrame.fromFrames(List.of((x, y) -> 0), 2, 0);
+    }
+
+    @Test
+    public void fromFrames_FewColors_SameColors() {
+        List<Frame> frames = List.of((x, y) -> x * 10 + y, (x, y) -> y * 10 + x);
+        List<PaletteFrame> paletteFrames = PaletteFrame.fromFrames(frames, 3, 4).orElseThrow();
+
+        assertEquals(2, paletteFrames.size());
+        for (int frame = 0; frame < 2; frame++) {
+            for (int y = 0; y < 4; y++) {
+                for (int x = 0; x < 3; x++) {
+                    assertEquals(frames.get(frame).color(x, y), paletteFrames.get(frame).color(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fromFrames_MaxColors_PaletteFramesCreated() {
+        Optional<List<PaletteFrame>> paletteFrames = PaletteFrame.fromFrames(
+                List.of((x, y) -> y * 16 + x),
+                16,
+                16
+        );
+
+        assertTrue(paletteFrames.isPresent());
+        assertEquals(PaletteFrame.MAX_COLORS, paletteFrames.get().get(0).paletteSize());
+        assertEquals(255, paletteFrames.get().get(0).color(15, 15));
+    }
+
+    @Test
+    public void fromFrames_TooManyColorsAcrossFrames_Empty() {
+        Optional<List<PaletteFrame>> paletteFrames = PaletteFrame.fromFrames(
+                List.of((x, y) -> y * 16 + x, (x, y) -> 1000),
+                16,
+                16
+        );
+
+        assertFalse(paletteFrames.isPresent());
+    }
+
+    @Test
+    public void fromFrames_SeveralFrames_PaletteShared() {
+        List<PaletteFrame> paletteFrames = PaletteFrame.fromFrames(
+                List.of((x, y) -> 5, (x, y) -> 7),
+                2,
+                2
+        ).orElseThrow();
+
+        assertTrue(paletteFrames.get(0).sharesPalette(paletteFrames.get(1)));
+        assertEquals(2, paletteFrames.get(0).paletteSize());
+        assertEquals(7, paletteFrames.get(1).paletteColor(paletteFrames.get(1).paletteIndex(1, 1)));
+    }
+
+    @Test
+    public void fromFrames_SameFrameTwice_FrameConvertedOnce() {
+        Frame frame = (x, y) -> x + y;
+        List<PaletteFrame> paletteFrames = PaletteFrame.fromFrames(List.of(frame, frame), 4, 3).orElseThrow();
+
+        assertSame(paletteFrames.get(0), paletteFrames.get(1));
+        assertEquals(12 + 6 * Integer.BYTES, PaletteFrame.bytes(paletteFrames));
+    }
+
+    @Test
+    public void sharesPalette_DifferentPalettes_False() {
+        PaletteFrame first = PaletteFrame.fromFrames(List.of((x, y) -> 5), 2, 2).orElseThrow().get(0);
+        PaletteFrame second = PaletteFrame.fromFrames(List.of((x, y) -> 5), 2, 2).orElseThrow().get(0);
+
+        assertFalse(first.sharesPalette(second));
+    }
+
+    @Test
+    public void copyRow_PartOfRow_SameAsSinglePixels() {
+        PaletteFrame frame = PaletteFrame.fromFrames(List.of((x, y) -> x * 10 + y), 5, 3).orElseThrow().get(0);
+
+        int[] row = new int[5];
+        frame.copyRow(1, 2, 3, row, 2);
+
+        assertArrayEquals(new int[] {0, 0, 12, 22, 32}, row);
+    }
+
+    @Test
+    public void bytes_SeveralFrames_IndicesAndPaletteCounted() {
+        List<PaletteFrame> paletteFrames = PaletteFrame.fromFrames(
+                List.of((x, y) -> x, (x, y) -> y),
+                4,
+                3
+        ).orElseThrow();
+
+        assertEquals(2 * 12 + 4 * Integer.BYTES, PaletteFrame.bytes(paletteFrames));
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link QualityGovernor}.
+ * @author soir20
+ */
+public final class QualityGovernorTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_ZeroBudget_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new QualityGovernor(0, 1, 1, System::nanoTime);
+    }
+
+    @Test
+    public void construct_ZeroDegradeTicks_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new QualityGovernor(100, 0, 1, System::nanoTime);
+    }
+
+    @Test
+    public void construct_ZeroRestoreTicks_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new QualityGovernor(100, 1, 0, System::nanoTime);
+    }
+
+    @Test
+    public void construct_NullClock_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new QualityGovernor(100, 1, 1, null);
+    }
+
+    @Test
+    public void join_NewTexture_FullQuality() {
+        QualityGovernor governor = new QualityGovernor(100, 1, 1, System::nanoTime);
+
+        QualityGovernor.Member member = governor.join(5);
+
+        assertEquals(5, member.textureId());
+        assertEquals(AnimationComponent.Quality.FULL, member.quality());
+        assertEquals(List.of(member), governor.members());
+    }
+
+    @Test
+    public void endTick_OverBudgetNotLongEnough_QualityUnchanged() {
+        AtomicLong time = new AtomicLong();
+        QualityGovernor governor = new QualityGovernor(100, 3, 1, time::get);
+        QualityGovernor.Member member = governor.join(0);
+
+        for (int tick = 0; tick < 3; tick++) {
+            tick(time, member, 150);
+        }
+
+        assertEquals(150, governor.lastTickNanos());
+        assertEquals(AnimationComponent.Quality.FULL, member.quality());
+    }
+
+    @Test
+    public void endTick_OverBudgetLongEnough_MostExpensiveLowered() {
+        AtomicLong time = new AtomicLong();
+        QualityGovernor governor = new QualityGovernor(100, 3, 1, time::get);
+        QualityGovernor.Member cheap = governor.join(0);
+        QualityGovernor.Member expensive = governor.join(1);
+
+        for (int tick = 0; tick < 4; tick++) {
+            tick(time, cheap, 40);
+            tick(time, expensive, 80);
+        }
+
+        assertEquals(120, governor.lastTickNanos());
+        assertEquals(AnimationComponent.Quality.FULL, cheap.quality());
+        assertEquals(AnimationComponent.Quality.HALF_RATE, expensive.quality());
+    }
+
+    @Test
+    public void endTick_LowestQuality_NextMostExpensiveLowered() {
+        AtomicLong time = new AtomicLong();
+        QualityGovernor governor = new QualityGovernor(100, 1, 1, time::get);
+        QualityGovernor.Member cheap = governor.join(0);
+        QualityGovernor.Member expensive = governor.join(1);
+
+        for (int tick = 0; tick < 5; tick++) {
+            tick(time, cheap, 40);
+            tick(time, expensive, 80);
+        }
+
+        assertEquals(AnimationComponent.Quality.HALF_RATE, cheap.quality());
+        assertEquals(AnimationComponent.Quality.STEPPED, expensive.quality());
+    }
+
+    @Test
+    public void endTick_BetweenHalfAndFullBudget_QualityUnchanged() {
+        AtomicLong time = new AtomicLong();
+        QualityGovernor governor = new QualityGovernor(100, 1, 1, time::get);
+        QualityGovernor.Member member = governor.join(0);
+
+        tick(time, member, 150);
+        tick(time, member, 70);
+        for (int tick = 0; tick < 10; tick++) {
+            tick(time, member, 70);
+        }
+
+        assertEquals(AnimationComponent.Quality.HALF_RATE, member.quality());
+    }
+
+    @Test
+    public void endTick_UnderHalfBudgetLongEnough_LastLoweredRestoredFirst() {
+        AtomicLong time = new AtomicLong();
+        QualityGovernor governor = new QualityGovernor(100, 1, 3, time::get);
+        QualityGovernor.Member first = governor.join(0);
+        QualityGovernor.Member second = governor.join(1);
+
+        tick(time, first, 200);
+        tick(time, second, 10);
+        tick(time, first, 10);
+        tick(time, second, 200);
+        tick(time, first, 10);
+        tick(time, second, 10);
+        assertEquals(AnimationComponent.Quality.HALF_RATE, first.quality());
+        assertEquals(AnimationComponent.Quality.HALF_RATE, second.quality());
+
+        for (int tick = 0; tick < 3; tick++) {
+            tick(time, first, 10);
+            tick(time, second, 10);
+        }
+
+        assertEquals(AnimationComponent.Quality.HALF_RATE, first.quality());
+        assertEquals(AnimationComponent.Quality.FULL, second.quality());
+    }
+
+    @Test
+    public void leave_LoweredTexture_NotRestoredOrCounted() {
+        AtomicLong time = new AtomicLong();
+        QualityGovernor governor = new QualityGovernor(100, 1, 1, time::get);
+        QualityGovernor.Member member = governor.join(0);
+        QualityGovernor.Member other = governor.join(1);
+
+        tick(time, member, 200);
+        tick(time, member, 0);
+        member.leave();
+        tick(time, member, 1000);
+        tick(time, other, 0);
+        tick(time, other, 0);
+
+        assertEquals(List.of(other), governor.members());
+        assertEquals(AnimationComponent.Quality.HALF_RATE, member.quality());
+        assertEquals(0, governor.lastTickNanos());
+    }
+
+    @Test
+    public void unlimited_VeryExpensiveTicks_QualityNeverLowered() {
+        QualityGovernor governor = QualityGovernor.unlimited();
+        QualityGovernor.Member member = governor.join(0);
+
+        for (int tick = 0; tick < 10; tick++) {
+            member.beginTick();
+            member.endTick();
+        }
+
+        assertEquals(AnimationComponent.Quality.FULL, member.quality());
+    }
+
+    private static void tick(AtomicLong time, QualityGovernor.Member member, long nanos) {
+        member.beginTick();
+        time.addAndGet(nanos);
+        member.endTick();
+    }
+
+}
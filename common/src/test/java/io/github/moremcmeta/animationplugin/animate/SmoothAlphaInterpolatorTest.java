@@ -22,6 +22,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -147,4 +150,69 @@ public final class SmoothAlphaInterpolatorTest {
         assertEquals(Color.pack(117, 187, 56, 217), interpolator.interpolate(10, 8, fourthStartColor, fourthEndColor));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void interpolate_LinearBlackToWhiteMidpoint_BrighterThanSrgbMidpoint() {
+        SmoothAlphaInterpolator interpolator = new SmoothAlphaInterpolator(true, false);
+        int midpoint = interpolator.interpolate(2, 1, Color.pack(0, 0, 0, 255), Color.pack(255, 255, 255, 255));
+
+        assertEquals(Color.pack(188, 188, 188, 255), midpoint);
+    }
+
+    @Test
+    public void interpolate_PremultipliedFromTransparent_NoColorBleed() {
+        SmoothAlphaInterpolator interpolator = new SmoothAlphaInterpolator(false, true);
+        int midpoint = interpolator.interpolate(2, 1, Color.pack(255, 0, 0, 0), Color.pack(0, 0, 255, 255));
+
+        assertEquals(Color.pack(0, 0, 255, 127), midpoint);
+    }
+
+    @Test
+    public void interpolate_PremultipliedPartlyTransparent_WeightedByAlpha() {
+        SmoothAlphaInterpolator interpolator = new SmoothAlphaInterpolator(false, true);
+        int midpoint = interpolator.interpolate(2, 1, Color.pack(200, 0, 0, 50), Color.pack(0, 0, 200, 150));
+
+        assertEquals(Color.pack(50, 0, 150, 100), midpoint);
+    }
+
+    @Test
+    public void interpolate_PremultipliedBothTransparent_ColorsMixed() {
+        SmoothAlphaInterpolator interpolator = new SmoothAlphaInterpolator(false, true);
+        int midpoint = interpolator.interpolate(2, 1, Color.pack(200, 0, 0, 0), Color.pack(0, 0, 200, 0));
+
+        assertEquals(Color.pack(100, 0, 100, 0), midpoint);
+    }
+
+    @Test
+    public void interpolate_AllModesFirstStep_StartColor() {
+        Random random = new Random(36);
+        List<SmoothAlphaInterpolator> interpolators = List.of(
+                new SmoothAlphaInterpolator(true, false),
+                new SmoothAlphaInterpolator(false, true),
+                new SmoothAlphaInterpolator(true, true)
+        );
+
+        for (int index = 0; index < 1000; index++) {
+            int start = random.nextInt();
+            int end = random.nextInt();
+            for (SmoothAlphaInterpolator interpolator : interpolators) {
+                assertEquals(start, interpolator.interpolate(5, 0, start, end));
+            }
+        }
+    }
+
+    @Test
+    public void interpolateRow_LinearPremultiplied_SameAsSinglePixels() {
+        SmoothAlphaInterpolator interpolator = new SmoothAlphaInterpolator(true, true);
+        Random random = new Random(3);
+        int[] start = random.ints(20).toArray();
+        int[] end = random.ints(20).toArray();
+        int[] output = new int[20];
+
+        interpolator.interpolate(6, 4, start, end, output, 0, 20);
+
+        for (int index = 0; index < 20; index++) {
+            assertEquals(interpolator.interpolate(6, 4, start[index], end[index]), output[index]);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link StartColorInterpolator}.
+ * @author soir20
+ */
+public final class StartColorInterpolatorTest {
+
+    @Test
+    public void interpolate_AnyStep_StartColor() {
+        assertEquals(0xFF00FF00, new StartColorInterpolator().interpolate(10, 5, 0xFF00FF00, 0x000000FF));
+    }
+
+    @Test
+    public void interpolateRow_AnyStep_StartColorsCopied() {
+        int[] start = { 1, 2, 3, 4 };
+        int[] output = new int[4];
+
+        new StartColorInterpolator().interpolate(10, 5, start, new int[4], output, 1, 2);
+
+        assertArrayEquals(new int[] { 0, 2, 3, 0 }, output);
+    }
+
+    @Test
+    public void needsEnd_AnyStep_False() {
+        assertFalse(new StartColorInterpolator().needsEnd(10, 5));
+    }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link TimingWheel}.
+ * @author soir20
+ */
+public final class TimingWheelTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeCapacity_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new TimingWheel(-1, 0);
+    }
+
+    @Test
+    public void schedule_ItemOutsideCapacity_IllegalArgException() {
+        TimingWheel wheel = new TimingWheel(2, 0);
+        expectedException.expect(IllegalArgumentException.class);
+        wheel.schedule(2, 5);
+    }
+
+    @Test
+    public void schedule_DueAtCurrentTick_IllegalArgException() {
+        TimingWheel wheel = new TimingWheel(2, 10);
+        expectedException.expect(IllegalArgumentException.class);
+        wheel.schedule(0, 10);
+    }
+
+    @Test
+    public void schedule_AlreadyScheduled_IllegalStateException() {
+        TimingWheel wheel = new TimingWheel(2, 0);
+        wheel.schedule(0, 5);
+        expectedException.expect(IllegalStateException.class);
+        wheel.schedule(0, 6);
+    }
+
+    @Test
+    public void advance_NullDueItems_NullPointerException() {
+        TimingWheel wheel = new TimingWheel(2, 0);
+        expectedException.expect(NullPointerException.class);
+        wheel.advance(1, null);
+    }
+
+    @Test
+    public void advance_OneTickAtATime_ItemsDueOnlyAtTheirTicks() {
+        TimingWheel wheel = new TimingWheel(3, 0);
+        wheel.schedule(0, 3);
+        wheel.schedule(1, 1);
+        wheel.schedule(2, 3);
+
+        for (long tick = 1; tick <= 5; tick++) {
+            BitSet due = new BitSet();
+            wheel.advance(tick, due);
+
+            assertEquals(tick == 1, due.get(1));
+            assertEquals(tick == 3, due.get(0));
+            assertEquals(tick == 3, due.get(2));
+        }
+
+        assertFalse(wheel.isScheduled(0));
+        assertFalse(wheel.isScheduled(1));
+        assertFalse(wheel.isScheduled(2));
+    }
+
+    @Test
+    public void advance_DelaysInHigherLevels_ItemsDueAtExactTicks() {
+        long[] dueTicks = { 63, 64, 65, 4095, 4096, 5000, 262143, 262144, 300001 };
+        TimingWheel wheel = new TimingWheel(dueTicks.length, 0);
+        for (int item = 0; item < dueTicks.length; item++) {
+            wheel.schedule(item, dueTicks[item]);
+        }
+
+        long[] firedTicks = new long[dueTicks.length];
+        BitSet due = new BitSet();
+        for (long tick = 1; tick <= 300001; tick++) {
+            wheel.advance(tick, due);
+            for (int item = due.nextSetBit(0); item >= 0; item = due.nextSetBit(item + 1)) {
+                firedTicks[item] = tick;
+            }
+
+            due.clear();
+        }
+
+        for (int item = 0; item < dueTicks.length; item++) {
+            assertEquals(dueTicks[item], firedTicks[item]);
+        }
+    }
+
+    @Test
+    public void advance_WheelStartsNearLevelBoundary_ItemsDueAtExactTicks() {
+        TimingWheel wheel = new TimingWheel(2, 4090);
+        wheel.schedule(0, 4100);
+        wheel.schedule(1, 4096 + 64);
+
+        BitSet due = new BitSet();
+        for (long tick = 4091; tick < 4100; tick++) {
+            wheel.advance(tick, due);
+        }
+        assertTrue(due.isEmpty());
+
+        wheel.advance(4100, due);
+        assertTrue(due.get(0));
+        assertFalse(due.get(1));
+
+        due.clear();
+        for (long tick = 4101; tick < 4160; tick++) {
+            wheel.advance(tick, due);
+        }
+        assertTrue(due.isEmpty());
+
+        wheel.advance(4160, due);
+        assertTrue(due.get(1));
+    }
+
+    @Test
+    public void advance_LargeJump_PassedItemsDueAndOthersKept() {
+        TimingWheel wheel = new TimingWheel(3, 0);
+        wheel.schedule(0, 10);
+        wheel.schedule(1, 1000);
+        wheel.schedule(2, 2000);
+
+        BitSet due = new BitSet();
+        wheel.advance(1500, due);
+
+        assertTrue(due.get(0));
+        assertTrue(due.get(1));
+        assertFalse(due.get(2));
+        assertTrue(wheel.isScheduled(2));
+        assertEquals(1500, wheel.currentTick());
+
+        due.clear();
+        for (long tick = 1501; tick < 2000; tick++) {
+            wheel.advance(tick, due);
+        }
+        assertTrue(due.isEmpty());
+
+        wheel.advance(2000, due);
+        assertTrue(due.get(2));
+    }
+
+    @Test
+    public void advance_BackwardsOrSameTick_NothingDue() {
+        TimingWheel wheel = new TimingWheel(1, 10);
+        wheel.schedule(0, 11);
+
+        BitSet due = new BitSet();
+        wheel.advance(5, due);
+        wheel.advance(10, due);
+
+        assertTrue(due.isEmpty());
+        assertEquals(10, wheel.currentTick());
+    }
+
+    @Test
+    public void schedule_DelayLongerThanWheel_DueAtEndOfSpan() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        wheel.schedule(0, Long.MAX_VALUE);
+
+        BitSet due = new BitSet();
+        wheel.advance((1L << 24) - 2, due);
+        assertTrue(due.isEmpty());
+
+        wheel.advance((1L << 24) - 1, due);
+        assertTrue(due.get(0));
+    }
+
+    @Test
+    public void cancel_ItemScheduled_ItemNotDue() {
+        TimingWheel wheel = new TimingWheel(2, 0);
+        wheel.schedule(0, 5);
+        wheel.schedule(1, 5);
+        wheel.cancel(0);
+
+        BitSet due = new BitSet();
+        wheel.advance(5, due);
+
+        assertFalse(due.get(0));
+        assertTrue(due.get(1));
+        assertFalse(wheel.isScheduled(0));
+    }
+
+    @Test
+    public void cancel_ItemCascaded_ItemNotDue() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        wheel.schedule(0, 1000);
+
+        BitSet due = new BitSet();
+        wheel.advance(990, due);
+        wheel.cancel(0);
+        wheel.advance(1000, due);
+
+        assertTrue(due.isEmpty());
+    }
+
+    @Test
+    public void cancel_ItemNotScheduled_NothingChanged() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        wheel.cancel(0);
+        wheel.schedule(0, 3);
+
+        BitSet due = new BitSet();
+        wheel.advance(3, due);
+
+        assertTrue(due.get(0));
+    }
+
+    @Test
+    public void clear_ItemsScheduled_NothingDue() {
+        TimingWheel wheel = new TimingWheel(2, 0);
+        wheel.schedule(0, 1);
+        wheel.schedule(1, 100);
+        wheel.clear();
+
+        BitSet due = new BitSet();
+        wheel.advance(1, due);
+        wheel.advance(200, due);
+
+        assertTrue(due.isEmpty());
+        assertFalse(wheel.isScheduled(1));
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests the {@link VectorSupport}. The plugin's tests run without the Vector API module, like the game
+ * does by default.
+ * @author soir20
+ */
+public final class VectorSupportTest {
+
+    @Test
+    public void rowMixer_ModuleNotLoaded_ScalarPathUsed() {
+        assertFalse(VectorSupport.isAvailable());
+        assertFalse(VectorSupport.rowMixer(false).isPresent());
+        assertFalse(VectorSupport.rowMixer(true).isPresent());
+    }
+
+}
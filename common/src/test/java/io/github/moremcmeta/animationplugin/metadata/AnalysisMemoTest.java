@@ -0,0 +1,227 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.moremcmeta.animationplugin.MockMetadataView;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataView;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link AnalysisMemo}.
+ * @author soir20
+ */
+public final class AnalysisMemoTest {
+    private static final AnimationGroupMetadata FIRST = new AnimationGroupMetadata(1, 1, List.of());
+    private static final AnimationGroupMetadata SECOND = new AnimationGroupMetadata(2, 2, List.of());
+    private static final AnimationGroupMetadata THIRD = new AnimationGroupMetadata(3, 3, List.of());
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeMaxEntries_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AnalysisMemo(-1);
+    }
+
+    @Test
+    public void key_NullMetadata_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        AnalysisMemo.key(null, 10, 10);
+    }
+
+    @Test
+    public void key_HasParts_Empty() {
+        MetadataView metadata = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of())
+        ));
+
+        assertFalse(AnalysisMemo.key(metadata, 10, 10).isPresent());
+    }
+
+    @Test
+    public void key_SameContents_Equal() {
+        assertEquals(
+                AnalysisMemo.key(makeMetadata(5, "a"), 10, 20),
+                AnalysisMemo.key(makeMetadata(5, "a"), 10, 20)
+        );
+    }
+
+    @Test
+    public void key_DifferentValue_NotEqual() {
+        assertNotEquals(
+                AnalysisMemo.key(makeMetadata(5, "a"), 10, 20),
+                AnalysisMemo.key(makeMetadata(6, "a"), 10, 20)
+        );
+    }
+
+    @Test
+    public void key_DifferentNestedValue_NotEqual() {
+        assertNotEquals(
+                AnalysisMemo.key(makeMetadata(5, "a"), 10, 20),
+                AnalysisMemo.key(makeMetadata(5, "b"), 10, 20)
+        );
+    }
+
+    @Test
+    public void key_DifferentImageSize_NotEqual() {
+        assertNotEquals(
+                AnalysisMemo.key(makeMetadata(5, "a"), 10, 20),
+                AnalysisMemo.key(makeMetadata(5, "a"), 20, 10)
+        );
+    }
+
+    @Test
+    public void key_SameValueDifferentType_NotEqual() {
+        assertNotEquals(
+                AnalysisMemo.key(new MockMetadataView(ImmutableMap.of("time", 5)), 10, 20),
+                AnalysisMemo.key(new MockMetadataView(ImmutableMap.of("time", "5")), 10, 20)
+        );
+    }
+
+    @Test
+    public void get_NotAdded_Empty() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+        assertFalse(memo.get(key(1)).isPresent());
+    }
+
+    @Test
+    public void get_Added_SameMetadata() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+        memo.put(key(1), FIRST);
+
+        assertSame(FIRST, memo.get(key(1)).orElseThrow());
+    }
+
+    @Test
+    public void put_NullMetadata_NullPointerException() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+
+        expectedException.expect(NullPointerException.class);
+        memo.put(key(1), null);
+    }
+
+    @Test
+    public void put_MoreThanMaxEntries_LeastRecentlyUsedRemoved() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+        memo.put(key(1), FIRST);
+        memo.put(key(2), SECOND);
+        memo.get(key(1));
+        memo.put(key(3), THIRD);
+
+        assertEquals(2, memo.size());
+        assertTrue(memo.get(key(1)).isPresent());
+        assertFalse(memo.get(key(2)).isPresent());
+        assertTrue(memo.get(key(3)).isPresent());
+    }
+
+    @Test
+    public void put_ZeroMaxEntries_NothingRemembered() {
+        AnalysisMemo memo = new AnalysisMemo(0);
+        memo.put(key(1), FIRST);
+
+        assertEquals(0, memo.size());
+    }
+
+    @Test
+    public void get_NullKey_NullPointerException() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+
+        expectedException.expect(NullPointerException.class);
+        memo.get(null);
+    }
+
+    @Test
+    public void put_NullKey_NullPointerException() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+
+        expectedException.expect(NullPointerException.class);
+        memo.put(null, FIRST);
+    }
+
+    @Test
+    public void get_SameHashDifferentContents_Empty() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+        memo.put(new AnalysisMemo.Key(10, 20, List.of("a"), 1), FIRST);
+
+        assertFalse(memo.get(new AnalysisMemo.Key(10, 20, List.of("b"), 1)).isPresent());
+    }
+
+    @Test
+    public void get_SameHashDifferentImageSize_Empty() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+        memo.put(new AnalysisMemo.Key(10, 20, List.of("a"), 1), FIRST);
+
+        assertFalse(memo.get(new AnalysisMemo.Key(20, 10, List.of("a"), 1)).isPresent());
+    }
+
+    @Test
+    public void get_EqualKeyFromSameMetadata_SameMetadata() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+        memo.put(AnalysisMemo.key(makeMetadata(5, "a"), 10, 20).orElseThrow(), FIRST);
+
+        assertSame(FIRST, memo.get(AnalysisMemo.key(makeMetadata(5, "a"), 10, 20).orElseThrow()).orElseThrow());
+    }
+
+    @Test
+    public void clear_EntriesAdded_EntriesForgotten() {
+        AnalysisMemo memo = new AnalysisMemo(2);
+        memo.put(key(1), FIRST);
+        memo.put(key(2), SECOND);
+        memo.clear();
+
+        assertEquals(0, memo.size());
+        assertFalse(memo.get(key(1)).isPresent());
+    }
+
+    /**
+     * Creates metadata with a top-level value and a nested value.
+     * @param time      top-level value
+     * @param name      nested value
+     * @return the metadata
+     */
+    private static MetadataView makeMetadata(int time, String name) {
+        return new MockMetadataView(ImmutableMap.of(
+                "frametime", time,
+                "frames", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of("name", name))
+                ))
+        ));
+    }
+
+    /**
+     * Creates a key for metadata with the given top-level value.
+     * @param time      top-level value
+     * @return key for the metadata
+     */
+    private static AnalysisMemo.Key key(int time) {
+        return AnalysisMemo.key(makeMetadata(time, "a"), 10, 20).orElseThrow();
+    }
+
+}
@@ -23,8 +23,13 @@ import io.github.moremcmeta.animationplugin.MockCurrentFrameView;
 import io.github.moremcmeta.animationplugin.MockMutableFrameGroup;
 import io.github.moremcmeta.animationplugin.MockMutableFrameView;
 import io.github.moremcmeta.animationplugin.MockPersistentFrameGroup;
+import io.github.moremcmeta.animationplugin.animate.ComponentReuseCache;
 import io.github.moremcmeta.animationplugin.animate.DefaultAlphaInterpolator;
+import io.github.moremcmeta.animationplugin.animate.QualityGovernor;
 import io.github.moremcmeta.animationplugin.animate.SmoothAlphaInterpolator;
+import io.github.moremcmeta.animationplugin.profile.ComponentBuildEvent;
+import io.github.moremcmeta.animationplugin.profile.ComponentPlanEvent;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
 import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
 import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
@@ -34,20 +39,30 @@ import io.github.moremcmeta.moremcmeta.api.client.texture.TextureComponent;
 import io.github.moremcmeta.moremcmeta.api.math.Area;
 import io.github.moremcmeta.moremcmeta.api.math.Point;
 import it.unimi.dsi.fastutil.ints.IntIntPair;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static io.github.moremcmeta.animationplugin.animate.AnimationComponentTest.indexToColor;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests the {@link AnimationComponentBuilder}.
@@ -59,6 +74,13 @@ public final class AnimationComponentBuilderTest {
             new MockMutableFrameView(Pair.of(Color.pack(20, 20, 20, 20), Area.of(Point.pack(0, 1), Point.pack(0, 0)))),
             new MockMutableFrameView(Pair.of(Color.pack(30, 30, 30, 30), Area.of(Point.pack(0, 1), Point.pack(9, 19))))
     );
+
+    // Components prepare their steps from the frames they are built with, so they must match the ticked frames
+    private static final Supplier<MockMutableFrameGroup> UNIFORM_FRAME_GROUP = () -> new MockMutableFrameGroup(
+            new MockMutableFrameView(indexToColor(0)),
+            new MockMutableFrameView(indexToColor(1)),
+            new MockMutableFrameView(indexToColor(2))
+    );
     private static final List<IntIntPair> LARGE_MOCK_FRAME_LIST = List.of(
             IntIntPair.of(0, 1),
             IntIntPair.of(2, 5),
@@ -74,45 +96,86 @@ public final class AnimationComponentBuilderTest {
     public final ExpectedException expectedException = ExpectedException.none();
 
     @Test
-    public void construct_NullLevelSupplier_NullPointerException() {
+    public void construct_NullTimeSource_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationComponentBuilder(null, new MemoryTracker(), new ComponentReuseCache());
+    }
+
+    @Test
+    public void construct_NullMemoryTracker_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationComponentBuilder(Optional::empty, null, new ComponentReuseCache());
+    }
+
+    @Test
+    public void construct_NullReuseCache_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationComponentBuilder(Optional::empty, new MemoryTracker(), null);
+    }
+
+    @Test
+    public void construct_NullBuildExecutor_NullPointerException() {
         expectedException.expect(NullPointerException.class);
-        new AnimationComponentBuilder(null);
+        new AnimationComponentBuilder(Optional::empty, new MemoryTracker(), new ComponentReuseCache(), null);
+    }
+
+    @Test
+    public void construct_NullSettings_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationComponentBuilder(Optional::empty, new MemoryTracker(), new ComponentReuseCache(), Runnable::run,
+                QualityGovernor.unlimited(), null);
     }
 
     @Test
     public void build_NullMetadata_NullPointerException() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         expectedException.expect(NullPointerException.class);
         builder.build(null, MOCK_FRAME_GROUP.get());
     }
 
     @Test
     public void build_NullFrameGroup_NullPointerException() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         expectedException.expect(NullPointerException.class);
         builder.build(new AnimationGroupMetadata(10, 20, ImmutableList.of()), null);
     }
 
     @Test
     public void build_WrongClassMetadata_IllegalArgException() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         expectedException.expect(IllegalArgumentException.class);
         builder.build(new AnalyzedMetadata() {}, MOCK_FRAME_GROUP.get());
     }
 
     @Test
     public void build_NotSyncedNoPredefinedFrames_DefaultFrameTimeUsed() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         int time = 33;
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, time, true, false, ImmutableList.of(),
+                                new AnimationMetadata(10, 20, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
-                MOCK_FRAME_GROUP.get()
+                UNIFORM_FRAME_GROUP.get()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -128,17 +191,21 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_NotSyncedHasMorePredefinedFramesThanActualFrames_PredefinedFrameTimeUsed() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
 
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, 33, true, false, LARGE_MOCK_FRAME_LIST,
+                                new AnimationMetadata(10, 20, 33, true, false, false, false, LARGE_MOCK_FRAME_LIST,
                                         0, false, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
-                MOCK_FRAME_GROUP.get()
+                UNIFORM_FRAME_GROUP.get()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -158,17 +225,21 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_NotSyncedHasFewerPredefinedFramesThanActualFrames_PredefinedFrameTimeUsed() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
 
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, 33, true, false, SMALL_MOCK_FRAME_LIST,
+                                new AnimationMetadata(10, 20, 33, true, false, false, false, SMALL_MOCK_FRAME_LIST,
                                         0, false, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
-                MOCK_FRAME_GROUP.get()
+                UNIFORM_FRAME_GROUP.get()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -188,17 +259,21 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_SyncedNoPredefinedFrames_DefaultFrameTimeUsed() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         int time = 33;
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, time, true, false, ImmutableList.of(),
+                                new AnimationMetadata(10, 20, time, true, false, false, false, ImmutableList.of(),
                                         0, true, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
-                MOCK_FRAME_GROUP.get()
+                UNIFORM_FRAME_GROUP.get()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -213,17 +288,21 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_SyncedHasMorePredefinedFramesThanActualFrames_PredefinedFrameTimeUsed() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
 
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, 33, true, false, LARGE_MOCK_FRAME_LIST,
+                                new AnimationMetadata(10, 20, 33, true, false, false, false, LARGE_MOCK_FRAME_LIST,
                                         0, true, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
-                MOCK_FRAME_GROUP.get()
+                UNIFORM_FRAME_GROUP.get()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -243,17 +322,21 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_SyncedHasFewerPredefinedFramesThanActualFrames_PredefinedFrameTimeUsed() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
 
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, 33, true, false, SMALL_MOCK_FRAME_LIST,
+                                new AnimationMetadata(10, 20, 33, true, false, false, false, SMALL_MOCK_FRAME_LIST,
                                         0, true, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
-                MOCK_FRAME_GROUP.get()
+                UNIFORM_FRAME_GROUP.get()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -314,13 +397,17 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_InterpolationDisabled_NoInterpolation() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         int time = 33;
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, time, false, false, ImmutableList.of(),
+                                new AnimationMetadata(10, 20, time, false, false, false, false, ImmutableList.of(),
                                         0, false, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
@@ -340,17 +427,21 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_AlphaSmoothDisabled_AlphaNotSmoothed() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         int time = 33;
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, time, true, false, ImmutableList.of(),
+                                new AnimationMetadata(10, 20, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
-                MOCK_FRAME_GROUP.get()
+                UNIFORM_FRAME_GROUP.get()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -368,17 +459,21 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_AlphaSmoothEnabled_AlphaSmoothed() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         int time = 33;
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, time, true, true, ImmutableList.of(),
+                                new AnimationMetadata(10, 20, time, true, true, false, false, ImmutableList.of(),
                                         0, false, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
-                MOCK_FRAME_GROUP.get()
+                UNIFORM_FRAME_GROUP.get()
         );
 
         MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
@@ -394,9 +489,52 @@ public final class AnimationComponentBuilderTest {
         }
     }
 
+    @Test
+    public void build_ConsecutiveEntriesForSameFrame_FrameHeldBeforeInterpolating() {
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
+        TextureComponent<? super CurrentFrameView> component = builder.build(
+                new AnimationGroupMetadata(
+                        10, 20,
+                        ImmutableList.of(
+                                new AnimationMetadata(10, 20, 10, true, true, false, false,
+                                        ImmutableList.of(IntIntPair.of(0, 3), IntIntPair.of(0, 2), IntIntPair.of(1, 4)),
+                                        0, false, 0, 0, Optional.empty(), () -> {})
+                        )
+                ),
+                UNIFORM_FRAME_GROUP.get()
+        );
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrameGroup = new MockPersistentFrameGroup(MOCK_FRAME_GROUP.get().frames());
+        SmoothAlphaInterpolator interpolator = new SmoothAlphaInterpolator();
+
+        for (int tick = 1; tick < 9; tick++) {
+            component.onTick(currentFrameView, persistentFrameGroup, 1);
+
+            int expected;
+            if (tick < 3) {
+                expected = indexToColor(0);
+            } else if (tick < 5) {
+                expected = interpolator.interpolate(2, tick - 3, indexToColor(0), indexToColor(1));
+            } else {
+                expected = interpolator.interpolate(4, tick - 5, indexToColor(1), indexToColor(0));
+            }
+
+            assertEquals(expected, currentFrameView.color(0, 1));
+        }
+    }
+
     @Test
     public void build_AnimationHasMultipleParts_PartsAppliedInSizeOrderBeforeTicks() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         MockMutableFrameGroup frameGroup = MOCK_FRAME_GROUP.get();
 
         int time = 33;
@@ -405,7 +543,7 @@ public final class AnimationComponentBuilderTest {
                         10, 20,
                         ImmutableList.of(
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 2, 1,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(14),
@@ -414,7 +552,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> {}
                                 ),
                                 new AnimationMetadata(
-                                        3, 5, time, true, false, ImmutableList.of(),
+                                        3, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 3, 3,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(16),
@@ -423,7 +561,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> {}
                                 ),
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 1, 2,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(12),
@@ -432,7 +570,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> {}
                                 ),
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 1, 1,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(10),
@@ -466,14 +604,18 @@ public final class AnimationComponentBuilderTest {
 
     @Test
     public void build_AnimationHasMultipleParts_PartsAppliedInSizeOrderAfterTicks() {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         int time = 33;
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 2, 1,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(14),
@@ -482,7 +624,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> {}
                                 ),
                                 new AnimationMetadata(
-                                        3, 5, time, true, false, ImmutableList.of(),
+                                        3, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 3, 3,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(16),
@@ -491,7 +633,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> {}
                                 ),
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 1, 2,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(12),
@@ -500,7 +642,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> {}
                                 ),
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 1, 1,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(10),
@@ -545,14 +687,18 @@ public final class AnimationComponentBuilderTest {
         AtomicBoolean closer3 = new AtomicBoolean();
         AtomicBoolean closer4 = new AtomicBoolean();
 
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         int time = 33;
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 2, 1,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(14),
@@ -561,7 +707,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> closer3.set(true)
                                 ),
                                 new AnimationMetadata(
-                                        3, 5, time, true, false, ImmutableList.of(),
+                                        3, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 3, 3,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(16),
@@ -570,7 +716,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> closer4.set(true)
                                 ),
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 1, 2,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(12),
@@ -579,7 +725,7 @@ public final class AnimationComponentBuilderTest {
                                         () -> closer2.set(true)
                                 ),
                                 new AnimationMetadata(
-                                        5, 5, time, true, false, ImmutableList.of(),
+                                        5, 5, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 1, 1,
                                         Optional.of(ImmutableList.of(
                                                 (x, y) -> indexToColor(10),
@@ -601,14 +747,364 @@ public final class AnimationComponentBuilderTest {
         assertTrue(closer4.get());
     }
 
-    private static void checkChangedPoints(FrameGroup<MutableFrameView> frameGroup, Set<Long> expectedPoints) {
-        AnimationComponentBuilder builder = new AnimationComponentBuilder(Optional::empty);
+    @Test
+    public void build_SameMetadataAfterTick_AnimationStateKept() {
+        ComponentReuseCache cache = new ComponentReuseCache();
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                cache
+        );
+        int time = 33;
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrameGroup = new MockPersistentFrameGroup(MOCK_FRAME_GROUP.get().frames());
+
+        TextureComponent<? super CurrentFrameView> oldComponent = builder.build(
+                makeReloadMetadata(time),
+                MOCK_FRAME_GROUP.get()
+        );
+        for (int tick = 0; tick < time; tick++) {
+            oldComponent.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        cache.startReload();
+        TextureComponent<? super CurrentFrameView> newComponent = builder.build(
+                makeReloadMetadata(time),
+                MOCK_FRAME_GROUP.get()
+        );
+        oldComponent.onClose(currentFrameView, persistentFrameGroup);
+        for (int tick = 0; tick < time; tick++) {
+            newComponent.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        assertEquals(indexToColor(2), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void build_SameMetadataBuiltLateInSameReload_AnimationNotShared() {
+        List<Runnable> buildTasks = new ArrayList<>();
+        ComponentReuseCache cache = new ComponentReuseCache();
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                cache,
+                buildTasks::add
+        );
+        int time = 33;
+        MockPersistentFrameGroup persistentFrameGroup = new MockPersistentFrameGroup(MOCK_FRAME_GROUP.get().frames());
+
+        TextureComponent<? super CurrentFrameView> firstComponent = builder.build(
+                makeReloadMetadata(time),
+                MOCK_FRAME_GROUP.get()
+        );
+        TextureComponent<? super CurrentFrameView> secondComponent = builder.build(
+                makeReloadMetadata(time),
+                MOCK_FRAME_GROUP.get()
+        );
+        buildTasks.get(0).run();
+        for (int tick = 0; tick < time; tick++) {
+            firstComponent.onTick(new MockCurrentFrameView(), persistentFrameGroup, 1);
+        }
+
+        cache.startReload();
+        buildTasks.get(1).run();
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        for (int tick = 0; tick < time; tick++) {
+            secondComponent.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        assertEquals(indexToColor(1), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void build_DifferentMetadataAfterTick_AnimationRestarts() {
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
+        int time = 33;
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrameGroup = new MockPersistentFrameGroup(MOCK_FRAME_GROUP.get().frames());
+
+        TextureComponent<? super CurrentFrameView> oldComponent = builder.build(
+                makeReloadMetadata(time),
+                MOCK_FRAME_GROUP.get()
+        );
+        for (int tick = 0; tick < time; tick++) {
+            oldComponent.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        TextureComponent<? super CurrentFrameView> newComponent = builder.build(
+                makeReloadMetadata(time + 1),
+                MOCK_FRAME_GROUP.get()
+        );
+        oldComponent.onClose(currentFrameView, persistentFrameGroup);
+        for (int tick = 0; tick < time + 1; tick++) {
+            newComponent.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        assertEquals(indexToColor(1), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void build_DifferentBasePixelsAfterTick_AnimationRestarts() {
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
+        int time = 33;
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrameGroup = new MockPersistentFrameGroup(MOCK_FRAME_GROUP.get().frames());
+
+        TextureComponent<? super CurrentFrameView> oldComponent = builder.build(
+                makeReloadMetadata(time),
+                MOCK_FRAME_GROUP.get()
+        );
+        for (int tick = 0; tick < time; tick++) {
+            oldComponent.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        MockMutableFrameGroup changedFrames = MOCK_FRAME_GROUP.get();
+        changedFrames.frame(2).transform((x, y, layerBelow) -> Color.pack(40, 40, 40, 40), Area.of(Point.pack(5, 5)));
+        TextureComponent<? super CurrentFrameView> newComponent = builder.build(
+                makeReloadMetadata(time),
+                changedFrames
+        );
+        oldComponent.onClose(currentFrameView, persistentFrameGroup);
+        for (int tick = 0; tick < time; tick++) {
+            newComponent.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        assertEquals(indexToColor(1), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void build_BuiltInBackground_NoTicksLostWhileBuilding() {
+        List<Runnable> buildTasks = new ArrayList<>();
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache(),
+                buildTasks::add
+        );
+        int time = 33;
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrameGroup = new MockPersistentFrameGroup(MOCK_FRAME_GROUP.get().frames());
+
+        TextureComponent<? super CurrentFrameView> component = builder.build(
+                makeReloadMetadata(time),
+                MOCK_FRAME_GROUP.get()
+        );
+        for (int tick = 0; tick < time; tick++) {
+            component.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        assertEquals(0, currentFrameView.color(0, 0));
+
+        assertEquals(1, buildTasks.size());
+        buildTasks.get(0).run();
+        for (int tick = 0; tick < time; tick++) {
+            component.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+
+        assertEquals(indexToColor(2), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void build_BuiltInBackgroundBaseFramesChangedLater_CopyOfBaseFramesUsed() {
+        List<Runnable> buildTasks = new ArrayList<>();
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache(),
+                buildTasks::add
+        );
+        MockMutableFrameGroup baseFrames = MOCK_FRAME_GROUP.get();
+        TextureComponent<? super CurrentFrameView> component = builder.build(makeReloadMetadata(33), baseFrames);
+
+        for (int index = 0; index < baseFrames.frames(); index++) {
+            baseFrames.frame(index).transform((x, y, layerBelow) -> 0, new Area(0, 0, 10, 20));
+        }
+
+        buildTasks.get(0).run();
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        component.onTick(currentFrameView, new MockPersistentFrameGroup(MOCK_FRAME_GROUP.get().frames()), 33);
+
+        assertEquals(indexToColor(1), currentFrameView.color(0, 0));
+    }
+
+    @Test
+    public void build_BackgroundBuildFails_BuildErrorThrownOnTick() {
+        List<Runnable> buildTasks = new ArrayList<>();
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache(),
+                buildTasks::add
+        );
+        TextureComponent<? super CurrentFrameView> component = builder.build(
+                makeReloadMetadata(33),
+                new MockMutableFrameGroup()
+        );
+        buildTasks.get(0).run();
+
+        expectedException.expect(IllegalArgumentException.class);
+        component.onTick(new MockCurrentFrameView(), new MockPersistentFrameGroup(1), 1);
+    }
+
+    @Test
+    public void build_BackgroundBuildFails_ErrorThrownOnceAndResourcesReleasedOnce() {
+        List<Runnable> buildTasks = new ArrayList<>();
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache(),
+                buildTasks::add
+        );
+        AtomicInteger closerRuns = new AtomicInteger();
+        TextureComponent<? super CurrentFrameView> component = builder.build(
+                new AnimationGroupMetadata(
+                        10, 20,
+                        ImmutableList.of(
+                                new AnimationMetadata(10, 20, 33, false, false, false, false, ImmutableList.of(),
+                                        0, false, 0, 0, Optional.empty(), closerRuns::incrementAndGet)
+                        )
+                ),
+                new MockMutableFrameGroup()
+        );
+        buildTasks.get(0).run();
+
+        MockCurrentFrameView currentFrameView = new MockCurrentFrameView();
+        MockPersistentFrameGroup persistentFrameGroup = new MockPersistentFrameGroup(1);
+        try {
+            component.onTick(currentFrameView, persistentFrameGroup, 1);
+            fail("Expected the build error");
+        } catch (IllegalArgumentException ignored) {}
+
+        for (int tick = 0; tick < 10; tick++) {
+            component.onTick(currentFrameView, persistentFrameGroup, 1);
+        }
+        component.onClose(currentFrameView, persistentFrameGroup);
+
+        assertEquals(0, currentFrameView.color(0, 0));
+        assertEquals(1, closerRuns.get());
+    }
+
+    @Test
+    public void build_BuiltInBackground_BuildEventCommittedWhenBuilt() throws IOException {
+        List<Runnable> buildTasks = new ArrayList<>();
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache(),
+                buildTasks::add
+        );
+        AnimationGroupMetadata metadata = makeReloadMetadata(33);
+
+        Path recordingPath = Files.createTempFile("animation-build", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ComponentBuildEvent.NAME).withoutThreshold();
+            recording.start();
+            builder.build(metadata, MOCK_FRAME_GROUP.get());
+            buildTasks.get(0).run();
+            recording.stop();
+            recording.dump(recordingPath);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath).stream()
+                    .filter((event) -> event.getEventType().getName().equals(ComponentBuildEvent.NAME))
+                    .toList();
+            assertEquals(1, events.size());
+            assertEquals(metadata.textureId(), events.get(0).getLong("textureId"));
+            assertEquals(1, events.get(0).getInt("componentCount"));
+            assertEquals(4, events.get(0).getLong("changedAreaSize"));
+            assertTrue(events.get(0).getBoolean("deferred"));
+            assertFalse(events.get(0).getBoolean("reused"));
+        } finally {
+            Files.delete(recordingPath);
+        }
+    }
+
+    @Test
+    public void build_BackgroundBuildFails_NoBuildEventCommitted() throws IOException {
+        List<Runnable> buildTasks = new ArrayList<>();
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache(),
+                buildTasks::add
+        );
+
+        Path recordingPath = Files.createTempFile("animation-build", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ComponentBuildEvent.NAME).withoutThreshold();
+            recording.start();
+            builder.build(makeReloadMetadata(33), new MockMutableFrameGroup());
+            buildTasks.get(0).run();
+            recording.stop();
+            recording.dump(recordingPath);
+
+            assertTrue(RecordingFile.readAllEvents(recordingPath).stream()
+                    .noneMatch((event) -> event.getEventType().getName().equals(ComponentBuildEvent.NAME)));
+        } finally {
+            Files.delete(recordingPath);
+        }
+    }
+
+    @Test
+    public void build_RecordingEnabled_PlanEventCommitted() throws IOException {
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
+        AnimationGroupMetadata metadata = makeReloadMetadata(33);
+
+        Path recordingPath = Files.createTempFile("animation-plan", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ComponentPlanEvent.NAME).withoutThreshold();
+            recording.start();
+            builder.build(metadata, MOCK_FRAME_GROUP.get());
+            recording.stop();
+            recording.dump(recordingPath);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath).stream()
+                    .filter((event) -> event.getEventType().getName().equals(ComponentPlanEvent.NAME))
+                    .toList();
+            assertEquals(1, events.size());
+            assertEquals(metadata.textureId(), events.get(0).getLong("textureId"));
+            assertEquals("DIRECT", events.get(0).getString("strategy"));
+            assertEquals(4, events.get(0).getLong("changedAreaSize"));
+            assertTrue(events.get(0).getString("estimates").contains("DELTA"));
+        } finally {
+            Files.delete(recordingPath);
+        }
+    }
+
+    private static AnimationGroupMetadata makeReloadMetadata(int time) {
+        return new AnimationGroupMetadata(
+                10, 20,
+                ImmutableList.of(
+                        new AnimationMetadata(10, 20, time, false, false, false, false, ImmutableList.of(),
+                                0, false, 0, 0, Optional.empty(), () -> {})
+                )
+        );
+    }
+
+    private static void checkChangedPoints(FrameGroup<? extends MutableFrameView> frameGroup,
+                                           Set<Long> expectedPoints) {
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                new MemoryTracker(),
+                new ComponentReuseCache()
+        );
         int time = 33;
         TextureComponent<? super CurrentFrameView> component = builder.build(
                 new AnimationGroupMetadata(
                         10, 20,
                         ImmutableList.of(
-                                new AnimationMetadata(10, 20, time, true, false, ImmutableList.of(),
+                                new AnimationMetadata(10, 20, time, true, false, false, false, ImmutableList.of(),
                                         0, false, 0, 0, Optional.empty(), () -> {})
                         )
                 ),
@@ -20,6 +20,12 @@ package io.github.moremcmeta.animationplugin.metadata;
 import com.google.common.collect.ImmutableMap;
 import com.mojang.blaze3d.platform.NativeImage;
 import io.github.moremcmeta.animationplugin.MockMetadataView;
+import io.github.moremcmeta.animationplugin.animate.CompressedFrameList;
+import io.github.moremcmeta.animationplugin.animate.Frame;
+import io.github.moremcmeta.animationplugin.animate.HeapFrame;
+import io.github.moremcmeta.animationplugin.animate.OffHeapFrame;
+import io.github.moremcmeta.animationplugin.animate.PaletteFrame;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
 import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataView;
 import it.unimi.dsi.fastutil.ints.IntIntPair;
@@ -28,21 +34,29 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.IntBinaryOperator;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests the {@link AnimationMetadataAnalyzer}.
  * @author soir20
  */
 public final class AnimationMetadataAnalyzerTest {
-    private static final AnimationMetadataAnalyzer ANALYZER = new AnimationMetadataAnalyzer();
+    private static final AnimationMetadataAnalyzer ANALYZER = new AnimationMetadataAnalyzer(new MemoryTracker());
     @SuppressWarnings("resource")
     private static final BiFunction<Integer, Integer, InputStream> MOCK_TEXTURE = (w, h) -> {
         try {
@@ -57,6 +71,12 @@ public final class AnimationMetadataAnalyzerTest {
     @Rule
     public final ExpectedException expectedException = ExpectedException.none();
 
+    @Test
+    public void construct_NullMemoryTracker_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationMetadataAnalyzer(null);
+    }
+
     @Test
     public void analyze_NoPartsNullMetadata_NullPointerException() throws InvalidMetadataException {
         expectedException.expect(NullPointerException.class);
@@ -327,6 +347,66 @@ public final class AnimationMetadataAnalyzerTest {
         assertFalse(metadata.parts().get(0).smoothAlpha());
     }
 
+    @Test
+    public void analyze_NoPartsNoLinear_UsesFalse() throws InvalidMetadataException {
+        MetadataView metadataView = new MockMetadataView(
+                ImmutableMap.of()
+        );
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) ANALYZER.analyze(metadataView, 10, 20);
+
+        assertFalse(metadata.parts().get(0).linear());
+    }
+
+    @Test
+    public void analyze_NoPartsTrueLinear_UsesProvidedLinear() throws InvalidMetadataException {
+        MetadataView metadataView = new MockMetadataView(
+                ImmutableMap.of("linear", true)
+        );
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) ANALYZER.analyze(metadataView, 10, 20);
+
+        assertTrue(metadata.parts().get(0).linear());
+    }
+
+    @Test
+    public void analyze_NoPartsLinearOtherType_UsesFalse() throws InvalidMetadataException {
+        MetadataView metadataView = new MockMetadataView(
+                ImmutableMap.of("linear", "7")
+        );
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) ANALYZER.analyze(metadataView, 10, 20);
+
+        assertFalse(metadata.parts().get(0).linear());
+    }
+
+    @Test
+    public void analyze_NoPartsNoPremultiplied_UsesFalse() throws InvalidMetadataException {
+        MetadataView metadataView = new MockMetadataView(
+                ImmutableMap.of()
+        );
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) ANALYZER.analyze(metadataView, 10, 20);
+
+        assertFalse(metadata.parts().get(0).premultiplied());
+    }
+
+    @Test
+    public void analyze_NoPartsTruePremultiplied_UsesProvidedPremultiplied() throws InvalidMetadataException {
+        MetadataView metadataView = new MockMetadataView(
+                ImmutableMap.of("premultiplied", true)
+        );
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) ANALYZER.analyze(metadataView, 10, 20);
+
+        assertTrue(metadata.parts().get(0).premultiplied());
+    }
+
+    @Test
+    public void analyze_NoPartsPremultipliedOtherType_UsesFalse() throws InvalidMetadataException {
+        MetadataView metadataView = new MockMetadataView(
+                ImmutableMap.of("premultiplied", "7")
+        );
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) ANALYZER.analyze(metadataView, 10, 20);
+
+        assertFalse(metadata.parts().get(0).premultiplied());
+    }
+
     @Test
     public void analyze_NoPartsNoDaytimeSync_UsesFalse() throws InvalidMetadataException {
         MetadataView metadataView = new MockMetadataView(
@@ -1223,4 +1303,583 @@ public final class AnimationMetadataAnalyzerTest {
         assertTrue(metadata.parts().get(2).predefinedFrames().isEmpty());
     }
 
+    @Test
+    public void analyze_HasLowColorParts_PaletteFramesTracked() throws InvalidMetadataException {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", MOCK_TEXTURE.apply(10, 20),
+                                "x", 0,
+                                "y", 0
+                        )),
+                        "1", new MockMetadataView(ImmutableMap.of(
+                                "texture", MOCK_TEXTURE.apply(5, 10),
+                                "x", 1,
+                                "y", 2
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        assertEquals(2, memoryTracker.openAllocations());
+        assertEquals(0, memoryTracker.nativeBytes());
+        assertEquals(133, memoryTracker.heapBytes());
+        assertTrue(memoryTracker.liveAllocations().stream()
+                .allMatch((allocation) -> allocation.textureId() == metadata.textureId()));
+
+        metadata.parts().forEach(AnimationMetadata::close);
+        assertEquals(0, memoryTracker.openAllocations());
+        assertEquals(0, memoryTracker.heapBytes());
+    }
+
+    @Test
+    public void analyze_HasManyColorPartsNotStreamed_NativeTextureFreedAfterCopy()
+            throws InvalidMetadataException, IOException {
+        byte[] textureBytes;
+        try (NativeImage texture = new NativeImage(20, 40, false)) {
+            for (int y = 0; y < 40; y++) {
+                for (int x = 0; x < 20; x++) {
+                    texture.setPixelRGBA(x, y, 0xFF000000 | (x << 8) | y);
+                }
+            }
+            textureBytes = texture.asByteArray();
+        }
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker, -1, false);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(textureBytes),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertTrue(frames.get(0) instanceof HeapFrame);
+        assertEquals(0xFF000000 | (3 << 8) | 25, frames.get(1).color(3, 5));
+        assertEquals(1, memoryTracker.openAllocations());
+        assertEquals(0, memoryTracker.nativeBytes());
+        assertEquals(3200, memoryTracker.heapBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+        assertEquals(0, memoryTracker.openAllocations());
+        assertEquals(0, memoryTracker.heapBytes());
+    }
+
+    @Test
+    public void analyze_HasManyColorParts_StreamedFramesTracked() throws InvalidMetadataException, IOException {
+        byte[] texture = makeManyColorTexture(20, 40, (x, y) -> (x << 8) | y);
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(texture),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertTrue(frames.get(0) instanceof HeapFrame);
+        assertEquals(0xFF000000 | (3 << 8) | 25, frames.get(1).color(3, 5));
+        assertEquals(1, memoryTracker.openAllocations());
+        assertEquals(0, memoryTracker.nativeBytes());
+        assertEquals(3200, memoryTracker.heapBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+        assertEquals(0, memoryTracker.openAllocations());
+        assertEquals(0, memoryTracker.heapBytes());
+    }
+
+    @Test
+    public void analyze_StreamedPartHasUnreferencedFrames_UnreferencedFramesNotStored()
+            throws InvalidMetadataException, IOException {
+        byte[] texture = makeManyColorTexture(20, 40, (x, y) -> (x << 8) | y);
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(texture),
+                                "height", 10,
+                                "frames", new MockMetadataView(ImmutableMap.of("0", 2, "1", 0)),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertEquals(4, frames.size());
+        assertSame(frames.get(0), frames.get(1));
+        assertSame(frames.get(0), frames.get(3));
+        assertEquals(0xFF000000 | (3 << 8) | 25, frames.get(2).color(3, 5));
+        assertEquals(1600, memoryTracker.heapBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+    }
+
+    @Test
+    public void analyze_StreamedPartHasDuplicateFrames_DuplicatesShareFrame()
+            throws InvalidMetadataException, IOException {
+        byte[] texture = makeManyColorTexture(20, 40, (x, y) -> {
+            boolean isLastPixel = x == 0 && y == 39;
+            return isLastPixel ? 0xFFFF : (x << 8) | (y % 20) | (y % 20 >= 10 ? 0x10000 : 0);
+        });
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(texture),
+                                "height", 10,
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertSame(frames.get(0), frames.get(2));
+        assertNotSame(frames.get(1), frames.get(3));
+        assertEquals(0xFF010000 | (5 << 8) | 15, frames.get(3).color(5, 5));
+        assertEquals(0xFF00FFFF, frames.get(3).color(0, 9));
+        assertEquals(2400, memoryTracker.heapBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+    }
+
+    @Test
+    public void analyze_PartLargerThanCompressionThreshold_FramesCompressed()
+            throws InvalidMetadataException, IOException {
+        byte[] textureBytes;
+        try (NativeImage texture = new NativeImage(20, 40, false)) {
+            for (int y = 0; y < 40; y++) {
+                for (int x = 0; x < 20; x++) {
+                    texture.setPixelRGBA(x, y, 0xFF000000 | (x << 8) | y);
+                }
+            }
+            textureBytes = texture.asByteArray();
+        }
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker, 3199);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(textureBytes),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertTrue(frames instanceof CompressedFrameList);
+        assertEquals(0xFF000000 | (3 << 8) | 25, frames.get(1).color(3, 5));
+        assertEquals(1, memoryTracker.openAllocations());
+        assertEquals(0, memoryTracker.nativeBytes());
+        assertEquals(((CompressedFrameList) frames).bytes(), memoryTracker.heapBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+        assertEquals(0, memoryTracker.openAllocations());
+    }
+
+    @Test
+    public void analyze_PartLargerThanReadInPlaceThreshold_FramesReadFromNativeTexture()
+            throws InvalidMetadataException, IOException {
+        byte[] texture = makeManyColorTexture(20, 40, (x, y) -> (x << 8) | y);
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker, -1, true, 0, 3199);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(texture),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertTrue(frames.get(0) instanceof OffHeapFrame);
+        assertEquals(0xFF000000 | (3 << 8) | 25, frames.get(1).color(3, 5));
+        assertEquals(1, memoryTracker.openAllocations());
+        assertEquals(3200, memoryTracker.nativeBytes());
+        assertEquals(0, memoryTracker.heapBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+        assertEquals(0, memoryTracker.openAllocations());
+        assertEquals(0, memoryTracker.nativeBytes());
+    }
+
+    @Test
+    public void analyze_PartAtReadInPlaceThreshold_FramesStreamed() throws InvalidMetadataException, IOException {
+        byte[] texture = makeManyColorTexture(20, 40, (x, y) -> (x << 8) | y);
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker, -1, true, 0, 3200);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(texture),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertTrue(frames.get(0) instanceof HeapFrame);
+        assertEquals(0xFF000000 | (3 << 8) | 25, frames.get(1).color(3, 5));
+        assertEquals(0, memoryTracker.nativeBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+    }
+
+    @Test
+    public void analyze_PartLargerThanReadInPlaceAndCompressionThresholds_FramesNotCompressed()
+            throws InvalidMetadataException, IOException {
+        byte[] texture = makeManyColorTexture(20, 40, (x, y) -> (x << 8) | y);
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker, 0, true, 0, 0);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(texture),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertFalse(frames instanceof CompressedFrameList);
+        assertTrue(frames.get(0) instanceof OffHeapFrame);
+        assertEquals(3200, memoryTracker.nativeBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+    }
+
+    @Test
+    public void analyze_PartiallyFitFrameReadInPlace_OutsidePixelsTransparent()
+            throws InvalidMetadataException, IOException {
+        byte[] texture = makeManyColorTexture(20, 35, (x, y) -> (x << 8) | y);
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker, -1, true, 0, 0);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(texture),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+        assertEquals(2, frames.size());
+        assertEquals(0xFF000000 | (3 << 8) | 34, frames.get(1).color(3, 14));
+        assertEquals(0, frames.get(1).color(3, 15));
+
+        metadata.parts().forEach(AnimationMetadata::close);
+    }
+
+    @Test
+    public void analyze_PartAtCompressionThreshold_FramesNotCompressed() throws InvalidMetadataException, IOException {
+        byte[] textureBytes;
+        try (NativeImage texture = new NativeImage(20, 40, false)) {
+            for (int y = 0; y < 40; y++) {
+                for (int x = 0; x < 20; x++) {
+                    texture.setPixelRGBA(x, y, 0xFF000000 | (x << 8) | y);
+                }
+            }
+            textureBytes = texture.asByteArray();
+        }
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker, 3200);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(textureBytes),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+        assertFalse(metadata.parts().get(0).partFrames().orElseThrow() instanceof CompressedFrameList);
+        assertEquals(3200, memoryTracker.heapBytes());
+
+        metadata.parts().forEach(AnimationMetadata::close);
+    }
+
+    @Test
+    public void analyze_HasLowColorParts_FramesUsePalette() throws InvalidMetadataException {
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", MOCK_TEXTURE.apply(10, 20),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) ANALYZER.analyze(metadataView, 100, 200);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+
+        assertEquals(2, frames.size());
+        assertTrue(frames.stream().allMatch((frame) -> frame instanceof PaletteFrame));
+        assertEquals(0, frames.get(1).color(9, 9));
+
+        metadata.parts().get(0).close();
+    }
+
+    @Test
+    public void analyze_HasPartsInvalidPartAfterValidPart_AllPartTexturesClosed() {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker);
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", MOCK_TEXTURE.apply(10, 20),
+                                "x", 0,
+                                "y", 0
+                        )),
+                        "1", new MockMetadataView(ImmutableMap.of(
+                                "texture", MOCK_TEXTURE.apply(5, 10),
+                                "x", 100,
+                                "y", 2
+                        ))
+                ))
+        ));
+
+        try {
+            analyzer.analyze(metadataView, 100, 200);
+            fail("Expected invalid metadata");
+        } catch (InvalidMetadataException err) {
+            assertEquals(0, memoryTracker.openAllocations());
+            assertEquals(0, memoryTracker.nativeBytes());
+        }
+    }
+
+    @Test
+    public void analyze_PartTextureIsFile_FramesReadFromMappedFile() throws InvalidMetadataException, IOException {
+        Path path = Files.createTempFile("texture", ".png");
+        try {
+            Files.write(path, makeManyColorTexture(20, 40, (x, y) -> (x << 8) | y));
+
+            for (boolean streamTextures : new boolean[] { true, false }) {
+                AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(new MemoryTracker(), -1,
+                        streamTextures);
+
+                try (FileInputStream textureStream = new FileInputStream(path.toFile())) {
+                    MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                            "parts", new MockMetadataView(ImmutableMap.of(
+                                    "0", new MockMetadataView(ImmutableMap.of(
+                                            "texture", textureStream,
+                                            "x", 0,
+                                            "y", 0
+                                    ))
+                            ))
+                    ));
+
+                    AnimationGroupMetadata metadata = (AnimationGroupMetadata) analyzer.analyze(metadataView, 100, 200);
+                    List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+                    assertEquals(2, frames.size());
+                    assertEquals(0xFF000000 | (3 << 8) | 25, frames.get(1).color(3, 5));
+
+                    metadata.parts().forEach(AnimationMetadata::close);
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void analyze_NoPartsSameMetadataTwice_AnalysisShared() throws InvalidMetadataException {
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(new MemoryTracker());
+
+        AnimationGroupMetadata first = (AnimationGroupMetadata) analyzer.analyze(
+                new MockMetadataView(ImmutableMap.of("frametime", 5.0, "width", 10)), 100, 200
+        );
+        AnimationGroupMetadata second = (AnimationGroupMetadata) analyzer.analyze(
+                new MockMetadataView(ImmutableMap.of("frametime", 5.0, "width", 10)), 100, 200
+        );
+
+        assertSame(first.parts(), second.parts());
+        assertEquals(first.frameWidth(), second.frameWidth());
+        assertEquals(first.frameHeight(), second.frameHeight());
+        assertNotEquals(first.textureId(), second.textureId());
+    }
+
+    @Test
+    public void analyze_NoPartsSameMetadataAfterReloadEnds_AnalysisNotShared() throws InvalidMetadataException {
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(new MemoryTracker());
+
+        AnimationGroupMetadata first = (AnimationGroupMetadata) analyzer.analyze(
+                new MockMetadataView(ImmutableMap.of("frametime", 5.0)), 100, 200
+        );
+        analyzer.endReload();
+        AnimationGroupMetadata second = (AnimationGroupMetadata) analyzer.analyze(
+                new MockMetadataView(ImmutableMap.of("frametime", 5.0)), 100, 200
+        );
+
+        assertNotSame(first.parts(), second.parts());
+    }
+
+    @Test
+    public void analyze_NoPartsDifferentImageSize_AnalysisNotShared() throws InvalidMetadataException {
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(new MemoryTracker());
+
+        AnimationGroupMetadata first = (AnimationGroupMetadata) analyzer.analyze(
+                new MockMetadataView(ImmutableMap.of("frametime", 5.0)), 100, 200
+        );
+        AnimationGroupMetadata second = (AnimationGroupMetadata) analyzer.analyze(
+                new MockMetadataView(ImmutableMap.of("frametime", 5.0)), 100, 300
+        );
+
+        assertNotSame(first.parts(), second.parts());
+    }
+
+    @Test
+    public void analyze_NoPartsMemoDisabled_AnalysisNotShared() throws InvalidMetadataException {
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(new MemoryTracker(), -1, true, 0);
+
+        AnimationGroupMetadata first = (AnimationGroupMetadata) analyzer.analyze(
+                new MockMetadataView(ImmutableMap.of("frametime", 5.0)), 100, 200
+        );
+        AnimationGroupMetadata second = (AnimationGroupMetadata) analyzer.analyze(
+                new MockMetadataView(ImmutableMap.of("frametime", 5.0)), 100, 200
+        );
+
+        assertNotSame(first.parts(), second.parts());
+    }
+
+    @Test
+    public void analyze_NoPartsInvalidMetadataTwice_InvalidMetadataExceptionBothTimes() {
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(new MemoryTracker());
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                analyzer.analyze(new MockMetadataView(ImmutableMap.of("frametime", -5.0)), 100, 200);
+                fail("Expected invalid metadata");
+            } catch (InvalidMetadataException ignored) {}
+        }
+    }
+
+    @Test
+    public void analyze_HasPartsSameMetadataTwice_AnalysisNotShared() throws InvalidMetadataException {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker);
+
+        AnimationGroupMetadata first = (AnimationGroupMetadata) analyzer.analyze(makePartMetadata(), 100, 200);
+        AnimationGroupMetadata second = (AnimationGroupMetadata) analyzer.analyze(makePartMetadata(), 100, 200);
+
+        assertNotSame(first.parts().get(0), second.parts().get(0));
+        assertEquals(2, memoryTracker.openAllocations());
+
+        first.parts().forEach(AnimationMetadata::close);
+        second.parts().forEach(AnimationMetadata::close);
+        assertEquals(0, memoryTracker.openAllocations());
+    }
+
+    @Test
+    public void analyze_HasParts_PartFramesReadFromTexture() throws InvalidMetadataException, IOException {
+        byte[] textureBytes;
+        try (NativeImage texture = new NativeImage(6, 4, false)) {
+            for (int y = 0; y < 4; y++) {
+                for (int x = 0; x < 6; x++) {
+                    texture.setPixelRGBA(x, y, 0xFF000000 | (x << 8) | y);
+                }
+            }
+            textureBytes = texture.asByteArray();
+        }
+
+        MetadataView metadataView = new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", new ByteArrayInputStream(textureBytes),
+                                "width", 3,
+                                "height", 2,
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+
+        AnimationGroupMetadata metadata = (AnimationGroupMetadata) ANALYZER.analyze(metadataView, 10, 20);
+        List<Frame> frames = metadata.parts().get(0).partFrames().orElseThrow();
+
+        assertEquals(4, frames.size());
+        assertEquals(0xFF000000 | (1 << 8), frames.get(0).color(1, 0));
+        assertEquals(0xFF000000 | (4 << 8) | 1, frames.get(1).color(1, 1));
+        assertEquals(0xFF000000 | (2 << 8) | 3, frames.get(2).color(2, 1));
+        assertEquals(0xFF000000 | (5 << 8) | 2, frames.get(3).color(2, 0));
+
+        metadata.parts().get(0).close();
+    }
+
+    /**
+     * Creates an opaque texture with a different color at each pixel.
+     * @param width         width of the texture
+     * @param height        height of the texture
+     * @param colorGetter   gets the color at an (x, y) coordinate, without alpha
+     * @return the texture's bytes
+     * @throws IOException if the texture cannot be written
+     */
+    private static byte[] makeManyColorTexture(int width, int height, IntBinaryOperator colorGetter)
+            throws IOException {
+        try (NativeImage texture = new NativeImage(width, height, false)) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    texture.setPixelRGBA(x, y, 0xFF000000 | colorGetter.applyAsInt(x, y));
+                }
+            }
+
+            return texture.asByteArray();
+        }
+    }
+
+    /**
+     * Creates metadata with a single low-color part.
+     * @return the metadata
+     */
+    private static MetadataView makePartMetadata() {
+        return new MockMetadataView(ImmutableMap.of(
+                "parts", new MockMetadataView(ImmutableMap.of(
+                        "0", new MockMetadataView(ImmutableMap.of(
+                                "texture", MOCK_TEXTURE.apply(10, 20),
+                                "x", 0,
+                                "y", 0
+                        ))
+                ))
+        ));
+    }
 }
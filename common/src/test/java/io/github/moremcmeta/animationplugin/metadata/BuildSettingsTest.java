@@ -0,0 +1,99 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import io.github.moremcmeta.animationplugin.animate.AnimationComponent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link BuildSettings}.
+ * @author soir20
+ */
+public final class BuildSettingsTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void build_NothingSet_DefaultsUsed() {
+        BuildSettings settings = new BuildSettings.Builder().build();
+
+        assertTrue(settings.skipUnchangedSteps());
+        assertFalse(settings.useBlendTables());
+        assertTrue(settings.planStrategies());
+        assertEquals(256 * 1024, settings.precomputeBudget());
+        assertEquals(1, settings.interleaveFactor());
+        assertEquals(1, settings.resolutionScale());
+        assertTrue(settings.scheduleComponents());
+    }
+
+    @Test
+    public void build_AllSet_SettingsUsed() {
+        BuildSettings settings = new BuildSettings.Builder()
+                .skipUnchangedSteps(false)
+                .useBlendTables(true)
+                .planStrategies(false)
+                .precomputeBudget(10)
+                .interleave(AnimationComponent.Interleave.ROWS, 4, 100)
+                .resolutionScale(2, 64)
+                .scheduleComponents(false)
+                .build();
+
+        assertFalse(settings.skipUnchangedSteps());
+        assertTrue(settings.useBlendTables());
+        assertFalse(settings.planStrategies());
+        assertEquals(10, settings.precomputeBudget());
+        assertEquals(AnimationComponent.Interleave.ROWS, settings.interleavePattern());
+        assertEquals(4, settings.interleaveFactor());
+        assertEquals(100, settings.interleaveOverPixels());
+        assertEquals(2, settings.resolutionScale());
+        assertEquals(64, settings.resolutionScaleWidth());
+        assertFalse(settings.scheduleComponents());
+    }
+
+    @Test
+    public void precomputeBudget_Negative_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new BuildSettings.Builder().precomputeBudget(-1);
+    }
+
+    @Test
+    public void interleave_NullPattern_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new BuildSettings.Builder().interleave(null, 2, 0);
+    }
+
+    @Test
+    public void interleave_ZeroFactor_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new BuildSettings.Builder().interleave(AnimationComponent.Interleave.ROWS, 0, 0);
+    }
+
+    @Test
+    public void resolutionScale_Zero_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new BuildSettings.Builder().resolutionScale(0, 0);
+    }
+
+}
@@ -0,0 +1,439 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import io.github.moremcmeta.animationplugin.animate.Frame;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PngFrameReader}.
+ * @author soir20
+ */
+public final class PngFrameReaderTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void open_NullStream_NullPointerException() throws IOException {
+        expectedException.expect(NullPointerException.class);
+        PngFrameReader.open(null);
+    }
+
+    @Test
+    public void open_NotPng_Empty() throws IOException {
+        assertFalse(PngFrameReader.open(new ByteArrayInputStream(new byte[] {1, 2, 3})).isPresent());
+    }
+
+    @Test
+    public void open_InterlacedPng_Empty() throws IOException {
+        BufferedImage image = makeImage(BufferedImage.TYPE_INT_ARGB, 8, 8);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+
+        assertFalse(PngFrameReader.open(new ByteArrayInputStream(output.toByteArray())).isPresent());
+    }
+
+    @Test
+    public void open_Png_SizeRead() throws IOException {
+        PngFrameReader reader = open(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 7));
+        assertEquals(12, reader.width());
+        assertEquals(7, reader.height());
+    }
+
+    @Test
+    public void open_HeaderChecksumWrong_IOException() throws IOException {
+        byte[] bytes = write(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 7));
+        bytes[PngFrameReader.HEADER_BYTES - 1]++;
+
+        expectedException.expect(IOException.class);
+        PngFrameReader.open(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void readFrames_NullReferenceChecker_NullPointerException() throws IOException {
+        PngFrameReader reader = open(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 8));
+
+        expectedException.expect(NullPointerException.class);
+        reader.readFrames(4, 4, null);
+    }
+
+    @Test
+    public void readFrames_FrameLargerThanImage_IllegalArgumentException() throws IOException {
+        PngFrameReader reader = open(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 8));
+
+        expectedException.expect(IllegalArgumentException.class);
+        reader.readFrames(4, 9, (index) -> true);
+    }
+
+    @Test
+    public void readFrames_ReadTwice_IllegalStateException() throws IOException {
+        PngFrameReader reader = open(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 8));
+        reader.readFrames(4, 4, (index) -> true);
+
+        expectedException.expect(IllegalStateException.class);
+        reader.readFrames(4, 4, (index) -> true);
+    }
+
+    @Test
+    public void readFrames_RgbaImage_SameAsNativeImage() throws IOException {
+        assertSameAsNativeImage(makeImage(BufferedImage.TYPE_INT_ARGB, 30, 21), 5, 7);
+    }
+
+    @Test
+    public void readFrames_RgbImage_SameAsNativeImage() throws IOException {
+        assertSameAsNativeImage(makeImage(BufferedImage.TYPE_3BYTE_BGR, 30, 21), 10, 3);
+    }
+
+    @Test
+    public void readFrames_PaletteImage_SameAsNativeImage() throws IOException {
+        assertSameAsNativeImage(makeImage(BufferedImage.TYPE_BYTE_INDEXED, 30, 21), 15, 21);
+    }
+
+    @Test
+    public void readFrames_SixteenBitGrayImage_HighByteKept() throws IOException {
+        BufferedImage image = new BufferedImage(9, 6, BufferedImage.TYPE_USHORT_GRAY);
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 9; x++) {
+                image.getRaster().setSample(x, y, 0, x * 7000 + y * 300);
+            }
+        }
+
+        List<Frame> frames = open(image).readFrames(3, 3, (index) -> true);
+
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 9; x++) {
+                int gray = (x * 7000 + y * 300) >> 8;
+                int expected = 0xFF000000 | (gray << 16) | (gray << 8) | gray;
+                assertEquals(expected, frames.get(y / 3 * 3 + x / 3).color(x % 3, y % 3));
+            }
+        }
+    }
+
+    @Test
+    public void readFrames_OneBitImage_ScaledToFullRange() throws IOException {
+        BufferedImage image = new BufferedImage(11, 2, BufferedImage.TYPE_BYTE_BINARY);
+        for (int x = 0; x < 11; x++) {
+            image.getRaster().setSample(x, 1, 0, x % 3 == 0 ? 1 : 0);
+        }
+
+        List<Frame> frames = open(image).readFrames(11, 2, (index) -> true);
+
+        for (int x = 0; x < 11; x++) {
+            assertEquals(0xFF000000, frames.get(0).color(x, 0));
+            assertEquals(x % 3 == 0 ? 0xFFFFFFFF : 0xFF000000, frames.get(0).color(x, 1));
+        }
+    }
+
+    @Test
+    public void readFrames_PaletteChecksumWrong_IOException() throws IOException {
+        byte[] bytes = write(makeImage(BufferedImage.TYPE_BYTE_INDEXED, 12, 8));
+        int paletteStart = findChunk(bytes, "PLTE");
+        int paletteLength = readInt(bytes, paletteStart);
+        bytes[paletteStart + 8 + paletteLength]++;
+        PngFrameReader reader = PngFrameReader.open(new ByteArrayInputStream(bytes)).orElseThrow();
+
+        expectedException.expect(IOException.class);
+        reader.readFrames(4, 4, (index) -> true);
+    }
+
+    @Test
+    public void readFrames_ImageDataInSeveralChunks_SameAsSingleChunk() throws IOException {
+        BufferedImage image = makeImage(BufferedImage.TYPE_INT_ARGB, 12, 8);
+        List<Frame> expectedFrames = open(image).readFrames(4, 4, (index) -> true);
+
+        byte[] bytes = splitImageData(write(image));
+        List<Frame> frames = PngFrameReader.open(new ByteArrayInputStream(bytes)).orElseThrow()
+                .readFrames(4, 4, (index) -> true);
+
+        for (int index = 0; index < expectedFrames.size(); index++) {
+            for (int y = 0; y < 4; y++) {
+                for (int x = 0; x < 4; x++) {
+                    assertEquals(expectedFrames.get(index).color(x, y), frames.get(index).color(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void readFrames_ImageDataChecksumWrong_IOException() throws IOException {
+        byte[] bytes = splitImageData(write(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 8)));
+        int dataStart = findChunk(bytes, "IDAT");
+        bytes[dataStart + 8 + readInt(bytes, dataStart)]++;
+        PngFrameReader reader = PngFrameReader.open(new ByteArrayInputStream(bytes)).orElseThrow();
+
+        expectedException.expect(IOException.class);
+        reader.readFrames(4, 4, (index) -> true);
+    }
+
+    @Test
+    public void decodedBytes_NotRead_Zero() throws IOException {
+        assertEquals(0, open(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 8)).decodedBytes());
+    }
+
+    @Test
+    public void decodedBytes_AllFramesReferenced_AllRowsCounted() throws IOException {
+        PngFrameReader reader = open(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 8));
+        reader.readFrames(4, 4, (index) -> true);
+        assertEquals(12 * 8 * 4, reader.decodedBytes());
+    }
+
+    @Test
+    public void decodedBytes_OnlyFirstRowOfFramesReferenced_LaterRowsNotCounted() throws IOException {
+        PngFrameReader reader = open(makeImage(BufferedImage.TYPE_INT_ARGB, 12, 8));
+        reader.readFrames(4, 4, (index) -> index < 3);
+        assertEquals(12 * 4 * 4, reader.decodedBytes());
+    }
+
+    @Test
+    public void readFrames_ImageNotMultipleOfFrameSize_PartialFramesKept() throws IOException {
+        List<Frame> frames = open(makeImage(BufferedImage.TYPE_INT_ARGB, 11, 9)).readFrames(5, 4, (index) -> true);
+        assertEquals(9, frames.size());
+    }
+
+    @Test
+    public void readFrames_ImageNotMultipleOfFrameSize_SameAsNativeImage() throws IOException {
+        assertSameAsNativeImage(makeImage(BufferedImage.TYPE_INT_ARGB, 30, 21), 7, 4);
+    }
+
+    @Test
+    public void readFrames_ImageNotMultipleOfFrameSize_OutsidePixelsTransparent() throws IOException {
+        List<Frame> frames = open(makeImage(BufferedImage.TYPE_INT_ARGB, 11, 9)).readFrames(5, 4, (index) -> true);
+
+        assertEquals(0, frames.get(2).color(1, 0));
+        assertEquals(0, frames.get(6).color(0, 1));
+        assertEquals(0, frames.get(8).color(1, 1));
+    }
+
+    @Test
+    public void readFrames_UnreferencedFrames_SameAsFirstFrame() throws IOException {
+        List<Frame> frames = open(makeImage(BufferedImage.TYPE_INT_ARGB, 8, 8))
+                .readFrames(4, 4, (index) -> index == 2);
+
+        assertEquals(4, frames.size());
+        assertSame(frames.get(0), frames.get(1));
+        assertSame(frames.get(0), frames.get(3));
+        assertNotSame(frames.get(0), frames.get(2));
+    }
+
+    @Test
+    public void readFrames_DuplicateFrames_FrameShared() throws IOException {
+        BufferedImage image = new BufferedImage(8, 12, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 12; y++) {
+            for (int x = 0; x < 8; x++) {
+                image.setRGB(x, y, 0xFF000000 | ((x % 4) << 8) | (y % 4));
+            }
+        }
+        image.setRGB(7, 11, 0xFFFFFFFF);
+
+        List<Frame> frames = open(image).readFrames(4, 4, (index) -> true);
+
+        for (int index = 1; index < 5; index++) {
+            assertSame(frames.get(0), frames.get(index));
+        }
+        assertNotSame(frames.get(0), frames.get(5));
+        assertEquals(0xFF000000 | (3 << 16) | (2 << 8), frames.get(5).color(2, 3));
+        assertEquals(0xFFFFFFFF, frames.get(5).color(3, 3));
+    }
+
+    @Test
+    public void readFrames_FramesShareFirstRowsOnly_RowsCopied() throws IOException {
+        BufferedImage image = new BufferedImage(3, 6, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 3; x++) {
+                image.setRGB(x, y, 0xFF000000 | (x << 8) | (y % 3));
+            }
+        }
+        image.setRGB(1, 5, 0xFF123456);
+
+        List<Frame> frames = open(image).readFrames(3, 3, (index) -> true);
+
+        assertNotSame(frames.get(0), frames.get(1));
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                int expected = x == 1 && y == 2 ? 0xFF563412 : 0xFF000000 | (y << 16) | (x << 8);
+                assertEquals(expected, frames.get(1).color(x, y));
+            }
+        }
+    }
+
+    /**
+     * Checks that every frame has the same colors as the frame read from a native image.
+     * @param image             image to read
+     * @param frameWidth        width of each frame
+     * @param frameHeight       height of each frame
+     * @throws IOException if the image cannot be read
+     */
+    private static void assertSameAsNativeImage(BufferedImage image, int frameWidth, int frameHeight)
+            throws IOException {
+        byte[] bytes = write(image);
+        List<Frame> frames = PngFrameReader.open(new ByteArrayInputStream(bytes)).orElseThrow()
+                .readFrames(frameWidth, frameHeight, (index) -> true);
+
+        try (NativeImage nativeImage = NativeImage.read(new ByteArrayInputStream(bytes))) {
+            int framesPerRow = (nativeImage.getWidth() + frameWidth - 1) / frameWidth;
+            assertEquals(framesPerRow * ((nativeImage.getHeight() + frameHeight - 1) / frameHeight), frames.size());
+
+            for (int y = 0; y < nativeImage.getHeight(); y++) {
+                for (int x = 0; x < nativeImage.getWidth(); x++) {
+                    Frame frame = frames.get(y / frameHeight * framesPerRow + x / frameWidth);
+                    assertEquals(nativeImage.getPixelRGBA(x, y), frame.color(x % frameWidth, y % frameHeight));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an image with many colors and some transparency.
+     * @param type      type of image to create
+     * @param width     width of the image
+     * @param height    height of the image
+     * @return the image
+     */
+    private static BufferedImage makeImage(int type, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int alpha = (x + y) % 5 == 0 ? 0x80 : 0xFF;
+                image.setRGB(x, y, (alpha << 24) | (x * 8 << 16) | (y * 12 << 8) | ((x * y) & 0xFF));
+            }
+        }
+
+        return image;
+    }
+
+    /**
+     * Splits the image data of a PNG into two chunks, each with a valid checksum.
+     * @param bytes     PNG with a single image data chunk
+     * @return PNG with two image data chunks
+     */
+    private static byte[] splitImageData(byte[] bytes) {
+        int dataStart = findChunk(bytes, "IDAT");
+        int dataLength = readInt(bytes, dataStart);
+        int firstLength = dataLength / 2;
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(bytes, 0, dataStart);
+        writeChunk(output, "IDAT", bytes, dataStart + 8, firstLength);
+        writeChunk(output, "IDAT", bytes, dataStart + 8 + firstLength, dataLength - firstLength);
+        int dataEnd = dataStart + 12 + dataLength;
+        output.write(bytes, dataEnd, bytes.length - dataEnd);
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Writes a chunk with its length and checksum.
+     * @param output        stream to write to
+     * @param type          type of the chunk
+     * @param data          array that holds the contents of the chunk
+     * @param offset        index of the first byte of the contents
+     * @param length        number of bytes in the contents
+     */
+    private static void writeChunk(ByteArrayOutputStream output, String type, byte[] data, int offset, int length) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, offset, length);
+
+        output.writeBytes(ByteBuffer.allocate(4).putInt(length).array());
+        output.writeBytes(typeBytes);
+        output.write(data, offset, length);
+        output.writeBytes(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    /**
+     * Finds the first chunk of a type in a PNG.
+     * @param bytes     PNG to search
+     * @param type      type of the chunk
+     * @return index of the chunk's length
+     */
+    private static int findChunk(byte[] bytes, String type) {
+        int index = 8;
+        while (!new String(bytes, index + 4, 4, StandardCharsets.US_ASCII).equals(type)) {
+            index += 12 + readInt(bytes, index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Reads a big-endian integer from an array.
+     * @param bytes     array to read from
+     * @param index     index of the integer's first byte
+     * @return the integer
+     */
+    private static int readInt(byte[] bytes, int index) {
+        return ByteBuffer.wrap(bytes, index, 4).getInt();
+    }
+
+    /**
+     * Opens a reader for an image.
+     * @param image     image to read
+     * @return the reader
+     * @throws IOException if the image cannot be written or read
+     */
+    private static PngFrameReader open(BufferedImage image) throws IOException {
+        return PngFrameReader.open(new ByteArrayInputStream(write(image))).orElseThrow();
+    }
+
+    /**
+     * Writes an image as a PNG.
+     * @param image     image to write
+     * @return the PNG's bytes
+     * @throws IOException if the image cannot be written
+     */
+    private static byte[] write(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(image, "png", output));
+        return output.toByteArray();
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import io.github.moremcmeta.animationplugin.animate.AnimationComponent;
+import io.github.moremcmeta.moremcmeta.api.math.Area;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link StrategyPlanner}.
+ * @author soir20
+ */
+public final class StrategyPlannerTest {
+    private static final long BUDGET = 256 * 1024;
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeBudget_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new StrategyPlanner(-1);
+    }
+
+    @Test
+    public void plan_NullArea_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new StrategyPlanner(BUDGET).plan(null, 0, 1, 1, 0, false, false);
+    }
+
+    @Test
+    public void plan_NegativeChangedPixels_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new StrategyPlanner(BUDGET).plan(new Area(0, 0, 4, 4), -1, 1, 1, 0, false, false);
+    }
+
+    @Test
+    public void plan_ZeroFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new StrategyPlanner(BUDGET).plan(new Area(0, 0, 4, 4), 0, 0, 1, 0, false, false);
+    }
+
+    @Test
+    public void plan_ZeroTicksPerCycle_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new StrategyPlanner(BUDGET).plan(new Area(0, 0, 4, 4), 0, 1, 0, 0, false, false);
+    }
+
+    @Test
+    public void plan_NegativeInterpolatedSteps_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new StrategyPlanner(BUDGET).plan(new Area(0, 0, 4, 4), 0, 1, 1, -1, true, false);
+    }
+
+    @Test
+    public void plan_EmptyArea_NoOp() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(BUDGET).plan(Area.of(), 0, 4, 40, 40, true, false);
+
+        assertEquals(AnimationComponent.Strategy.NO_OP, plan.strategy());
+        assertEquals(0, plan.chosen().memoryBytes());
+    }
+
+    @Test
+    public void plan_SmallInterpolatedAnimation_Precomputed() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(BUDGET).plan(new Area(0, 0, 4, 4), 16, 4, 40, 40, true,
+                false);
+
+        assertEquals(AnimationComponent.Strategy.PRECOMPUTED, plan.strategy());
+        assertEquals(2 * 64 + 40 * 64, plan.chosen().memoryBytes());
+    }
+
+    @Test
+    public void plan_InterpolatedStepsOverBudget_Direct() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(40 * 64 - 1).plan(new Area(0, 0, 4, 4), 16, 4, 40, 40,
+                true, false);
+
+        assertEquals(AnimationComponent.Strategy.DIRECT, plan.strategy());
+        assertTrue(plan.estimates().stream().anyMatch((estimate) ->
+                estimate.strategy() == AnimationComponent.Strategy.PRECOMPUTED && !estimate.feasible()));
+    }
+
+    @Test
+    public void plan_FewPixelsChangePerFrame_Delta() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(BUDGET).plan(new Area(0, 0, 16, 16), 4, 4, 40, 40, false,
+                false);
+
+        assertEquals(AnimationComponent.Strategy.DELTA, plan.strategy());
+        assertTrue(plan.chosen().tickCost() < plan.estimates().get(0).tickCost());
+    }
+
+    @Test
+    public void plan_FewPixelsChangeButOverlapsOthers_Direct() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(BUDGET).plan(new Area(0, 0, 16, 16), 4, 4, 40, 40, false,
+                true);
+
+        assertEquals(AnimationComponent.Strategy.DIRECT, plan.strategy());
+        assertEquals(1, plan.estimates().size());
+    }
+
+    @Test
+    public void plan_MostPixelsChangePerFrame_Direct() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(BUDGET).plan(new Area(0, 0, 16, 16), 250, 4, 40, 40,
+                false, false);
+
+        assertEquals(AnimationComponent.Strategy.DIRECT, plan.strategy());
+    }
+
+    @Test
+    public void plan_NotInterpolated_PrecomputedNotConsidered() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(BUDGET).plan(new Area(0, 0, 4, 4), 16, 4, 40, 40, false,
+                false);
+
+        assertFalse(plan.estimates().stream().anyMatch((estimate) ->
+                estimate.strategy() == AnimationComponent.Strategy.PRECOMPUTED));
+    }
+
+    @Test
+    public void plan_NotInterpolated_CostScaledByFrameChanges() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(BUDGET).plan(new Area(0, 0, 4, 4), 16, 4, 40, 40, false,
+                true);
+
+        assertEquals(0.1 * 16 * 5, plan.chosen().tickCost(), 0.0001);
+    }
+
+    @Test
+    public void toString_SeveralEstimates_AllEstimatesIncluded() {
+        StrategyPlanner.Plan plan = new StrategyPlanner(BUDGET).plan(new Area(0, 0, 4, 4), 16, 4, 40, 40, true,
+                false);
+
+        assertEquals("PRECOMPUTED chosen from [DIRECT: 144.0/tick, 128 bytes, "
+                + "PRECOMPUTED: 64.0/tick, 2688 bytes, DELTA: 160.0/tick, 192 bytes (rejected)]", plan.toString());
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.metadata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link TextureBuffer}.
+ * @author soir20
+ */
+public final class TextureBufferTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void read_NullStream_NullPointerException() throws IOException {
+        expectedException.expect(NullPointerException.class);
+        TextureBuffer.read(null);
+    }
+
+    @Test
+    public void read_SizeAvailable_AllBytesRead() throws IOException {
+        byte[] bytes = makeBytes(20000);
+
+        try (TextureBuffer buffer = TextureBuffer.read(new ByteArrayInputStream(bytes))) {
+            assertTrue(buffer.buffer().isDirect());
+            assertArrayEquals(bytes, toArray(buffer.buffer()));
+        }
+    }
+
+    @Test
+    public void read_SizeNotAvailable_AllBytesRead() throws IOException {
+        byte[] bytes = makeBytes(20000);
+        InputStream stream = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+        };
+
+        try (TextureBuffer buffer = TextureBuffer.read(stream)) {
+            assertArrayEquals(bytes, toArray(buffer.buffer()));
+        }
+    }
+
+    @Test
+    public void read_EmptyStream_EmptyBuffer() throws IOException {
+        try (TextureBuffer buffer = TextureBuffer.read(new ByteArrayInputStream(new byte[0]))) {
+            assertEquals(0, buffer.buffer().remaining());
+        }
+    }
+
+    @Test
+    public void map_NullStream_NullPointerException() throws IOException {
+        expectedException.expect(NullPointerException.class);
+        TextureBuffer.map(null);
+    }
+
+    @Test
+    public void map_PartlyReadFile_RemainingBytesMapped() throws IOException {
+        byte[] bytes = makeBytes(500);
+        Path path = Files.createTempFile("texture", ".png");
+        try {
+            Files.write(path, bytes);
+
+            try (FileInputStream fileStream = new FileInputStream(path.toFile())) {
+                assertEquals(10, fileStream.read(new byte[10]));
+
+                try (TextureBuffer buffer = TextureBuffer.map(fileStream)) {
+                    byte[] expected = new byte[490];
+                    System.arraycopy(bytes, 10, expected, 0, 490);
+                    assertArrayEquals(expected, toArray(buffer.buffer()));
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void stream_MarkThenReset_BytesReadAgain() throws IOException {
+        byte[] bytes = makeBytes(100);
+
+        try (TextureBuffer buffer = TextureBuffer.read(new ByteArrayInputStream(bytes))) {
+            InputStream stream = buffer.stream();
+            assertEquals(bytes[0] & 0xFF, stream.read());
+
+            stream.mark(50);
+            byte[] firstRead = stream.readNBytes(40);
+            stream.reset();
+
+            assertArrayEquals(firstRead, stream.readNBytes(40));
+            assertEquals(59, stream.readAllBytes().length);
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test
+    public void buffer_Closed_IllegalStateException() throws IOException {
+        TextureBuffer buffer = TextureBuffer.read(new ByteArrayInputStream(makeBytes(10)));
+        buffer.close();
+
+        expectedException.expect(IllegalStateException.class);
+        buffer.buffer();
+    }
+
+    /**
+     * Creates an array of bytes that are not all the same.
+     * @param length    number of bytes
+     * @return the bytes
+     */
+    private static byte[] makeBytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int index = 0; index < length; index++) {
+            bytes[index] = (byte) (index * 31);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Copies the remaining bytes in a buffer to an array.
+     * @param buffer    buffer to copy
+     * @return the buffer's remaining bytes
+     */
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.profile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link MemoryTracker}.
+ * @author soir20
+ */
+public final class MemoryTrackerTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void trackNative_NullDescription_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new MemoryTracker().trackNative(null, 10, () -> {});
+    }
+
+    @Test
+    public void trackNative_NullCloser_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new MemoryTracker().trackNative("texture", 10, null);
+    }
+
+    @Test
+    public void trackNative_NegativeBytes_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new MemoryTracker().trackNative("texture", -1, () -> {});
+    }
+
+    @Test
+    public void trackHeap_NullDescription_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new MemoryTracker().trackHeap(null, 10);
+    }
+
+    @Test
+    public void watch_NullOwner_NullPointerException() {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        MemoryTracker.Allocation allocation = memoryTracker.trackHeap("cache", 10);
+
+        expectedException.expect(NullPointerException.class);
+        memoryTracker.watch(null, allocation);
+    }
+
+    @Test
+    public void watch_NullAllocation_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new MemoryTracker().watch(new Object(), null);
+    }
+
+    @Test
+    public void construct_NoAllocations_TotalsZero() {
+        MemoryTracker memoryTracker = new MemoryTracker();
+
+        assertEquals(0, memoryTracker.nativeBytes());
+        assertEquals(0, memoryTracker.heapBytes());
+        assertEquals(0, memoryTracker.openAllocations());
+    }
+
+    @Test
+    public void track_NativeAndHeap_TotalsSeparate() {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        memoryTracker.trackNative("texture 1", 100, () -> {});
+        memoryTracker.trackNative("texture 2", 50, () -> {});
+        memoryTracker.trackHeap("cache", 30);
+
+        assertEquals(150, memoryTracker.nativeBytes());
+        assertEquals(30, memoryTracker.heapBytes());
+        assertEquals(3, memoryTracker.openAllocations());
+    }
+
+    @Test
+    public void close_NativeAllocation_CloserRunAndTotalsUpdated() {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AtomicInteger timesClosed = new AtomicInteger();
+        MemoryTracker.Allocation allocation = memoryTracker.trackNative(
+                "texture",
+                100,
+                timesClosed::incrementAndGet
+        );
+        memoryTracker.trackNative("other texture", 50, () -> {});
+
+        allocation.close();
+
+        assertTrue(allocation.isClosed());
+        assertEquals(1, timesClosed.get());
+        assertEquals(50, memoryTracker.nativeBytes());
+        assertEquals(1, memoryTracker.openAllocations());
+    }
+
+    @Test
+    public void close_CalledTwice_CloserRunOnce() {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AtomicInteger timesClosed = new AtomicInteger();
+        MemoryTracker.Allocation allocation = memoryTracker.trackNative(
+                "texture",
+                100,
+                timesClosed::incrementAndGet
+        );
+
+        allocation.close();
+        allocation.close();
+
+        assertEquals(1, timesClosed.get());
+        assertEquals(0, memoryTracker.nativeBytes());
+        assertEquals(0, memoryTracker.openAllocations());
+    }
+
+    @Test
+    public void liveAllocations_SomeClosed_OnlyOpenReturned() {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        MemoryTracker.Allocation allocation1 = memoryTracker.trackNative("texture", 100, () -> {});
+        MemoryTracker.Allocation allocation2 = memoryTracker.trackHeap("cache", 30);
+        allocation1.close();
+
+        List<MemoryTracker.Allocation> liveAllocations = memoryTracker.liveAllocations();
+
+        assertEquals(1, liveAllocations.size());
+        assertEquals(allocation2, liveAllocations.get(0));
+        assertEquals(MemoryTracker.Kind.HEAP, liveAllocations.get(0).kind());
+        assertEquals(30, liveAllocations.get(0).bytes());
+    }
+
+    @Test
+    public void attachTo_TextureId_IdRetrieved() {
+        MemoryTracker.Allocation allocation = new MemoryTracker().trackNative("texture", 100, () -> {});
+        assertEquals(-1, allocation.textureId());
+
+        allocation.attachTo(5);
+
+        assertEquals(5, allocation.textureId());
+    }
+
+    @Test
+    public void checkTextureClosed_AllocationsStillOpen_AllocationsNotClosed() {
+        MemoryTracker memoryTracker = new MemoryTracker();
+        MemoryTracker.Allocation allocation = memoryTracker.trackNative("texture", 100, () -> {});
+        allocation.attachTo(5);
+
+        memoryTracker.checkTextureClosed(5);
+
+        assertFalse(allocation.isClosed());
+        assertEquals(1, memoryTracker.openAllocations());
+    }
+
+}
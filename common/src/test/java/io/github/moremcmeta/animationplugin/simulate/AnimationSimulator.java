@@ -0,0 +1,286 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import io.github.moremcmeta.animationplugin.MockCurrentFrameView;
+import io.github.moremcmeta.animationplugin.MockMutableFrameGroup;
+import io.github.moremcmeta.animationplugin.MockMutableFrameView;
+import io.github.moremcmeta.animationplugin.animate.ComponentReuseCache;
+import io.github.moremcmeta.animationplugin.metadata.AnimationComponentBuilder;
+import io.github.moremcmeta.animationplugin.metadata.AnimationMetadataAnalyzer;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataAnalyzer;
+import io.github.moremcmeta.moremcmeta.api.client.texture.ComponentBuilder;
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.TextureComponent;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs an animated texture through the plugin's analyzer and component builder and ticks it without a
+ * game client or a GPU. Frames are kept in arrays, and each tick's output can be written to a PNG so that
+ * visual and performance regressions can be caught outside the game.
+ * @author soir20
+ */
+public final class AnimationSimulator {
+    private static final int DEFAULT_TICKS = 100;
+    private static final String USAGE = "Usage: AnimationSimulator <texture.png> [--metadata <file.mcmeta>] "
+            + "[--resources <dir>] [--ticks <count>] [--frames <dir>] [--report <file.csv>]";
+
+    private final MetadataAnalyzer ANALYZER;
+    private final ComponentBuilder COMPONENT_BUILDER;
+
+    /**
+     * Runs the simulator from the command line. The metadata defaults to the texture path with
+     * ".mcmeta" appended, and part textures are found relative to the texture's directory.
+     * @param args      command line arguments, as described by the usage message
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Creates a new simulator.
+     * @param analyzer              analyzes the texture's metadata
+     * @param componentBuilder      builds the texture's components from the analyzed metadata
+     */
+    public AnimationSimulator(MetadataAnalyzer analyzer, ComponentBuilder componentBuilder) {
+        ANALYZER = requireNonNull(analyzer, "Analyzer cannot be null");
+        COMPONENT_BUILDER = requireNonNull(componentBuilder, "Component builder cannot be null");
+    }
+
+    /**
+     * Analyzes, builds, and ticks an animated texture. The texture's frames are split from the base
+     * texture by row, and the current frame starts as the first frame, like in the core mod.
+     * @param texturePath       path to the base texture
+     * @param metadataPath      path to the texture's .mcmeta file
+     * @param resourceRoot      directory that part textures are found in, either directly or in
+     *                          assets/namespace/ for namespaced locations
+     * @param ticks             number of ticks to simulate
+     * @param framesOutput      directory to write the current frame to after every tick, if any
+     * @return timings and pixel counts for the simulation
+     * @throws IOException if a texture cannot be read or a frame cannot be written
+     * @throws InvalidMetadataException if the metadata is not valid
+     */
+    public SimulationReport simulate(Path texturePath, Path metadataPath, Path resourceRoot, int ticks,
+                                     Optional<Path> framesOutput) throws IOException, InvalidMetadataException {
+        requireNonNull(texturePath, "Texture path cannot be null");
+        requireNonNull(metadataPath, "Metadata path cannot be null");
+        requireNonNull(resourceRoot, "Resource root cannot be null");
+        requireNonNull(framesOutput, "Frames output cannot be null");
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Ticks cannot be negative but was: " + ticks);
+        }
+
+        TextureFixture fixture = TextureFixture.read(texturePath, metadataPath, resourceRoot);
+
+        long analysisStart = System.nanoTime();
+        AnalyzedMetadata analyzedMetadata = ANALYZER.analyze(fixture.metadata(), fixture.width(), fixture.height());
+        long analysisNanos = System.nanoTime() - analysisStart;
+
+        int frameWidth = analyzedMetadata.frameWidth().orElse(fixture.width());
+        int frameHeight = analyzedMetadata.frameHeight().orElse(fixture.height());
+        MockMutableFrameGroup frames = fixture.frames(frameWidth, frameHeight);
+
+        long buildStart = System.nanoTime();
+        TextureComponent<? super CurrentFrameView> component = COMPONENT_BUILDER.build(analyzedMetadata, frames);
+        long buildNanos = System.nanoTime() - buildStart;
+
+        MockCurrentFrameView currentFrame = new MockCurrentFrameView(frames.frame(0));
+        long[] cpuNanos = new long[ticks];
+        long[] wallNanos = new long[ticks];
+        long[] pixelsWritten = new long[ticks];
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        boolean hasCpuTime = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+
+        if (framesOutput.isPresent()) {
+            Files.createDirectories(framesOutput.get());
+        }
+
+        try (NativeImage output = new NativeImage(frameWidth, frameHeight, false)) {
+            for (int tick = 0; tick < ticks; tick++) {
+                long pixelsBefore = currentFrame.pixelsWritten();
+                long cpuStart = hasCpuTime ? threadBean.getCurrentThreadCpuTime() : 0;
+                long wallStart = System.nanoTime();
+
+                component.onTick(currentFrame, frames, 1);
+
+                wallNanos[tick] = System.nanoTime() - wallStart;
+                cpuNanos[tick] = hasCpuTime ? threadBean.getCurrentThreadCpuTime() - cpuStart : -1;
+                pixelsWritten[tick] = currentFrame.pixelsWritten() - pixelsBefore;
+
+                if (framesOutput.isPresent()) {
+                    Path framePath = framesOutput.get().resolve(String.format("tick_%06d.png", tick + 1));
+                    writeFrame(currentFrame, output, framePath);
+                }
+            }
+        } finally {
+            component.onClose(currentFrame, frames);
+        }
+
+        return new SimulationReport(analysisNanos, buildNanos, cpuNanos, wallNanos, pixelsWritten);
+    }
+
+    /**
+     * Runs the simulator with the given command line arguments.
+     * @param args      command line arguments
+     * @param out       stream to write the summary to
+     * @param err       stream to write errors to
+     * @return exit code: 0 on success, 1 if the simulation failed, or 2 if the arguments are not valid
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Path texturePath = null;
+        Path metadataPath = null;
+        Path resourceRoot = null;
+        Path framesOutput = null;
+        Path reportPath = null;
+        int ticks = DEFAULT_TICKS;
+
+        try {
+            for (int index = 0; index < args.length; index++) {
+                String arg = args[index];
+                if (!arg.startsWith("--")) {
+                    if (texturePath != null) {
+                        throw new IllegalArgumentException("Only one texture can be simulated at a time");
+                    }
+                    texturePath = Path.of(arg);
+                    continue;
+                }
+
+                if (index + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++index];
+
+                switch (arg) {
+                    case "--metadata" -> metadataPath = Path.of(value);
+                    case "--resources" -> resourceRoot = Path.of(value);
+                    case "--ticks" -> ticks = Integer.parseInt(value);
+                    case "--frames" -> framesOutput = Path.of(value);
+                    case "--report" -> reportPath = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+
+            if (texturePath == null) {
+                throw new IllegalArgumentException("No texture provided");
+            }
+        } catch (IllegalArgumentException argumentErr) {
+            err.println(argumentErr.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        if (metadataPath == null) {
+            metadataPath = texturePath.resolveSibling(texturePath.getFileName() + ".mcmeta");
+        }
+
+        if (resourceRoot == null) {
+            resourceRoot = texturePath.toAbsolutePath().getParent();
+        }
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationSimulator simulator = new AnimationSimulator(
+                new AnimationMetadataAnalyzer(memoryTracker),
+                new AnimationComponentBuilder(Optional::empty, memoryTracker, new ComponentReuseCache())
+        );
+
+        try {
+            SimulationReport report = simulator.simulate(
+                    texturePath,
+                    metadataPath,
+                    resourceRoot,
+                    ticks,
+                    Optional.ofNullable(framesOutput)
+            );
+
+            if (reportPath != null) {
+                try (Writer writer = Files.newBufferedWriter(reportPath)) {
+                    report.writeCsv(writer);
+                }
+            }
+
+            out.println(report.summary());
+            return 0;
+        } catch (IOException | InvalidMetadataException | RuntimeException simulationErr) {
+            err.println("Simulation failed: " + simulationErr);
+            return 1;
+        }
+    }
+
+    /**
+     * Splits a texture into frames by row.
+     * @param pixels        pixels in the texture by row
+     * @param width         width of the texture
+     * @param height        height of the texture
+     * @param frameWidth    width of a frame
+     * @param frameHeight   height of a frame
+     * @return all frames in the texture
+     */
+    static MockMutableFrameGroup splitFrames(int[] pixels, int width, int height, int frameWidth, int frameHeight) {
+        List<MockMutableFrameView> frames = new ArrayList<>();
+
+        // Frames at the edges that do not fit entirely in the texture are transparent outside it
+        for (int minY = 0; minY < height; minY += frameHeight) {
+            for (int minX = 0; minX < width; minX += frameWidth) {
+                int[] framePixels = new int[frameWidth * frameHeight];
+                int copiedWidth = Math.min(frameWidth, width - minX);
+                for (int y = 0; y < frameHeight && minY + y < height; y++) {
+                    System.arraycopy(pixels, (minY + y) * width + minX, framePixels, y * frameWidth, copiedWidth);
+                }
+
+                frames.add(new MockMutableFrameView(frameWidth, frameHeight, framePixels));
+            }
+        }
+
+        return new MockMutableFrameGroup(frames);
+    }
+
+    /**
+     * Writes a frame to a PNG file.
+     * @param frame         frame to write
+     * @param output        image to copy the frame into before writing
+     * @param path          path of the file to write
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeFrame(MockCurrentFrameView frame, NativeImage output, Path path) throws IOException {
+        for (int y = 0; y < frame.height(); y++) {
+            for (int x = 0; x < frame.width(); x++) {
+                output.setPixelRGBA(x, y, frame.color(x, y));
+            }
+        }
+
+        output.writeToFile(path.toFile());
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import io.github.moremcmeta.animationplugin.animate.ComponentReuseCache;
+import io.github.moremcmeta.animationplugin.metadata.AnimationComponentBuilder;
+import io.github.moremcmeta.animationplugin.metadata.AnimationMetadataAnalyzer;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link AnimationSimulator}.
+ * @author soir20
+ */
+public final class AnimationSimulatorTest {
+    private static final int FIRST_COLOR = 0xFF0000FF;
+    private static final int SECOND_COLOR = 0xFFFF0000;
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    private Path directory;
+    private Path texturePath;
+    private Path metadataPath;
+    private AnimationSimulator simulator;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("animation-simulator");
+        texturePath = directory.resolve("texture.png");
+        metadataPath = directory.resolve("texture.png.mcmeta");
+
+        try (NativeImage texture = new NativeImage(2, 4, false)) {
+            for (int y = 0; y < 4; y++) {
+                for (int x = 0; x < 2; x++) {
+                    texture.setPixelRGBA(x, y, y < 2 ? FIRST_COLOR : SECOND_COLOR);
+                }
+            }
+            texture.writeToFile(texturePath.toFile());
+        }
+
+        Files.writeString(metadataPath, "{\"animation\": {\"frametime\": 2}}");
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        simulator = new AnimationSimulator(
+                new AnimationMetadataAnalyzer(memoryTracker),
+                new AnimationComponentBuilder(Optional::empty, memoryTracker, new ComponentReuseCache())
+        );
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach((path) -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void construct_NullAnalyzer_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationSimulator(null, new AnimationComponentBuilder(Optional::empty, new MemoryTracker(),
+                new ComponentReuseCache()));
+    }
+
+    @Test
+    public void construct_NullBuilder_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationSimulator(new AnimationMetadataAnalyzer(new MemoryTracker()), null);
+    }
+
+    @Test
+    public void simulate_NegativeTicks_IllegalArgException() throws IOException, InvalidMetadataException {
+        expectedException.expect(IllegalArgumentException.class);
+        simulator.simulate(texturePath, metadataPath, directory, -1, Optional.empty());
+    }
+
+    @Test
+    public void simulate_NoAnimationSection_InvalidMetadataException() throws IOException, InvalidMetadataException {
+        Files.writeString(metadataPath, "{\"texture\": {}}");
+        expectedException.expect(InvalidMetadataException.class);
+        simulator.simulate(texturePath, metadataPath, directory, 1, Optional.empty());
+    }
+
+    @Test
+    public void simulate_ValidTexture_EveryTickReported() throws IOException, InvalidMetadataException {
+        SimulationReport report = simulator.simulate(texturePath, metadataPath, directory, 4, Optional.empty());
+
+        // The third tick shows the same frame as the second, so nothing is written
+        long[] expectedPixels = {4, 4, 0, 4};
+
+        assertEquals(4, report.ticks());
+        for (int tick = 0; tick < 4; tick++) {
+            assertEquals(expectedPixels[tick], report.pixelsWritten(tick));
+            assertTrue(report.wallNanos(tick) >= 0);
+        }
+        assertEquals(12, report.totalPixelsWritten());
+    }
+
+    @Test
+    public void simulate_FramesOutput_EveryTickWritten() throws IOException, InvalidMetadataException {
+        Path framesOutput = directory.resolve("frames");
+        simulator.simulate(texturePath, metadataPath, directory, 4, Optional.of(framesOutput));
+
+        assertEquals(FIRST_COLOR, readColor(framesOutput.resolve("tick_000001.png")));
+        assertEquals(SECOND_COLOR, readColor(framesOutput.resolve("tick_000002.png")));
+        assertEquals(SECOND_COLOR, readColor(framesOutput.resolve("tick_000003.png")));
+        assertEquals(FIRST_COLOR, readColor(framesOutput.resolve("tick_000004.png")));
+    }
+
+    @Test
+    public void simulate_PartTexture_PartResolvedFromResourceRoot() throws IOException, InvalidMetadataException {
+        Path partPath = directory.resolve("assets").resolve("test").resolve("part.png");
+        Files.createDirectories(partPath.getParent());
+        Files.copy(texturePath, partPath);
+        Files.writeString(metadataPath, "{\"animation\": {\"parts\": [{\"texture\": \"test:part.png\", "
+                + "\"x\": 0, \"y\": 0, \"width\": 2, \"height\": 2}]}}");
+
+        Path framesOutput = directory.resolve("frames");
+        SimulationReport report = simulator.simulate(texturePath, metadataPath, directory, 1,
+                Optional.of(framesOutput));
+
+        assertEquals(4, report.pixelsWritten(0));
+        assertEquals(SECOND_COLOR, readColor(framesOutput.resolve("tick_000001.png")));
+    }
+
+    @Test
+    public void run_NoTexture_UsageError() {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = AnimationSimulator.run(new String[0], new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(err));
+
+        assertEquals(2, exitCode);
+        assertTrue(err.toString().contains("Usage"));
+    }
+
+    @Test
+    public void run_ValidArgs_ReportWritten() throws IOException {
+        Path reportPath = directory.resolve("report.csv");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int exitCode = AnimationSimulator.run(
+                new String[] { texturePath.toString(), "--ticks", "3", "--report", reportPath.toString() },
+                new PrintStream(out),
+                new PrintStream(new ByteArrayOutputStream())
+        );
+
+        assertEquals(0, exitCode);
+        assertTrue(out.toString().contains("Ticks: 3"));
+        assertEquals(4, Files.readAllLines(reportPath).size());
+    }
+
+    private static int readColor(Path path) throws IOException {
+        try (InputStream stream = Files.newInputStream(path); NativeImage image = NativeImage.read(stream)) {
+            return image.getPixelRGBA(0, 0);
+        }
+    }
+
+}
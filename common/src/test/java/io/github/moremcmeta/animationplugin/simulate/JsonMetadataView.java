@@ -0,0 +1,303 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataView;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.NegativeKeyIndexException;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads metadata from a JSON object or array, like the core mod does for .mcmeta files. Keys in an
+ * array are its indices.
+ * @author soir20
+ */
+public final class JsonMetadataView implements MetadataView {
+    private final JsonElement ROOT;
+    private final Function<String, Optional<InputStream>> STREAM_RESOLVER;
+
+    /**
+     * Creates a new view of JSON metadata.
+     * @param root              JSON object or array to read
+     * @param streamResolver    opens the resource named by a string value, such as a part texture, if it exists
+     */
+    public JsonMetadataView(JsonElement root, Function<String, Optional<InputStream>> streamResolver) {
+        requireNonNull(root, "Root cannot be null");
+        if (!root.isJsonObject() && !root.isJsonArray()) {
+            throw new IllegalArgumentException("Root must be a JSON object or array but was: " + root);
+        }
+
+        ROOT = root;
+        STREAM_RESOLVER = requireNonNull(streamResolver, "Stream resolver cannot be null");
+    }
+
+    @Override
+    public int size() {
+        return ROOT.isJsonObject() ? ROOT.getAsJsonObject().size() : ROOT.getAsJsonArray().size();
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        List<String> keys = new ArrayList<>();
+        if (ROOT.isJsonObject()) {
+            keys.addAll(ROOT.getAsJsonObject().keySet());
+        } else {
+            for (int index = 0; index < size(); index++) {
+                keys.add(String.valueOf(index));
+            }
+        }
+
+        return keys;
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        return value(key).isPresent();
+    }
+
+    @Override
+    public boolean hasKey(int index) {
+        return value(index).isPresent();
+    }
+
+    @Override
+    public Optional<String> stringValue(String key) {
+        return value(key).flatMap(JsonMetadataView::asString);
+    }
+
+    @Override
+    public Optional<String> stringValue(int index) {
+        return value(index).flatMap(JsonMetadataView::asString);
+    }
+
+    @Override
+    public Optional<Integer> integerValue(String key) {
+        return value(key).flatMap(JsonMetadataView::asInteger);
+    }
+
+    @Override
+    public Optional<Integer> integerValue(int index) {
+        return value(index).flatMap(JsonMetadataView::asInteger);
+    }
+
+    @Override
+    public Optional<Long> longValue(String key) {
+        return value(key).flatMap(JsonMetadataView::asLong);
+    }
+
+    @Override
+    public Optional<Long> longValue(int index) {
+        return value(index).flatMap(JsonMetadataView::asLong);
+    }
+
+    @Override
+    public Optional<Float> floatValue(String key) {
+        return value(key).flatMap(JsonMetadataView::asNumber).map(BigDecimal::floatValue);
+    }
+
+    @Override
+    public Optional<Float> floatValue(int index) {
+        return value(index).flatMap(JsonMetadataView::asNumber).map(BigDecimal::floatValue);
+    }
+
+    @Override
+    public Optional<Double> doubleValue(String key) {
+        return value(key).flatMap(JsonMetadataView::asNumber).map(BigDecimal::doubleValue);
+    }
+
+    @Override
+    public Optional<Double> doubleValue(int index) {
+        return value(index).flatMap(JsonMetadataView::asNumber).map(BigDecimal::doubleValue);
+    }
+
+    @Override
+    public Optional<Boolean> booleanValue(String key) {
+        return value(key).flatMap(JsonMetadataView::asBoolean);
+    }
+
+    @Override
+    public Optional<Boolean> booleanValue(int index) {
+        return value(index).flatMap(JsonMetadataView::asBoolean);
+    }
+
+    @Override
+    public Optional<InputStream> byteStreamValue(String key) {
+        return stringValue(key).flatMap(STREAM_RESOLVER);
+    }
+
+    @Override
+    public Optional<InputStream> byteStreamValue(int index) {
+        return stringValue(index).flatMap(STREAM_RESOLVER);
+    }
+
+    @Override
+    public Optional<MetadataView> subView(String key) {
+        return value(key).flatMap(this::asView);
+    }
+
+    @Override
+    public Optional<MetadataView> subView(int index) {
+        return value(index).flatMap(this::asView);
+    }
+
+    /**
+     * Gets the value with the given key.
+     * @param key       key of the value
+     * @return the value or empty if there is no value with the key
+     */
+    private Optional<JsonElement> value(String key) {
+        requireNonNull(key, "Key cannot be null");
+
+        if (ROOT.isJsonObject()) {
+            return Optional.ofNullable(ROOT.getAsJsonObject().get(key));
+        }
+
+        int index;
+        try {
+            index = Integer.parseInt(key);
+        } catch (NumberFormatException err) {
+            return Optional.empty();
+        }
+
+        return index < 0 ? Optional.empty() : value(index);
+    }
+
+    /**
+     * Gets the value at the given index.
+     * @param index     index of the value
+     * @return the value or empty if the index is past the end of this view
+     */
+    private Optional<JsonElement> value(int index) {
+        if (index < 0) {
+            throw new NegativeKeyIndexException(index);
+        }
+
+        if (index >= size()) {
+            return Optional.empty();
+        }
+
+        if (ROOT.isJsonArray()) {
+            JsonArray array = ROOT.getAsJsonArray();
+            return Optional.of(array.get(index));
+        }
+
+        JsonObject object = ROOT.getAsJsonObject();
+        Iterator<Map.Entry<String, JsonElement>> entries = object.entrySet().iterator();
+        for (int skipped = 0; skipped < index; skipped++) {
+            entries.next();
+        }
+
+        return Optional.of(entries.next().getValue());
+    }
+
+    /**
+     * Converts a value to a sub view if it is an object or an array.
+     * @param element   value to convert
+     * @return the sub view or empty if the value is not an object or an array
+     */
+    private Optional<MetadataView> asView(JsonElement element) {
+        if (!element.isJsonObject() && !element.isJsonArray()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new JsonMetadataView(element, STREAM_RESOLVER));
+    }
+
+    /**
+     * Converts a value to a string if it is a string.
+     * @param element   value to convert
+     * @return the string or empty if the value is not a string
+     */
+    private static Optional<String> asString(JsonElement element) {
+        if (element instanceof JsonPrimitive primitive && primitive.isString()) {
+            return Optional.of(primitive.getAsString());
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Converts a value to a number if it is a number.
+     * @param element   value to convert
+     * @return the number or empty if the value is not a number
+     */
+    private static Optional<BigDecimal> asNumber(JsonElement element) {
+        if (element instanceof JsonPrimitive primitive && primitive.isNumber()) {
+            return Optional.of(primitive.getAsBigDecimal());
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Converts a value to an integer if it is a whole number that fits in an integer.
+     * @param element   value to convert
+     * @return the integer or empty if the value is not an integer
+     */
+    private static Optional<Integer> asInteger(JsonElement element) {
+        return asNumber(element).flatMap((number) -> {
+            try {
+                return Optional.of(number.intValueExact());
+            } catch (ArithmeticException err) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Converts a value to a long if it is a whole number that fits in a long.
+     * @param element   value to convert
+     * @return the long or empty if the value is not a long
+     */
+    private static Optional<Long> asLong(JsonElement element) {
+        return asNumber(element).flatMap((number) -> {
+            try {
+                return Optional.of(number.longValueExact());
+            } catch (ArithmeticException err) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Converts a value to a boolean if it is a boolean.
+     * @param element   value to convert
+     * @return the boolean or empty if the value is not a boolean
+     */
+    private static Optional<Boolean> asBoolean(JsonElement element) {
+        if (element instanceof JsonPrimitive primitive && primitive.isBoolean()) {
+            return Optional.of(primitive.getAsBoolean());
+        }
+
+        return Optional.empty();
+    }
+
+}
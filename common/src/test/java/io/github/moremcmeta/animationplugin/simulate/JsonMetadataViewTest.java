@@ -0,0 +1,152 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.MetadataView;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.NegativeKeyIndexException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link JsonMetadataView}.
+ * @author soir20
+ */
+public final class JsonMetadataViewTest {
+    private static final String JSON = "{\"frametime\": 2.5, \"width\": 16, \"interpolate\": true, "
+            + "\"texture\": \"test:part.png\", \"frames\": [0, {\"index\": 1, \"time\": 3}], \"big\": 5000000000}";
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullRoot_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new JsonMetadataView(null, (location) -> Optional.empty());
+    }
+
+    @Test
+    public void construct_PrimitiveRoot_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new JsonMetadataView(JsonParser.parseString("5"), (location) -> Optional.empty());
+    }
+
+    @Test
+    public void construct_NullResolver_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new JsonMetadataView(JsonParser.parseString(JSON), null);
+    }
+
+    @Test
+    public void keys_Object_AllKeysInOrder() {
+        assertEquals(
+                ImmutableList.of("frametime", "width", "interpolate", "texture", "frames", "big"),
+                ImmutableList.copyOf(makeView().keys())
+        );
+    }
+
+    @Test
+    public void integerValue_WholeNumber_Found() {
+        assertEquals(Optional.of(16), makeView().integerValue("width"));
+    }
+
+    @Test
+    public void integerValue_Decimal_Empty() {
+        assertEquals(Optional.empty(), makeView().integerValue("frametime"));
+    }
+
+    @Test
+    public void integerValue_TooLarge_Empty() {
+        assertEquals(Optional.empty(), makeView().integerValue("big"));
+        assertEquals(Optional.of(5000000000L), makeView().longValue("big"));
+    }
+
+    @Test
+    public void doubleValue_Decimal_Found() {
+        assertEquals(Optional.of(2.5), makeView().doubleValue("frametime"));
+    }
+
+    @Test
+    public void booleanValue_Boolean_Found() {
+        assertEquals(Optional.of(true), makeView().booleanValue("interpolate"));
+    }
+
+    @Test
+    public void booleanValue_NotBoolean_Empty() {
+        assertEquals(Optional.empty(), makeView().booleanValue("width"));
+    }
+
+    @Test
+    public void integerValue_ObjectIndex_ValueAtIndex() {
+        assertEquals(Optional.of(16), makeView().integerValue(1));
+    }
+
+    @Test
+    public void hasKey_NegativeIndex_NegativeKeyIndexException() {
+        MetadataView view = makeView();
+        expectedException.expect(NegativeKeyIndexException.class);
+        view.hasKey(-1);
+    }
+
+    @Test
+    public void hasKey_IndexPastEnd_False() {
+        assertFalse(makeView().hasKey(6));
+    }
+
+    @Test
+    public void subView_Array_ElementsByIndex() {
+        MetadataView frames = makeView().subView("frames").orElseThrow();
+
+        assertEquals(2, frames.size());
+        assertTrue(frames.hasKey("1"));
+        assertEquals(Optional.of(0), frames.integerValue(0));
+        assertEquals(Optional.of(3), frames.subView(1).orElseThrow().integerValue("time"));
+    }
+
+    @Test
+    public void byteStreamValue_StringResolved_StreamReturned() throws IOException {
+        MetadataView view = new JsonMetadataView(
+                JsonParser.parseString(JSON),
+                (location) -> Optional.of(new ByteArrayInputStream(location.getBytes()))
+        );
+
+        InputStream stream = view.byteStreamValue("texture").orElseThrow();
+        assertEquals("test:part.png", new String(stream.readAllBytes()));
+    }
+
+    @Test
+    public void byteStreamValue_NotString_Empty() {
+        assertEquals(Optional.empty(), makeView().byteStreamValue("width"));
+    }
+
+    private static MetadataView makeView() {
+        JsonElement root = JsonParser.parseString(JSON);
+        return new JsonMetadataView(root, (location) -> Optional.empty());
+    }
+
+}
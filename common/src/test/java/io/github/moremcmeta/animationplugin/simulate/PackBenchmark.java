@@ -0,0 +1,324 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import io.github.moremcmeta.animationplugin.MockCurrentFrameView;
+import io.github.moremcmeta.animationplugin.MockMutableFrameGroup;
+import io.github.moremcmeta.animationplugin.animate.ComponentReuseCache;
+import io.github.moremcmeta.animationplugin.metadata.AnimationComponentBuilder;
+import io.github.moremcmeta.animationplugin.metadata.AnimationMetadataAnalyzer;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.TextureComponent;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Loads every texture in a {@link SyntheticPack} through the analyzer and component builder, then ticks
+ * all of them together, like a large resource pack after a reload. Results are written as JSON so that
+ * plugin versions can be compared on the same pack.
+ * @author soir20
+ */
+public final class PackBenchmark {
+    private static final int DEFAULT_TEXTURES = 1000;
+    private static final long DEFAULT_SEED = 20230101L;
+    private static final int DEFAULT_WARMUP_TICKS = 100;
+    private static final int DEFAULT_MEASURED_TICKS = 200;
+    private static final String USAGE = "Usage: PackBenchmark [--textures <count>] [--seed <seed>] "
+            + "[--warmup <ticks>] [--ticks <ticks>] [--label <label>] [--output <report.json>]";
+
+    private final SyntheticPack PACK;
+
+    /**
+     * Runs the benchmark from the command line and writes the report to a file or standard output.
+     * @param args      command line arguments, as described by the usage message
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Creates a new benchmark.
+     * @param pack      pack of textures to load and tick
+     */
+    public PackBenchmark(SyntheticPack pack) {
+        PACK = requireNonNull(pack, "Pack cannot be null");
+    }
+
+    /**
+     * Loads and ticks every texture in the pack.
+     * @param warmupTicks       ticks to run before measuring, so that the JIT compiler can optimize ticking
+     * @param measuredTicks     ticks to measure after warming up
+     * @param label             label to identify the results, such as the plugin version
+     * @return machine-readable results
+     * @throws InvalidMetadataException if a texture's metadata is not valid
+     */
+    public JsonObject run(int warmupTicks, int measuredTicks, String label) throws InvalidMetadataException {
+        requireNonNull(label, "Label cannot be null");
+        if (warmupTicks < 0) {
+            throw new IllegalArgumentException("Warmup ticks cannot be negative but was: " + warmupTicks);
+        }
+        if (measuredTicks < 0) {
+            throw new IllegalArgumentException("Measured ticks cannot be negative but was: " + measuredTicks);
+        }
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker);
+        AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                Optional::empty,
+                memoryTracker,
+                new ComponentReuseCache()
+        );
+
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter((pool) -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        List<LoadedTexture> loadedTextures = new ArrayList<>();
+        long analysisNanos = 0;
+        long buildNanos = 0;
+        long peakNativeBytes = 0;
+        long changedAreaPixels = 0;
+
+        try {
+            for (SyntheticPack.Texture texture : PACK.textures()) {
+                JsonMetadataView metadata = new JsonMetadataView(texture.animation(), PACK::openPartTexture);
+
+                long analysisStart = System.nanoTime();
+                AnalyzedMetadata analyzedMetadata = analyzer.analyze(metadata, texture.width(), texture.height());
+                analysisNanos += System.nanoTime() - analysisStart;
+
+                MockMutableFrameGroup frames = AnimationSimulator.splitFrames(
+                        texture.pixels(),
+                        texture.width(),
+                        texture.height(),
+                        analyzedMetadata.frameWidth().orElse(texture.width()),
+                        analyzedMetadata.frameHeight().orElse(texture.height())
+                );
+
+                long buildStart = System.nanoTime();
+                TextureComponent<? super CurrentFrameView> component = builder.build(analyzedMetadata, frames);
+                buildNanos += System.nanoTime() - buildStart;
+
+                loadedTextures.add(new LoadedTexture(component, frames, new MockCurrentFrameView(frames.frame(0))));
+                peakNativeBytes = Math.max(peakNativeBytes, memoryTracker.nativeBytes());
+            }
+
+            for (int tick = 0; tick < warmupTicks; tick++) {
+                tickAll(loadedTextures);
+            }
+
+            long[] tickNanos = new long[measuredTicks];
+            long pixelsWritten = 0;
+            for (int tick = 0; tick < measuredTicks; tick++) {
+                long pixelsBefore = countPixelsWritten(loadedTextures);
+                long tickStart = System.nanoTime();
+                tickAll(loadedTextures);
+                tickNanos[tick] = System.nanoTime() - tickStart;
+                pixelsWritten += countPixelsWritten(loadedTextures) - pixelsBefore;
+            }
+
+            long peakHeapBytes = heapPools.stream().mapToLong((pool) -> pool.getPeakUsage().getUsed()).sum();
+            Arrays.sort(tickNanos);
+
+            JsonObject report = new JsonObject();
+            report.addProperty("label", label);
+            report.addProperty("javaVersion", Runtime.version().toString());
+            report.addProperty("processors", Runtime.getRuntime().availableProcessors());
+            report.addProperty("seed", PACK.seed());
+            report.addProperty("textures", loadedTextures.size());
+
+            JsonObject load = new JsonObject();
+            load.addProperty("analysisNanos", analysisNanos);
+            load.addProperty("buildNanos", buildNanos);
+            load.addProperty("texturesPerSecond", perSecond(loadedTextures.size(), analysisNanos + buildNanos));
+            report.add("load", load);
+
+            JsonObject memory = new JsonObject();
+            memory.addProperty("peakHeapBytes", peakHeapBytes);
+            memory.addProperty("peakNativeBytes", peakNativeBytes);
+            report.add("memory", memory);
+
+            JsonObject ticks = new JsonObject();
+            ticks.addProperty("warmupTicks", warmupTicks);
+            ticks.addProperty("measuredTicks", measuredTicks);
+            ticks.addProperty("meanNanos", measuredTicks == 0 ? 0 : Arrays.stream(tickNanos).sum() / measuredTicks);
+            ticks.addProperty("p50Nanos", percentile(tickNanos, 0.5));
+            ticks.addProperty("p99Nanos", percentile(tickNanos, 0.99));
+            ticks.addProperty("maxNanos", percentile(tickNanos, 1));
+            ticks.addProperty("pixelsWrittenPerTick", measuredTicks == 0 ? 0 : pixelsWritten / measuredTicks);
+            report.add("ticks", ticks);
+
+            return report;
+        } finally {
+            loadedTextures.forEach((texture) -> texture.COMPONENT.onClose(texture.CURRENT_FRAME, texture.FRAMES));
+        }
+    }
+
+    /**
+     * Runs the benchmark with the given command line arguments.
+     * @param args      command line arguments
+     * @param out       stream to write the report to if there is no output file
+     * @param err       stream to write errors to
+     * @return exit code: 0 on success, 1 if the benchmark failed, or 2 if the arguments are not valid
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        int textures = DEFAULT_TEXTURES;
+        long seed = DEFAULT_SEED;
+        int warmupTicks = DEFAULT_WARMUP_TICKS;
+        int measuredTicks = DEFAULT_MEASURED_TICKS;
+        String label = Optional.ofNullable(PackBenchmark.class.getPackage().getImplementationVersion())
+                .orElse("unknown");
+        Path output = null;
+
+        try {
+            for (int index = 0; index < args.length; index += 2) {
+                if (index + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[index]);
+                }
+
+                String value = args[index + 1];
+                switch (args[index]) {
+                    case "--textures" -> textures = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--warmup" -> warmupTicks = Integer.parseInt(value);
+                    case "--ticks" -> measuredTicks = Integer.parseInt(value);
+                    case "--label" -> label = value;
+                    case "--output" -> output = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[index]);
+                }
+            }
+        } catch (IllegalArgumentException argumentErr) {
+            err.println(argumentErr.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            JsonObject report = new PackBenchmark(new SyntheticPack(textures, seed))
+                    .run(warmupTicks, measuredTicks, label);
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+            if (output == null) {
+                out.println(gson.toJson(report));
+            } else {
+                try (Writer writer = Files.newBufferedWriter(output)) {
+                    gson.toJson(report, writer);
+                }
+            }
+
+            return 0;
+        } catch (IOException | InvalidMetadataException | RuntimeException benchmarkErr) {
+            err.println("Benchmark failed: " + benchmarkErr);
+            return 1;
+        }
+    }
+
+    /**
+     * Ticks every loaded texture once.
+     * @param textures      textures to tick
+     */
+    private static void tickAll(List<LoadedTexture> textures) {
+        for (LoadedTexture texture : textures) {
+            texture.COMPONENT.onTick(texture.CURRENT_FRAME, texture.FRAMES, 1);
+        }
+    }
+
+    /**
+     * Counts the total pixels written to the current frames of all loaded textures.
+     * @param textures      textures to count pixels for
+     * @return total pixels written so far
+     */
+    private static long countPixelsWritten(List<LoadedTexture> textures) {
+        long pixels = 0;
+        for (LoadedTexture texture : textures) {
+            pixels += texture.CURRENT_FRAME.pixelsWritten();
+        }
+
+        return pixels;
+    }
+
+    /**
+     * Calculates a rate per second.
+     * @param count     number of items processed
+     * @param nanos     time taken to process them in nanoseconds
+     * @return items per second
+     */
+    private static double perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    /**
+     * Finds a percentile of sorted values with the nearest-rank method.
+     * @param sortedValues      values in ascending order
+     * @param percentile        percentile to find, from 0 to 1
+     * @return the value at the percentile or 0 if there are no values
+     */
+    private static long percentile(long[] sortedValues, double percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(percentile * sortedValues.length);
+        return sortedValues[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * A texture that has been analyzed and built.
+     * @author soir20
+     */
+    private static final class LoadedTexture {
+        private final TextureComponent<? super CurrentFrameView> COMPONENT;
+        private final MockMutableFrameGroup FRAMES;
+        private final MockCurrentFrameView CURRENT_FRAME;
+
+        /**
+         * Creates a new loaded texture.
+         * @param component         component built for the texture
+         * @param frames            predefined frames of the texture
+         * @param currentFrame      current frame of the texture
+         */
+        private LoadedTexture(TextureComponent<? super CurrentFrameView> component,
+                              MockMutableFrameGroup frames, MockCurrentFrameView currentFrame) {
+            COMPONENT = component;
+            FRAMES = frames;
+            CURRENT_FRAME = currentFrame;
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link PackBenchmark}.
+ * @author soir20
+ */
+public final class PackBenchmarkTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullPack_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new PackBenchmark(null);
+    }
+
+    @Test
+    public void run_NegativeWarmup_IllegalArgException() throws IOException, InvalidMetadataException {
+        PackBenchmark benchmark = new PackBenchmark(new SyntheticPack(1, 0));
+        expectedException.expect(IllegalArgumentException.class);
+        benchmark.run(-1, 1, "test");
+    }
+
+    @Test
+    public void run_NullLabel_NullPointerException() throws IOException, InvalidMetadataException {
+        PackBenchmark benchmark = new PackBenchmark(new SyntheticPack(1, 0));
+        expectedException.expect(NullPointerException.class);
+        benchmark.run(1, 1, null);
+    }
+
+    @Test
+    public void run_SmallPack_AllSectionsReported() throws IOException, InvalidMetadataException {
+        JsonObject report = new PackBenchmark(new SyntheticPack(10, 0)).run(2, 5, "test");
+
+        assertEquals("test", report.get("label").getAsString());
+        assertEquals(10, report.get("textures").getAsInt());
+        assertTrue(report.getAsJsonObject("load").get("texturesPerSecond").getAsDouble() > 0);
+        assertTrue(report.getAsJsonObject("memory").get("peakHeapBytes").getAsLong() > 0);
+        assertEquals(5, report.getAsJsonObject("ticks").get("measuredTicks").getAsInt());
+        assertTrue(report.getAsJsonObject("ticks").get("pixelsWrittenPerTick").getAsLong() > 0);
+    }
+
+    @Test
+    public void run_UnknownOption_UsageError() {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = PackBenchmark.run(new String[] { "--unknown", "1" },
+                new PrintStream(new ByteArrayOutputStream()), new PrintStream(err));
+
+        assertEquals(2, exitCode);
+        assertTrue(err.toString().contains("Usage"));
+    }
+
+    @Test
+    public void run_ValidArgs_JsonReportPrinted() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int exitCode = PackBenchmark.run(new String[] { "--textures", "3", "--warmup", "1", "--ticks", "1" },
+                new PrintStream(out), new PrintStream(new ByteArrayOutputStream()));
+
+        assertEquals(0, exitCode);
+        assertEquals(3, JsonParser.parseString(out.toString()).getAsJsonObject().get("textures").getAsInt());
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Timings and pixel counts from one run of the {@link AnimationSimulator}.
+ * @author soir20
+ */
+public final class SimulationReport {
+    private static final String CSV_HEADER = "tick,cpu_nanos,wall_nanos,pixels_written";
+
+    private final long ANALYSIS_NANOS;
+    private final long BUILD_NANOS;
+    private final long[] CPU_NANOS;
+    private final long[] WALL_NANOS;
+    private final long[] PIXELS_WRITTEN;
+
+    /**
+     * Creates a new report.
+     * @param analysisNanos     wall time spent analyzing the metadata in nanoseconds
+     * @param buildNanos        wall time spent building the components in nanoseconds
+     * @param cpuNanos          CPU time of each tick in nanoseconds, or -1 if CPU time is not available
+     * @param wallNanos         wall time of each tick in nanoseconds
+     * @param pixelsWritten     pixels written to the current frame during each tick
+     */
+    public SimulationReport(long analysisNanos, long buildNanos, long[] cpuNanos, long[] wallNanos,
+                            long[] pixelsWritten) {
+        requireNonNull(cpuNanos, "CPU times cannot be null");
+        requireNonNull(wallNanos, "Wall times cannot be null");
+        requireNonNull(pixelsWritten, "Pixels written cannot be null");
+        if (cpuNanos.length != wallNanos.length || cpuNanos.length != pixelsWritten.length) {
+            throw new IllegalArgumentException("Every tick must have a CPU time, wall time, and pixel count");
+        }
+
+        ANALYSIS_NANOS = analysisNanos;
+        BUILD_NANOS = buildNanos;
+        CPU_NANOS = cpuNanos.clone();
+        WALL_NANOS = wallNanos.clone();
+        PIXELS_WRITTEN = pixelsWritten.clone();
+    }
+
+    /**
+     * Gets the wall time spent analyzing the metadata.
+     * @return analysis time in nanoseconds
+     */
+    public long analysisNanos() {
+        return ANALYSIS_NANOS;
+    }
+
+    /**
+     * Gets the wall time spent building the components.
+     * @return build time in nanoseconds
+     */
+    public long buildNanos() {
+        return BUILD_NANOS;
+    }
+
+    /**
+     * Gets the number of ticks that were simulated.
+     * @return number of ticks
+     */
+    public int ticks() {
+        return CPU_NANOS.length;
+    }
+
+    /**
+     * Gets the CPU time of a tick.
+     * @param tick      index of the tick, starting at 0
+     * @return CPU time in nanoseconds, or -1 if CPU time is not available
+     */
+    public long cpuNanos(int tick) {
+        return CPU_NANOS[tick];
+    }
+
+    /**
+     * Gets the wall time of a tick.
+     * @param tick      index of the tick, starting at 0
+     * @return wall time in nanoseconds
+     */
+    public long wallNanos(int tick) {
+        return WALL_NANOS[tick];
+    }
+
+    /**
+     * Gets the number of pixels written during a tick.
+     * @param tick      index of the tick, starting at 0
+     * @return pixels written
+     */
+    public long pixelsWritten(int tick) {
+        return PIXELS_WRITTEN[tick];
+    }
+
+    /**
+     * Gets the total number of pixels written during all ticks.
+     * @return total pixels written
+     */
+    public long totalPixelsWritten() {
+        return Arrays.stream(PIXELS_WRITTEN).sum();
+    }
+
+    /**
+     * Gets the total CPU time of all ticks.
+     * @return total CPU time in nanoseconds, or -1 if CPU time is not available
+     */
+    public long totalCpuNanos() {
+        return ticks() > 0 && CPU_NANOS[0] < 0 ? -1 : Arrays.stream(CPU_NANOS).sum();
+    }
+
+    /**
+     * Gets the longest CPU time of any tick.
+     * @return maximum CPU time in nanoseconds, or -1 if CPU time is not available or there were no ticks
+     */
+    public long maxCpuNanos() {
+        return Arrays.stream(CPU_NANOS).max().orElse(-1);
+    }
+
+    /**
+     * Writes every tick as a row of comma-separated values with a header row.
+     * @param writer        writer to write to
+     * @throws IOException if the values cannot be written
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        requireNonNull(writer, "Writer cannot be null");
+
+        writer.write(CSV_HEADER);
+        writer.write(System.lineSeparator());
+        for (int tick = 0; tick < ticks(); tick++) {
+            writer.write(tick + "," + CPU_NANOS[tick] + "," + WALL_NANOS[tick] + "," + PIXELS_WRITTEN[tick]);
+            writer.write(System.lineSeparator());
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Summarizes this report in a few human-readable lines.
+     * @return summary of this report
+     */
+    public String summary() {
+        return String.format(
+                "Analysis: %.3f ms%nBuild: %.3f ms%nTicks: %s%nTotal CPU: %s%nMax tick CPU: %s%nPixels written: %s",
+                ANALYSIS_NANOS / 1e6,
+                BUILD_NANOS / 1e6,
+                ticks(),
+                formatCpuNanos(totalCpuNanos()),
+                formatCpuNanos(maxCpuNanos()),
+                totalPixelsWritten()
+        );
+    }
+
+    /**
+     * Formats a CPU time in milliseconds.
+     * @param nanos     CPU time in nanoseconds
+     * @return formatted time
+     */
+    private static String formatCpuNanos(long nanos) {
+        return nanos < 0 ? "unavailable" : String.format("%.3f ms", nanos / 1e6);
+    }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mojang.blaze3d.platform.NativeImage;
+import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Generates a reproducible pack of animated textures with a mix of frame counts, resolutions, parts,
+ * interpolation, and frame lists. The same seed and texture count always produce the same pack, so
+ * results from different plugin versions can be compared.
+ * @author soir20
+ */
+public final class SyntheticPack {
+    private static final int[] RESOLUTIONS = { 16, 16, 16, 32, 32, 64, 128 };
+    private static final int MAX_FRAMES = 32;
+    private static final int MAX_PARTS = 4;
+    private static final int MAX_FRAME_TIME = 5;
+    private static final int MAX_LISTED_FRAME_TIME = 10;
+    private static final String NAMESPACE = "synthetic";
+
+    private final long SEED;
+    private final List<Texture> TEXTURES;
+    private final Map<String, byte[]> PART_TEXTURES;
+
+    /**
+     * Generates a new synthetic pack.
+     * @param textureCount      number of animated textures in the pack
+     * @param seed              seed for all random choices
+     * @throws IOException if a part texture cannot be encoded
+     */
+    public SyntheticPack(int textureCount, long seed) throws IOException {
+        if (textureCount < 0) {
+            throw new IllegalArgumentException("Texture count cannot be negative but was: " + textureCount);
+        }
+
+        SEED = seed;
+        TEXTURES = new ArrayList<>();
+        PART_TEXTURES = new HashMap<>();
+
+        Random random = new Random(seed);
+        for (int index = 0; index < textureCount; index++) {
+            TEXTURES.add(generateTexture(index, random));
+        }
+    }
+
+    /**
+     * Gets the seed that this pack was generated from.
+     * @return seed of this pack
+     */
+    public long seed() {
+        return SEED;
+    }
+
+    /**
+     * Gets all textures in this pack.
+     * @return all textures in the pack
+     */
+    public List<Texture> textures() {
+        return TEXTURES;
+    }
+
+    /**
+     * Opens a part texture in this pack by its location.
+     * @param location      location of the part texture
+     * @return the part texture's PNG data or empty if there is no part texture at that location
+     */
+    public Optional<InputStream> openPartTexture(String location) {
+        return Optional.ofNullable(PART_TEXTURES.get(location)).map(ByteArrayInputStream::new);
+    }
+
+    /**
+     * Generates a single texture, either with animated parts or with frames in the base texture.
+     * @param index     index of the texture in the pack
+     * @param random    source of all random choices
+     * @return the generated texture
+     * @throws IOException if a part texture cannot be encoded
+     */
+    private Texture generateTexture(int index, Random random) throws IOException {
+        int resolution = RESOLUTIONS[random.nextInt(RESOLUTIONS.length)];
+        int parts = random.nextInt(MAX_PARTS + 1);
+        JsonObject animation;
+        int[] pixels;
+        int width = resolution;
+        int height;
+
+        if (parts == 0) {
+            int frames = 2 + random.nextInt(MAX_FRAMES - 1);
+            height = resolution * frames;
+            pixels = generateFrames(resolution, frames, random);
+            animation = generateProperties(frames, random);
+        } else {
+            height = resolution;
+            pixels = generateFrames(resolution, 1, random);
+
+            JsonArray partsArray = new JsonArray();
+            for (int partIndex = 0; partIndex < parts; partIndex++) {
+                int partSize = Math.max(1, resolution / (2 + random.nextInt(3)));
+                int frames = 2 + random.nextInt(MAX_FRAMES - 1);
+                String location = NAMESPACE + ":part_" + index + "_" + partIndex + ".png";
+                PART_TEXTURES.put(location, encode(partSize, partSize * frames,
+                        generateFrames(partSize, frames, random)));
+
+                JsonObject part = generateProperties(frames, random);
+                part.addProperty("texture", location);
+                part.addProperty("x", random.nextInt(resolution - partSize + 1));
+                part.addProperty("y", random.nextInt(resolution - partSize + 1));
+                part.addProperty("width", partSize);
+                part.addProperty("height", partSize);
+                partsArray.add(part);
+            }
+
+            animation = new JsonObject();
+            animation.add("parts", partsArray);
+        }
+
+        return new Texture(width, height, pixels, animation);
+    }
+
+    /**
+     * Generates the animation properties shared by base textures and parts.
+     * @param frames    number of frames in the animation
+     * @param random    source of all random choices
+     * @return the generated properties
+     */
+    private static JsonObject generateProperties(int frames, Random random) {
+        JsonObject properties = new JsonObject();
+        properties.addProperty("frametime", 1 + random.nextInt(MAX_FRAME_TIME));
+        properties.addProperty("interpolate", random.nextBoolean());
+        properties.addProperty("smoothAlpha", random.nextInt(4) == 0);
+
+        if (random.nextBoolean()) {
+            JsonArray frameList = new JsonArray();
+            int listLength = 1 + random.nextInt(frames * 2);
+            for (int listIndex = 0; listIndex < listLength; listIndex++) {
+                if (random.nextBoolean()) {
+                    frameList.add(random.nextInt(frames));
+                } else {
+                    JsonObject frame = new JsonObject();
+                    frame.addProperty("index", random.nextInt(frames));
+                    frame.addProperty("time", 1 + random.nextInt(MAX_LISTED_FRAME_TIME));
+                    frameList.add(frame);
+                }
+            }
+
+            properties.add("frames", frameList);
+        }
+
+        return properties;
+    }
+
+    /**
+     * Generates square frames stacked vertically. Only some pixels change between frames, like in
+     * most real animations.
+     * @param size      width and height of each frame
+     * @param frames    number of frames
+     * @param random    source of all random choices
+     * @return pixels of all frames by row
+     */
+    private static int[] generateFrames(int size, int frames, Random random) {
+        int[] pixels = new int[size * size * frames];
+        double changingFraction = 0.05 + random.nextDouble() * 0.95;
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean changes = random.nextDouble() < changingFraction;
+                int staticColor = randomColor(random);
+
+                for (int frame = 0; frame < frames; frame++) {
+                    int color = changes ? randomColor(random) : staticColor;
+                    pixels[(frame * size + y) * size + x] = color;
+                }
+            }
+        }
+
+        return pixels;
+    }
+
+    /**
+     * Generates a random color that is usually opaque.
+     * @param random    source of all random choices
+     * @return random color
+     */
+    private static int randomColor(Random random) {
+        int alpha = random.nextInt(8) == 0 ? random.nextInt(256) : 255;
+        return Color.pack(random.nextInt(256), random.nextInt(256), random.nextInt(256), alpha);
+    }
+
+    /**
+     * Encodes pixels as a PNG.
+     * @param width     width of the image
+     * @param height    height of the image
+     * @param pixels    pixels of the image by row
+     * @return PNG data
+     * @throws IOException if the image cannot be encoded
+     */
+    private static byte[] encode(int width, int height, int[] pixels) throws IOException {
+        try (NativeImage image = new NativeImage(width, height, false)) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    image.setPixelRGBA(x, y, pixels[y * width + x]);
+                }
+            }
+
+            return image.asByteArray();
+        }
+    }
+
+    /**
+     * A single synthetic texture.
+     * @author soir20
+     */
+    public static final class Texture {
+        private final int WIDTH;
+        private final int HEIGHT;
+        private final int[] PIXELS;
+        private final JsonObject ANIMATION;
+
+        /**
+         * Creates a new synthetic texture.
+         * @param width         width of the base texture
+         * @param height        height of the base texture
+         * @param pixels        pixels of the base texture by row
+         * @param animation     animation section of the texture's metadata
+         */
+        private Texture(int width, int height, int[] pixels, JsonObject animation) {
+            WIDTH = width;
+            HEIGHT = height;
+            PIXELS = requireNonNull(pixels, "Pixels cannot be null");
+            ANIMATION = requireNonNull(animation, "Animation cannot be null");
+        }
+
+        /**
+         * Gets the width of the base texture.
+         * @return width of the base texture
+         */
+        public int width() {
+            return WIDTH;
+        }
+
+        /**
+         * Gets the height of the base texture.
+         * @return height of the base texture
+         */
+        public int height() {
+            return HEIGHT;
+        }
+
+        /**
+         * Gets a copy of the base texture's pixels, since building components writes to them.
+         * @return pixels of the base texture by row
+         */
+        public int[] pixels() {
+            return PIXELS.clone();
+        }
+
+        /**
+         * Gets the animation section of this texture's metadata.
+         * @return animation section of the metadata
+         */
+        public JsonObject animation() {
+            return ANIMATION;
+        }
+
+    }
+
+}
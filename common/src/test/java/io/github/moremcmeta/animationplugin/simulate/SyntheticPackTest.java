@@ -0,0 +1,94 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link SyntheticPack}.
+ * @author soir20
+ */
+public final class SyntheticPackTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeTextureCount_IllegalArgException() throws IOException {
+        expectedException.expect(IllegalArgumentException.class);
+        new SyntheticPack(-1, 0);
+    }
+
+    @Test
+    public void construct_TextureCount_ThatManyTextures() throws IOException {
+        assertEquals(20, new SyntheticPack(20, 0).textures().size());
+    }
+
+    @Test
+    public void construct_SameSeed_SamePack() throws IOException {
+        List<SyntheticPack.Texture> first = new SyntheticPack(20, 5).textures();
+        List<SyntheticPack.Texture> second = new SyntheticPack(20, 5).textures();
+
+        for (int index = 0; index < first.size(); index++) {
+            assertEquals(first.get(index).animation(), second.get(index).animation());
+            assertArrayEquals(first.get(index).pixels(), second.get(index).pixels());
+        }
+    }
+
+    @Test
+    public void construct_DifferentSeed_DifferentPack() throws IOException {
+        assertNotEquals(
+                new SyntheticPack(20, 5).textures().get(0).animation(),
+                new SyntheticPack(20, 6).textures().get(0).animation()
+        );
+    }
+
+    @Test
+    public void openPartTexture_EveryPartLocation_PartTextureFound() throws IOException {
+        SyntheticPack pack = new SyntheticPack(20, 0);
+        int parts = 0;
+
+        for (SyntheticPack.Texture texture : pack.textures()) {
+            if (texture.animation().has("parts")) {
+                JsonArray partsArray = texture.animation().getAsJsonArray("parts");
+                for (JsonElement part : partsArray) {
+                    String location = part.getAsJsonObject().get("texture").getAsString();
+                    assertTrue(pack.openPartTexture(location).isPresent());
+                    parts++;
+                }
+            }
+        }
+
+        assertTrue(parts > 0);
+    }
+
+    @Test
+    public void openPartTexture_UnknownLocation_Empty() throws IOException {
+        assertTrue(new SyntheticPack(1, 0).openPartTexture("synthetic:missing.png").isEmpty());
+    }
+
+}
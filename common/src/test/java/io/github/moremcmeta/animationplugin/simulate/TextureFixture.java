@@ -0,0 +1,224 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.mojang.blaze3d.platform.NativeImage;
+import io.github.moremcmeta.animationplugin.MockMutableFrameGroup;
+import io.github.moremcmeta.animationplugin.ModConstants;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A texture and its animation metadata, loaded into memory so that it can be built as many times as
+ * a simulation needs.
+ * @author soir20
+ */
+public final class TextureFixture {
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int[] PIXELS;
+    private final JsonElement ANIMATION;
+    private final Function<String, Optional<InputStream>> RESOURCE_RESOLVER;
+
+    /**
+     * Reads a texture and its metadata from files.
+     * @param texturePath       path to the base texture
+     * @param metadataPath      path to the texture's .mcmeta file
+     * @param resourceRoot      directory that part textures are found in, either directly or in
+     *                          assets/namespace/ for namespaced locations
+     * @return the loaded texture
+     * @throws IOException if the texture or metadata cannot be read
+     * @throws InvalidMetadataException if the metadata is not valid JSON or does not have the plugin's section
+     */
+    public static TextureFixture read(Path texturePath, Path metadataPath, Path resourceRoot)
+            throws IOException, InvalidMetadataException {
+        requireNonNull(texturePath, "Texture path cannot be null");
+        requireNonNull(metadataPath, "Metadata path cannot be null");
+        requireNonNull(resourceRoot, "Resource root cannot be null");
+
+        int width;
+        int height;
+        int[] pixels;
+        try (InputStream textureStream = Files.newInputStream(texturePath);
+             NativeImage texture = NativeImage.read(textureStream)) {
+            width = texture.getWidth();
+            height = texture.getHeight();
+            pixels = new int[width * height];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    pixels[y * width + x] = texture.getPixelRGBA(x, y);
+                }
+            }
+        }
+
+        return new TextureFixture(
+                width,
+                height,
+                pixels,
+                readSection(metadataPath),
+                (location) -> openResource(resourceRoot, location)
+        );
+    }
+
+    /**
+     * Creates a new texture fixture.
+     * @param width                 width of the base texture
+     * @param height                height of the base texture
+     * @param pixels                pixels in the base texture by row
+     * @param animation             the plugin's section of the texture's metadata
+     * @param resourceResolver      opens resources, such as part textures, by location
+     */
+    public TextureFixture(int width, int height, int[] pixels, JsonElement animation,
+                          Function<String, Optional<InputStream>> resourceResolver) {
+        requireNonNull(pixels, "Pixels cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Texture must have positive dimensions but was "
+                    + width + "x" + height);
+        }
+        if (pixels.length != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " pixels but got " + pixels.length);
+        }
+
+        WIDTH = width;
+        HEIGHT = height;
+        PIXELS = pixels.clone();
+        ANIMATION = requireNonNull(animation, "Animation cannot be null");
+        RESOURCE_RESOLVER = requireNonNull(resourceResolver, "Resource resolver cannot be null");
+    }
+
+    /**
+     * Gets the width of the base texture.
+     * @return width of the base texture
+     */
+    public int width() {
+        return WIDTH;
+    }
+
+    /**
+     * Gets the height of the base texture.
+     * @return height of the base texture
+     */
+    public int height() {
+        return HEIGHT;
+    }
+
+    /**
+     * Gets the pixels in the base texture.
+     * @return a copy of the pixels in the base texture by row
+     */
+    public int[] pixels() {
+        return PIXELS.clone();
+    }
+
+    /**
+     * Gets a view of the texture's animation metadata.
+     * @return a new view of the plugin's section of the metadata
+     */
+    public JsonMetadataView metadata() {
+        return new JsonMetadataView(ANIMATION, RESOURCE_RESOLVER);
+    }
+
+    /**
+     * Splits the base texture into frames by row.
+     * @param frameWidth    width of a frame
+     * @param frameHeight   height of a frame
+     * @return new copies of all frames in the texture
+     */
+    public MockMutableFrameGroup frames(int frameWidth, int frameHeight) {
+        return AnimationSimulator.splitFrames(PIXELS, WIDTH, HEIGHT, frameWidth, frameHeight);
+    }
+
+    /**
+     * Reads the plugin's section from a .mcmeta file.
+     * @param metadataPath      path to the .mcmeta file
+     * @return the plugin's section of the metadata
+     * @throws IOException if the file cannot be read
+     * @throws InvalidMetadataException if the file is not valid JSON or does not have the plugin's section
+     */
+    private static JsonElement readSection(Path metadataPath) throws IOException, InvalidMetadataException {
+        JsonElement root;
+        try (Reader reader = Files.newBufferedReader(metadataPath)) {
+            root = JsonParser.parseReader(reader);
+        } catch (JsonParseException err) {
+            throw new InvalidMetadataException("Metadata is not valid JSON: " + err.getMessage());
+        }
+
+        if (!root.isJsonObject()) {
+            throw new InvalidMetadataException("Metadata must be a JSON object");
+        }
+
+        JsonElement section = root.getAsJsonObject().get(ModConstants.SECTION_NAME);
+        if (section == null || !section.isJsonObject()) {
+            throw new InvalidMetadataException("Metadata has no \"" + ModConstants.SECTION_NAME + "\" section");
+        }
+
+        return section;
+    }
+
+    /**
+     * Opens a resource, such as a part texture, by its location.
+     * @param resourceRoot      directory that resources are found in
+     * @param location          location of the resource, optionally with a namespace
+     * @return the resource's contents or empty if the resource cannot be read
+     */
+    private static Optional<InputStream> openResource(Path resourceRoot, String location) {
+        String namespace = "minecraft";
+        String path = location;
+
+        int separatorIndex = location.indexOf(':');
+        if (separatorIndex >= 0) {
+            namespace = location.substring(0, separatorIndex);
+            path = location.substring(separatorIndex + 1);
+        }
+
+        List<Path> candidates = List.of(
+                resourceRoot.resolve("assets").resolve(namespace).resolve(path),
+                resourceRoot.resolve(path)
+        );
+
+        for (Path candidate : candidates) {
+            if (Files.isRegularFile(candidate)) {
+
+                // The analyzer does not close streams, so read the whole resource up front
+                try {
+                    return Optional.of(new ByteArrayInputStream(Files.readAllBytes(candidate)));
+                } catch (IOException err) {
+                    return Optional.empty();
+                }
+
+            }
+        }
+
+        return Optional.empty();
+    }
+
+}
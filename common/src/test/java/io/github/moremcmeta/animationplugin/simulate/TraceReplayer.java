@@ -0,0 +1,287 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import io.github.moremcmeta.animationplugin.MockCurrentFrameView;
+import io.github.moremcmeta.animationplugin.MockMutableFrameGroup;
+import io.github.moremcmeta.animationplugin.animate.ComponentReuseCache;
+import io.github.moremcmeta.animationplugin.metadata.AnimationComponentBuilder;
+import io.github.moremcmeta.animationplugin.metadata.AnimationMetadataAnalyzer;
+import io.github.moremcmeta.animationplugin.profile.MemoryTracker;
+import io.github.moremcmeta.animationplugin.trace.TickRecord;
+import io.github.moremcmeta.animationplugin.trace.TickTraceReader;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.TextureComponent;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Replays a tick trace recorded in the game against textures outside the game. Traces only identify
+ * textures by the plugin-assigned ID, so each texture in the trace is assigned the next fixture, in the
+ * order that the textures first appear, wrapping around if there are more textures than fixtures. Every
+ * tick is replayed with the same tick count and the same synced time that the game used.
+ * @author soir20
+ */
+public final class TraceReplayer {
+    private static final String USAGE = "Usage: TraceReplayer <trace> (--texture <texture.png>... | "
+            + "--synthetic <count> [--seed <seed>]) [--report <file.csv>]";
+
+    private final List<TextureFixture> FIXTURES;
+
+    /**
+     * Runs the replayer from the command line. The metadata for each texture is the texture path with
+     * ".mcmeta" appended, and part textures are found relative to the texture's directory.
+     * @param args      command line arguments, as described by the usage message
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Creates a new replayer.
+     * @param fixtures      textures to assign to the textures in a trace
+     */
+    public TraceReplayer(List<TextureFixture> fixtures) {
+        requireNonNull(fixtures, "Fixtures cannot be null");
+        if (fixtures.isEmpty()) {
+            throw new IllegalArgumentException("At least one fixture is required");
+        }
+
+        FIXTURES = List.copyOf(fixtures);
+    }
+
+    /**
+     * Replays every record in a trace. Textures that are not closed in the trace are closed at the end.
+     * @param reader        reads the trace
+     * @return timings and pixel counts for every record in the trace, in order
+     * @throws IOException if the trace cannot be read
+     * @throws InvalidMetadataException if a fixture's metadata is not valid
+     */
+    public SimulationReport replay(TickTraceReader reader) throws IOException, InvalidMetadataException {
+        requireNonNull(reader, "Reader cannot be null");
+
+        MemoryTracker memoryTracker = new MemoryTracker();
+        AnimationMetadataAnalyzer analyzer = new AnimationMetadataAnalyzer(memoryTracker);
+        Map<Long, ReplayedTexture> openTextures = new HashMap<>();
+        int texturesSeen = 0;
+
+        long analysisNanos = 0;
+        long buildNanos = 0;
+        LongArrayList cpuNanos = new LongArrayList();
+        LongArrayList wallNanos = new LongArrayList();
+        LongArrayList pixelsWritten = new LongArrayList();
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        boolean hasCpuTime = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+
+        try {
+            Optional<TickRecord> nextRecord;
+            while ((nextRecord = reader.next()).isPresent()) {
+                TickRecord record = nextRecord.get();
+                ReplayedTexture texture = openTextures.get(record.textureId());
+
+                if (texture == null) {
+                    TextureFixture fixture = FIXTURES.get(texturesSeen++ % FIXTURES.size());
+
+                    // Each texture gets its own reuse cache because the trace already contains every reload
+                    ReplayedTexture newTexture = new ReplayedTexture();
+                    AnimationComponentBuilder builder = new AnimationComponentBuilder(
+                            () -> newTexture.time,
+                            memoryTracker,
+                            new ComponentReuseCache()
+                    );
+
+                    long analysisStart = System.nanoTime();
+                    AnalyzedMetadata metadata = analyzer.analyze(fixture.metadata(), fixture.width(), fixture.height());
+                    analysisNanos += System.nanoTime() - analysisStart;
+
+                    newTexture.frames = fixture.frames(
+                            metadata.frameWidth().orElse(fixture.width()),
+                            metadata.frameHeight().orElse(fixture.height())
+                    );
+                    newTexture.currentFrame = new MockCurrentFrameView(newTexture.frames.frame(0));
+
+                    long buildStart = System.nanoTime();
+                    newTexture.component = builder.build(metadata, newTexture.frames);
+                    buildNanos += System.nanoTime() - buildStart;
+
+                    openTextures.put(record.textureId(), newTexture);
+                    texture = newTexture;
+                }
+
+                long pixelsBefore = texture.currentFrame.pixelsWritten();
+                long cpuStart = hasCpuTime ? threadBean.getCurrentThreadCpuTime() : 0;
+                long wallStart = System.nanoTime();
+
+                if (record.isClose()) {
+                    openTextures.remove(record.textureId());
+                    texture.close();
+                } else {
+                    texture.time = record.time();
+                    texture.component.onTick(texture.currentFrame, texture.frames, record.ticks());
+                }
+
+                wallNanos.add(System.nanoTime() - wallStart);
+                cpuNanos.add(hasCpuTime ? threadBean.getCurrentThreadCpuTime() - cpuStart : -1);
+                pixelsWritten.add(texture.currentFrame.pixelsWritten() - pixelsBefore);
+            }
+        } finally {
+            openTextures.values().forEach(ReplayedTexture::close);
+        }
+
+        return new SimulationReport(
+                analysisNanos,
+                buildNanos,
+                cpuNanos.toLongArray(),
+                wallNanos.toLongArray(),
+                pixelsWritten.toLongArray()
+        );
+    }
+
+    /**
+     * Runs the replayer with the given command line arguments.
+     * @param args      command line arguments
+     * @param out       stream to write the summary to
+     * @param err       stream to write errors to
+     * @return exit code: 0 on success, 1 if the replay failed, or 2 if the arguments are not valid
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Path tracePath = null;
+        List<Path> texturePaths = new ArrayList<>();
+        int syntheticTextures = 0;
+        long seed = 20230101L;
+        Path reportPath = null;
+
+        try {
+            for (int index = 0; index < args.length; index++) {
+                String arg = args[index];
+                if (!arg.startsWith("--")) {
+                    if (tracePath != null) {
+                        throw new IllegalArgumentException("Only one trace can be replayed at a time");
+                    }
+                    tracePath = Path.of(arg);
+                    continue;
+                }
+
+                if (index + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++index];
+
+                switch (arg) {
+                    case "--texture" -> texturePaths.add(Path.of(value));
+                    case "--synthetic" -> syntheticTextures = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--report" -> reportPath = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+
+            if (tracePath == null) {
+                throw new IllegalArgumentException("No trace provided");
+            }
+
+            if (texturePaths.isEmpty() == (syntheticTextures <= 0)) {
+                throw new IllegalArgumentException("Provide either textures or a synthetic texture count");
+            }
+        } catch (IllegalArgumentException argumentErr) {
+            err.println(argumentErr.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            List<TextureFixture> fixtures = new ArrayList<>();
+            for (Path texturePath : texturePaths) {
+                fixtures.add(TextureFixture.read(
+                        texturePath,
+                        texturePath.resolveSibling(texturePath.getFileName() + ".mcmeta"),
+                        texturePath.toAbsolutePath().getParent()
+                ));
+            }
+
+            if (syntheticTextures > 0) {
+                SyntheticPack pack = new SyntheticPack(syntheticTextures, seed);
+                for (SyntheticPack.Texture texture : pack.textures()) {
+                    fixtures.add(new TextureFixture(
+                            texture.width(),
+                            texture.height(),
+                            texture.pixels(),
+                            texture.animation(),
+                            pack::openPartTexture
+                    ));
+                }
+            }
+
+            SimulationReport report;
+            try (InputStream traceStream = Files.newInputStream(tracePath);
+                 TickTraceReader reader = new TickTraceReader(traceStream)) {
+                report = new TraceReplayer(fixtures).replay(reader);
+            }
+
+            if (reportPath != null) {
+                try (Writer writer = Files.newBufferedWriter(reportPath)) {
+                    report.writeCsv(writer);
+                }
+            }
+
+            out.println(report.summary());
+            return 0;
+        } catch (IOException | InvalidMetadataException | RuntimeException replayErr) {
+            err.println("Replay failed: " + replayErr);
+            return 1;
+        }
+    }
+
+    /**
+     * A texture from the trace that has been built from a fixture.
+     * @author soir20
+     */
+    private static final class ReplayedTexture {
+        private TextureComponent<? super CurrentFrameView> component;
+        private MockMutableFrameGroup frames;
+        private MockCurrentFrameView currentFrame;
+        private Optional<Long> time = Optional.empty();
+
+        /**
+         * Closes the texture's component.
+         */
+        public void close() {
+            component.onClose(currentFrame, frames);
+        }
+
+    }
+
+}
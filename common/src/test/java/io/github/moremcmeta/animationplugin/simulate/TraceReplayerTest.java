@@ -0,0 +1,189 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.simulate;
+
+import com.google.gson.JsonParser;
+import io.github.moremcmeta.animationplugin.trace.TickTraceReader;
+import io.github.moremcmeta.animationplugin.trace.TickTraceWriter;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.InvalidMetadataException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link TraceReplayer}.
+ * @author soir20
+ */
+public final class TraceReplayerTest {
+    private static final TextureFixture SMALL_FIXTURE = makeFixture(2);
+    private static final TextureFixture LARGE_FIXTURE = makeFixture(4);
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullFixtures_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new TraceReplayer(null);
+    }
+
+    @Test
+    public void construct_NoFixtures_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new TraceReplayer(List.of());
+    }
+
+    @Test
+    public void replay_NullReader_NullPointerException() throws IOException, InvalidMetadataException {
+        expectedException.expect(NullPointerException.class);
+        new TraceReplayer(List.of(SMALL_FIXTURE)).replay(null);
+    }
+
+    @Test
+    public void replay_EmptyTrace_NothingReported() throws IOException, InvalidMetadataException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new TickTraceWriter(output).close();
+
+        SimulationReport report = new TraceReplayer(List.of(SMALL_FIXTURE)).replay(readTrace(output.toByteArray()));
+
+        assertEquals(0, report.ticks());
+        assertEquals(0, report.buildNanos());
+    }
+
+    @Test
+    public void replay_SeveralTextures_FixturesAssignedInOrderOfAppearance()
+            throws IOException, InvalidMetadataException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TickTraceWriter writer = new TickTraceWriter(output);
+        writer.recordTick(10, 1, Optional.empty());
+        writer.recordTick(20, 1, Optional.empty());
+        writer.recordTick(30, 1, Optional.empty());
+        writer.recordTick(10, 2, Optional.empty());
+        writer.close();
+
+        SimulationReport report = new TraceReplayer(List.of(SMALL_FIXTURE, LARGE_FIXTURE))
+                .replay(readTrace(output.toByteArray()));
+
+        assertEquals(4, report.ticks());
+        assertEquals(4, report.pixelsWritten(0));
+        assertEquals(16, report.pixelsWritten(1));
+        assertEquals(4, report.pixelsWritten(2));
+        assertEquals(4, report.pixelsWritten(3));
+    }
+
+    @Test
+    public void replay_TextureClosed_CloseReportedWithoutPixels() throws IOException, InvalidMetadataException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TickTraceWriter writer = new TickTraceWriter(output);
+        writer.recordTick(10, 1, Optional.of(100L));
+        writer.recordClose(10);
+        writer.recordTick(20, 1, Optional.of(101L));
+        writer.close();
+
+        SimulationReport report = new TraceReplayer(List.of(SMALL_FIXTURE, LARGE_FIXTURE))
+                .replay(readTrace(output.toByteArray()));
+
+        assertEquals(3, report.ticks());
+        assertEquals(4, report.pixelsWritten(0));
+        assertEquals(0, report.pixelsWritten(1));
+        assertEquals(16, report.pixelsWritten(2));
+    }
+
+    @Test
+    public void run_NoTextures_UsageError() throws IOException {
+        Path tracePath = Files.createTempFile("trace", ".bin");
+        try {
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            int exitCode = TraceReplayer.run(
+                    new String[] { tracePath.toString() },
+                    new PrintStream(new ByteArrayOutputStream()),
+                    new PrintStream(err)
+            );
+
+            assertEquals(2, exitCode);
+            assertTrue(err.toString().contains("Usage"));
+        } finally {
+            Files.delete(tracePath);
+        }
+    }
+
+    @Test
+    public void run_SyntheticTextures_SummaryPrinted() throws IOException {
+        Path tracePath = Files.createTempFile("trace", ".bin");
+        try {
+            try (TickTraceWriter writer = new TickTraceWriter(Files.newOutputStream(tracePath))) {
+                writer.recordTick(1, 1, Optional.empty());
+                writer.recordTick(2, 1, Optional.empty());
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int exitCode = TraceReplayer.run(
+                    new String[] { tracePath.toString(), "--synthetic", "2" },
+                    new PrintStream(out),
+                    new PrintStream(new ByteArrayOutputStream())
+            );
+
+            assertEquals(0, exitCode);
+            assertFalse(out.toString().isEmpty());
+        } finally {
+            Files.delete(tracePath);
+        }
+    }
+
+    /**
+     * Opens a trace from bytes.
+     * @param trace         trace to read
+     * @return reader for the trace
+     * @throws IOException if the trace cannot be read
+     */
+    private static TickTraceReader readTrace(byte[] trace) throws IOException {
+        return new TickTraceReader(new ByteArrayInputStream(trace));
+    }
+
+    /**
+     * Creates a square texture with two frames stacked vertically.
+     * @param size      width and height of a frame
+     * @return the texture
+     */
+    private static TextureFixture makeFixture(int size) {
+        int[] pixels = new int[size * size * 2];
+        for (int index = 0; index < pixels.length; index++) {
+            pixels[index] = index < size * size ? 0xFF0000FF : 0xFFFF0000;
+        }
+
+        return new TextureFixture(
+                size,
+                size * 2,
+                pixels,
+                JsonParser.parseString("{\"frametime\": 2}"),
+                (location) -> Optional.empty()
+        );
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.trace;
+
+import io.github.moremcmeta.animationplugin.MockCurrentFrameView;
+import io.github.moremcmeta.animationplugin.MockMutableFrameGroup;
+import io.github.moremcmeta.animationplugin.MockMutableFrameView;
+import io.github.moremcmeta.animationplugin.metadata.AnimationGroupMetadata;
+import io.github.moremcmeta.moremcmeta.api.client.metadata.AnalyzedMetadata;
+import io.github.moremcmeta.moremcmeta.api.client.texture.ComponentBuilder;
+import io.github.moremcmeta.moremcmeta.api.client.texture.CurrentFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.FrameGroup;
+import io.github.moremcmeta.moremcmeta.api.client.texture.PersistentFrameView;
+import io.github.moremcmeta.moremcmeta.api.client.texture.TextureComponent;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link RecordingComponentBuilder}.
+ * @author soir20
+ */
+public final class RecordingComponentBuilderTest {
+    private static final MockMutableFrameGroup FRAMES = new MockMutableFrameGroup(new MockMutableFrameView());
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    private List<String> calls;
+    private ComponentBuilder delegate;
+    private ByteArrayOutputStream output;
+    private TickTraceWriter writer;
+
+    @Before
+    public void setUp() throws IOException {
+        calls = new ArrayList<>();
+        delegate = (metadata, frames) -> new TextureComponent<CurrentFrameView>() {
+            @Override
+            public void onTick(CurrentFrameView currentFrame,
+                               FrameGroup<? extends PersistentFrameView> predefinedFrames, int ticks) {
+                calls.add("tick " + ticks);
+            }
+
+            @Override
+            public void onClose(CurrentFrameView currentFrame,
+                                FrameGroup<? extends PersistentFrameView> predefinedFrames) {
+                calls.add("close");
+            }
+        };
+        output = new ByteArrayOutputStream();
+        writer = new TickTraceWriter(output);
+    }
+
+    @Test
+    public void construct_NullDelegate_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new RecordingComponentBuilder(null, writer, Optional::empty);
+    }
+
+    @Test
+    public void construct_NullWriter_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new RecordingComponentBuilder(delegate, null, Optional::empty);
+    }
+
+    @Test
+    public void construct_NullTimeSource_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new RecordingComponentBuilder(delegate, writer, null);
+    }
+
+    @Test
+    public void build_NotAnimationMetadata_IllegalArgException() {
+        RecordingComponentBuilder builder = new RecordingComponentBuilder(delegate, writer, Optional::empty);
+
+        expectedException.expect(IllegalArgumentException.class);
+        builder.build(new AnalyzedMetadata() {}, FRAMES);
+    }
+
+    @Test
+    public void build_TicksAndClose_DelegateCalledAndRecorded() throws IOException {
+        RecordingComponentBuilder builder = new RecordingComponentBuilder(
+                delegate,
+                writer,
+                () -> Optional.of(1200L)
+        );
+        AnimationGroupMetadata metadata = new AnimationGroupMetadata(1, 1, List.of());
+        TextureComponent<? super CurrentFrameView> component = builder.build(metadata, FRAMES);
+        MockCurrentFrameView currentFrame = new MockCurrentFrameView(FRAMES.frame(0));
+
+        component.onTick(currentFrame, FRAMES, 1);
+        component.onTick(currentFrame, FRAMES, 3);
+        component.onClose(currentFrame, FRAMES);
+        writer.close();
+
+        assertEquals(List.of("tick 1", "tick 3", "close"), calls);
+
+        TickTraceReader reader = new TickTraceReader(new ByteArrayInputStream(output.toByteArray()));
+        TickRecord first = reader.next().orElseThrow();
+        assertEquals(metadata.textureId(), first.textureId());
+        assertEquals(1, first.ticks());
+        assertEquals(Optional.of(1200L), first.time());
+
+        TickRecord second = reader.next().orElseThrow();
+        assertEquals(3, second.ticks());
+        assertEquals(Optional.of(1200L), second.time());
+
+        TickRecord close = reader.next().orElseThrow();
+        assertEquals(metadata.textureId(), close.textureId());
+        assertTrue(close.isClose());
+        assertFalse(reader.next().isPresent());
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.trace;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Tests the {@link TickTraceReader}.
+ * @author soir20
+ */
+public final class TickTraceReaderTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullInput_NullPointerException() throws IOException {
+        expectedException.expect(NullPointerException.class);
+        new TickTraceReader(null);
+    }
+
+    @Test
+    public void construct_EmptyInput_IOException() throws IOException {
+        expectedException.expect(IOException.class);
+        new TickTraceReader(new ByteArrayInputStream(new byte[0]));
+    }
+
+    @Test
+    public void construct_WrongMagic_IOException() throws IOException {
+        expectedException.expect(IOException.class);
+        new TickTraceReader(new ByteArrayInputStream(new byte[] { 0x50, 0x4B, 0x03, 0x04, 1 }));
+    }
+
+    @Test
+    public void construct_WrongVersion_IOException() throws IOException {
+        byte[] trace = writeTrace();
+        trace[4] = 2;
+
+        expectedException.expect(IOException.class);
+        new TickTraceReader(new ByteArrayInputStream(trace));
+    }
+
+    @Test
+    public void next_TruncatedRecord_IOException() throws IOException {
+        byte[] trace = writeTrace();
+        TickTraceReader reader = new TickTraceReader(new ByteArrayInputStream(Arrays.copyOf(trace, trace.length - 1)));
+
+        expectedException.expect(IOException.class);
+        reader.next();
+    }
+
+    /**
+     * Writes a trace with a single tick.
+     * @return the trace's bytes
+     * @throws IOException if the trace cannot be written
+     */
+    private static byte[] writeTrace() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TickTraceWriter writer = new TickTraceWriter(output);
+        writer.recordTick(1, 1, Optional.of(1000L));
+        writer.close();
+        return output.toByteArray();
+    }
+
+}
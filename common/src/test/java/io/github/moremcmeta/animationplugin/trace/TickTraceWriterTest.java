@@ -0,0 +1,171 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.trace;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link TickTraceWriter} and that its traces are read back by the {@link TickTraceReader}.
+ * @author soir20
+ */
+public final class TickTraceWriterTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullOutput_NullPointerException() throws IOException {
+        expectedException.expect(NullPointerException.class);
+        new TickTraceWriter(null);
+    }
+
+    @Test
+    public void recordTick_NegativeTicks_IllegalArgException() throws IOException {
+        TickTraceWriter writer = new TickTraceWriter(new ByteArrayOutputStream());
+
+        expectedException.expect(IllegalArgumentException.class);
+        writer.recordTick(1, -1, Optional.empty());
+    }
+
+    @Test
+    public void recordTick_NullTime_NullPointerException() throws IOException {
+        TickTraceWriter writer = new TickTraceWriter(new ByteArrayOutputStream());
+
+        expectedException.expect(NullPointerException.class);
+        writer.recordTick(1, 1, null);
+    }
+
+    @Test
+    public void close_NoRecords_EmptyTraceRead() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new TickTraceWriter(output).close();
+
+        TickTraceReader reader = new TickTraceReader(new ByteArrayInputStream(output.toByteArray()));
+        assertFalse(reader.next().isPresent());
+    }
+
+    @Test
+    public void recordTick_TicksWithoutTime_SameTicksRead() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TickTraceWriter writer = new TickTraceWriter(output);
+        writer.recordTick(3, 1, Optional.empty());
+        writer.recordTick(3, 5, Optional.empty());
+        writer.close();
+
+        TickTraceReader reader = new TickTraceReader(new ByteArrayInputStream(output.toByteArray()));
+        assertRecord(reader.next(), 3, 1, Optional.empty(), false);
+        assertRecord(reader.next(), 3, 5, Optional.empty(), false);
+        assertFalse(reader.next().isPresent());
+    }
+
+    @Test
+    public void recordTick_TicksWithTime_SameTimesRead() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TickTraceWriter writer = new TickTraceWriter(output);
+        writer.recordTick(1, 1, Optional.of(6000L));
+        writer.recordTick(2, 1, Optional.of(23999L));
+        writer.recordTick(1, 1, Optional.of(6001L));
+        writer.recordTick(2, 1, Optional.of(0L));
+        writer.recordTick(1, 2, Optional.of(5990L));
+        writer.close();
+
+        TickTraceReader reader = new TickTraceReader(new ByteArrayInputStream(output.toByteArray()));
+        assertRecord(reader.next(), 1, 1, Optional.of(6000L), false);
+        assertRecord(reader.next(), 2, 1, Optional.of(23999L), false);
+        assertRecord(reader.next(), 1, 1, Optional.of(6001L), false);
+        assertRecord(reader.next(), 2, 1, Optional.of(0L), false);
+        assertRecord(reader.next(), 1, 2, Optional.of(5990L), false);
+        assertFalse(reader.next().isPresent());
+    }
+
+    @Test
+    public void recordTick_SteadyTime_OneByteTimeCode() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TickTraceWriter writer = new TickTraceWriter(output);
+        writer.recordTick(1, 1, Optional.of(100L));
+        int sizeAfterFirst = output.size();
+        writer.close();
+        int headerAndFirst = output.toByteArray().length;
+
+        output = new ByteArrayOutputStream();
+        writer = new TickTraceWriter(output);
+        writer.recordTick(1, 1, Optional.of(100L));
+        writer.recordTick(1, 1, Optional.of(101L));
+        writer.close();
+
+        assertEquals(0, sizeAfterFirst);
+        assertEquals(headerAndFirst + 3, output.toByteArray().length);
+    }
+
+    @Test
+    public void recordClose_TextureClosed_CloseRead() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TickTraceWriter writer = new TickTraceWriter(output);
+        writer.recordTick(300, 1, Optional.of(50L));
+        writer.recordClose(300);
+        writer.recordTick(301, 1, Optional.of(50L));
+        writer.close();
+
+        TickTraceReader reader = new TickTraceReader(new ByteArrayInputStream(output.toByteArray()));
+        assertRecord(reader.next(), 300, 1, Optional.of(50L), false);
+        assertRecord(reader.next(), 300, 0, Optional.empty(), true);
+        assertRecord(reader.next(), 301, 1, Optional.of(50L), false);
+        assertFalse(reader.next().isPresent());
+    }
+
+    @Test
+    public void recordTick_AfterClose_NothingWritten() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TickTraceWriter writer = new TickTraceWriter(output);
+        writer.close();
+        int size = output.size();
+
+        writer.recordTick(1, 1, Optional.empty());
+        writer.recordClose(1);
+        writer.close();
+
+        assertEquals(size, output.size());
+    }
+
+    /**
+     * Checks that a record has the expected values.
+     * @param record            record to check
+     * @param textureId         expected texture ID
+     * @param ticks             expected ticks
+     * @param time              expected time
+     * @param isClose           whether the record should be a close
+     */
+    private static void assertRecord(Optional<TickRecord> record, long textureId, int ticks, Optional<Long> time,
+                                     boolean isClose) {
+        assertTrue(record.isPresent());
+        assertEquals(textureId, record.get().textureId());
+        assertEquals(ticks, record.get().ticks());
+        assertEquals(time, record.get().time());
+        assertEquals(isClose, record.get().isClose());
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import io.github.moremcmeta.moremcmeta.api.client.texture.Color;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Mixes runs of colors several pixels at a time with the incubating Vector API. Each channel is unpacked
+ * into double lanes and mixed with the same operations in the same order as {@link RGBAInterpolator}, so
+ * the results are identical to the scalar path.
+ *
+ * This class must only be loaded through {@link VectorSupport}, which checks that the Vector API module
+ * is present first.
+ * @author soir20
+ */
+final class VectorRowMixer implements RowMixer {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(
+            int.class,
+            VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2)
+    );
+    private static final int MIN_LANES = 2;
+    private static final int MIN_JAVA_VERSION = 21;
+    private static final int RED_SHIFT = Integer.numberOfTrailingZeros(Color.pack(1, 0, 0, 0));
+    private static final int GREEN_SHIFT = Integer.numberOfTrailingZeros(Color.pack(0, 1, 0, 0));
+    private static final int BLUE_SHIFT = Integer.numberOfTrailingZeros(Color.pack(0, 0, 1, 0));
+    private static final int ALPHA_SHIFT = Integer.numberOfTrailingZeros(Color.pack(0, 0, 0, 1));
+    private static final int CHANNEL_MASK = 0xFF;
+
+    private final boolean SMOOTH_ALPHA;
+
+    /**
+     * Checks whether this mixer will be faster than the scalar path. Without hardware support, the Vector
+     * API falls back to a much slower implementation. Java 17 does not compile the int/double lane
+     * conversions to vector instructions either, which makes this mixer about twice as slow as the scalar
+     * path there, while Java 21 makes it several times faster.
+     * @return whether this mixer should be used
+     */
+    static boolean isSupported() {
+        return Runtime.version().feature() >= MIN_JAVA_VERSION
+                && INTS.length() >= MIN_LANES
+                && INTS.length() == DOUBLES.length();
+    }
+
+    /**
+     * Creates a new vector mixer.
+     * @param smoothAlpha       whether to mix alpha like the other channels instead of keeping the start
+     *                          color's alpha
+     */
+    VectorRowMixer(boolean smoothAlpha) {
+        SMOOTH_ALPHA = smoothAlpha;
+    }
+
+    @Override
+    public int mix(double startProportion, int[] start, int[] end, int[] output, int offset, int length) {
+        DoubleVector startWeight = DoubleVector.broadcast(DOUBLES, startProportion);
+        DoubleVector endWeight = DoubleVector.broadcast(DOUBLES, 1.0 - startProportion);
+        int mixed = INTS.loopBound(length);
+
+        for (int index = offset; index < offset + mixed; index += INTS.length()) {
+            IntVector startColors = IntVector.fromArray(INTS, start, index);
+            IntVector endColors = IntVector.fromArray(INTS, end, index);
+
+            IntVector alpha;
+            if (SMOOTH_ALPHA) {
+                alpha = mixChannel(startColors, endColors, ALPHA_SHIFT, startWeight, endWeight);
+            } else {
+                alpha = startColors.and(CHANNEL_MASK << ALPHA_SHIFT);
+            }
+
+            mixChannel(startColors, endColors, RED_SHIFT, startWeight, endWeight)
+                    .or(mixChannel(startColors, endColors, GREEN_SHIFT, startWeight, endWeight))
+                    .or(mixChannel(startColors, endColors, BLUE_SHIFT, startWeight, endWeight))
+                    .or(alpha)
+                    .intoArray(output, index);
+        }
+
+        return mixed;
+    }
+
+    /**
+     * Mixes one channel of several colors at once.
+     * @param startColors       colors to start interpolation from
+     * @param endColors         colors to end interpolation at
+     * @param shift             position of the channel in a packed color
+     * @param startWeight       proportion of start color to mix in every lane
+     * @param endWeight         proportion of end color to mix in every lane
+     * @return the mixed channel, shifted back into its position in a packed color
+     */
+    private static IntVector mixChannel(IntVector startColors, IntVector endColors, int shift,
+                                        DoubleVector startWeight, DoubleVector endWeight) {
+        DoubleVector startChannel = (DoubleVector) startColors.lanewise(VectorOperators.LSHR, shift)
+                .and(CHANNEL_MASK)
+                .convertShape(VectorOperators.I2D, DOUBLES, 0);
+        DoubleVector endChannel = (DoubleVector) endColors.lanewise(VectorOperators.LSHR, shift)
+                .and(CHANNEL_MASK)
+                .convertShape(VectorOperators.I2D, DOUBLES, 0);
+
+        DoubleVector mixed = startWeight.mul(startChannel).add(endWeight.mul(endChannel));
+        return ((IntVector) mixed.convertShape(VectorOperators.D2I, INTS, 0)).lanewise(VectorOperators.LSHL, shift);
+    }
+
+}
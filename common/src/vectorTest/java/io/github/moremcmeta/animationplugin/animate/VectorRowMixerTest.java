@@ -0,0 +1,100 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture configuration capabilities.
+ * Copyright (C) 2023 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.moremcmeta.animationplugin.animate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the {@link VectorRowMixer}. These tests are skipped when the Vector API module is not loaded. They
+ * still run on Java versions where the mixer is not used, since its results must be correct everywhere.
+ * @author soir20
+ */
+public final class VectorRowMixerTest {
+    private static final int[] LENGTHS = { 0, 1, 3, 7, 16, 17, 61, 256 };
+
+    @Before
+    public void setUp() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+    }
+
+    @Test
+    public void mix_DefaultAlpha_SameAsScalar() {
+        assertSameAsScalar(new VectorRowMixer(false), new DefaultAlphaInterpolator());
+    }
+
+    @Test
+    public void mix_SmoothAlpha_SameAsScalar() {
+        assertSameAsScalar(new VectorRowMixer(true), new SmoothAlphaInterpolator());
+    }
+
+    @Test
+    public void mix_OutputIsStart_SameAsScalar() {
+        Random random = new Random(7);
+        int[] start = random.ints(40).toArray();
+        int[] end = random.ints(40).toArray();
+        int[] expected = new int[40];
+        SmoothAlphaInterpolator interpolator = new SmoothAlphaInterpolator();
+        for (int index = 0; index < 40; index++) {
+            expected[index] = interpolator.interpolate(9, 4, start[index], end[index]);
+        }
+
+        interpolator.interpolate(9, 4, start, end, start, 0, 40);
+
+        assertArrayEquals(expected, start);
+    }
+
+    /**
+     * Checks that a vector mixer gives the same colors as mixing them one at a time with an interpolator,
+     * for runs of several lengths, offsets, and steps.
+     * @param mixer             vector mixer to check
+     * @param interpolator      interpolator with the same alpha behavior
+     */
+    private static void assertSameAsScalar(VectorRowMixer mixer, RGBAInterpolator interpolator) {
+        Random random = new Random(20);
+
+        for (int length : LENGTHS) {
+            for (int offset = 0; offset < 3; offset++) {
+                int[] start = random.ints(offset + length).toArray();
+                int[] end = random.ints(offset + length).toArray();
+
+                for (int step = 0; step < 11; step++) {
+                    int[] expected = new int[offset + length];
+                    for (int index = offset; index < offset + length; index++) {
+                        expected[index] = interpolator.interpolate(11, step, start[index], end[index]);
+                    }
+
+                    int[] actual = new int[offset + length];
+                    double startProportion = 1.0 - (step / 11.0);
+                    int mixed = mixer.mix(startProportion, start, end, actual, offset, length);
+                    for (int index = offset + mixed; index < offset + length; index++) {
+                        actual[index] = interpolator.interpolate(11, step, start[index], end[index]);
+                    }
+
+                    assertArrayEquals(expected, actual);
+                }
+            }
+        }
+    }
+
+}